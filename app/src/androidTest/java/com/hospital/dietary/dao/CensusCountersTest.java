@@ -0,0 +1,133 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the trigger-kept census counters always agree with counting patient_info.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CensusCountersTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private PatientDAO patientDAO;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        patientDAO = dbHelper.getPatientDAO();
+        db = dbHelper.getWritableDatabase();
+    }
+
+    @Test
+    public void insertsAndMealFlags_counted() {
+        long ann = insertPatient("Ann", "1 South", true);
+        insertPatient("Bob", "1 South", false);
+        insertPatient("Cal", "2 North", false);
+
+        Patient patient = patientDAO.getPatientById(ann);
+        patient.setBreakfastComplete(true);
+        patient.setLunchComplete(true);
+        patient.setDinnerComplete(true);
+        patient.setDinnerNPO(true);
+        patientDAO.updatePatient(patient);
+
+        assertEquals(2, counter("patients", "1 South"));
+        assertEquals(1, counter("ada_diet", "1 South"));
+        assertEquals(1, counter("all_complete", "1 South"));
+        assertEquals(1, counter("dinner_npo", "1 South"));
+        assertEquals(1, counter("patients", "2 North"));
+        assertCountsMatch();
+    }
+
+    @Test
+    public void wingMoveAndDelete_leaveNoEmptyRows() {
+        long ann = insertPatient("Ann", "1 South", false);
+        long bob = insertPatient("Bob", "2 North", false);
+
+        Patient patient = patientDAO.getPatientById(ann);
+        patient.setWing("2 North");
+        patientDAO.updatePatient(patient);
+
+        // 1 South emptied out
+        assertEquals(1, DatabaseUtils.queryNumEntries(db, "census_counter"));
+        assertEquals(2, counter("patients", "2 North"));
+
+        patientDAO.deletePatient(bob);
+        patientDAO.deletePatient(ann);
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "census_counter"));
+    }
+
+    @Test
+    public void queuedTapsAndRollover_counted() {
+        long ann = insertPatient("Ann", "1 South", false);
+        insertPatient("Bob", "1 South", false);
+
+        MealStatusQueue queue = dbHelper.getMealStatusQueue();
+        queue.setMealComplete(ann, "breakfast", true);
+        queue.setMealComplete(ann, "lunch", true);
+        queue.setMealComplete(ann, "dinner", true);
+        queue.flushNow();
+        assertEquals(1, counter("all_complete", "1 South"));
+
+        long now = System.currentTimeMillis();
+        patientDAO.rollOverDailyOrders(now + 1, now + 2, now);
+        assertEquals(0, counter("all_complete", "1 South"));
+        assertCountsMatch();
+    }
+
+    @Test
+    public void bulkSqlAndMissingWing_counted() {
+        insertPatient("Ann", null, false);
+        insertPatient("Bob", "1 South", false);
+        db.execSQL("UPDATE patient_info SET discharged = 1");
+
+        assertEquals(1, counter("patients", ""));
+        assertEquals(2, DatabaseUtils.longForQuery(db, "SELECT SUM(discharged) FROM census_counter", null));
+        assertCountsMatch();
+    }
+
+    private long insertPatient(String firstName, String wing, boolean ada) {
+        Patient patient = TestDatabase.newPatient(firstName, wing, "101");
+        patient.setAdaDiet(ada);
+        return database.insertPatient(patient);
+    }
+
+    private long counter(String column, String wing) {
+        return DatabaseUtils.longForQuery(db,
+                "SELECT " + column + " FROM census_counter WHERE wing = ?", new String[]{wing});
+    }
+
+    // The totals the COUNT queries used to give
+    private void assertCountsMatch() {
+        assertEquals(DatabaseUtils.queryNumEntries(db, "patient_info"),
+                sum("patients"));
+        assertEquals(DatabaseUtils.queryNumEntries(db, "patient_info", "ada_diet = 1"),
+                sum("ada_diet"));
+        assertEquals(DatabaseUtils.queryNumEntries(db, "patient_info", "breakfast_complete = 1"),
+                sum("breakfast_complete"));
+        assertEquals(DatabaseUtils.queryNumEntries(db, "patient_info",
+                "breakfast_complete = 1 AND lunch_complete = 1 AND dinner_complete = 1"),
+                sum("all_complete"));
+    }
+
+    private long sum(String column) {
+        return DatabaseUtils.longForQuery(db, "SELECT IFNULL(SUM(" + column + "), 0) FROM census_counter", null);
+    }
+}
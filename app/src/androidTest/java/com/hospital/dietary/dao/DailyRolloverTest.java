@@ -0,0 +1,125 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.DefaultMenuItem;
+import com.hospital.dietary.models.Patient;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the daily rollover starts each meal from the default menu for its diet and day.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DailyRolloverTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private PatientDAO patientDAO;
+    private long startOfToday;
+    private long now;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        patientDAO = dbHelper.getPatientDAO();
+
+        // Wednesday 14 October 2026, mid-morning
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(2026, Calendar.OCTOBER, 14);
+        startOfToday = calendar.getTimeInMillis();
+        now = startOfToday + 10 * 60 * 60 * 1000L;
+
+        saveMenu("Test Soft", "Breakfast", "Wednesday", "Oatmeal", "Oatmeal", "Apple Juice");
+        saveMenu("Test Soft", "Lunch", "Wednesday", "Broth");
+        saveMenu("Test Renal", "Lunch", "Wednesday", "Rice");
+        saveMenu("Test Soft", "Dinner", "Thursday", "Pasta");
+    }
+
+    @Test
+    public void rollover_appliesMenuForMealDietAndDay() {
+        long ann = insertPatient("Ann", "Test Soft", null);
+        long bob = insertPatient("Bob", "Test Soft", "Test Renal");
+
+        PatientDAO.RolloverResult result = patientDAO.rollOverDailyOrders(startOfToday,
+                startOfToday + 24 * 60 * 60 * 1000L, now);
+        assertEquals(2, result.getCreatedCount());
+
+        Patient patient = patientDAO.getPatientById(ann);
+        assertEquals("Oatmeal, Oatmeal, Apple Juice", patient.getBreakfastItems());
+        assertEquals("Broth", patient.getLunchItems());
+        // Thursday's dinner is not today's
+        assertEquals("Stale dinner", patient.getDinnerItems());
+
+        // Lunch follows the lunch diet
+        assertEquals("Rice", patientDAO.getPatientById(bob).getLunchItems());
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        assertEquals(2, DatabaseUtils.longForQuery(db, "SELECT quantity FROM patient_meal_selection " +
+                "WHERE patient_id = ? AND service_date = '2026-10-14' AND meal = 'Breakfast' " +
+                "AND item_name = 'Oatmeal'", new String[]{String.valueOf(ann)}));
+        assertEquals(6, DatabaseUtils.queryNumEntries(db, "patient_meal_selection",
+                "service_date = '2026-10-14'"));
+    }
+
+    @Test
+    public void rolledOverPatients_onlyThoseStampedNow() {
+        long ann = insertPatient("Ann", "Test Soft", null);
+        long tomorrow = startOfToday + 24 * 60 * 60 * 1000L;
+        patientDAO.rollOverDailyOrders(startOfToday, tomorrow, now);
+
+        // A patient admitted later in the day is not rolled over, and Ann is not redone
+        long bob = insertPatient("Bob", "Test Soft", null);
+        dbHelper.getWritableDatabase().execSQL("UPDATE patient_info SET order_date = ? WHERE patient_id = ?",
+                new Object[]{now + 1000, bob});
+        assertEquals(0, patientDAO.rollOverDailyOrders(startOfToday, tomorrow, now + 2000).getCreatedCount());
+
+        assertEquals("Broth", patientDAO.getPatientById(ann).getLunchItems());
+        assertEquals("Stale lunch", patientDAO.getPatientById(bob).getLunchItems());
+    }
+
+    private long insertPatient(String firstName, String diet, String lunchDiet) {
+        Patient patient = TestDatabase.newPatient(firstName, "1 South", "101");
+        patient.setDiet(diet);
+        patient.setLunchDiet(lunchDiet);
+        patient.setBreakfastItems("Stale breakfast");
+        patient.setLunchItems("Stale lunch");
+        patient.setDinnerItems("Stale dinner");
+        long patientId = database.insertPatient(patient);
+
+        // Yesterday's orders
+        dbHelper.getWritableDatabase().execSQL("UPDATE patient_info SET order_date = ? WHERE patient_id = ?",
+                new Object[]{startOfToday - 1000, patientId});
+        return patientId;
+    }
+
+    private void saveMenu(String diet, String meal, String day, String... itemNames) {
+        List<DefaultMenuItem> items = new ArrayList<>();
+        for (String itemName : itemNames) {
+            DefaultMenuItem item = new DefaultMenuItem();
+            item.setDietType(diet);
+            item.setMealType(meal);
+            item.setDayOfWeek(day);
+            item.setCategory("Entrees");
+            item.setItemName(itemName);
+            items.add(item);
+        }
+        assertTrue(dbHelper.getDefaultMenuDAO().saveDefaultMenuItems(diet, meal, day, items));
+    }
+}
@@ -0,0 +1,338 @@
+package com.hospital.dietary.dao;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the version 13 and later indexes back the DAO queries, using EXPLAIN QUERY PLAN
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseIndexTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private SQLiteDatabase db;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        db = dbHelper.getWritableDatabase();
+    }
+
+    @Test
+    public void patientListQueries_useLocationIndexes() {
+        List<String> plan = explain(PatientDAO.QUERY_ALL_PATIENTS);
+        assertUsesIndex(plan, "idx_patient_info_location");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_ACTIVE_PATIENTS);
+        assertUsesIndex(plan, "idx_patient_info_discharged");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_DISCHARGED_PATIENTS);
+        assertUsesIndex(plan, "idx_patient_info_discharged");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_PENDING_PATIENTS);
+        assertNoFullScan(plan, "patient_info");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_COMPLETED_PATIENTS);
+        assertUsesIndex(plan, "idx_patient_info_completion");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_PATIENTS_BY_WING, "1 South");
+        assertUsesIndex(plan, "idx_patient_info_location");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_ROOM_OCCUPIED, "1 South", "102");
+        assertNoFullScan(plan, "patient_info");
+    }
+
+    @Test
+    public void patientSummaryQueries_useLocationIndexes() {
+        List<String> plan = explain(PatientDAO.QUERY_ACTIVE_SUMMARIES);
+        assertUsesIndex(plan, "idx_patient_info_discharged");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_PENDING_SUMMARIES);
+        assertNoFullScan(plan, "patient_info");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_COMPLETED_SUMMARIES);
+        assertUsesIndex(plan, "idx_patient_info_completion");
+        assertNoOrderBySort(plan);
+    }
+
+    @Test
+    public void retiredOrders_readOneDateFromArchiveIndex() {
+        List<String> plan = explain(RetiredOrderDAO.QUERY_RETIRED_SUMMARIES, "2026-10-16");
+        assertUsesIndex(plan, "idx_retired_order_date");
+        assertNoOrderBySort(plan);
+
+        assertUsesIndex(explain(RetiredOrderDAO.QUERY_RETIRED_ORDER, "2026-10-16", "7"), "idx_retired_order_patient");
+    }
+
+    @Test
+    public void finalizedOrders_readOneDateFromDateIndex() {
+        List<String> plan = explain(FinalizedOrderDAO.QUERY_FINALIZED_ORDERS_BY_DATE, "2026-10-16");
+        assertUsesIndex(plan, "idx_finalized_order_date");
+        assertUsesIndex(plan, "idx_finalized_order_archive_date");
+        assertNoOrderBySort(plan);
+
+        plan = explain(FinalizedOrderDAO.QUERY_FINALIZED_ORDER, "7");
+        assertNoFullScan(plan, "finalized_order");
+        assertUsesIndex(plan, "idx_finalized_order_archive_order");
+    }
+
+    @Test
+    public void censusPages_seekOnDischargedIndex() {
+        List<String> plan = explain(PatientDAO.QUERY_CENSUS_PAGE, "1 South", "102", "7", "50");
+        assertUsesIndex(plan, "idx_patient_info_discharged");
+        assertNoOrderBySort(plan);
+
+        plan = explain(PatientDAO.QUERY_CENSUS_RANGE, "1 South", "102", "7", "2 North", "210", "40");
+        assertUsesIndex(plan, "idx_patient_info_discharged");
+        assertNoOrderBySort(plan);
+    }
+
+    @Test
+    public void patientFilterQueries_avoidSorting() {
+        // Neither predicate is indexable, but the rows still come back in location order
+        assertNoOrderBySort(explain(PatientDAO.QUERY_RETIRED_PATIENTS, "0"));
+    }
+
+    @Test
+    public void patientSearch_drivesFromFullTextIndex() {
+        List<String> plan = explain(PatientDAO.QUERY_SEARCH_PATIENTS, "smi*");
+        assertRowidLookup(plan, "patient_info");
+        assertNoFullScan(plan, "patient_info");
+
+        plan = explain(PatientDAO.QUERY_SEARCH_SUMMARIES, "smi* 1*");
+        assertRowidLookup(plan, "patient_info");
+        assertNoFullScan(plan, "patient_info");
+    }
+
+    @Test
+    public void patientSearch_followsPatientWrites() {
+        PatientDAO patientDAO = dbHelper.getPatientDAO();
+        db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet) " +
+                "VALUES (1, 'Ann', 'Smith', '1 South', '102', 'Regular')");
+        db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet) " +
+                "VALUES (2, 'Bob', 'Jones', '2 North', '201', 'ADA')");
+
+        assertEquals(1, patientDAO.searchActivePatientSummaries("smi").size());
+        assertEquals(1, patientDAO.searchActivePatientSummaries("ann SOUTH 10").size());
+        assertEquals(2, patientDAO.searchActivePatientSummaries("").size());
+
+        db.execSQL("UPDATE patient_info SET patient_last_name = 'Baker' WHERE patient_id = 1");
+        assertEquals(0, patientDAO.searchActivePatientSummaries("smi").size());
+        assertEquals(1, patientDAO.searchActivePatientSummaries("bak").size());
+
+        // Flag updates leave the index alone; discharge drops the row from the active search
+        db.execSQL("UPDATE patient_info SET discharged = 1 WHERE patient_id = 1");
+        assertEquals(0, patientDAO.searchActivePatientSummaries("bak").size());
+        assertEquals(1, patientDAO.searchPatientsByName("bak").size());
+
+        db.execSQL("DELETE FROM patient_info WHERE patient_id = 1");
+        assertEquals(0, patientDAO.searchPatientsByName("bak").size());
+    }
+
+    @Test
+    public void patientsByIds_keepGivenOrder() {
+        for (long patientId = 1; patientId <= 4; patientId++) {
+            db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet) " +
+                    "VALUES (?, 'First', 'Last', '1 South', ?, 'Regular')", new Object[]{patientId, String.valueOf(100 + patientId)});
+        }
+
+        // Print order is the caller's, and ids no longer on file are skipped
+        long[] ids = {3, 9, 1, 4, 2};
+        List<Patient> patients = dbHelper.getPatientDAO().getPatientsByIds(ids, 0, 4);
+        assertEquals(3, patients.size());
+        assertEquals(3, patients.get(0).getPatientId());
+        assertEquals(1, patients.get(1).getPatientId());
+        assertEquals(4, patients.get(2).getPatientId());
+        assertTrue(dbHelper.getPatientDAO().getPatientsByIds(ids, 2, 2).isEmpty());
+    }
+
+    @Test
+    public void matchQuery_prefixesEveryWord() {
+        assertEquals("smi*", PatientSearchIndex.matchQuery("Smi"));
+        assertEquals("o* br* 1* south*", PatientSearchIndex.matchQuery("  O'Br, 1-South "));
+        assertEquals("ann* or* bob*", PatientSearchIndex.matchQuery("Ann OR Bob"));
+        assertNull(PatientSearchIndex.matchQuery(" *\"-"));
+    }
+
+    @Test
+    public void searchKey_narrowsLikeIndex() {
+        db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet) " +
+                "VALUES (1, 'Ann', 'O''Brien', '1 South', '12A', 'Regular')");
+        List<PatientSummary> found = dbHelper.getPatientDAO().searchActivePatientSummaries("bri");
+        assertEquals(1, found.size());
+
+        String key = found.get(0).getSearchKey();
+        assertTrue(PatientSearchIndex.matches(key, PatientSearchIndex.words("bri 12a so")));
+        assertFalse(PatientSearchIndex.matches(key, PatientSearchIndex.words("rien")));
+
+        assertTrue(PatientSearchIndex.narrows(PatientSearchIndex.words("an"), PatientSearchIndex.words("ann so")));
+        assertFalse(PatientSearchIndex.narrows(PatientSearchIndex.words("ann so"), PatientSearchIndex.words("ann")));
+        assertFalse(PatientSearchIndex.narrows(PatientSearchIndex.words("ann"), PatientSearchIndex.words("an")));
+    }
+
+    @Test
+    public void orderQueries_useOrderIndexes() {
+        List<String> plan = explain(OrderDAO.QUERY_ORDERS_BY_PATIENT, "1");
+        assertUsesIndex(plan, "idx_meal_orders_patient_date");
+        assertNoOrderBySort(plan);
+
+        // One day's orders are sorted by location after the range lookup
+        plan = explain(OrderDAO.QUERY_DAILY_REPORT, "2025-07-15", "2025-07-15");
+        assertUsesIndex(plan, "idx_meal_orders_date");
+        assertNoFullScan(plan, "meal_orders", "o");
+
+        plan = explain(OrderDAO.QUERY_ORDERS_BY_DATE, "2025-07-15", "2025-07-15");
+        assertUsesIndex(plan, "idx_meal_orders_date");
+        assertNoFullScan(plan, "meal_orders", "o");
+
+        plan = explain(OrderDAO.QUERY_PATIENT_ORDER_BOARD,
+                "2025-07-15", "2025-07-15", "2025-07-15", "2025-07-15");
+        assertUsesIndex(plan, "idx_meal_orders_date");
+        assertUsesIndex(plan, "idx_order_items_order");
+        assertNoFullScan(plan, "meal_orders", "mo", "order_items", "oi");
+        assertNoOrderBySort(plan);
+    }
+
+    @Test
+    public void mealTotals_groupOnSelectionIndex() {
+        List<String> plan = explain(MealSelectionDAO.QUERY_MEAL_TOTALS, "2025-07-15", "Breakfast");
+        assertUsesIndex(plan, "idx_meal_selection_totals");
+        assertNoFullScan(plan, "patient_meal_selection", "s");
+        for (String detail : plan) {
+            assertFalse("Unexpected sort in plan " + plan, detail.contains("TEMP B-TREE"));
+        }
+
+        // Grouping on the patient's diet and texture flags still needs a sorter
+        plan = explain(MealSelectionDAO.QUERY_PRODUCTION_SHEET, "2025-07-15", "Lunch");
+        assertUsesIndex(plan, "idx_meal_selection_totals");
+        assertNoFullScan(plan, "patient_meal_selection", "s");
+    }
+
+    @Test
+    public void galleyStock_readsRollupInKeyOrder() {
+        List<String> plan = explain(GalleyStockDAO.QUERY_FORECAST, "202507150", "202507152");
+        for (String detail : plan) {
+            assertFalse("Unexpected sort in plan " + plan, detail.contains("TEMP B-TREE"));
+        }
+
+        plan = explain(GalleyStockDAO.INSERT_FORECAST,
+                "1 South", "202507150", "2025-07-15", "Breakfast", "Tuesday", "2025-07-01");
+        assertUsesIndex(plan, "idx_meal_selection_totals");
+        assertUsesIndex(plan, "idx_default_menu_lookup");
+        assertNoFullScan(plan, "patient_info", "p", "patient_meal_selection", "s", "default_menu", "d");
+    }
+
+    @Test
+    public void galleyStock_patientChangeMarksWingStale() {
+        db.execSQL("INSERT INTO patient_info (patient_id, wing, room_number) VALUES (1, '1 South', '101')");
+        db.execSQL("INSERT INTO galley_stock_refresh (wing, refreshed_date) VALUES ('1 South', '2025-07-15')");
+        db.execSQL("INSERT INTO galley_stock_refresh (wing, refreshed_date) VALUES ('2 North', '2025-07-15')");
+
+        db.execSQL("UPDATE patient_info SET lunch_npo = 1 WHERE patient_id = 1");
+
+        Cursor cursor = db.rawQuery("SELECT wing FROM galley_stock_refresh", null);
+        assertTrue(cursor.moveToFirst());
+        assertEquals("2 North", cursor.getString(0));
+        assertFalse(cursor.moveToNext());
+        cursor.close();
+    }
+
+    @Test
+    public void catalogLoad_readsItemsInIndexOrder() {
+        List<String> plan = explain(ItemDAO.QUERY_ALL_ITEMS);
+        assertUsesIndex(plan, "idx_items_category_name");
+        assertNoOrderBySort(plan);
+    }
+
+    @Test
+    public void roomSort_followsRoomNumber() {
+        db.execSQL("INSERT INTO patient_info (patient_id, wing, room_number) VALUES (1, '1 South', '12A')");
+        assertEquals(12, roomSort(1));
+
+        db.execSQL("UPDATE patient_info SET room_number = '104' WHERE patient_id = 1");
+        assertEquals(104, roomSort(1));
+    }
+
+    private long roomSort(long patientId) {
+        Cursor cursor = db.rawQuery("SELECT room_sort FROM patient_info WHERE patient_id = ?",
+                new String[]{String.valueOf(patientId)});
+        assertTrue(cursor.moveToFirst());
+        long value = cursor.getLong(0);
+        cursor.close();
+        return value;
+    }
+
+    private List<String> explain(String sql, String... args) {
+        List<String> plan = new ArrayList<>();
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        int detailIndex = cursor.getColumnIndexOrThrow("detail");
+        while (cursor.moveToNext()) {
+            plan.add(cursor.getString(detailIndex));
+        }
+        cursor.close();
+        return plan;
+    }
+
+    private static void assertUsesIndex(List<String> plan, String indexName) {
+        for (String detail : plan) {
+            if (detail.contains("INDEX " + indexName)) {
+                return;
+            }
+        }
+        fail("Expected " + indexName + " in plan " + plan);
+    }
+
+    private static void assertRowidLookup(List<String> plan, String table) {
+        for (String detail : plan) {
+            if (detail.contains(table + " USING INTEGER PRIMARY KEY")) {
+                return;
+            }
+        }
+        fail("Expected rowid lookup of " + table + " in plan " + plan);
+    }
+
+    private static void assertNoOrderBySort(List<String> plan) {
+        for (String detail : plan) {
+            assertFalse("Unexpected sort in plan " + plan, detail.contains("TEMP B-TREE FOR ORDER BY"));
+        }
+    }
+
+    // Older SQLite prints "SCAN TABLE x [AS y]", newer prints "SCAN y"
+    private static void assertNoFullScan(List<String> plan, String... names) {
+        for (String name : names) {
+            Pattern scan = Pattern.compile("^SCAN (TABLE )?(\\w+ AS )?" + name + "\\b");
+            for (String detail : plan) {
+                boolean fullScan = scan.matcher(detail).find() && !detail.contains("USING");
+                assertFalse("Full scan of " + name + " in plan " + plan, fullScan);
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.FinalizedOrder;
+import com.hospital.dietary.models.Item;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that finalized orders round-trip through the binary order record.
+ */
+@RunWith(AndroidJUnit4.class)
+public class FinalizedOrderDAOTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private FinalizedOrderDAO finalizedOrderDAO;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        finalizedOrderDAO = dbHelper.getFinalizedOrderDAO();
+    }
+
+    @Test
+    public void order_roundTripsThroughRecord() {
+        FinalizedOrder order = newOrder("2026-10-16", "1 South", "102");
+        order.setFluidRestriction("1500ml");
+        order.setMechanicalChopped(true);
+        order.setBreadOK(true);
+        order.setBreakfastItems(Arrays.asList("Pancakes", "Coffee", "Coffee", "Pancakes"));
+        order.setBreakfastJuices(Arrays.asList("Orange Juice"));
+        order.setDinnerDrinks(Arrays.asList("Coffee"));
+
+        long orderId = finalizedOrderDAO.insertFinalizedOrder(order);
+        FinalizedOrder read = finalizedOrderDAO.getFinalizedOrderById((int) orderId);
+
+        assertEquals("1500ml", read.getFluidRestriction());
+        assertTrue(read.isMechanicalChopped());
+        assertFalse(read.isMechanicalGround());
+        assertTrue(read.isBreadOK());
+        assertEquals(order.getBreakfastItems(), read.getBreakfastItems());
+        assertEquals(order.getBreakfastJuices(), read.getBreakfastJuices());
+        assertEquals(order.getDinnerDrinks(), read.getDinnerDrinks());
+        assertNull(read.getLunchItems());
+
+        // Each name is decoded once per record, not per item
+        assertSame(read.getBreakfastItems().get(1), read.getDinnerDrinks().get(0));
+    }
+
+    @Test
+    public void record_storesEachNameOnce() {
+        FinalizedOrder order = newOrder("2026-10-16", "1 South", "102");
+        order.setLunchItems(Arrays.asList("Orange Juice", "Orange Juice", "Orange Juice"));
+        order.setDinnerJuices(Arrays.asList("Orange Juice"));
+        long orderId = finalizedOrderDAO.insertFinalizedOrder(order);
+
+        // Version, flags, no fluid; one name with its length; 9 list counts plus two runs
+        long size = DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                "SELECT length(order_record) FROM finalized_order WHERE order_id = ?",
+                new String[]{String.valueOf(orderId)});
+        assertEquals(3 + (1 + 1 + "Orange Juice".length()) + 9 + 2 * 2, size);
+    }
+
+    @Test
+    public void catalogEdits_leavePastOrdersUnchanged() {
+        ItemDAO itemDAO = dbHelper.getItemDAO();
+        int muffinId = (int) itemDAO.insertItem(new Item("Test Muffin", "Breakfast Entrees"));
+        int cocoaId = (int) itemDAO.insertItem(new Item("Test Cocoa", "Beverages"));
+
+        FinalizedOrder order = newOrder("2026-10-16", "1 South", "102");
+        order.setBreakfastItems(Arrays.asList("Test Muffin", "Pancakes"));
+        order.setBreakfastDrinks(Arrays.asList("Test Cocoa", "Test Cocoa"));
+        long orderId = finalizedOrderDAO.insertFinalizedOrder(order);
+
+        Item muffin = itemDAO.getItemById(muffinId);
+        muffin.setItemName("Bran Muffin");
+        assertEquals(1, itemDAO.updateItem(muffin));
+        assertTrue(itemDAO.deleteItem(cocoaId));
+
+        FinalizedOrder read = finalizedOrderDAO.getFinalizedOrderById((int) orderId);
+        assertEquals(Arrays.asList("Test Muffin", "Pancakes"), read.getBreakfastItems());
+        assertEquals(Arrays.asList("Test Cocoa", "Test Cocoa"), read.getBreakfastDrinks());
+    }
+
+    @Test
+    public void namesOutsideCatalog_kept() {
+        FinalizedOrder order = newOrder("2026-10-16", "1 South", "102");
+        order.setLunchItems(Arrays.asList("Birthday Cake", "Coffee"));
+        long orderId = finalizedOrderDAO.insertFinalizedOrder(order);
+
+        assertEquals(order.getLunchItems(),
+                finalizedOrderDAO.getFinalizedOrderById((int) orderId).getLunchItems());
+    }
+
+    @Test
+    public void ordersByDate_inWingAndRoomOrder() {
+        finalizedOrderDAO.insertFinalizedOrder(newOrder("2026-10-16", "2 North", "201"));
+        finalizedOrderDAO.insertFinalizedOrder(newOrder("2026-10-16", "1 South", "102"));
+        finalizedOrderDAO.insertFinalizedOrder(newOrder("2026-10-15", "1 South", "101"));
+
+        List<FinalizedOrder> orders = finalizedOrderDAO.getFinalizedOrdersByDate("2026-10-16");
+        assertEquals(2, orders.size());
+        assertEquals("1 South", orders.get(0).getWing());
+        assertEquals("2 North", orders.get(1).getWing());
+    }
+
+    private static FinalizedOrder newOrder(String orderDate, String wing, String room) {
+        FinalizedOrder order = new FinalizedOrder();
+        order.setPatientName("Last, First");
+        order.setWing(wing);
+        order.setRoom(room);
+        order.setOrderDate(orderDate);
+        order.setDietType("Regular");
+        return order;
+    }
+}
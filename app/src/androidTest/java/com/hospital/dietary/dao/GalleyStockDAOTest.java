@@ -0,0 +1,95 @@
+package com.hospital.dietary.dao;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Item;
+import com.hospital.dietary.models.Patient;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the galley forecast weighs the wing's saved selection history per thickness.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GalleyStockDAOTest {
+
+    private static final String WING = "Galley Test Wing";
+    private static final String DRINK = "Galley Test Tea";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private GalleyStockDAO galleyStockDAO;
+    private long drinkId;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        galleyStockDAO = dbHelper.getGalleyStockDAO();
+        drinkId = dbHelper.getItemDAO().insertItem(new Item(DRINK, "Beverages"));
+    }
+
+    @Test
+    public void forecast_usesSelectionHistoryPerThickness() {
+        long ann = insertPatient("Ann", true);
+        long bob = insertPatient("Bob", false);
+
+        // Ann drank two a day for the last two weeks; the day before that is out of range
+        for (int daysAgo = 1; daysAgo <= GalleyStockDAO.HISTORY_DAYS; daysAgo++) {
+            insertSelection(ann, -daysAgo, 2);
+        }
+        insertSelection(ann, -GalleyStockDAO.HISTORY_DAYS - 1, 100);
+
+        // Today both have one planned
+        insertSelection(ann, 0, 1);
+        insertSelection(bob, 0, 1);
+
+        galleyStockDAO.refreshStaleWings();
+        List<GalleyStockDAO.StockLine> lines = drinkLines(galleyStockDAO.getForecast(0, 1));
+
+        assertEquals(2, lines.size());
+        assertEquals("", lines.get(0).getThickness());
+        assertEquals(1, lines.get(0).getQuantity());
+        // History outweighs the single planned nectar-thick drink
+        assertEquals("Nectar Thick", lines.get(1).getThickness());
+        assertEquals(2, lines.get(1).getQuantity());
+    }
+
+    private long insertPatient(String firstName, boolean nectarThick) {
+        Patient patient = TestDatabase.newPatient(firstName, WING, "101");
+        patient.setNectarThick(nectarThick);
+        return database.insertPatient(patient);
+    }
+
+    private void insertSelection(long patientId, int dayOffset, int quantity) {
+        Calendar day = Calendar.getInstance();
+        day.add(Calendar.DAY_OF_MONTH, dayOffset);
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL("INSERT INTO patient_meal_selection (patient_id, service_date, meal, item_id, item_name, quantity) " +
+                        "VALUES (?, ?, 'Breakfast', ?, ?, ?)",
+                new Object[]{patientId, MealSelectionDAO.formatServiceDate(day.getTime()), drinkId, DRINK, quantity});
+    }
+
+    private List<GalleyStockDAO.StockLine> drinkLines(List<GalleyStockDAO.StockLine> lines) {
+        List<GalleyStockDAO.StockLine> drinks = new ArrayList<>();
+        for (GalleyStockDAO.StockLine line : lines) {
+            if (WING.equals(line.getWing()) && DRINK.equals(line.getItemName())) {
+                drinks.add(line);
+            }
+        }
+        return drinks;
+    }
+}
@@ -0,0 +1,105 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that meal status taps collapse, show before they are written, and survive a killed process.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MealStatusQueueTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private PatientDAO patientDAO;
+    private MealStatusQueue queue;
+    private long patientId;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        patientDAO = dbHelper.getPatientDAO();
+        queue = dbHelper.getMealStatusQueue();
+
+        Patient patient = new Patient();
+        patient.setPatientFirstName("Ann");
+        patient.setPatientLastName("Miller");
+        patient.setWing("1 South");
+        patient.setRoomNumber("101");
+        patient.setDiet("Regular");
+        patientId = patientDAO.insertPatient(patient);
+    }
+
+    @Test
+    public void repeatedTaps_writtenOnceWithLastValue() {
+        for (int i = 0; i < 5; i++) {
+            patientDAO.updateMealComplete(patientId, "Lunch", i % 2 == 0);
+        }
+
+        // Shown at once, stored only on flush
+        assertTrue(patientDAO.getPatientById(patientId).isLunchComplete());
+        assertEquals(0, storedFlag("lunch_complete"));
+
+        assertEquals(1, queue.flushNow());
+        assertEquals(1, storedFlag("lunch_complete"));
+        assertEquals(0, queue.flushNow());
+    }
+
+    @Test
+    public void filteredReads_seeQueuedTaps() {
+        queue.setMealComplete(patientId, "breakfast", true);
+        queue.setMealComplete(patientId, "lunch", true);
+        queue.setMealComplete(patientId, "dinner", true);
+
+        assertEquals(1, patientDAO.getCompletedPatientSummaries().size());
+        assertEquals(0, patientDAO.getPendingPatientSummaries().size());
+    }
+
+    @Test
+    public void unknownMeal_notQueued() {
+        assertFalse(patientDAO.updateNPOStatus(patientId, "Brunch", true));
+        assertEquals(0, queue.flushNow());
+    }
+
+    @Test
+    public void journal_replayedAfterKill() throws Exception {
+        File journal = new File(database.getContext().getCacheDir(), "meal-status-test");
+        journal.delete();
+
+        // The journal is appended on the writer thread, well before the batch is due
+        new MealStatusQueue(dbHelper, journal).setMealNPO(patientId, "dinner", true);
+        for (int i = 0; i < 50 && journal.length() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(journal.length() > 0);
+        assertEquals(0, storedFlag("dinner_npo"));
+
+        // A new process replays the journal before anything else it queues
+        MealStatusQueue restarted = new MealStatusQueue(dbHelper, journal);
+        restarted.flushNow();
+
+        assertEquals(1, storedFlag("dinner_npo"));
+        assertFalse(journal.exists());
+    }
+
+    private long storedFlag(String column) {
+        return DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                "SELECT " + column + " FROM patient_info WHERE patient_id = ?",
+                new String[]{String.valueOf(patientId)});
+    }
+}
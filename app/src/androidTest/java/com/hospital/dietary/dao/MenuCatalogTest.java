@@ -0,0 +1,97 @@
+package com.hospital.dietary.dao;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.DefaultMenuItem;
+import com.hospital.dietary.models.Item;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the shared catalog snapshot is reused between reads and replaced after DAO writes.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MenuCatalogTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private ItemDAO itemDAO;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        itemDAO = dbHelper.getItemDAO();
+    }
+
+    @Test
+    public void reads_shareOneSnapshot() {
+        MenuCatalog first = dbHelper.getMenuCatalog();
+        itemDAO.getAllItems();
+        dbHelper.getCategoryDAO().getAllCategoriesWithCounts();
+        assertSame(first, dbHelper.getMenuCatalog());
+    }
+
+    @Test
+    public void itemWrites_replaceSnapshot() {
+        MenuCatalog before = dbHelper.getMenuCatalog();
+        int count = itemDAO.getItemCount();
+
+        Item item = new Item("Lemonade", "Beverages");
+        item.setIsAdaFriendly(1);
+        long id = itemDAO.insertItem(item);
+
+        assertNotSame(before, dbHelper.getMenuCatalog());
+        assertEquals(count + 1, itemDAO.getItemCount());
+        assertEquals("Lemonade", itemDAO.getItemById((int) id).getItemName());
+        assertTrue(itemDAO.itemExists("lemonade", "BEVERAGES"));
+
+        boolean inAdaList = false;
+        for (Item ada : itemDAO.getAdaItemsByCategory("Beverages")) {
+            inAdaList |= ada.getItemId() == id;
+        }
+        assertTrue(inAdaList);
+    }
+
+    @Test
+    public void returnedItems_areCopies() {
+        Item item = itemDAO.getAllItems().get(0);
+        String name = item.getItemName();
+
+        item.setItemName("Changed without saving");
+
+        assertEquals(name, itemDAO.getItemById(item.getItemId()).getItemName());
+    }
+
+    @Test
+    public void defaultMenuWrites_replaceSnapshot() {
+        DefaultMenuDAO defaultMenuDAO = dbHelper.getDefaultMenuDAO();
+        assertTrue(defaultMenuDAO.getDefaultMenuItems("Regular", "Breakfast", "Monday").isEmpty());
+
+        DefaultMenuItem menuItem = new DefaultMenuItem();
+        menuItem.setDietType("Regular");
+        menuItem.setMealType("Breakfast");
+        menuItem.setDayOfWeek("Monday");
+        menuItem.setCategory("Juice");
+        menuItem.setItemName("Orange Juice");
+        menuItem.setActive(true);
+        List<DefaultMenuItem> items = new ArrayList<>();
+        items.add(menuItem);
+        defaultMenuDAO.saveDefaultMenuItems("Regular", "Breakfast", "Monday", items);
+
+        List<DefaultMenuItem> loaded = defaultMenuDAO.getDefaultMenuItems("Regular", "Breakfast", "Monday");
+        assertEquals(1, loaded.size());
+        assertEquals("Orange Juice", loaded.get(0).getItemName());
+        assertTrue(defaultMenuDAO.getDefaultMenuItems("Regular", "Lunch", "Monday").isEmpty());
+    }
+}
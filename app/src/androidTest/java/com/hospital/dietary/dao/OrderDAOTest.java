@@ -0,0 +1,169 @@
+package com.hospital.dietary.dao;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.PatientOrder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the single-query patient order board against the per-patient lookup it replaced.
+ */
+@RunWith(AndroidJUnit4.class)
+public class OrderDAOTest {
+
+    private static final String DATE = "2025-07-15";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private OrderDAO orderDAO;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        orderDAO = dbHelper.getOrderDAO();
+        seed(dbHelper.getWritableDatabase());
+    }
+
+    @Test
+    public void getPatientOrdersByDate_matchesPerPatientQueries() {
+        List<PatientOrder> expected = loadWithPerPatientQueries(DATE);
+        List<PatientOrder> actual = orderDAO.getPatientOrdersByDate(DATE);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            PatientOrder e = expected.get(i);
+            PatientOrder a = actual.get(i);
+            assertEquals(e.getPatientId(), a.getPatientId());
+            assertEquals(e.getPatientName(), a.getPatientName());
+            assertEquals(e.getRoom(), a.getRoom());
+            assertEquals(e.getWing(), a.getWing());
+            assertEquals(e.getDiet(), a.getDiet());
+            assertEquals(e.getTimestamp(), a.getTimestamp());
+            assertEquals(e.getFluidRestriction(), a.getFluidRestriction());
+            assertEquals(e.getTextureModifications(), a.getTextureModifications());
+            assertEquals(e.getBreakfastItems(), a.getBreakfastItems());
+            assertEquals(e.getLunchItems(), a.getLunchItems());
+            assertEquals(e.getDinnerItems(), a.getDinnerItems());
+        }
+    }
+
+    @Test
+    public void getPatientOrdersByDate_foldsItemsPerMeal() {
+        List<PatientOrder> orders = orderDAO.getPatientOrdersByDate(DATE);
+
+        PatientOrder first = orders.get(0);
+        assertEquals("Ann Able", first.getPatientName());
+        assertEquals("Oatmeal, Orange Juice", first.getBreakfastItems());
+        assertEquals("Grilled Chicken", first.getLunchItems());
+        assertNull(first.getDinnerItems());
+
+        // Orders from another day are ignored
+        PatientOrder noOrders = orders.get(2);
+        assertEquals("Cal Cole", noOrders.getPatientName());
+        assertNull(noOrders.getBreakfastItems());
+        assertNull(noOrders.getTimestamp());
+    }
+
+    private void seed(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM items");
+        db.execSQL("INSERT INTO items (item_id, name, category) VALUES (1, 'Oatmeal', 'Breakfast Entrees')");
+        db.execSQL("INSERT INTO items (item_id, name, category) VALUES (2, 'Orange Juice', 'Beverages')");
+        db.execSQL("INSERT INTO items (item_id, name, category) VALUES (3, 'Grilled Chicken', 'Lunch Entrees')");
+        db.execSQL("INSERT INTO items (item_id, name, category) VALUES (4, 'Meatloaf', 'Dinner Entrees')");
+
+        db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet, fluid_restriction) " +
+                "VALUES (1, 'Ann', 'Able', '1 South', '102', 'Regular', '1500ml')");
+        db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet, texture_modifications) " +
+                "VALUES (2, 'Bob', 'Baker', '1 South', '110', 'ADA', 'Mechanical Ground')");
+        db.execSQL("INSERT INTO patient_info (patient_id, patient_first_name, patient_last_name, wing, room_number, diet) " +
+                "VALUES (3, 'Cal', 'Cole', '2 North', '201', 'Cardiac')");
+
+        // Ann: two breakfast items (inserted out of name order) and one lunch item
+        db.execSQL("INSERT INTO meal_orders (order_id, patient_id, meal, order_date, timestamp) VALUES (1, 1, 'Breakfast', '2025-07-15 06:00:00', 100)");
+        db.execSQL("INSERT INTO meal_orders (order_id, patient_id, meal, order_date, timestamp) VALUES (2, 1, 'Lunch', '2025-07-15 10:30:00', 200)");
+        db.execSQL("INSERT INTO order_items (order_id, item_id) VALUES (1, 2)");
+        db.execSQL("INSERT INTO order_items (order_id, item_id) VALUES (1, 1)");
+        db.execSQL("INSERT INTO order_items (order_id, item_id) VALUES (2, 3)");
+
+        // Bob: dinner with a duplicated item, plus an empty lunch order
+        db.execSQL("INSERT INTO meal_orders (order_id, patient_id, meal, order_date, timestamp) VALUES (3, 2, 'Dinner', '2025-07-15 16:00:00', 300)");
+        db.execSQL("INSERT INTO meal_orders (order_id, patient_id, meal, order_date, timestamp) VALUES (4, 2, 'Lunch', '2025-07-15 11:00:00', 400)");
+        db.execSQL("INSERT INTO order_items (order_id, item_id) VALUES (3, 4)");
+        db.execSQL("INSERT INTO order_items (order_id, item_id) VALUES (3, 4)");
+
+        // Cal: only an order from the previous day
+        db.execSQL("INSERT INTO meal_orders (order_id, patient_id, meal, order_date, timestamp) VALUES (5, 3, 'Breakfast', '2025-07-14 06:00:00', 500)");
+        db.execSQL("INSERT INTO order_items (order_id, item_id) VALUES (5, 1)");
+    }
+
+    /**
+     * The original N+1 implementation, kept here as the reference result
+     */
+    private List<PatientOrder> loadWithPerPatientQueries(String date) {
+        List<PatientOrder> orders = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery("SELECT p.patient_id, " +
+                "p.patient_first_name || ' ' || p.patient_last_name as name, " +
+                "p.room_number, p.wing, p.diet, " +
+                "MAX(mo.timestamp) as timestamp, " +
+                "p.fluid_restriction, p.texture_modifications " +
+                "FROM patient_info p " +
+                "LEFT JOIN meal_orders mo ON p.patient_id = mo.patient_id " +
+                "AND date(mo.order_date) = ? " +
+                "GROUP BY p.patient_id " +
+                "ORDER BY p.wing, CAST(p.room_number AS INTEGER)", new String[]{date});
+
+        while (cursor.moveToNext()) {
+            PatientOrder order = new PatientOrder();
+            order.setPatientId(cursor.getInt(0));
+            order.setPatientName(cursor.getString(1));
+            order.setRoom(cursor.getString(2));
+            order.setWing(cursor.getString(3));
+            order.setDiet(cursor.getString(4));
+            order.setTimestamp(cursor.getString(5));
+            if (!cursor.isNull(6)) order.setFluidRestriction(cursor.getString(6));
+            if (!cursor.isNull(7)) order.setTextureModifications(cursor.getString(7));
+
+            Cursor items = db.rawQuery("SELECT meal, GROUP_CONCAT(item_name, ', ') as items " +
+                    "FROM (SELECT mo.meal, i.name as item_name " +
+                    "FROM meal_orders mo " +
+                    "JOIN order_items oi ON mo.order_id = oi.order_id " +
+                    "JOIN items i ON oi.item_id = i.item_id " +
+                    "WHERE mo.patient_id = ? AND date(mo.order_date) = ? " +
+                    "ORDER BY i.name) " +
+                    "GROUP BY meal", new String[]{String.valueOf(order.getPatientId()), date});
+            while (items.moveToNext()) {
+                String meal = items.getString(0);
+                if ("Breakfast".equals(meal)) {
+                    order.setBreakfastItems(items.getString(1));
+                } else if ("Lunch".equals(meal)) {
+                    order.setLunchItems(items.getString(1));
+                } else if ("Dinner".equals(meal)) {
+                    order.setDinnerItems(items.getString(1));
+                }
+            }
+            items.close();
+
+            orders.add(order);
+        }
+        cursor.close();
+
+        return orders;
+    }
+}
@@ -0,0 +1,117 @@
+package com.hospital.dietary.dao;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.PatientSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.hospital.dietary.dao.TestDatabase.assertIds;
+import static org.junit.Assert.*;
+
+/**
+ * Checks keyset paging of the active census and that writes only reload the pages they touch.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PatientCensusPagerTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private SQLiteDatabase db;
+    private PatientDAO patientDAO;
+    private PatientCensusPager pager;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        db = dbHelper.getWritableDatabase();
+        patientDAO = dbHelper.getPatientDAO();
+
+        // Room 9 sorts before room 10 by number, not text
+        database.insertPatientRow(1, "1 South", "10");
+        database.insertPatientRow(2, "1 South", "9");
+        database.insertPatientRow(3, "1 South", "12");
+        database.insertPatientRow(4, "2 North", "201");
+        database.insertPatientRow(5, "2 North", "201");
+        database.insertPatientRow(6, "2 North", "205");
+        database.insertPatientRow(7, "3 East", "301");
+
+        pager = new PatientCensusPager(3);
+        dbHelper.getChangeBus().subscribe("patient_info", pager);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.getChangeBus().unsubscribe("patient_info", pager);
+    }
+
+    @Test
+    public void pages_followWingRoomOrder() {
+        assertIds(pager.loadNextPage(patientDAO), 2, 1, 3);
+        assertTrue(pager.hasMore());
+        assertIds(pager.loadNextPage(patientDAO), 2, 1, 3, 4, 5, 6);
+        assertIds(pager.loadNextPage(patientDAO), 2, 1, 3, 4, 5, 6, 7);
+        assertFalse(pager.hasMore());
+    }
+
+    @Test
+    public void refresh_movesChangedPatientBetweenPages() {
+        pager.loadNextPage(patientDAO);
+        pager.loadNextPage(patientDAO);
+
+        db.execSQL("UPDATE patient_info SET wing = '2 North', room_number = '203' WHERE patient_id = 2");
+        pager.onPatientChanged(2);
+
+        assertIds(pager.refresh(patientDAO), 1, 3, 4, 5, 2, 6);
+        assertTrue(pager.hasMore());
+    }
+
+    @Test
+    public void refresh_dropsDeletedPatient() {
+        pager.loadNextPage(patientDAO);
+        pager.loadNextPage(patientDAO);
+        pager.loadNextPage(patientDAO);
+
+        assertTrue(patientDAO.deletePatient(5));
+        assertIds(pager.refresh(patientDAO), 2, 1, 3, 4, 6, 7);
+    }
+
+    @Test
+    public void missingWingAndRoom_keepTheirPlace() {
+        database.insertPatientRow(8, null, "5");
+        database.insertPatientRow(9, "1 South", null);
+        database.insertPatientRow(10, null, null);
+
+        // No wing sorts as '' and no room number as 0, so both land in the first page
+        assertIds(pager.loadNextPage(patientDAO), 10, 8, 9);
+        pager.loadNextPage(patientDAO);
+        pager.loadNextPage(patientDAO);
+        assertIds(pager.loadNextPage(patientDAO), 10, 8, 9, 2, 1, 3, 4, 5, 6, 7);
+        assertFalse(pager.hasMore());
+
+        db.execSQL("UPDATE patient_info SET wing = NULL WHERE patient_id = 1");
+        pager.onPatientChanged(1);
+        assertIds(pager.refresh(patientDAO), 10, 8, 1, 9, 2, 3, 4, 5, 6, 7);
+    }
+
+    @Test
+    public void refresh_withoutChangesKeepsRows() {
+        List<PatientSummary> first = pager.loadNextPage(patientDAO);
+        List<PatientSummary> refreshed = pager.refresh(patientDAO);
+        assertEquals(first.size(), refreshed.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertSame(first.get(i), refreshed.get(i));
+        }
+    }
+}
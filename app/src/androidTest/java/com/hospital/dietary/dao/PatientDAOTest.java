@@ -0,0 +1,124 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that patient saves write only the fields changed since the row was read.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PatientDAOTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private PatientDAO patientDAO;
+    private long patientId;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        patientDAO = dbHelper.getPatientDAO();
+
+        Patient patient = new Patient();
+        patient.setPatientFirstName("Ann");
+        patient.setPatientLastName("Miller");
+        patient.setWing("1 South");
+        patient.setRoomNumber("101");
+        patient.setDiet("Regular");
+        patient.setBreakfastItems("Pancakes");
+        patientId = patientDAO.insertPatient(patient);
+        assertFalse(patient.hasChanges());
+    }
+
+    @Test
+    public void staleCopy_keepsOtherScreensEdit() {
+        Patient detailScreen = patientDAO.getPatientById(patientId);
+        Patient mealScreen = patientDAO.getPatientById(patientId);
+
+        mealScreen.setLunchItems("Soup");
+        assertTrue(patientDAO.updatePatient(mealScreen));
+
+        // Saved from a copy read before the lunch edit
+        detailScreen.setWing("2 North");
+        assertEquals(1L << Patient.Field.WING.ordinal(), detailScreen.getChangedFields());
+        assertTrue(patientDAO.updatePatient(detailScreen));
+
+        Patient stored = patientDAO.getPatientById(patientId);
+        assertEquals("2 North", stored.getWing());
+        assertEquals("Soup", stored.getLunchItems());
+        assertEquals("Pancakes", stored.getBreakfastItems());
+    }
+
+    @Test
+    public void sameValue_notAChange() {
+        Patient patient = patientDAO.getPatientById(patientId);
+        patient.setWing("1 South");
+        patient.setBreakfastComplete(false);
+        assertFalse(patient.hasChanges());
+
+        // Nothing is written, but the row is still reported
+        assertEquals(1, patientDAO.updatePatientInt(patient));
+        patient.setPatientId(patientId + 1);
+        assertEquals(0, patientDAO.updatePatientInt(patient));
+    }
+
+    @Test
+    public void newObject_writesEveryField() {
+        Patient replacement = new Patient();
+        replacement.setPatientId(patientId);
+        replacement.setPatientFirstName("Ann");
+        replacement.setPatientLastName("Miller");
+        assertEquals(Patient.ALL_FIELDS, replacement.getChangedFields());
+        assertTrue(patientDAO.updatePatient(replacement));
+
+        assertNull(patientDAO.getPatientById(patientId).getBreakfastItems());
+    }
+
+    @Test
+    public void repeatedShapes_reuseStatements() {
+        Patient patient = patientDAO.getPatientById(patientId);
+        for (int i = 0; i < 3; i++) {
+            patient.setComments("Visit " + i);
+            assertTrue(patientDAO.updatePatient(patient));
+            patient.setDischarged(i % 2 == 0);
+            patient.setComments("Note " + i);
+            assertTrue(patientDAO.updatePatient(patient));
+        }
+
+        assertEquals("Note 2", DatabaseUtils.stringForQuery(dbHelper.getReadableDatabase(),
+                "SELECT comments FROM patient_info WHERE patient_id = ?",
+                new String[]{String.valueOf(patientId)}));
+        assertTrue(patientDAO.getPatientById(patientId).isDischarged());
+    }
+
+    @Test
+    public void updateWithSelections_savesTrayRowsWithColumns() {
+        Patient patient = patientDAO.getPatientById(patientId);
+        patient.setLunchItems("Pancakes, Pancakes");
+        assertTrue(patientDAO.updatePatientWithSelections(patient));
+
+        assertEquals(2, DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                "SELECT SUM(quantity) FROM patient_meal_selection WHERE patient_id = ? AND meal = 'Lunch'",
+                new String[]{String.valueOf(patientId)}));
+
+        // A missing row writes neither
+        patient.setPatientId(patientId + 1);
+        patient.setDinnerItems("Pancakes");
+        assertFalse(patientDAO.updatePatientWithSelections(patient));
+        assertEquals(0, DatabaseUtils.queryNumEntries(dbHelper.getReadableDatabase(),
+                "patient_meal_selection", "patient_id = ?", new String[]{String.valueOf(patientId + 1)}));
+    }
+}
@@ -0,0 +1,112 @@
+package com.hospital.dietary.dao;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that change notices name the columns written and that lists patch only what they show.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PatientSummaryListTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private PatientDAO patientDAO;
+    private PatientSummaryList pendingList;
+    private final List<ChangeBus.Change> changes = new ArrayList<>();
+    private final ChangeBus.Listener recorder = changes::add;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+        patientDAO = dbHelper.getPatientDAO();
+
+        database.insertPatient("Ann", "1 South", "101");
+        database.insertPatient("Bob", "1 South", "102");
+        database.insertPatient("Cal", "2 North", "201");
+
+        pendingList = new PatientSummaryList(PatientDAO::getPendingPatientSummaries, PatientDAO::isPending);
+        dbHelper.getChangeBus().subscribe("patient_info", pendingList);
+        dbHelper.getChangeBus().subscribeAll(recorder);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.getChangeBus().unsubscribe("patient_info", pendingList);
+        dbHelper.getChangeBus().unsubscribeAll(recorder);
+    }
+
+    @Test
+    public void update_reportsChangedColumns() {
+        Patient patient = patientDAO.getAllPatients().get(0);
+        patient.setLikes("Tea");
+        patientDAO.updatePatient(patient);
+
+        assertEquals(1, changes.size());
+        assertEquals("patient_info", changes.get(0).getTable());
+        assertEquals(patient.getPatientId(), changes.get(0).getRowId());
+        assertEquals(1, changes.get(0).getColumns().size());
+        assertTrue(changes.get(0).getColumns().contains("likes"));
+    }
+
+    @Test
+    public void unshownColumn_leavesListCurrent() {
+        assertEquals(3, pendingList.refresh(patientDAO).size());
+
+        Patient patient = patientDAO.getAllPatients().get(1);
+        patient.setComments("Prefers the window side");
+        patientDAO.updatePatient(patient);
+
+        assertFalse(pendingList.isStale());
+    }
+
+    @Test
+    public void mealTaps_patchRowOutAndBackIn() {
+        assertEquals(3, pendingList.refresh(patientDAO).size());
+        long bobId = pendingList.refresh(patientDAO).get(1).getPatientId();
+
+        MealStatusQueue queue = dbHelper.getMealStatusQueue();
+        queue.setMealComplete(bobId, "breakfast", true);
+        queue.setMealComplete(bobId, "lunch", true);
+        queue.setMealComplete(bobId, "dinner", true);
+        assertTrue(pendingList.isStale());
+
+        // Queued taps count before they are written
+        List<PatientSummary> rows = pendingList.refresh(patientDAO);
+        assertEquals(2, rows.size());
+        assertEquals("Ann", rows.get(0).getPatientFirstName());
+        assertEquals("Cal", rows.get(1).getPatientFirstName());
+
+        queue.setMealComplete(bobId, "lunch", false);
+        rows = pendingList.refresh(patientDAO);
+        assertEquals(3, rows.size());
+        assertEquals(bobId, rows.get(1).getPatientId());
+    }
+
+    @Test
+    public void bulkWrite_reloadsWholeList() {
+        pendingList.refresh(patientDAO);
+        dbHelper.getWritableDatabase().execSQL("UPDATE patient_info SET discharged = 1");
+
+        // Not seen until told
+        assertEquals(3, pendingList.refresh(patientDAO).size());
+        pendingList.invalidate();
+        assertEquals(0, pendingList.refresh(patientDAO).size());
+    }
+}
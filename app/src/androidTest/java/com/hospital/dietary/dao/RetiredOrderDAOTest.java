@@ -0,0 +1,150 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.models.FinalizedOrder;
+import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Calendar;
+import java.util.List;
+
+import static com.hospital.dietary.dao.TestDatabase.assertIds;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that archiving leaves only the census in patient_info and files each day's orders by date.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RetiredOrderDAOTest {
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private SQLiteDatabase db;
+    private RetiredOrderDAO retiredOrderDAO;
+
+    private long startOfToday;
+    private String today;
+    private String yesterday;
+
+    @Before
+    public void setUp() {
+        db = database.getDbHelper().getWritableDatabase();
+        retiredOrderDAO = database.getDbHelper().getRetiredOrderDAO();
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        startOfToday = calendar.getTimeInMillis();
+        today = MealSelectionDAO.formatServiceDate(calendar.getTime());
+        calendar.add(Calendar.DAY_OF_YEAR, -1);
+        yesterday = MealSelectionDAO.formatServiceDate(calendar.getTime());
+
+        long yesterdayNoon = startOfToday - 12 * 60 * 60 * 1000L;
+        long todayNoon = startOfToday + 12 * 60 * 60 * 1000L;
+
+        // Yesterday: one tray served, one untouched, one NPO all day; today: one served, one discharged
+        insertPatient(1, "10", yesterdayNoon, 1, 0, 0);
+        insertPatient(2, "9", yesterdayNoon, 0, 0, 0);
+        insertPatient(3, "11", yesterdayNoon, 0, 1, 0);
+        insertPatient(4, "12", todayNoon, 1, 0, 0);
+        insertPatient(5, "13", todayNoon, 0, 0, 1);
+    }
+
+    @Test
+    public void archive_keepsOnlyCensusLive() {
+        RetiredOrderDAO.ArchiveResult result = retiredOrderDAO.archiveRetiredOrders(startOfToday);
+
+        assertEquals(3, result.getRetiredCount());
+        assertEquals(1, result.getRemovedPatientCount());
+        assertEquals(4, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM patient_info", null));
+        assertEquals(0, DatabaseUtils.longForQuery(db, "SELECT COUNT(*) FROM patient_info WHERE discharged = 1", null));
+    }
+
+    @Test
+    public void archive_filesOrdersUnderTheirServiceDate() {
+        retiredOrderDAO.archiveRetiredOrders(startOfToday);
+
+        assertIds(retiredOrderDAO.getRetiredOrderSummaries(yesterday), 1, 3);
+        assertIds(retiredOrderDAO.getRetiredOrderSummaries(today), 5);
+
+        Patient discharged = retiredOrderDAO.getRetiredOrder(today, 5);
+        assertNotNull(discharged);
+        assertTrue(discharged.isDischarged());
+        assertEquals("1 South", discharged.getWing());
+    }
+
+    @Test
+    public void archive_rerunReplacesSnapshot() {
+        retiredOrderDAO.archiveRetiredOrders(startOfToday);
+        db.execSQL("UPDATE patient_info SET lunch_complete = 1 WHERE patient_id = 1");
+        retiredOrderDAO.archiveRetiredOrders(startOfToday);
+
+        List<PatientSummary> retired = retiredOrderDAO.getRetiredOrderSummaries(yesterday);
+        assertIds(retired, 1, 3);
+        assertTrue(retired.get(0).isLunchComplete());
+    }
+
+    @Test
+    public void archive_movesFinalizedOrdersPastHistory() {
+        Calendar old = Calendar.getInstance();
+        old.setTimeInMillis(startOfToday);
+        old.add(Calendar.DAY_OF_YEAR, -(GalleyStockDAO.HISTORY_DAYS + 1));
+        insertFinalizedOrder(1, MealSelectionDAO.formatServiceDate(old.getTime()));
+        insertFinalizedOrder(2, yesterday);
+
+        assertEquals(1, retiredOrderDAO.archiveRetiredOrders(startOfToday).getFinalizedOrderCount());
+        assertEquals(1, DatabaseUtils.longForQuery(db, "SELECT order_id FROM finalized_order_archive", null));
+        assertEquals(1, DatabaseUtils.longForQuery(db, "SELECT order_id FROM finalized_order_items_archive", null));
+        assertEquals(2, DatabaseUtils.longForQuery(db, "SELECT order_id FROM finalized_order", null));
+        assertEquals(2, DatabaseUtils.longForQuery(db, "SELECT order_id FROM finalized_order_items", null));
+    }
+
+    @Test
+    public void archive_keepsFinalizedOrdersReadable() {
+        Calendar old = Calendar.getInstance();
+        old.setTimeInMillis(startOfToday);
+        old.add(Calendar.DAY_OF_YEAR, -(GalleyStockDAO.HISTORY_DAYS + 1));
+        String oldDate = MealSelectionDAO.formatServiceDate(old.getTime());
+        insertFinalizedOrder(1, oldDate);
+        insertFinalizedOrder(2, yesterday);
+        retiredOrderDAO.archiveRetiredOrders(startOfToday);
+
+        FinalizedOrderDAO finalizedOrderDAO = database.getDbHelper().getFinalizedOrderDAO();
+        FinalizedOrder archived = finalizedOrderDAO.getFinalizedOrderById(1);
+        assertNotNull(archived);
+        assertEquals(oldDate, archived.getOrderDate());
+        assertEquals(1, finalizedOrderDAO.getFinalizedOrdersByDate(oldDate).size());
+
+        List<FinalizedOrder> all = finalizedOrderDAO.getAllFinalizedOrders();
+        assertEquals(2, all.size());
+        assertEquals(2, all.get(0).getOrderId());
+        assertEquals(1, all.get(1).getOrderId());
+    }
+
+    private void insertPatient(long patientId, String room, long orderDate,
+                               int breakfastComplete, int allNpo, int discharged) {
+        database.insertPatientRow(patientId, "1 South", room);
+        db.execSQL("UPDATE patient_info SET order_date = ?, breakfast_complete = ?, " +
+                "breakfast_npo = ?, lunch_npo = ?, dinner_npo = ?, discharged = ? WHERE patient_id = ?",
+                new Object[]{orderDate, breakfastComplete, allNpo, allNpo, allNpo, discharged, patientId});
+    }
+
+    private void insertFinalizedOrder(long orderId, String orderDate) {
+        db.execSQL("INSERT INTO finalized_order (order_id, patient_name, wing, room, order_date, diet_type) " +
+                "VALUES (?, 'Last, First', '1 South', '10', ?, 'Regular')", new Object[]{orderId, orderDate});
+        db.execSQL("INSERT INTO finalized_order_items (order_id, meal_type, item_name, quantity, category) " +
+                "VALUES (?, 'Breakfast', 'Coffee', 1, 'Beverages')", new Object[]{orderId});
+    }
+}
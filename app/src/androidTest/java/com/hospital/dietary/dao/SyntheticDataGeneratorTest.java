@@ -0,0 +1,134 @@
+package com.hospital.dietary.dao;
+
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.FinalizedOrder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the synthetic data generator is repeatable and fills every table it promises.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SyntheticDataGeneratorTest {
+
+    private static final String PATIENT_FINGERPRINT = "SELECT group_concat(patient_last_name || diet || " +
+            "texture_modifications || IFNULL(allergies, ''), '|') FROM " +
+            "(SELECT * FROM patient_info ORDER BY patient_id)";
+
+    @Rule
+    public final TestDatabase database = new TestDatabase();
+
+    private DatabaseHelper dbHelper;
+    private long now;
+
+    @Before
+    public void setUp() {
+        dbHelper = database.getDbHelper();
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 12);
+        now = calendar.getTimeInMillis();
+    }
+
+    @Test
+    public void generate_fillsCensusAndHistory() {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec()
+                .setWings(2).setRoomsPerWing(10).setHistoryDays(3);
+        SyntheticDataGenerator.Result result = new SyntheticDataGenerator(dbHelper).generate(spec, now);
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        assertEquals(20, result.getPatientCount());
+        assertEquals(20, DatabaseUtils.queryNumEntries(db, "patient_info"));
+        assertEquals(spec.getMealOrderCount(), result.getMealOrderCount());
+        assertEquals(result.getMealOrderCount(), DatabaseUtils.queryNumEntries(db, "meal_orders"));
+        assertEquals(result.getOrderItemCount(), DatabaseUtils.queryNumEntries(db, "order_items"));
+        assertEquals(result.getSelectionCount(), DatabaseUtils.queryNumEntries(db, "patient_meal_selection"));
+        assertEquals(20 * 3, result.getFinalizedOrderCount());
+        assertTrue(DatabaseUtils.queryNumEntries(db, "finalized_order_items") > 0);
+
+        // Finalized orders decode from their own records
+        List<FinalizedOrder> orders = dbHelper.getFinalizedOrderDAO().getAllFinalizedOrders();
+        assertEquals(60, orders.size());
+        assertNotNull(orders.get(0).getFluidRestriction());
+    }
+
+    @Test
+    public void generate_sameSeedSameRows() {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec()
+                .setWings(3).setRoomsPerWing(15).setHistoryDays(1);
+        new SyntheticDataGenerator(dbHelper).generate(spec, now);
+
+        DatabaseHelper other = DatabaseHelper.createInMemory(database.getContext());
+        try {
+            new SyntheticDataGenerator(other).generate(spec, now);
+            assertEquals(DatabaseUtils.stringForQuery(dbHelper.getReadableDatabase(), PATIENT_FINGERPRINT, null),
+                    DatabaseUtils.stringForQuery(other.getReadableDatabase(), PATIENT_FINGERPRINT, null));
+        } finally {
+            other.close();
+        }
+    }
+
+    @Test
+    public void replaceExisting_clearsEarlierRun() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(dbHelper);
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec()
+                .setWings(1).setRoomsPerWing(5).setHistoryDays(1);
+        generator.generate(spec, now);
+        generator.generate(spec.setReplaceExisting(true), now);
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        assertEquals(5, DatabaseUtils.queryNumEntries(db, "patient_info"));
+        assertEquals(15, DatabaseUtils.queryNumEntries(db, "meal_orders"));
+        assertEquals(5, DatabaseUtils.queryNumEntries(db, "finalized_order"));
+    }
+
+    @Test
+    public void replaceExisting_writesQueuedTapsAndPublishes() {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(dbHelper);
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec()
+                .setWings(1).setRoomsPerWing(5).setHistoryDays(1);
+        generator.generate(spec, now);
+
+        long patientId = DatabaseUtils.longForQuery(dbHelper.getReadableDatabase(),
+                "SELECT MIN(patient_id) FROM patient_info", null);
+        dbHelper.getMealStatusQueue().setMealComplete(patientId, "breakfast", true);
+
+        List<ChangeBus.Change> changes = new ArrayList<>();
+        ChangeBus.Listener recorder = changes::add;
+        dbHelper.getChangeBus().subscribeAll(recorder);
+        try {
+            generator.generate(spec.setReplaceExisting(true), now);
+        } finally {
+            dbHelper.getChangeBus().unsubscribeAll(recorder);
+        }
+
+        // Nothing left to land on the regenerated patients
+        assertEquals(0, dbHelper.getMealStatusQueue().flushNow());
+        assertTrue(published(changes, "patient_info"));
+        assertTrue(published(changes, "meal_orders"));
+        assertTrue(published(changes, "finalized_order"));
+    }
+
+    private static boolean published(List<ChangeBus.Change> changes, String table) {
+        for (ChangeBus.Change change : changes) {
+            if (table.equals(change.getTable()) && change.isAllRows()) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
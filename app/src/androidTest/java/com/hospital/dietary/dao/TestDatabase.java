@@ -0,0 +1,76 @@
+package com.hospital.dietary.dao;
+
+import android.content.Context;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
+
+import org.junit.rules.ExternalResource;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Shared fixture for the DAO tests: a fresh in-memory database per test and helpers to seed patients.
+ */
+class TestDatabase extends ExternalResource {
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Override
+    protected void before() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = DatabaseHelper.createInMemory(context);
+    }
+
+    @Override
+    protected void after() {
+        dbHelper.close();
+    }
+
+    Context getContext() {
+        return context;
+    }
+
+    DatabaseHelper getDbHelper() {
+        return dbHelper;
+    }
+
+    // Through PatientDAO, so change notices and triggers see the write
+    long insertPatient(Patient patient) {
+        return dbHelper.getPatientDAO().insertPatient(patient);
+    }
+
+    long insertPatient(String firstName, String wing, String room) {
+        return insertPatient(newPatient(firstName, wing, room));
+    }
+
+    // Straight SQL, for tests that need fixed ids
+    void insertPatientRow(long patientId, String wing, String room) {
+        dbHelper.getWritableDatabase().execSQL("INSERT INTO patient_info " +
+                "(patient_id, patient_first_name, patient_last_name, wing, room_number, diet) " +
+                "VALUES (?, 'First', 'Last', ?, ?, 'Regular')", new Object[]{patientId, wing, room});
+    }
+
+    static Patient newPatient(String firstName, String wing, String room) {
+        Patient patient = new Patient();
+        patient.setPatientFirstName(firstName);
+        patient.setPatientLastName("Test");
+        patient.setWing(wing);
+        patient.setRoomNumber(room);
+        patient.setDiet("Regular");
+        return patient;
+    }
+
+    static void assertIds(List<PatientSummary> patients, long... expected) {
+        assertEquals(expected.length, patients.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], patients.get(i).getPatientId());
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.hospital.dietary.data.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteException;
+
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.data.entities.PatientEntity;
+import com.hospital.dietary.models.Patient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades each shipped database layout to the current version and checks nothing is rebuilt.
+ * Room's version 11 comes from its exported schema; the helper's version 12 is written out below.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    // DatabaseHelper's layout at version 12, before the version 13 patient columns
+    private static final String[] LEGACY_V12_SCHEMA = {
+            "CREATE TABLE users (user_id INTEGER PRIMARY KEY AUTOINCREMENT, username TEXT NOT NULL UNIQUE, " +
+                    "password TEXT NOT NULL, full_name TEXT NOT NULL, role TEXT NOT NULL, " +
+                    "is_active INTEGER DEFAULT 1, must_change_password INTEGER DEFAULT 0, " +
+                    "last_login INTEGER, created_date INTEGER)",
+            "CREATE TABLE patient_info (patient_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "patient_first_name TEXT, patient_last_name TEXT, wing TEXT, room_number TEXT, " +
+                    "diet_type TEXT, diet TEXT, ada_diet INTEGER DEFAULT 0, fluid_restriction TEXT, " +
+                    "texture_modifications TEXT, mechanical_chopped INTEGER DEFAULT 0, " +
+                    "mechanical_ground INTEGER DEFAULT 0, bite_size INTEGER DEFAULT 0, bread_ok INTEGER DEFAULT 0, " +
+                    "nectar_thick INTEGER DEFAULT 0, pudding_thick INTEGER DEFAULT 0, honey_thick INTEGER DEFAULT 0, " +
+                    "extra_gravy INTEGER DEFAULT 0, meats_only INTEGER DEFAULT 0, " +
+                    "breakfast_complete INTEGER DEFAULT 0, lunch_complete INTEGER DEFAULT 0, " +
+                    "dinner_complete INTEGER DEFAULT 0, breakfast_npo INTEGER DEFAULT 0, " +
+                    "lunch_npo INTEGER DEFAULT 0, dinner_npo INTEGER DEFAULT 0, " +
+                    "breakfast_items TEXT, lunch_items TEXT, dinner_items TEXT, " +
+                    "breakfast_juices TEXT, lunch_juices TEXT, dinner_juices TEXT, " +
+                    "breakfast_drinks TEXT, lunch_drinks TEXT, dinner_drinks TEXT, created_date INTEGER, " +
+                    "breakfast_diet TEXT, lunch_diet TEXT, dinner_diet TEXT, breakfast_ada INTEGER DEFAULT 0, " +
+                    "lunch_ada INTEGER DEFAULT 0, dinner_ada INTEGER DEFAULT 0, discharged INTEGER DEFAULT 0)",
+            "CREATE TABLE items (item_id INTEGER PRIMARY KEY AUTOINCREMENT, name TEXT NOT NULL, " +
+                    "category TEXT NOT NULL, description TEXT, is_ada_friendly INTEGER DEFAULT 0)",
+            "CREATE TABLE categories (category_id INTEGER PRIMARY KEY AUTOINCREMENT, " +
+                    "category_name TEXT NOT NULL UNIQUE, description TEXT, sort_order INTEGER DEFAULT 0)",
+            "CREATE TABLE meal_orders (order_id INTEGER PRIMARY KEY AUTOINCREMENT, patient_id INTEGER, " +
+                    "meal TEXT, order_date INTEGER, is_complete INTEGER DEFAULT 0, created_by TEXT, timestamp INTEGER)",
+            "CREATE TABLE order_items (order_item_id INTEGER PRIMARY KEY AUTOINCREMENT, order_id INTEGER, " +
+                    "item_id INTEGER, quantity INTEGER DEFAULT 1)",
+            "CREATE TABLE default_menu (menu_id INTEGER PRIMARY KEY AUTOINCREMENT, diet_type TEXT, " +
+                    "meal_type TEXT, day_of_week TEXT, item_name TEXT, item_category TEXT, is_active INTEGER DEFAULT 1)",
+            "CREATE TABLE finalized_order (order_id INTEGER PRIMARY KEY AUTOINCREMENT, patient_name TEXT, " +
+                    "wing TEXT, room TEXT, order_date TEXT, diet_type TEXT)",
+            "CREATE TABLE finalized_order_items (item_id INTEGER PRIMARY KEY AUTOINCREMENT, order_id INTEGER, " +
+                    "meal_type TEXT, item_name TEXT, quantity INTEGER, category TEXT)"
+    };
+
+    private static final String INSERT_PATIENT = "INSERT INTO patient_info " +
+            "(patient_first_name, patient_last_name, wing, room_number, diet, breakfast_items) " +
+            "VALUES (?, ?, ?, ?, 'Regular', 'Pancakes')";
+
+    @Rule
+    public final MigrationTestHelper roomHelper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(), AppDatabase.class);
+
+    private Context context;
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @After
+    public void tearDown() {
+        if (dbHelper != null) {
+            dbHelper.close();
+        }
+        context.deleteDatabase(TEST_DB);
+    }
+
+    @Test
+    public void roomVersion11_upgradesInPlace() throws Exception {
+        SupportSQLiteDatabase room = roomHelper.createDatabase(TEST_DB, 11);
+        room.execSQL(INSERT_PATIENT, new Object[]{"Ann", "Miller", "1 South", "101"});
+        room.execSQL(INSERT_PATIENT, new Object[]{"Bob", "Stone", "2 North", "12B"});
+        room.execSQL("INSERT INTO finalized_order (patient_name, wing, room, order_date, diet_type) " +
+                "VALUES ('Miller, Ann', '1 South', '101', '2026-10-01', 'Regular')");
+        room.close();
+
+        SQLiteDatabase db = openHelper().getWritableDatabase();
+        assertEquals(DatabaseHelper.DATABASE_VERSION, db.getVersion());
+        assertCensusKept(db);
+
+        // Tables Room never created are added, with the helper's seed categories
+        assertTrue(DatabaseUtils.queryNumEntries(db, "categories") > 0);
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "finalized_order_items"));
+
+        // Finalized orders from before the binary record still read, with no meals
+        assertEquals("Miller, Ann", dbHelper.getFinalizedOrderDAO().getAllFinalizedOrders().get(0).getPatientName());
+    }
+
+    @Test
+    public void legacyVersion12_upgradesInPlace() {
+        SQLiteDatabase old = context.openOrCreateDatabase(TEST_DB, Context.MODE_PRIVATE, null);
+        for (String sql : LEGACY_V12_SCHEMA) {
+            old.execSQL(sql);
+        }
+        old.execSQL(INSERT_PATIENT, new Object[]{"Ann", "Miller", "1 South", "101"});
+        old.execSQL(INSERT_PATIENT, new Object[]{"Bob", "Stone", "2 North", "12B"});
+        old.setVersion(12);
+        old.close();
+
+        SQLiteDatabase db = openHelper().getWritableDatabase();
+        assertEquals(DatabaseHelper.DATABASE_VERSION, db.getVersion());
+        assertCensusKept(db);
+    }
+
+    @Test
+    public void room_readsAndWritesHelperRows() {
+        openHelper().getPatientDAO().insertPatient(newPatient("Ann", "Miller", "1 South", "101"));
+
+        AppDatabase room = AppDatabase.create(context, dbHelper, TEST_DB);
+        try {
+            // The helper's seed is the only seed; Room adds no second admin or catalog
+            assertNotNull(room.userDao().getUserByUsername("admin"));
+            assertEquals(1, room.userDao().getAllUsers().size());
+            assertEquals(DatabaseUtils.queryNumEntries(dbHelper.getReadableDatabase(), "items"),
+                    room.itemDao().getAllItems().size());
+
+            List<PatientEntity> patients = room.patientDao().getAllPatients();
+            assertEquals(1, patients.size());
+            assertEquals("Miller", patients.get(0).getPatientLastName());
+
+            PatientEntity entity = new PatientEntity();
+            entity.setPatientFirstName("Bob");
+            entity.setPatientLastName("Stone");
+            entity.setWing("2 North");
+            entity.setRoomNumber("204");
+            room.patientDao().insertPatient(entity);
+
+            // Counted by the helper's census triggers
+            assertEquals(2, room.patientDao().getTotalPatientCount());
+            assertEquals(2, room.patientDao().getCensusCounters().size());
+        } finally {
+            room.close();
+        }
+
+        // Rows Room writes go through the helper's triggers like any other
+        List<Patient> patients = dbHelper.getPatientDAO().getAllPatients();
+        assertEquals(2, patients.size());
+        assertEquals(1, dbHelper.getPatientDAO().searchPatientsByName("Stone").size());
+    }
+
+    @Test
+    public void newerFile_refusedNotRebuilt() {
+        openHelper().getPatientDAO().insertPatient(newPatient("Ann", "Miller", "1 South", "101"));
+        dbHelper.getWritableDatabase().setVersion(DatabaseHelper.DATABASE_VERSION + 1);
+        dbHelper.close();
+
+        try {
+            openHelper().getWritableDatabase();
+            fail("Opening a newer database should fail");
+        } catch (SQLiteException expected) {
+            // A downgrade is refused rather than dropping tables
+        }
+        dbHelper.close();
+        dbHelper = null;
+
+        SQLiteDatabase db = context.openOrCreateDatabase(TEST_DB, Context.MODE_PRIVATE, null);
+        try {
+            assertEquals(1, DatabaseUtils.queryNumEntries(db, "patient_info"));
+        } finally {
+            db.close();
+        }
+    }
+
+    private DatabaseHelper openHelper() {
+        dbHelper = DatabaseHelper.createForFile(context, TEST_DB);
+        return dbHelper;
+    }
+
+    // Both fixtures hold Ann Miller in 1 South 101 and Bob Stone in 2 North 12B
+    private void assertCensusKept(SQLiteDatabase db) {
+        assertEquals(2, DatabaseUtils.queryNumEntries(db, "patient_info"));
+
+        // Later steps ran: room sort key, active flag, meal selections and name search
+        assertEquals(12, DatabaseUtils.longForQuery(db,
+                "SELECT room_sort FROM patient_info WHERE patient_last_name = 'Stone'", null));
+        assertEquals(2, DatabaseUtils.queryNumEntries(db, "patient_info", "discharged = 0"));
+        assertEquals(2, DatabaseUtils.queryNumEntries(db, "patient_meal_selection"));
+        assertEquals(1, dbHelper.getPatientDAO().searchPatientsByName("Mill").size());
+        assertEquals(2, DatabaseUtils.queryNumEntries(db, "census_counter", "patients = 1"));
+
+        // Room's entity columns exist whichever layer created the file
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, "patient_info", "is_puree = 1"));
+        assertEquals(2, DatabaseUtils.queryNumEntries(db, "patient_info", "preferred_drink IS NULL"));
+    }
+
+    private static Patient newPatient(String firstName, String lastName, String wing, String room) {
+        Patient patient = new Patient();
+        patient.setPatientFirstName(firstName);
+        patient.setPatientLastName(lastName);
+        patient.setWing(wing);
+        patient.setRoomNumber(room);
+        patient.setDiet("Regular");
+        return patient;
+    }
+}
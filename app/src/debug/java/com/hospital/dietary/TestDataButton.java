@@ -0,0 +1,85 @@
+package com.hospital.dietary;
+
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.Toast;
+import androidx.appcompat.app.AlertDialog;
+import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.SyntheticDataGenerator;
+
+/**
+ * Debug builds only: the admin panel button that replaces every patient and order with
+ * SyntheticDataGenerator output. Release builds get a TestDataButton that adds nothing
+ */
+final class TestDataButton {
+
+    private static final String LABEL = "🧪 Generate Test Data (Debug)";
+
+    private final AppCompatActivity activity;
+    private final Button button;
+
+    private TestDataButton(AppCompatActivity activity, Button button) {
+        this.activity = activity;
+        this.button = button;
+    }
+
+    /**
+     * Add the button just above the given one
+     */
+    static void addBefore(AppCompatActivity activity, Button sibling) {
+        ViewGroup container = (ViewGroup) sibling.getParent();
+        float density = activity.getResources().getDisplayMetrics().density;
+
+        Button button = new Button(activity);
+        button.setText(LABEL);
+        button.setTextSize(16);
+        button.setTextColor(0xFFFFFFFF);
+        button.setBackgroundColor(0xFFc0392b);
+        LinearLayout.LayoutParams params = new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, (int) (56 * density));
+        params.bottomMargin = (int) (12 * density);
+        container.addView(button, container.indexOfChild(sibling), params);
+
+        TestDataButton testDataButton = new TestDataButton(activity, button);
+        button.setOnClickListener(v -> testDataButton.confirmGenerate());
+    }
+
+    private void confirmGenerate() {
+        SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec().setReplaceExisting(true);
+
+        new AlertDialog.Builder(activity)
+                .setTitle("Generate Test Data")
+                .setMessage("This deletes every patient and order, then generates " +
+                        spec.getPatientCount() + " patients and " + spec.getMealOrderCount() +
+                        " meal orders of history. Continue?")
+                .setPositiveButton("Generate", (dialog, which) -> generate(spec))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private void generate(SyntheticDataGenerator.Spec spec) {
+        button.setEnabled(false);
+        button.setText("Generating...");
+
+        DatabaseHelper.getInstance(activity).getAsyncDAO().run(activity,
+                dbHelper -> new SyntheticDataGenerator(dbHelper).generate(spec, System.currentTimeMillis()),
+                new AsyncDAO.Callback<SyntheticDataGenerator.Result>() {
+                    @Override
+                    public void onSuccess(SyntheticDataGenerator.Result result) {
+                        button.setEnabled(true);
+                        button.setText(LABEL);
+                        Toast.makeText(activity, "Generated " + result, Toast.LENGTH_LONG).show();
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        button.setEnabled(true);
+                        button.setText(LABEL);
+                        Toast.makeText(activity, "Error generating test data: " + error,
+                                Toast.LENGTH_LONG).show();
+                    }
+                });
+    }
+}
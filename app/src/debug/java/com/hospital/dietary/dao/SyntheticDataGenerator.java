@@ -0,0 +1,550 @@
+package com.hospital.dietary.dao;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.FinalizedOrder;
+import com.hospital.dietary.models.Item;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * SyntheticDataGenerator class - fills the database with a made-up hospital for load testing
+ * One patient per room with weighted diets, textures and fluid limits, today's meal selections,
+ * and a meal order per patient and meal plus a finalized order per patient for each past day.
+ * The same spec and catalog always produce the same rows. Rows go in through compiled
+ * statements, a week of history per transaction
+ */
+public class SyntheticDataGenerator {
+
+    private static final String TAG = "SyntheticDataGenerator";
+
+    private static final int DAYS_PER_TRANSACTION = 7;
+
+    static final String[] MEALS = {"Breakfast", "Lunch", "Dinner"};
+
+    // Same choices as the patient screens, weighted toward a general medical floor
+    static final String[] DIETS = {"Regular", "Cardiac", "ADA", "Renal", "Puree", "Full Liquid", "Clear Liquid"};
+    private static final int[] DIET_WEIGHTS = {40, 20, 15, 8, 7, 5, 5};
+    static final String[] FLUID_RESTRICTIONS = {"No Restriction", "1000ml", "1500ml", "2000ml", "As Ordered"};
+    private static final int[] FLUID_WEIGHTS = {80, 5, 8, 5, 2};
+
+    private static final String[] FIRST_NAMES = {"Mary", "James", "Linda", "Robert", "Patricia", "John",
+            "Barbara", "Michael", "Susan", "William", "Karen", "David", "Nancy", "Richard", "Betty",
+            "Joseph", "Dorothy", "Charles", "Sandra", "Thomas", "Ruth", "George", "Helen", "Donald"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Miller",
+            "Davis", "Garcia", "Wilson", "Moore", "Taylor", "Anderson", "Thomas", "Jackson", "White",
+            "Harris", "Martin", "Thompson", "Clark", "Lewis", "Walker", "Hall", "Young", "King"};
+    private static final String[] ALLERGIES = {"Peanuts", "Shellfish", "Eggs", "Milk", "Wheat",
+            "Soy", "Strawberries", "Penicillin", "Tree Nuts", "Fish"};
+    private static final String[] COMMENTS = {"Prefers small portions", "Needs assistance with tray",
+            "Family brings dinner on weekends", "Double dessert approved by dietitian",
+            "Hard of hearing - knock before entering", "Eats slowly; deliver tray first"};
+
+    private static final String[] BREAKFAST_CATEGORIES = {"Breakfast Entrees", "Breads", "Fruits"};
+    private static final String[] LUNCH_CATEGORIES = {"Lunch Entrees", "Soups", "Salads", "Vegetables", "Desserts"};
+    private static final String[] DINNER_CATEGORIES = {"Dinner Entrees", "Vegetables", "Breads", "Desserts"};
+
+    /**
+     * What to generate; the defaults make about 50,000 meal orders
+     */
+    public static class Spec {
+        private long seed = 20261017L;
+        private int wings = 6;
+        private int roomsPerWing = 40;
+        private int historyDays = 70;
+        private double dischargedShare = 0.03;
+        private boolean replaceExisting;
+
+        public Spec setSeed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Spec setWings(int wings) {
+            this.wings = wings;
+            return this;
+        }
+
+        public Spec setRoomsPerWing(int roomsPerWing) {
+            this.roomsPerWing = roomsPerWing;
+            return this;
+        }
+
+        // Past days of meal orders and finalized orders, ending yesterday
+        public Spec setHistoryDays(int historyDays) {
+            this.historyDays = historyDays;
+            return this;
+        }
+
+        public Spec setDischargedShare(double dischargedShare) {
+            this.dischargedShare = dischargedShare;
+            return this;
+        }
+
+        // Delete every patient and order first, so generated rooms do not collide with real ones
+        public Spec setReplaceExisting(boolean replaceExisting) {
+            this.replaceExisting = replaceExisting;
+            return this;
+        }
+
+        public int getPatientCount() {
+            return wings * roomsPerWing;
+        }
+
+        public int getMealOrderCount() {
+            return getPatientCount() * historyDays * MEALS.length;
+        }
+    }
+
+    /**
+     * Row counts from one run
+     */
+    public static class Result {
+        private int patientCount;
+        private int selectionCount;
+        private int mealOrderCount;
+        private int orderItemCount;
+        private int finalizedOrderCount;
+        private long elapsedMillis;
+
+        public int getPatientCount() {
+            return patientCount;
+        }
+
+        public int getSelectionCount() {
+            return selectionCount;
+        }
+
+        public int getMealOrderCount() {
+            return mealOrderCount;
+        }
+
+        public int getOrderItemCount() {
+            return orderItemCount;
+        }
+
+        public int getFinalizedOrderCount() {
+            return finalizedOrderCount;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            return patientCount + " patients, " + selectionCount + " selections, " +
+                    mealOrderCount + " meal orders, " + orderItemCount + " order items, " +
+                    finalizedOrderCount + " finalized orders in " + elapsedMillis + " ms";
+        }
+    }
+
+    // One generated patient, kept only while their history is written
+    private static class GeneratedPatient {
+        long patientId;
+        String name;
+        String wing;
+        String room;
+        String diet;
+        String fluidRestriction;
+        boolean liquidDiet;
+        boolean mechanicalGround;
+        boolean mechanicalChopped;
+        boolean biteSize;
+        boolean breadOk;
+        boolean discharged;
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    public SyntheticDataGenerator(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Generate the census as of now, today's selections, and historyDays of orders before today
+     */
+    public Result generate(Spec spec, long now) {
+        long started = System.currentTimeMillis();
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        MenuCatalog catalog = dbHelper.getMenuCatalog();
+        Random random = new Random(spec.seed);
+        Result result = new Result();
+
+        List<List<Item>> mainPools = new ArrayList<>();
+        mainPools.add(pool(catalog, BREAKFAST_CATEGORIES));
+        mainPools.add(pool(catalog, LUNCH_CATEGORIES));
+        mainPools.add(pool(catalog, DINNER_CATEGORIES));
+        List<Item> allItems = catalog.getAllItems();
+        List<Item> drinks = new ArrayList<>();
+        List<Item> juices = new ArrayList<>();
+        for (Item item : catalog.getItemsByCategory("Beverages")) {
+            (item.getItemName().contains("Juice") ? juices : drinks).add(item);
+        }
+
+        Calendar day = Calendar.getInstance();
+        day.setTimeInMillis(now);
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        day.set(Calendar.MILLISECOND, 0);
+        long startOfToday = day.getTimeInMillis();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+
+        SQLiteStatement insertPatient = db.compileStatement("INSERT INTO patient_info " +
+                "(patient_first_name, patient_last_name, wing, room_number, diet_type, diet, ada_diet, " +
+                "fluid_restriction, texture_modifications, mechanical_ground, mechanical_chopped, " +
+                "bite_size, bread_ok, nectar_thick, honey_thick, pudding_thick, extra_gravy, meats_only, " +
+                "breakfast_complete, lunch_complete, dinner_complete, breakfast_npo, lunch_npo, dinner_npo, " +
+                "breakfast_diet, lunch_diet, dinner_diet, allergies, likes, dislikes, comments, " +
+                "created_date, order_date, discharged) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, " +
+                "?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        SQLiteStatement insertSelection = db.compileStatement("INSERT INTO patient_meal_selection " +
+                "(patient_id, service_date, meal, item_id, item_name, quantity) VALUES (?, ?, ?, ?, ?, 1)");
+        SQLiteStatement insertMealOrder = db.compileStatement("INSERT INTO meal_orders " +
+                "(patient_id, meal, order_date, is_complete, created_by, timestamp) VALUES (?, ?, ?, 1, 'generator', ?)");
+        SQLiteStatement insertOrderItem = db.compileStatement("INSERT INTO order_items " +
+                "(order_id, item_id, quantity) VALUES (?, ?, 1)");
+        SQLiteStatement insertFinalized = db.compileStatement("INSERT INTO finalized_order " +
+                "(patient_name, wing, room, order_date, diet_type, order_record) VALUES (?, ?, ?, ?, ?, ?)");
+        SQLiteStatement insertFinalizedItem = db.compileStatement("INSERT INTO finalized_order_items " +
+                "(order_id, meal_type, item_name, quantity, category) VALUES (?, ?, ?, 1, ?)");
+
+        // Queued meal taps belong to patients about to be deleted; write them before the wipe
+        if (spec.replaceExisting) {
+            dbHelper.getMealStatusQueue().flushNow();
+        }
+
+        List<GeneratedPatient> patients = new ArrayList<>(spec.getPatientCount());
+        try {
+            // The census and today's selections
+            db.beginTransaction();
+            try {
+                if (spec.replaceExisting) {
+                    clearPatientsAndOrders(db);
+                }
+
+                String today = dateFormat.format(day.getTime());
+                for (int wing = 0; wing < spec.wings; wing++) {
+                    for (int room = 0; room < spec.roomsPerWing; room++) {
+                        GeneratedPatient patient = newPatient(random, spec, wing, room);
+                        patient.patientId = insertPatient(insertPatient, random, patient, allItems, now, startOfToday);
+                        patients.add(patient);
+                        result.patientCount++;
+
+                        if (!patient.discharged) {
+                            for (int meal = 0; meal < MEALS.length; meal++) {
+                                for (Item item : tray(random, patient, meal, mainPools, drinks, juices)) {
+                                    insertSelection.bindLong(1, patient.patientId);
+                                    insertSelection.bindString(2, today);
+                                    insertSelection.bindString(3, MEALS[meal]);
+                                    insertSelection.bindLong(4, item.getItemId());
+                                    insertSelection.bindString(5, item.getItemName());
+                                    insertSelection.executeInsert();
+                                    result.selectionCount++;
+                                }
+                            }
+                        }
+                    }
+                }
+                db.setTransactionSuccessful();
+            } finally {
+                db.endTransaction();
+            }
+
+            dbHelper.getPatientDAO().notifyChanged(PatientDAO.ALL_PATIENTS);
+            if (spec.replaceExisting) {
+                publishOrderTables();
+            }
+
+            // History, oldest day first, a week per transaction
+            for (int first = spec.historyDays; first >= 1; first -= DAYS_PER_TRANSACTION) {
+                db.beginTransaction();
+                try {
+                    for (int daysAgo = first; daysAgo > Math.max(0, first - DAYS_PER_TRANSACTION); daysAgo--) {
+                        day.setTimeInMillis(startOfToday);
+                        day.add(Calendar.DAY_OF_YEAR, -daysAgo);
+                        String serviceDate = dateFormat.format(day.getTime());
+
+                        for (GeneratedPatient patient : patients) {
+                            writeHistory(random, patient, serviceDate, mainPools, drinks, juices,
+                                    insertMealOrder, insertOrderItem, insertFinalized, insertFinalizedItem, result);
+                        }
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+                publishOrderTables();
+            }
+        } finally {
+            insertPatient.close();
+            insertSelection.close();
+            insertMealOrder.close();
+            insertOrderItem.close();
+            insertFinalized.close();
+            insertFinalizedItem.close();
+        }
+
+        result.elapsedMillis = System.currentTimeMillis() - started;
+        Log.d(TAG, "Generated " + result);
+        return result;
+    }
+
+    private static GeneratedPatient newPatient(Random random, Spec spec, int wing, int room) {
+        GeneratedPatient patient = new GeneratedPatient();
+        int floor = wing / 2 + 1;
+        patient.wing = floor + (wing % 2 == 0 ? " South" : " North");
+        patient.room = String.valueOf(floor * 100 + room + 1);
+        patient.name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " +
+                LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        patient.diet = weighted(random, DIETS, DIET_WEIGHTS);
+        patient.liquidDiet = patient.diet.endsWith("Liquid");
+        patient.fluidRestriction = weighted(random, FLUID_RESTRICTIONS, FLUID_WEIGHTS);
+        patient.discharged = random.nextDouble() < spec.dischargedShare;
+
+        // Puree and liquid trays are not cut down further
+        if (!patient.liquidDiet && !"Puree".equals(patient.diet)) {
+            int texture = random.nextInt(100);
+            patient.mechanicalGround = texture < 8;
+            patient.mechanicalChopped = texture >= 8 && texture < 14;
+            patient.biteSize = texture >= 14 && texture < 19;
+            patient.breadOk = texture < 19 && random.nextBoolean();
+        }
+        return patient;
+    }
+
+    private static long insertPatient(SQLiteStatement insert, Random random, GeneratedPatient patient,
+                                      List<Item> items, long now, long startOfToday) {
+        int space = patient.name.indexOf(' ');
+        boolean extraGravy = random.nextInt(100) < 5;
+        boolean meatsOnly = random.nextInt(100) < 2;
+        int thickness = random.nextInt(100);
+        boolean nectarThick = thickness < 4;
+        boolean honeyThick = thickness >= 4 && thickness < 6;
+        boolean puddingThick = thickness == 6;
+        boolean ada = "ADA".equals(patient.diet) || ("Cardiac".equals(patient.diet) && random.nextInt(10) == 0);
+
+        StringBuilder textures = new StringBuilder();
+        if (patient.mechanicalGround) textures.append("Mechanical Ground, ");
+        if (patient.mechanicalChopped) textures.append("Mechanical Chopped, ");
+        if (patient.biteSize) textures.append("Bite Size, ");
+        if (patient.breadOk) textures.append("Bread OK, ");
+        if (extraGravy) textures.append("Extra Gravy/Sauce, ");
+        if (meatsOnly) textures.append("Meats Only, ");
+        if (nectarThick) textures.append("Nectar Thick, ");
+        if (honeyThick) textures.append("Honey Thick, ");
+        if (puddingThick) textures.append("Pudding Thick, ");
+        if (textures.length() > 0) {
+            textures.setLength(textures.length() - 2);
+        }
+
+        // Breakfast is mostly served, lunch sometimes, dinner not yet
+        boolean breakfastNpo = random.nextInt(100) < 3;
+        boolean lunchNpo = random.nextInt(100) < 3;
+        boolean dinnerNpo = random.nextInt(100) < 3;
+
+        insert.clearBindings();
+        insert.bindString(1, patient.name.substring(0, space));
+        insert.bindString(2, patient.name.substring(space + 1));
+        insert.bindString(3, patient.wing);
+        insert.bindString(4, patient.room);
+        insert.bindString(5, patient.diet);
+        insert.bindString(6, patient.diet);
+        insert.bindLong(7, ada ? 1 : 0);
+        insert.bindString(8, patient.fluidRestriction);
+        insert.bindString(9, textures.length() > 0 ? textures.toString() : "Regular");
+        insert.bindLong(10, patient.mechanicalGround ? 1 : 0);
+        insert.bindLong(11, patient.mechanicalChopped ? 1 : 0);
+        insert.bindLong(12, patient.biteSize ? 1 : 0);
+        insert.bindLong(13, patient.breadOk ? 1 : 0);
+        insert.bindLong(14, nectarThick ? 1 : 0);
+        insert.bindLong(15, honeyThick ? 1 : 0);
+        insert.bindLong(16, puddingThick ? 1 : 0);
+        insert.bindLong(17, extraGravy ? 1 : 0);
+        insert.bindLong(18, meatsOnly ? 1 : 0);
+        insert.bindLong(19, !breakfastNpo && random.nextInt(100) < 60 ? 1 : 0);
+        insert.bindLong(20, !lunchNpo && random.nextInt(100) < 30 ? 1 : 0);
+        insert.bindLong(21, 0);
+        insert.bindLong(22, breakfastNpo ? 1 : 0);
+        insert.bindLong(23, lunchNpo ? 1 : 0);
+        insert.bindLong(24, dinnerNpo ? 1 : 0);
+        insert.bindString(25, patient.diet);
+        insert.bindString(26, patient.diet);
+        insert.bindString(27, patient.diet);
+        if (random.nextInt(100) < 30) {
+            insert.bindString(28, ALLERGIES[random.nextInt(ALLERGIES.length)] +
+                    (random.nextInt(4) == 0 ? ", " + ALLERGIES[random.nextInt(ALLERGIES.length)] : ""));
+        }
+        if (!items.isEmpty() && random.nextInt(100) < 40) {
+            insert.bindString(29, items.get(random.nextInt(items.size())).getItemName());
+        }
+        if (!items.isEmpty() && random.nextInt(100) < 40) {
+            insert.bindString(30, items.get(random.nextInt(items.size())).getItemName());
+        }
+        if (random.nextInt(100) < 15) {
+            insert.bindString(31, COMMENTS[random.nextInt(COMMENTS.length)]);
+        }
+        insert.bindLong(32, startOfToday - random.nextInt(14) * 24L * 60 * 60 * 1000);
+        insert.bindLong(33, now);
+        insert.bindLong(34, patient.discharged ? 1 : 0);
+        return insert.executeInsert();
+    }
+
+    private static void writeHistory(Random random, GeneratedPatient patient, String serviceDate,
+                                     List<List<Item>> mainPools,
+                                     List<Item> drinks, List<Item> juices,
+                                     SQLiteStatement insertMealOrder, SQLiteStatement insertOrderItem,
+                                     SQLiteStatement insertFinalized, SQLiteStatement insertFinalizedItem,
+                                     Result result) {
+        FinalizedOrder finalized = new FinalizedOrder();
+        finalized.setPatientName(patient.name);
+        finalized.setWing(patient.wing);
+        finalized.setRoom(patient.room);
+        finalized.setOrderDate(serviceDate);
+        finalized.setDietType(patient.diet);
+        finalized.setFluidRestriction(patient.fluidRestriction);
+        finalized.setMechanicalGround(patient.mechanicalGround);
+        finalized.setMechanicalChopped(patient.mechanicalChopped);
+        finalized.setBiteSize(patient.biteSize);
+        finalized.setBreadOK(patient.breadOk);
+
+        List<List<Item>> trays = new ArrayList<>(MEALS.length);
+        for (int meal = 0; meal < MEALS.length; meal++) {
+            List<Item> tray = tray(random, patient, meal, mainPools, drinks, juices);
+            trays.add(tray);
+
+            insertMealOrder.bindLong(1, patient.patientId);
+            insertMealOrder.bindString(2, MEALS[meal]);
+            insertMealOrder.bindString(3, serviceDate);
+            insertMealOrder.bindString(4, serviceDate + (meal == 0 ? " 06:30:00" : meal == 1 ? " 10:30:00" : " 15:30:00"));
+            long mealOrderId = insertMealOrder.executeInsert();
+            result.mealOrderCount++;
+
+            List<String> mains = new ArrayList<>();
+            List<String> mealJuices = new ArrayList<>();
+            List<String> mealDrinks = new ArrayList<>();
+            for (Item item : tray) {
+                insertOrderItem.bindLong(1, mealOrderId);
+                insertOrderItem.bindLong(2, item.getItemId());
+                insertOrderItem.executeInsert();
+                result.orderItemCount++;
+
+                if (!"Beverages".equals(item.getCategory())) {
+                    mains.add(item.getItemName());
+                } else if (item.getItemName().contains("Juice")) {
+                    mealJuices.add(item.getItemName());
+                } else {
+                    mealDrinks.add(item.getItemName());
+                }
+            }
+            setMeal(finalized, meal, mains, mealJuices, mealDrinks);
+        }
+
+        insertFinalized.bindString(1, patient.name);
+        insertFinalized.bindString(2, patient.wing);
+        insertFinalized.bindString(3, patient.room);
+        insertFinalized.bindString(4, serviceDate);
+        insertFinalized.bindString(5, patient.diet);
+        insertFinalized.bindBlob(6, FinalizedOrderRecord.encode(finalized));
+        long finalizedId = insertFinalized.executeInsert();
+        result.finalizedOrderCount++;
+
+        for (int meal = 0; meal < MEALS.length; meal++) {
+            for (Item item : trays.get(meal)) {
+                insertFinalizedItem.bindLong(1, finalizedId);
+                insertFinalizedItem.bindString(2, MEALS[meal]);
+                insertFinalizedItem.bindString(3, item.getItemName());
+                insertFinalizedItem.bindString(4, item.getCategory());
+                insertFinalizedItem.executeInsert();
+            }
+        }
+    }
+
+    // A main and two sides from the meal's categories, a drink, and juice at breakfast;
+    // liquid diets get only the drinks
+    private static List<Item> tray(Random random, GeneratedPatient patient, int meal,
+                                   List<List<Item>> mainPools, List<Item> drinks, List<Item> juices) {
+        List<Item> tray = new ArrayList<>(5);
+        List<Item> mains = mainPools.get(meal);
+        if (!patient.liquidDiet && !mains.isEmpty()) {
+            for (int i = 0; i < 3; i++) {
+                tray.add(mains.get(random.nextInt(mains.size())));
+            }
+        }
+        if (!drinks.isEmpty()) {
+            tray.add(drinks.get(random.nextInt(drinks.size())));
+        }
+        if ((meal == 0 || patient.liquidDiet) && !juices.isEmpty()) {
+            tray.add(juices.get(random.nextInt(juices.size())));
+        }
+        return tray;
+    }
+
+    private static void setMeal(FinalizedOrder order, int meal, List<String> items,
+                                List<String> juices, List<String> drinks) {
+        switch (meal) {
+            case 0:
+                order.setBreakfastItems(items);
+                order.setBreakfastJuices(juices);
+                order.setBreakfastDrinks(drinks);
+                break;
+            case 1:
+                order.setLunchItems(items);
+                order.setLunchJuices(juices);
+                order.setLunchDrinks(drinks);
+                break;
+            default:
+                order.setDinnerItems(items);
+                order.setDinnerJuices(juices);
+                order.setDinnerDrinks(drinks);
+                break;
+        }
+    }
+
+    // The bulk statements bypass the DAOs, so their listeners are told here
+    private void publishOrderTables() {
+        dbHelper.getChangeBus().publishTable("meal_orders");
+        dbHelper.getChangeBus().publishTable("finalized_order");
+    }
+
+    // Children first; the patient_info delete triggers clear search and galley rows
+    private static void clearPatientsAndOrders(SQLiteDatabase db) {
+        db.execSQL("DELETE FROM order_items");
+        db.execSQL("DELETE FROM meal_orders");
+        db.execSQL("DELETE FROM patient_meal_selection");
+        db.execSQL("DELETE FROM finalized_order_items");
+        db.execSQL("DELETE FROM finalized_order");
+        db.execSQL("DELETE FROM patient_info");
+    }
+
+    private static List<Item> pool(MenuCatalog catalog, String[] categories) {
+        List<Item> items = new ArrayList<>();
+        for (String category : categories) {
+            items.addAll(catalog.getItemsByCategory(category));
+        }
+        return items;
+    }
+
+    private static String weighted(Random random, String[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int pick = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                return values[i];
+            }
+        }
+        return values[values.length - 1];
+    }
+}
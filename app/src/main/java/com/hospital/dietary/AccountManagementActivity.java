@@ -9,13 +9,13 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.UserDAO;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.models.User;
 
 public class AccountManagementActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private UserDAO userDAO;
+    private AsyncDAO asyncDAO;
 
     // User information
     private String currentUsername;
@@ -43,8 +43,8 @@ public class AccountManagementActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        userDAO = new UserDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title and back button
         if (getSupportActionBar() != null) {
@@ -72,8 +72,24 @@ public class AccountManagementActivity extends AppCompatActivity {
     }
 
     private void loadUserData() {
+        // The password dialog needs the stored record, so wait for it
+        changePasswordButton.setEnabled(false);
+        asyncDAO.users(this, userDAO -> userDAO.getUserByUsername(currentUsername), new AsyncDAO.Callback<User>() {
+            @Override
+            public void onSuccess(User user) {
+                showUserData(user);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(AccountManagementActivity.this, "Error loading user data: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showUserData(User user) {
         try {
-            currentUser = userDAO.getUserByUsername(currentUsername);
+            currentUser = user;
             if (currentUser == null) {
                 Toast.makeText(this, "User not found", Toast.LENGTH_SHORT).show();
                 finish();
@@ -91,6 +107,7 @@ public class AccountManagementActivity extends AppCompatActivity {
             } else {
                 lastLoginText.setText("Last login: Never");
             }
+            changePasswordButton.setEnabled(true);
 
         } catch (Exception e) {
             e.printStackTrace();
@@ -179,14 +196,25 @@ public class AccountManagementActivity extends AppCompatActivity {
 
                 // Update password
                 currentUser.setPassword(newPassword);
-                boolean result = userDAO.updateUser(currentUser);
-
-                if (result) {
-                    dialog.dismiss();
-                    Toast.makeText(this, "Password changed successfully!", Toast.LENGTH_LONG).show();
-                } else {
-                    Toast.makeText(this, "Failed to update password. Please try again.", Toast.LENGTH_SHORT).show();
-                }
+                positiveButton.setEnabled(false);
+                asyncDAO.users(this, userDAO -> userDAO.updateUser(currentUser), new AsyncDAO.Callback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean result) {
+                        positiveButton.setEnabled(true);
+                        if (result) {
+                            dialog.dismiss();
+                            Toast.makeText(AccountManagementActivity.this, "Password changed successfully!", Toast.LENGTH_LONG).show();
+                        } else {
+                            Toast.makeText(AccountManagementActivity.this, "Failed to update password. Please try again.", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        positiveButton.setEnabled(true);
+                        Toast.makeText(AccountManagementActivity.this, "Failed to update password. Please try again.", Toast.LENGTH_SHORT).show();
+                    }
+                });
             });
         });
 
@@ -243,12 +271,4 @@ public class AccountManagementActivity extends AppCompatActivity {
                 .setNegativeButton("Cancel", null)
                 .show();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
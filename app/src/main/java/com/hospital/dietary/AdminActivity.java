@@ -59,6 +59,11 @@ public class AdminActivity extends AppCompatActivity {
         accountManagementButton = findViewById(R.id.accountManagementButton);
         backButton = findViewById(R.id.backButton);
 
+        // Load testing only; the release build's TestDataButton adds nothing
+        if (backButton != null) {
+            TestDataButton.addBefore(this, backButton);
+        }
+
         // Set welcome message
         if (welcomeText != null) {
             welcomeText.setText("Welcome to Admin Panel, " +
@@ -12,10 +12,7 @@ import android.os.IBinder;
 import android.util.Log;
 import androidx.core.app.NotificationCompat;
 import com.hospital.dietary.dao.PatientDAO;
-import com.hospital.dietary.models.Patient;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
 
 public class AutoOrderCreationService extends Service {
 
@@ -24,13 +21,11 @@ public class AutoOrderCreationService extends Service {
     private static final int NOTIFICATION_ID = 1001;
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
 
     @Override
     public void onCreate() {
         super.onCreate();
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
         createNotificationChannel();
     }
 
@@ -57,46 +52,36 @@ public class AutoOrderCreationService extends Service {
         return null;
     }
 
+    /**
+     * The daily rollover as of now: archive the retired orders, then start the day's orders
+     */
+    public static PatientDAO.RolloverResult runDailyRollover(DatabaseHelper dbHelper, long now) {
+        // Today's window, from local midnight to the next midnight
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long startOfToday = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_YEAR, 1);
+        long startOfTomorrow = calendar.getTimeInMillis();
+
+        // Archive yesterday's orders and discharged patients before the rollover clears them
+        dbHelper.getRetiredOrderDAO().archiveRetiredOrders(startOfToday);
+
+        // Reset every active patient whose orders predate today in a single
+        // transaction; diet type, texture modifications and liquid thickness
+        // are all carried forward from the previous day, and each meal starts
+        // from the default menu for its diet and today's day of the week
+        return dbHelper.getPatientDAO().rollOverDailyOrders(startOfToday, startOfTomorrow, now);
+    }
+
     private void createDefaultOrdersForActivePatients() {
         try {
-            List<Patient> allPatients = patientDAO.getAllPatients();
-            int createdCount = 0;
-            int pendingCount = 0;
-
-            // Get current day of week for default menu selection
-            Calendar calendar = Calendar.getInstance();
-            int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-
-            for (Patient patient : allPatients) {
-                // Skip discharged patients
-                if (patient.isDischarged()) {
-                    continue;
-                }
-
-                // Check if patient already has today's orders
-                // This prevents duplicate creation if service runs multiple times
-                Calendar patientOrderDate = Calendar.getInstance();
-                patientOrderDate.setTime(patient.getOrderDate() != null ?
-                        patient.getOrderDate() : new Date(0));
-
-                Calendar today = Calendar.getInstance();
-
-                boolean sameDay = patientOrderDate.get(Calendar.YEAR) == today.get(Calendar.YEAR) &&
-                        patientOrderDate.get(Calendar.DAY_OF_YEAR) == today.get(Calendar.DAY_OF_YEAR);
-
-                if (!sameDay) {
-                    // Create default order for today
-                    createDefaultOrderForPatient(patient, dayOfWeek);
-                    createdCount++;
-                } else {
-                    // Patient already has today's order - check if it's pending
-                    if (!patient.isBreakfastComplete() && !patient.isBreakfastNPO() ||
-                            !patient.isLunchComplete() && !patient.isLunchNPO() ||
-                            !patient.isDinnerComplete() && !patient.isDinnerNPO()) {
-                        pendingCount++;
-                    }
-                }
-            }
+            PatientDAO.RolloverResult result = runDailyRollover(dbHelper, System.currentTimeMillis());
+            int createdCount = result.getCreatedCount();
+            int pendingCount = result.getPendingCount();
 
             // Show notification with results
             if (createdCount > 0 || pendingCount > 0) {
@@ -111,62 +96,6 @@ public class AutoOrderCreationService extends Service {
         }
     }
 
-    private void createDefaultOrderForPatient(Patient patient, int dayOfWeek) {
-        try {
-            // Reset meal completion flags
-            patient.setBreakfastComplete(false);
-            patient.setLunchComplete(false);
-            patient.setDinnerComplete(false);
-            patient.setBreakfastNPO(false);
-            patient.setLunchNPO(false);
-            patient.setDinnerNPO(false);
-
-            // Set order date to today
-            patient.setOrderDate(new Date());
-
-            // Keep existing diet information and modifications
-            // The diet type, texture modifications, liquid thickness, etc.
-            // are all carried forward from previous day
-
-            // Clear previous meal selections but keep diet type
-            patient.setBreakfastMain("");
-            patient.setBreakfastSide("");
-            patient.setBreakfastDrink("");
-            patient.setBreakfastJuices("");
-
-            patient.setLunchMain("");
-            patient.setLunchSide("");
-            patient.setLunchDrink("");
-            patient.setLunchJuices("");
-
-            patient.setDinnerMain("");
-            patient.setDinnerSide("");
-            patient.setDinnerDrink("");
-            patient.setDinnerJuices("");
-
-            // Individual meal diets default to main diet if not set
-            if (patient.getBreakfastDiet() == null) {
-                patient.setBreakfastDiet(patient.getDiet());
-            }
-            if (patient.getLunchDiet() == null) {
-                patient.setLunchDiet(patient.getDiet());
-            }
-            if (patient.getDinnerDiet() == null) {
-                patient.setDinnerDiet(patient.getDiet());
-            }
-
-            // Update patient in database
-            patientDAO.updatePatient(patient);
-
-            Log.d(TAG, "Created default order for patient: " +
-                    patient.getPatientFirstName() + " " + patient.getPatientLastName());
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error creating default order for patient ID: " +
-                    patient.getPatientId(), e);
-        }
-    }
-
     private void createNotificationChannel() {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             CharSequence name = "Dietary Auto Orders";
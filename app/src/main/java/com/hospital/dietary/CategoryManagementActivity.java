@@ -6,16 +6,15 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.CategoryDAO;
-import com.hospital.dietary.dao.ItemDAO;
 import java.util.ArrayList;
 import java.util.List;
 
 public class CategoryManagementActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private CategoryDAO categoryDAO;
-    private ItemDAO itemDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -51,9 +50,8 @@ public class CategoryManagementActivity extends AppCompatActivity {
         }
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        categoryDAO = new CategoryDAO(dbHelper);
-        itemDAO = new ItemDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Initialize UI
         initializeUI();
@@ -98,10 +96,12 @@ public class CategoryManagementActivity extends AppCompatActivity {
     }
 
     private void loadCategories() {
-        categories.clear();
-        categories.addAll(categoryDAO.getAllCategoriesWithCounts());
-        categoriesAdapter.notifyDataSetChanged();
-        updateCategoryCount();
+        asyncDAO.run(this, db -> db.getCategoryDAO().getAllCategoriesWithCounts(), result -> {
+            categories.clear();
+            categories.addAll(result);
+            categoriesAdapter.notifyDataSetChanged();
+            updateCategoryCount();
+        });
     }
 
     private void updateCategoryCount() {
@@ -123,18 +123,22 @@ public class CategoryManagementActivity extends AppCompatActivity {
                 return;
             }
 
-            if (categoryDAO.categoryExists(categoryName)) {
-                Toast.makeText(this, "Category already exists", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            long result = categoryDAO.addCategory(categoryName);
-            if (result > 0) {
-                Toast.makeText(this, "Category added successfully", Toast.LENGTH_SHORT).show();
-                loadCategories();
-            } else {
-                Toast.makeText(this, "Failed to add category", Toast.LENGTH_SHORT).show();
-            }
+            asyncDAO.run(this, db -> {
+                CategoryDAO categoryDAO = db.getCategoryDAO();
+                if (categoryDAO.categoryExists(categoryName)) {
+                    return null;
+                }
+                return categoryDAO.addCategory(categoryName);
+            }, result -> {
+                if (result == null) {
+                    Toast.makeText(this, "Category already exists", Toast.LENGTH_SHORT).show();
+                } else if (result > 0) {
+                    Toast.makeText(this, "Category added successfully", Toast.LENGTH_SHORT).show();
+                    loadCategories();
+                } else {
+                    Toast.makeText(this, "Failed to add category", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -175,18 +179,22 @@ public class CategoryManagementActivity extends AppCompatActivity {
                 return;
             }
 
-            if (!newName.equals(category.getName()) && categoryDAO.categoryExists(newName)) {
-                Toast.makeText(this, "Category already exists", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-            int result = categoryDAO.updateCategory(category.getName(), newName);
-            if (result > 0) {
-                Toast.makeText(this, "Category updated successfully", Toast.LENGTH_SHORT).show();
-                loadCategories();
-            } else {
-                Toast.makeText(this, "Failed to update category", Toast.LENGTH_SHORT).show();
-            }
+            asyncDAO.run(this, db -> {
+                CategoryDAO categoryDAO = db.getCategoryDAO();
+                if (!newName.equals(category.getName()) && categoryDAO.categoryExists(newName)) {
+                    return null;
+                }
+                return categoryDAO.updateCategory(category.getName(), newName);
+            }, result -> {
+                if (result == null) {
+                    Toast.makeText(this, "Category already exists", Toast.LENGTH_SHORT).show();
+                } else if (result > 0) {
+                    Toast.makeText(this, "Category updated successfully", Toast.LENGTH_SHORT).show();
+                    loadCategories();
+                } else {
+                    Toast.makeText(this, "Failed to update category", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -195,8 +203,11 @@ public class CategoryManagementActivity extends AppCompatActivity {
 
     private void showCategoryItems(CategoryDAO.CategoryInfo category) {
         // Show items in this category
-        List<com.hospital.dietary.models.Item> items = itemDAO.getItemsByCategory(category.getName());
+        asyncDAO.items(this, itemDAO -> itemDAO.getItemsByCategory(category.getName()),
+                items -> showCategoryItems(category, items));
+    }
 
+    private void showCategoryItems(CategoryDAO.CategoryInfo category, List<com.hospital.dietary.models.Item> items) {
         String[] itemNames = new String[items.size()];
         for (int i = 0; i < items.size(); i++) {
             itemNames[i] = items.get(i).getItemName();
@@ -214,13 +225,14 @@ public class CategoryManagementActivity extends AppCompatActivity {
                 .setTitle("Delete Category")
                 .setMessage("Are you sure you want to delete '" + category.getName() + "'?\n\nThis will delete all items in this category and cannot be undone.")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    int result = categoryDAO.deleteCategory(category.getName());
-                    if (result > 0) {
-                        Toast.makeText(this, "Category and its items deleted successfully", Toast.LENGTH_SHORT).show();
-                        loadCategories();
-                    } else {
-                        Toast.makeText(this, "Failed to delete category", Toast.LENGTH_SHORT).show();
-                    }
+                    asyncDAO.run(this, db -> db.getCategoryDAO().deleteCategory(category.getName()), result -> {
+                        if (result > 0) {
+                            Toast.makeText(this, "Category and its items deleted successfully", Toast.LENGTH_SHORT).show();
+                            loadCategories();
+                        } else {
+                            Toast.makeText(this, "Failed to delete category", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -2,21 +2,210 @@ package com.hospital.dietary;
 
 import android.content.ContentValues;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
+import androidx.annotation.VisibleForTesting;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.CategoryDAO;
+import com.hospital.dietary.dao.CensusCounters;
+import com.hospital.dietary.dao.ChangeBus;
+import com.hospital.dietary.dao.DefaultMenuDAO;
+import com.hospital.dietary.dao.FinalizedOrderDAO;
+import com.hospital.dietary.dao.GalleyStockDAO;
+import com.hospital.dietary.dao.ItemDAO;
+import com.hospital.dietary.dao.MealSelectionDAO;
+import com.hospital.dietary.dao.MealStatusQueue;
+import com.hospital.dietary.dao.MenuCatalog;
+import com.hospital.dietary.dao.OrderDAO;
+import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.PatientSearchIndex;
+import com.hospital.dietary.dao.RetiredOrderDAO;
+import com.hospital.dietary.dao.UserDAO;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * DatabaseHelper class - manages SQLite database creation and migrations
+ * A single process-wide instance owns the open connection and the legacy DAOs
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "HospitalDietaryDB";
-    private static final int DATABASE_VERSION = 12; // Incremented for discharged field
+    public static final int DATABASE_VERSION = 20; // Incremented for the census counters
+
+    // patient_info columns written by PatientDAO that older schemas may lack
+    private static final String[][] PATIENT_COLUMNS_V13 = {
+            {"order_date", "INTEGER"},
+            {"allergies", "TEXT"},
+            {"likes", "TEXT"},
+            {"dislikes", "TEXT"},
+            {"comments", "TEXT"},
+            {"breakfast_main", "TEXT"},
+            {"breakfast_side", "TEXT"},
+            {"breakfast_drink", "TEXT"},
+            {"lunch_main", "TEXT"},
+            {"lunch_side", "TEXT"},
+            {"lunch_drink", "TEXT"},
+            {"dinner_main", "TEXT"},
+            {"dinner_side", "TEXT"},
+            {"dinner_drink", "TEXT"},
+            {"room_sort", "INTEGER"}
+    };
+
+    // patient_info columns only Room's PatientEntity maps, so both layers read the same rows
+    private static final String[][] PATIENT_COLUMNS_V19 = {
+            {"is_puree", "INTEGER DEFAULT 0"},
+            {"preferred_drink", "TEXT"},
+            {"drink_variety", "TEXT"}
+    };
+
+    // Singleton instance
+    private static volatile DatabaseHelper INSTANCE;
+
+    // Row-level notices for the DAOs' writes
+    private final ChangeBus changeBus = new ChangeBus();
+
+    // Shared DAO instances
+    private final PatientDAO patientDAO;
+    private final OrderDAO orderDAO;
+    private final ItemDAO itemDAO;
+    private final UserDAO userDAO;
+    private final CategoryDAO categoryDAO;
+    private final DefaultMenuDAO defaultMenuDAO;
+    private final FinalizedOrderDAO finalizedOrderDAO;
+    private final MealSelectionDAO mealSelectionDAO;
+    private final GalleyStockDAO galleyStockDAO;
+    private final RetiredOrderDAO retiredOrderDAO;
+
+    // Meal complete and NPO taps, written behind in batches
+    private final MealStatusQueue mealStatusQueue;
+
+    // Runs the DAOs above off the main thread
+    private final AsyncDAO asyncDAO;
+
+    // Catalog snapshot; replaced whole after any items or default_menu write
+    private final AtomicInteger menuCatalogVersion = new AtomicInteger();
+    private volatile MenuCatalog menuCatalog;
+
+    // Get database instance
+    public static DatabaseHelper getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (DatabaseHelper.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DatabaseHelper(context.getApplicationContext(), DATABASE_NAME);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // Open a private in-memory database for instrumented tests
+    @VisibleForTesting
+    public static DatabaseHelper createInMemory(Context context) {
+        return new DatabaseHelper(context.getApplicationContext(), null);
+    }
+
+    // Open a named database outside the singleton, so migration tests can upgrade a file they built
+    @VisibleForTesting
+    public static DatabaseHelper createForFile(Context context, String databaseName) {
+        return new DatabaseHelper(context.getApplicationContext(), databaseName);
+    }
+
+    private DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+
+        // WAL lets the auto-order service write while the nurse screens read
+        setWriteAheadLoggingEnabled(true);
+
+        patientDAO = new PatientDAO(this);
+        orderDAO = new OrderDAO(this);
+        itemDAO = new ItemDAO(this);
+        userDAO = new UserDAO(this);
+        categoryDAO = new CategoryDAO(this);
+        defaultMenuDAO = new DefaultMenuDAO(this);
+        finalizedOrderDAO = new FinalizedOrderDAO(this);
+        mealSelectionDAO = new MealSelectionDAO(this);
+        galleyStockDAO = new GalleyStockDAO(this);
+        retiredOrderDAO = new RetiredOrderDAO(this);
+        asyncDAO = new AsyncDAO(this);
+
+        // The journal sits beside the database file; in-memory test databases keep taps in memory
+        mealStatusQueue = new MealStatusQueue(this,
+                databaseName != null ? context.getDatabasePath(databaseName + "-meal-status") : null);
+
+        ChangeBus.Listener catalogWrite = change -> menuCatalogVersion.incrementAndGet();
+        changeBus.subscribe("items", catalogWrite);
+        changeBus.subscribe("default_menu", catalogWrite);
+    }
+
+    // DAO accessors
+    public PatientDAO getPatientDAO() {
+        return patientDAO;
+    }
+
+    public OrderDAO getOrderDAO() {
+        return orderDAO;
+    }
+
+    public ItemDAO getItemDAO() {
+        return itemDAO;
+    }
+
+    public UserDAO getUserDAO() {
+        return userDAO;
+    }
+
+    public CategoryDAO getCategoryDAO() {
+        return categoryDAO;
+    }
 
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    public DefaultMenuDAO getDefaultMenuDAO() {
+        return defaultMenuDAO;
+    }
+
+    public FinalizedOrderDAO getFinalizedOrderDAO() {
+        return finalizedOrderDAO;
+    }
+
+    public MealSelectionDAO getMealSelectionDAO() {
+        return mealSelectionDAO;
+    }
+
+    public GalleyStockDAO getGalleyStockDAO() {
+        return galleyStockDAO;
+    }
+
+    public RetiredOrderDAO getRetiredOrderDAO() {
+        return retiredOrderDAO;
+    }
+
+    public AsyncDAO getAsyncDAO() {
+        return asyncDAO;
+    }
+
+    public MealStatusQueue getMealStatusQueue() {
+        return mealStatusQueue;
+    }
+
+    /**
+     * Current items and default menus, loaded once and shared until the next catalog write
+     */
+    public MenuCatalog getMenuCatalog() {
+        MenuCatalog catalog = menuCatalog;
+        int version = menuCatalogVersion.get();
+        if (catalog == null || catalog.getVersion() != version) {
+            // A write during the load bumps the version, so that snapshot is reloaded next time
+            catalog = MenuCatalog.load(getReadableDatabase(), version);
+            menuCatalog = catalog;
+        }
+        return catalog;
+    }
+
+    public ChangeBus getChangeBus() {
+        return changeBus;
     }
 
     @Override
@@ -26,6 +215,15 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         // Create all tables
         createAllTables(db);
 
+        // Create indexes and the room sort triggers
+        createIndexes(db);
+
+        // Full-text patient search, kept in sync by triggers
+        PatientSearchIndex.create(db);
+
+        // Dashboard counts per wing, kept in sync by triggers
+        CensusCounters.create(db);
+
         // Insert initial data
         insertInitialData(db);
     }
@@ -34,10 +232,11 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
         Log.d(TAG, "Upgrading database from version " + oldVersion + " to " + newVersion);
 
-        // For version 11, ensure all tables exist
-        if (oldVersion < 11) {
-            // Create all tables if they don't exist
+        // Up to version 11, ensure all tables exist. Room's AppDatabase also created version 11
+        // files itself, without categories or finalized_order_items
+        if (oldVersion <= 11) {
             createAllTables(db);
+            insertDefaultCategories(db);
         }
 
         // For version 12, add discharged field
@@ -49,6 +248,79 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 Log.e(TAG, "Error adding discharged column: " + e.getMessage());
             }
         }
+
+        // For version 13, add missing patient columns, the room sort key and indexes
+        if (oldVersion < 13) {
+            for (String[] column : PATIENT_COLUMNS_V13) {
+                addColumnIfMissing(db, "patient_info", column[0], column[1]);
+            }
+
+            // Backfill the census key, which is never NULL, and make "active" a plain equality lookup
+            db.execSQL("UPDATE patient_info SET room_sort = IFNULL(CAST(room_number AS INTEGER), 0)");
+            db.execSQL("UPDATE patient_info SET wing = '' WHERE wing IS NULL");
+            db.execSQL("UPDATE patient_info SET discharged = 0 WHERE discharged IS NULL");
+
+            createIndexes(db);
+            Log.d(TAG, "Upgraded patient_info and created indexes for version 13");
+        }
+
+        // For version 14, normalize meal selections out of the patient_info text columns
+        if (oldVersion < 14) {
+            createMealSelectionTable(db);
+            MealSelectionDAO.backfill(db);
+        }
+
+        // For version 15, add the galley stock rollup; every wing starts stale
+        if (oldVersion < 15) {
+            createGalleyStockTables(db);
+        }
+
+        // For version 16, index patient names and locations for full-text search
+        if (oldVersion < 16) {
+            PatientSearchIndex.create(db);
+        }
+
+        // For version 17, add the order archive; existing history moves on the next archive pass
+        if (oldVersion < 17) {
+            createArchiveTables(db);
+        }
+
+        // For version 18, store each finalized order's meals as one binary record
+        if (oldVersion < 18) {
+            createFinalizedOrderRecords(db);
+        }
+
+        // For version 19, add the columns Room's entities map, now that Room opens this schema as is
+        if (oldVersion < 19) {
+            for (String[] column : PATIENT_COLUMNS_V19) {
+                addColumnIfMissing(db, "patient_info", column[0], column[1]);
+            }
+        }
+
+        // For version 20, count the census per wing with triggers instead of COUNT queries
+        if (oldVersion < 20) {
+            CensusCounters.create(db);
+        }
+    }
+
+    /**
+     * Add a column unless the table already has it
+     */
+    private void addColumnIfMissing(SQLiteDatabase db, String table, String column, String type) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        boolean exists = false;
+        int nameIndex = cursor.getColumnIndex("name");
+        while (cursor.moveToNext()) {
+            if (column.equals(cursor.getString(nameIndex))) {
+                exists = true;
+                break;
+            }
+        }
+        cursor.close();
+
+        if (!exists) {
+            db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+        }
     }
 
     /**
@@ -113,7 +385,24 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "breakfast_ada INTEGER DEFAULT 0," +
                 "lunch_ada INTEGER DEFAULT 0," +
                 "dinner_ada INTEGER DEFAULT 0," +
-                "discharged INTEGER DEFAULT 0" +
+                "allergies TEXT," +
+                "likes TEXT," +
+                "dislikes TEXT," +
+                "comments TEXT," +
+                "breakfast_main TEXT," +
+                "breakfast_side TEXT," +
+                "breakfast_drink TEXT," +
+                "lunch_main TEXT," +
+                "lunch_side TEXT," +
+                "lunch_drink TEXT," +
+                "dinner_main TEXT," +
+                "dinner_side TEXT," +
+                "dinner_drink TEXT," +
+                "discharged INTEGER DEFAULT 0," +
+                "room_sort INTEGER," +
+                "is_puree INTEGER DEFAULT 0," +
+                "preferred_drink TEXT," +
+                "drink_variety TEXT" +
                 ")";
         db.execSQL(CREATE_PATIENT_TABLE);
 
@@ -179,7 +468,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 "wing TEXT," +
                 "room TEXT," +
                 "order_date TEXT," +
-                "diet_type TEXT" +
+                "diet_type TEXT," +
+                "order_record BLOB" +
                 ")";
         db.execSQL(CREATE_FINALIZED_ORDERS_TABLE);
 
@@ -195,9 +485,252 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 ")";
         db.execSQL(CREATE_FINALIZED_ORDER_ITEMS_TABLE);
 
+        createMealSelectionTable(db);
+        createGalleyStockTables(db);
+        createArchiveTables(db);
+        createFinalizedOrderRecords(db);
+
         Log.d(TAG, "All tables created successfully");
     }
 
+    /**
+     * Add the order_record column FinalizedOrderRecord encodes into, live and archived alike,
+     * and the index a day's orders are read through
+     */
+    private void createFinalizedOrderRecords(SQLiteDatabase db) {
+        // Added to both at the end, so archived rows still move with SELECT *
+        addColumnIfMissing(db, "finalized_order", "order_record", "BLOB");
+        addColumnIfMissing(db, "finalized_order_archive", "order_record", "BLOB");
+
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_finalized_order_date " +
+                "ON finalized_order(order_date, wing, room)");
+    }
+
+    /**
+     * Create patient_meal_selection - one row per item on a patient's tray for a service date and meal
+     */
+    private void createMealSelectionTable(SQLiteDatabase db) {
+        String CREATE_MEAL_SELECTION_TABLE = "CREATE TABLE IF NOT EXISTS patient_meal_selection (" +
+                "selection_id INTEGER PRIMARY KEY AUTOINCREMENT," +
+                "patient_id INTEGER NOT NULL," +
+                "service_date TEXT NOT NULL," +
+                "meal TEXT NOT NULL," +
+                "item_id INTEGER," +
+                "item_name TEXT NOT NULL," +
+                "quantity INTEGER NOT NULL DEFAULT 1," +
+                "FOREIGN KEY(patient_id) REFERENCES patient_info(patient_id)," +
+                "FOREIGN KEY(item_id) REFERENCES items(item_id)" +
+                ")";
+        db.execSQL(CREATE_MEAL_SELECTION_TABLE);
+
+        // One row per item per tray; also serves the per-patient replace
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_meal_selection_patient " +
+                "ON patient_meal_selection(patient_id, service_date, meal, item_name)");
+
+        // Kitchen totals group by item within a service date and meal
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_meal_selection_totals " +
+                "ON patient_meal_selection(service_date, meal, item_name, quantity, patient_id)");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS patient_info_delete_selections " +
+                "AFTER DELETE ON patient_info BEGIN " +
+                "DELETE FROM patient_meal_selection WHERE patient_id = OLD.patient_id; END");
+    }
+
+    /**
+     * Create the galley stock rollup and the triggers that mark a wing stale when its inputs change
+     */
+    private void createGalleyStockTables(SQLiteDatabase db) {
+        // Clustered on the screen's grouping so the read needs no sort
+        String CREATE_GALLEY_STOCK_FORECAST_TABLE = "CREATE TABLE IF NOT EXISTS galley_stock_forecast (" +
+                "wing TEXT NOT NULL," +
+                "category TEXT NOT NULL," +
+                "item_name TEXT NOT NULL," +
+                "thickness TEXT NOT NULL," +
+                "meal_slot INTEGER NOT NULL," +
+                "service_date TEXT NOT NULL," +
+                "meal TEXT NOT NULL," +
+                "planned_quantity INTEGER NOT NULL DEFAULT 0," +
+                "historical_quantity INTEGER NOT NULL DEFAULT 0," +
+                "PRIMARY KEY (wing, category, item_name, thickness, meal_slot)" +
+                ") WITHOUT ROWID";
+        db.execSQL(CREATE_GALLEY_STOCK_FORECAST_TABLE);
+
+        // A wing without a row for today is rebuilt on the next refresh
+        String CREATE_GALLEY_STOCK_REFRESH_TABLE = "CREATE TABLE IF NOT EXISTS galley_stock_refresh (" +
+                "wing TEXT PRIMARY KEY," +
+                "refreshed_date TEXT NOT NULL" +
+                ")";
+        db.execSQL(CREATE_GALLEY_STOCK_REFRESH_TABLE);
+
+        // Finalized items are archived by order
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_finalized_order_items_order " +
+                "ON finalized_order_items(order_id, meal_type)");
+
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS galley_stock_patient_insert " +
+                "AFTER INSERT ON patient_info BEGIN " +
+                "DELETE FROM galley_stock_refresh WHERE wing = NEW.wing; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS galley_stock_patient_update " +
+                "AFTER UPDATE OF wing, diet, breakfast_diet, lunch_diet, dinner_diet, " +
+                "breakfast_npo, lunch_npo, dinner_npo, nectar_thick, honey_thick, pudding_thick, discharged " +
+                "ON patient_info BEGIN " +
+                "DELETE FROM galley_stock_refresh WHERE wing IN (OLD.wing, NEW.wing); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS galley_stock_patient_delete " +
+                "AFTER DELETE ON patient_info BEGIN " +
+                "DELETE FROM galley_stock_refresh WHERE wing = OLD.wing; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS galley_stock_selection_insert " +
+                "AFTER INSERT ON patient_meal_selection BEGIN " +
+                "DELETE FROM galley_stock_refresh WHERE wing = " +
+                "(SELECT wing FROM patient_info WHERE patient_id = NEW.patient_id); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS galley_stock_selection_delete " +
+                "AFTER DELETE ON patient_meal_selection BEGIN " +
+                "DELETE FROM galley_stock_refresh WHERE wing = " +
+                "(SELECT wing FROM patient_info WHERE patient_id = OLD.patient_id); END");
+
+        // Default menus feed every wing
+        for (String event : new String[]{"INSERT", "UPDATE", "DELETE"}) {
+            db.execSQL("CREATE TRIGGER IF NOT EXISTS galley_stock_default_menu_" + event.toLowerCase(Locale.US) + " " +
+                    "AFTER " + event + " ON default_menu BEGIN " +
+                    "DELETE FROM galley_stock_refresh; END");
+        }
+    }
+
+    /**
+     * Create the archive that retired patients and old finalized orders are moved into
+     */
+    private void createArchiveTables(SQLiteDatabase db) {
+        // patient_info's columns plus the service date the orders were for
+        String CREATE_RETIRED_ORDER_TABLE = "CREATE TABLE IF NOT EXISTS retired_order (" +
+                "archive_id INTEGER PRIMARY KEY," +
+                "service_date TEXT NOT NULL," +
+                "patient_id INTEGER NOT NULL," +
+                "patient_first_name TEXT," +
+                "patient_last_name TEXT," +
+                "wing TEXT," +
+                "room_number TEXT," +
+                "room_sort INTEGER," +
+                "diet_type TEXT," +
+                "diet TEXT," +
+                "ada_diet INTEGER DEFAULT 0," +
+                "fluid_restriction TEXT," +
+                "texture_modifications TEXT," +
+                "mechanical_chopped INTEGER DEFAULT 0," +
+                "mechanical_ground INTEGER DEFAULT 0," +
+                "bite_size INTEGER DEFAULT 0," +
+                "bread_ok INTEGER DEFAULT 0," +
+                "nectar_thick INTEGER DEFAULT 0," +
+                "pudding_thick INTEGER DEFAULT 0," +
+                "honey_thick INTEGER DEFAULT 0," +
+                "extra_gravy INTEGER DEFAULT 0," +
+                "meats_only INTEGER DEFAULT 0," +
+                "breakfast_complete INTEGER DEFAULT 0," +
+                "lunch_complete INTEGER DEFAULT 0," +
+                "dinner_complete INTEGER DEFAULT 0," +
+                "breakfast_npo INTEGER DEFAULT 0," +
+                "lunch_npo INTEGER DEFAULT 0," +
+                "dinner_npo INTEGER DEFAULT 0," +
+                "breakfast_items TEXT," +
+                "lunch_items TEXT," +
+                "dinner_items TEXT," +
+                "breakfast_juices TEXT," +
+                "lunch_juices TEXT," +
+                "dinner_juices TEXT," +
+                "breakfast_drinks TEXT," +
+                "lunch_drinks TEXT," +
+                "dinner_drinks TEXT," +
+                "created_date INTEGER," +
+                "order_date INTEGER," +
+                "breakfast_diet TEXT," +
+                "lunch_diet TEXT," +
+                "dinner_diet TEXT," +
+                "breakfast_ada INTEGER DEFAULT 0," +
+                "lunch_ada INTEGER DEFAULT 0," +
+                "dinner_ada INTEGER DEFAULT 0," +
+                "allergies TEXT," +
+                "likes TEXT," +
+                "dislikes TEXT," +
+                "comments TEXT," +
+                "breakfast_main TEXT," +
+                "breakfast_side TEXT," +
+                "breakfast_drink TEXT," +
+                "lunch_main TEXT," +
+                "lunch_side TEXT," +
+                "lunch_drink TEXT," +
+                "dinner_main TEXT," +
+                "dinner_side TEXT," +
+                "dinner_drink TEXT," +
+                "discharged INTEGER DEFAULT 0" +
+                ")";
+        db.execSQL(CREATE_RETIRED_ORDER_TABLE);
+
+        // A day's rows sit together in census order, so the retired screen reads one index range
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_retired_order_date " +
+                "ON retired_order(service_date, wing, room_sort, patient_id)");
+        // One snapshot per patient and day; archiving twice replaces it
+        db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS idx_retired_order_patient " +
+                "ON retired_order(service_date, patient_id)");
+
+        // Same columns as the live tables, whichever layer created them, so rows move with SELECT *
+        db.execSQL("CREATE TABLE IF NOT EXISTS finalized_order_archive AS " +
+                "SELECT * FROM finalized_order WHERE 0");
+        db.execSQL("CREATE TABLE IF NOT EXISTS finalized_order_items_archive AS " +
+                "SELECT * FROM finalized_order_items WHERE 0");
+        // Laid out like the live indexes, so FinalizedOrderDAO's UNION ALL reads merge without a sort
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_finalized_order_archive_date " +
+                "ON finalized_order_archive(order_date, wing, room)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_finalized_order_archive_order " +
+                "ON finalized_order_archive(order_id)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_finalized_order_items_archive_order " +
+                "ON finalized_order_items_archive(order_id, meal_type)");
+    }
+
+    /**
+     * Create secondary indexes and the triggers that keep the census key (wing, room_sort) filled in
+     */
+    private void createIndexes(SQLiteDatabase db) {
+        // Census lists sort by wing, then numeric room
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_patient_info_location " +
+                "ON patient_info(wing, room_sort)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_patient_info_discharged " +
+                "ON patient_info(discharged, wing, room_sort)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_patient_info_completion " +
+                "ON patient_info(discharged, breakfast_complete, lunch_complete, dinner_complete, wing, room_sort)");
+
+        // Order lookups by patient and by day
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_meal_orders_patient_date " +
+                "ON meal_orders(patient_id, order_date, timestamp)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_meal_orders_date " +
+                "ON meal_orders(order_date)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_order_items_order " +
+                "ON order_items(order_id, item_id)");
+
+        // Menu and catalog lookups
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_default_menu_lookup " +
+                "ON default_menu(diet_type, meal_type, day_of_week)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_category_name " +
+                "ON items(category, name)");
+        db.execSQL("CREATE INDEX IF NOT EXISTS idx_items_ada_category_name " +
+                "ON items(is_ada_friendly, category, name)");
+
+        // room_number is free text, so the numeric sort key is derived on write; no number sorts as 0
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS patient_info_room_sort_insert " +
+                "AFTER INSERT ON patient_info BEGIN " +
+                "UPDATE patient_info SET room_sort = IFNULL(CAST(NEW.room_number AS INTEGER), 0) " +
+                "WHERE patient_id = NEW.patient_id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS patient_info_room_sort_update " +
+                "AFTER UPDATE OF room_number ON patient_info BEGIN " +
+                "UPDATE patient_info SET room_sort = IFNULL(CAST(NEW.room_number AS INTEGER), 0) " +
+                "WHERE patient_id = NEW.patient_id; END");
+
+        // No wing is stored as '', as census_counter counts it. The census indexes are on plain
+        // columns, since expression indexes need SQLite 3.9 (API 24), so the key is kept non-NULL
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS patient_info_wing_insert " +
+                "AFTER INSERT ON patient_info WHEN NEW.wing IS NULL BEGIN " +
+                "UPDATE patient_info SET wing = '' WHERE patient_id = NEW.patient_id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS patient_info_wing_update " +
+                "AFTER UPDATE OF wing ON patient_info WHEN NEW.wing IS NULL BEGIN " +
+                "UPDATE patient_info SET wing = '' WHERE patient_id = NEW.patient_id; END");
+    }
+
     /**
      * Insert initial data into the database
      */
@@ -3,13 +3,13 @@ package com.hospital.dietary;
 import android.app.AlertDialog;
 import android.os.Bundle;
 import android.text.InputType;
-import android.util.Log;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.DefaultMenuDAO;
 import com.hospital.dietary.models.DefaultMenuItem;
 import java.util.ArrayList;
@@ -21,7 +21,7 @@ public class DefaultMenuManagementActivity extends AppCompatActivity {
     private static final String TAG = "DefaultMenuManagement";
 
     private DatabaseHelper dbHelper;
-    private DefaultMenuDAO defaultMenuDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -75,8 +75,8 @@ public class DefaultMenuManagementActivity extends AppCompatActivity {
         }
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        defaultMenuDAO = new DefaultMenuDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Initialize UI
         initializeUI();
@@ -161,20 +161,22 @@ public class DefaultMenuManagementActivity extends AppCompatActivity {
     }
 
     private void loadMenuItems() {
-        try {
-            currentMenuItems.clear();
-            currentMenuItems = defaultMenuDAO.getDefaultMenuItems(
-                    selectedDietType, selectedMealType, selectedDayOfWeek);
-
-            if (currentMenuItems == null) {
-                currentMenuItems = new ArrayList<>();
-            }
+        String dietType = selectedDietType;
+        String mealType = selectedMealType;
+        String dayOfWeek = selectedDayOfWeek;
+        asyncDAO.run(this, db -> db.getDefaultMenuDAO().getDefaultMenuItems(dietType, mealType, dayOfWeek),
+                new AsyncDAO.Callback<List<DefaultMenuItem>>() {
+                    @Override
+                    public void onSuccess(List<DefaultMenuItem> items) {
+                        currentMenuItems = items != null ? items : new ArrayList<>();
+                        menuAdapter.notifyDataSetChanged();
+                    }
 
-            menuAdapter.notifyDataSetChanged();
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading menu items", e);
-            Toast.makeText(this, "Error loading menu items", Toast.LENGTH_SHORT).show();
-        }
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(DefaultMenuManagementActivity.this, "Error loading menu items", Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
     private void showAddItemDialog() {
@@ -236,20 +238,27 @@ public class DefaultMenuManagementActivity extends AppCompatActivity {
     }
 
     private void saveMenuChanges() {
-        try {
-            // Save all items for current selection
-            boolean success = defaultMenuDAO.saveDefaultMenuItems(
-                    selectedDietType, selectedMealType, selectedDayOfWeek, currentMenuItems);
-
-            if (success) {
-                Toast.makeText(this, "Menu changes saved successfully", Toast.LENGTH_SHORT).show();
-            } else {
-                Toast.makeText(this, "Error saving menu changes", Toast.LENGTH_SHORT).show();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error saving menu changes", e);
-            Toast.makeText(this, "Error saving changes: " + e.getMessage(), Toast.LENGTH_LONG).show();
-        }
+        // Save all items for current selection
+        String dietType = selectedDietType;
+        String mealType = selectedMealType;
+        String dayOfWeek = selectedDayOfWeek;
+        List<DefaultMenuItem> items = new ArrayList<>(currentMenuItems);
+        asyncDAO.run(this, db -> db.getDefaultMenuDAO().saveDefaultMenuItems(dietType, mealType, dayOfWeek, items),
+                new AsyncDAO.Callback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean success) {
+                        if (success) {
+                            Toast.makeText(DefaultMenuManagementActivity.this, "Menu changes saved successfully", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(DefaultMenuManagementActivity.this, "Error saving menu changes", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(DefaultMenuManagementActivity.this, "Error saving changes: " + error, Toast.LENGTH_LONG).show();
+                    }
+                });
     }
 
     private void confirmResetToDefaults() {
@@ -262,22 +271,30 @@ public class DefaultMenuManagementActivity extends AppCompatActivity {
     }
 
     private void resetToDefaults() {
-        try {
+        asyncDAO.run(this, db -> {
+            DefaultMenuDAO defaultMenuDAO = db.getDefaultMenuDAO();
+
             // Clear all existing default menus
             defaultMenuDAO.clearAllDefaultMenus();
 
             // Add basic defaults
-            createBasicDefaults();
+            createBasicDefaults(defaultMenuDAO);
+            return null;
+        }, new AsyncDAO.Callback<Void>() {
+            @Override
+            public void onSuccess(Void result) {
+                loadMenuItems();
+                Toast.makeText(DefaultMenuManagementActivity.this, "Reset to defaults completed", Toast.LENGTH_SHORT).show();
+            }
 
-            loadMenuItems();
-            Toast.makeText(this, "Reset to defaults completed", Toast.LENGTH_SHORT).show();
-        } catch (Exception e) {
-            Log.e(TAG, "Error resetting to defaults", e);
-            Toast.makeText(this, "Error resetting: " + e.getMessage(), Toast.LENGTH_LONG).show();
-        }
+            @Override
+            public void onError(String error) {
+                Toast.makeText(DefaultMenuManagementActivity.this, "Error resetting: " + error, Toast.LENGTH_LONG).show();
+            }
+        });
     }
 
-    private void createBasicDefaults() {
+    private void createBasicDefaults(DefaultMenuDAO defaultMenuDAO) {
         // Create some basic default items for each diet type
         // This is a simplified version - you can expand this as needed
 
@@ -334,14 +351,6 @@ public class DefaultMenuManagementActivity extends AppCompatActivity {
                 .show();
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
-
     // Adapter for menu items
     private class DefaultMenuAdapter extends BaseAdapter {
         @Override
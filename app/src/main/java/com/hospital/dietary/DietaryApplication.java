@@ -0,0 +1,63 @@
+package com.hospital.dietary;
+
+import android.app.Application;
+import android.os.Build;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+import androidx.annotation.RequiresApi;
+
+/**
+ * DietaryApplication class - process-wide setup
+ * Debug builds log disk access on the UI thread, and from Android 9 fail it when a DAO made it
+ */
+public class DietaryApplication extends Application {
+
+    private static final String TAG = "DietaryApplication";
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        if (BuildConfig.DEBUG) {
+            enableStrictMode();
+        }
+    }
+
+    private void enableStrictMode() {
+        StrictMode.ThreadPolicy.Builder threadPolicy = new StrictMode.ThreadPolicy.Builder()
+                .detectDiskReads()
+                .detectDiskWrites()
+                .penaltyLog();
+
+        // Preferences and resources also read disk on the UI thread, so only DAO frames are fatal
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+            threadPolicy.penaltyListener(Runnable::run, violation -> {
+                if (isDatabaseViolation(violation)) {
+                    throw new IllegalStateException("Database access on the UI thread - use AsyncDAO", violation);
+                }
+            });
+        }
+        StrictMode.setThreadPolicy(threadPolicy.build());
+
+        StrictMode.setVmPolicy(new StrictMode.VmPolicy.Builder()
+                .detectLeakedSqlLiteObjects()
+                .detectLeakedClosableObjects()
+                .penaltyLog()
+                .build());
+
+        Log.d(TAG, "StrictMode enabled");
+    }
+
+    @RequiresApi(Build.VERSION_CODES.P)
+    private static boolean isDatabaseViolation(Violation violation) {
+        for (StackTraceElement frame : violation.getStackTrace()) {
+            String className = frame.getClassName();
+            if (className.startsWith("com.hospital.dietary.dao.")
+                    || className.equals(DatabaseHelper.class.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
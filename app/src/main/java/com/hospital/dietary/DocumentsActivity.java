@@ -73,13 +73,19 @@ public class DocumentsActivity extends AppCompatActivity {
     }
 
     private void openProductionSheets() {
-        // TODO: Implement Production Sheets functionality
-        Toast.makeText(this, "Production Sheets - Coming Soon!", Toast.LENGTH_SHORT).show();
+        Intent intent = new Intent(this, ProductionSheetsActivity.class);
+        intent.putExtra("current_user", currentUsername);
+        intent.putExtra("user_role", currentUserRole);
+        intent.putExtra("user_full_name", currentUserFullName);
+        startActivity(intent);
     }
 
     private void openGalleyStock() {
-        // TODO: Implement Galley Stock functionality
-        Toast.makeText(this, "Galley Stock - Coming Soon!", Toast.LENGTH_SHORT).show();
+        Intent intent = new Intent(this, StockSheetsActivity.class);
+        intent.putExtra("current_user", currentUsername);
+        intent.putExtra("user_role", currentUserRole);
+        intent.putExtra("user_full_name", currentUserFullName);
+        startActivity(intent);
     }
 
     private void openMisc() {
@@ -7,7 +7,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.models.Patient;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,7 +17,7 @@ public class EditPatientActivity extends AppCompatActivity {
     private static final String TAG = "EditPatientActivity";
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     private Patient currentPatient;
     private long patientId;
 
@@ -88,8 +88,8 @@ public class EditPatientActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title
         if (getSupportActionBar() != null) {
@@ -516,12 +516,21 @@ public class EditPatientActivity extends AppCompatActivity {
     }
 
     private void loadPatientData() {
-        currentPatient = patientDAO.getPatientById((int) patientId);
-        if (currentPatient == null) {
-            Toast.makeText(this, "Error: Patient not found", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
+        // Nothing to save until the record is on screen
+        updatePatientButton.setEnabled(false);
+        asyncDAO.patients(this, patientDAO -> patientDAO.getPatientById((int) patientId), patient -> {
+            if (patient == null) {
+                Toast.makeText(this, "Error: Patient not found", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            showPatientData(patient);
+            updatePatientButton.setEnabled(true);
+        });
+    }
+
+    private void showPatientData(Patient patient) {
+        currentPatient = patient;
 
         // Populate basic info
         firstNameInput.setText(currentPatient.getFirstName());
@@ -639,19 +648,33 @@ public class EditPatientActivity extends AppCompatActivity {
         currentPatient.setTextureModifications(textureModifications.toString());
 
         // Save to database
-        boolean success = patientDAO.updatePatient(currentPatient);
-
-        if (success) {
-            Toast.makeText(this, "Patient updated successfully", Toast.LENGTH_SHORT).show();
+        Patient patient = currentPatient;
+        updatePatientButton.setEnabled(false);
+        // The normalized tray rows are saved with the meal columns
+        asyncDAO.run(this, db -> db.getPatientDAO().updatePatientWithSelections(patient),
+                new AsyncDAO.Callback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean success) {
+                        if (success) {
+                            Toast.makeText(EditPatientActivity.this, "Patient updated successfully", Toast.LENGTH_SHORT).show();
+
+                            // Set result and finish
+                            Intent resultIntent = new Intent();
+                            resultIntent.putExtra("updated_patient_id", patientId);
+                            setResult(RESULT_OK, resultIntent);
+                            finish();
+                        } else {
+                            updatePatientButton.setEnabled(true);
+                            Toast.makeText(EditPatientActivity.this, "Error updating patient", Toast.LENGTH_SHORT).show();
+                        }
+                    }
 
-            // Set result and finish
-            Intent resultIntent = new Intent();
-            resultIntent.putExtra("updated_patient_id", patientId);
-            setResult(RESULT_OK, resultIntent);
-            finish();
-        } else {
-            Toast.makeText(this, "Error updating patient", Toast.LENGTH_SHORT).show();
-        }
+                    @Override
+                    public void onError(String error) {
+                        updatePatientButton.setEnabled(true);
+                        Toast.makeText(EditPatientActivity.this, "Error updating patient: " + error, Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
     @Override
@@ -662,12 +685,4 @@ public class EditPatientActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
@@ -4,9 +4,10 @@ import android.content.Intent;
 import android.graphics.Color;
 import android.graphics.Typeface;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.SparseBooleanArray;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
@@ -14,16 +15,24 @@ import android.view.ViewGroup;
 import android.widget.*;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.annotation.NonNull;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.PatientCensusPager;
 import com.hospital.dietary.dao.PatientDAO;
-import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.dao.PatientSearchIndex;
+import com.hospital.dietary.models.PatientSummary;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ExistingPatientsActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
 
     // User information
     private String currentUsername;
@@ -35,7 +44,7 @@ public class ExistingPatientsActivity extends AppCompatActivity {
     private EditText searchInput;
     private Spinner dayFilterSpinner;
     private TextView patientsCountText;
-    private ListView patientsListView;
+    private RecyclerView patientsRecyclerView;
     private LinearLayout bulkOperationsContainer;
     private CheckBox selectAllCheckBox;
     private Button printMenusButton;
@@ -43,9 +52,19 @@ public class ExistingPatientsActivity extends AppCompatActivity {
     private Button viewPatientDetailsButton;  // NEW
 
     // Data
-    private List<Patient> allPatients = new ArrayList<>();
-    private List<Patient> filteredPatients = new ArrayList<>();
-    private PatientAdapter patientsAdapter;
+    private List<PatientSummary> allPatients = new ArrayList<>();
+    private List<PatientSummary> filteredPatients = new ArrayList<>();
+    private PatientListAdapter patientsAdapter;
+    private final PatientCensusPager censusPager = new PatientCensusPager();
+    private boolean loadingPage = false;
+
+    // Search: typing settles for SEARCH_DELAY_MS, then a longer query narrows the last results in memory
+    private static final long SEARCH_DELAY_MS = 250;
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = this::filterPatients;
+    private final ExecutorService filterExecutor = Executors.newSingleThreadExecutor();
+    private List<String> lastSearchWords = Collections.emptyList();
+    private List<PatientSummary> lastSearchResults;
     private DayFilterAdapter dayFilterAdapter;
 
     // Date tracking
@@ -64,8 +83,9 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
+        dbHelper.getChangeBus().subscribe("patient_info", censusPager);
 
         // Setup toolbar
         setupToolbar();
@@ -96,7 +116,7 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         searchInput = findViewById(R.id.searchInput);
         dayFilterSpinner = findViewById(R.id.dayFilterSpinner);
         patientsCountText = findViewById(R.id.patientsCountText);
-        patientsListView = findViewById(R.id.patientsListView);
+        patientsRecyclerView = findViewById(R.id.patientsRecyclerView);
         bulkOperationsContainer = findViewById(R.id.bulkOperationsContainer);
         selectAllCheckBox = findViewById(R.id.selectAllCheckBox);
         printMenusButton = findViewById(R.id.printMenusButton);
@@ -104,9 +124,11 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         viewPatientDetailsButton = findViewById(R.id.viewPatientDetailsButton);  // NEW
 
         // Setup patients adapter
-        patientsAdapter = new PatientAdapter();
-        patientsListView.setAdapter(patientsAdapter);
-        patientsListView.setChoiceMode(ListView.CHOICE_MODE_MULTIPLE);
+        patientsAdapter = new PatientListAdapter(android.R.layout.simple_list_item_multiple_choice, true,
+                (holder, patient) -> holder.text1.setText(patient.getFullName() + "\n" +
+                        patient.getWing() + " " + patient.getRoomNumber() + " | " +
+                        patient.getDiet()));
+        patientsAdapter.attachTo(patientsRecyclerView, Color.parseColor("#ecf0f1"));
     }
 
     private void setupDayFilter() {
@@ -143,7 +165,8 @@ public class ExistingPatientsActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
-                filterPatients();
+                searchHandler.removeCallbacks(searchRunnable);
+                searchHandler.postDelayed(searchRunnable, SEARCH_DELAY_MS);
             }
 
             @Override
@@ -161,34 +184,34 @@ public class ExistingPatientsActivity extends AppCompatActivity {
             public void onNothingSelected(AdapterView<?> parent) {}
         });
 
-        // Select all checkbox
+        // Select all checkbox; only taps select, the adapter keeps the box in step otherwise
         selectAllCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
-            if (patientsAdapter != null) {
+            if (buttonView.isPressed()) {
                 patientsAdapter.selectAll(isChecked);
-                updateBulkOperationVisibility();
             }
         });
 
-        // Patient list item click
-        patientsListView.setOnItemClickListener((parent, view, position, id) -> {
-            // Update selection state
-            if (patientsAdapter != null) {
-                patientsAdapter.toggleSelection(position);
-                updateBulkOperationVisibility();
+        // Patient list item click toggles selection
+        patientsAdapter.setOnSelectionChangedListener(() -> {
+            updateBulkOperationVisibility();
+            if (selectAllCheckBox != null) {
+                selectAllCheckBox.setChecked(patientsAdapter.areAllSelected());
+            }
+        });
 
-                // Update select all checkbox state
-                if (selectAllCheckBox != null) {
-                    selectAllCheckBox.setChecked(patientsAdapter.areAllSelected());
+        // Read the next census page as the list nears its end
+        patientsRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (layoutManager.findLastVisibleItemPosition() >= patientsAdapter.getItemCount() - 10) {
+                    loadMorePatients();
                 }
             }
         });
 
         // Long click for patient details
-        patientsListView.setOnItemLongClickListener((parent, view, position, id) -> {
-            Patient patient = filteredPatients.get(position);
-            openPatientDetails(patient);
-            return true;
-        });
+        patientsAdapter.setOnPatientLongClickListener(this::openPatientDetails);
 
         // Bulk operation buttons
         if (printMenusButton != null) {
@@ -202,7 +225,7 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         // NEW: View Patient Details button
         if (viewPatientDetailsButton != null) {
             viewPatientDetailsButton.setOnClickListener(v -> {
-                List<Patient> selectedPatients = patientsAdapter.getSelectedPatients();
+                List<PatientSummary> selectedPatients = patientsAdapter.getSelectedPatients();
                 if (selectedPatients.size() == 1) {
                     openPatientDetails(selectedPatients.get(0));
                 }
@@ -210,7 +233,7 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         }
     }
 
-    private void openPatientDetails(Patient patient) {
+    private void openPatientDetails(PatientSummary patient) {
         Intent intent = new Intent(this, PatientDetailActivity.class);
         intent.putExtra("patient_id", patient.getPatientId());
         intent.putExtra("current_user", currentUsername);
@@ -219,65 +242,123 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         startActivity(intent);
     }
 
+    // Re-read only the census pages that changed since the last load
     private void loadPatients() {
-        try {
-            allPatients.clear();
-            allPatients.addAll(patientDAO.getAllPatients());
+        asyncDAO.patients(this, censusPager::refresh, new AsyncDAO.Callback<List<PatientSummary>>() {
+            @Override
+            public void onSuccess(List<PatientSummary> patients) {
+                allPatients.clear();
+                allPatients.addAll(patients);
+                lastSearchResults = null;
 
-            // Clear select all checkbox when reloading data
-            if (selectAllCheckBox != null) {
-                selectAllCheckBox.setChecked(false);
+                // Clear selections when reloading data
+                patientsAdapter.selectAll(false);
+
+                filterPatients();
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(ExistingPatientsActivity.this, "Error loading patients: " + error, Toast.LENGTH_SHORT).show();
             }
+        });
+    }
 
-            filterPatients();
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error loading patients: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+    private void loadMorePatients() {
+        // Search results already cover the whole census
+        if (loadingPage || !censusPager.hasMore() || !getSearchWords().isEmpty()) {
+            return;
         }
+        loadingPage = true;
+        asyncDAO.patients(this, censusPager::loadNextPage, new AsyncDAO.Callback<List<PatientSummary>>() {
+            @Override
+            public void onSuccess(List<PatientSummary> patients) {
+                loadingPage = false;
+                allPatients.clear();
+                allPatients.addAll(patients);
+                filterPatients();
+            }
+
+            @Override
+            public void onError(String error) {
+                loadingPage = false;
+                Toast.makeText(ExistingPatientsActivity.this, "Error loading patients: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
+    private List<String> getSearchWords() {
+        return PatientSearchIndex.words(searchInput != null ? searchInput.getText().toString() : "");
+    }
+
+    // No search shows the loaded census pages; a search asks the full-text index for the whole census,
+    // unless the user only kept typing, in which case the last results are narrowed off the UI thread
     private void filterPatients() {
-        try {
-            filteredPatients.clear();
-
-            String searchQuery = searchInput != null ?
-                    searchInput.getText().toString().toLowerCase().trim() : "";
-            int selectedDayIndex = dayFilterSpinner != null ?
-                    dayFilterSpinner.getSelectedItemPosition() : 0;
-
-            for (Patient patient : allPatients) {
-                // Skip discharged patients
-                if (patient.isDischarged()) continue;
-
-                // Apply search filter
-                boolean matchesSearch = searchQuery.isEmpty() ||
-                        patient.getPatientFirstName().toLowerCase().contains(searchQuery) ||
-                        patient.getPatientLastName().toLowerCase().contains(searchQuery) ||
-                        patient.getWing().toLowerCase().contains(searchQuery) ||
-                        patient.getRoomNumber().toLowerCase().contains(searchQuery) ||
-                        patient.getDiet().toLowerCase().contains(searchQuery);
-
-                if (matchesSearch) {
-                    // Apply day filter (simplified for now - you can enhance this)
-                    filteredPatients.add(patient);
+        searchHandler.removeCallbacks(searchRunnable);
+
+        List<String> words = getSearchWords();
+        if (words.isEmpty()) {
+            lastSearchWords = words;
+            lastSearchResults = null;
+            showFilteredPatients(allPatients);
+            return;
+        }
+
+        if (lastSearchResults != null && PatientSearchIndex.narrows(lastSearchWords, words)) {
+            List<PatientSummary> candidates = lastSearchResults;
+            filterExecutor.execute(() -> {
+                List<PatientSummary> matches = new ArrayList<>();
+                for (PatientSummary patient : candidates) {
+                    if (PatientSearchIndex.matches(patient.getSearchKey(), words)) {
+                        matches.add(patient);
+                    }
                 }
+                runOnUiThread(() -> showSearchResults(words, matches));
+            });
+            return;
+        }
+
+        String searchText = searchInput.getText().toString();
+        asyncDAO.patients(this, patientDAO -> patientDAO.searchActivePatientSummaries(searchText),
+                new AsyncDAO.Callback<List<PatientSummary>>() {
+            @Override
+            public void onSuccess(List<PatientSummary> matches) {
+                showSearchResults(words, matches);
             }
 
-            // Update UI
-            patientsAdapter.notifyDataSetChanged();
-            updatePatientCount();
-            updateBulkOperationVisibility();
+            @Override
+            public void onError(String error) {
+                Toast.makeText(ExistingPatientsActivity.this, "Error filtering patients", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Error filtering patients", Toast.LENGTH_SHORT).show();
+    private void showSearchResults(List<String> words, List<PatientSummary> matches) {
+        // Skip results for text the user has since changed
+        if (isDestroyed() || !words.equals(getSearchWords())) {
+            return;
         }
+        lastSearchWords = words;
+        lastSearchResults = matches;
+        showFilteredPatients(matches);
+    }
+
+    private void showFilteredPatients(List<PatientSummary> patients) {
+        filteredPatients.clear();
+        filteredPatients.addAll(patients);
+
+        // Update UI once the diff has been applied
+        patientsAdapter.setPatients(filteredPatients, () -> {
+            updatePatientCount();
+            updateBulkOperationVisibility();
+        });
     }
 
     private void updatePatientCount() {
         if (patientsCountText != null) {
             int count = filteredPatients.size();
-            patientsCountText.setText(count + " patient" + (count != 1 ? "s" : ""));
+            String more = censusPager.hasMore() && getSearchWords().isEmpty() ? "+" : "";
+            patientsCountText.setText(count + more + " patient" + (count != 1 || !more.isEmpty() ? "s" : ""));
         }
     }
 
@@ -312,33 +393,22 @@ public class ExistingPatientsActivity extends AppCompatActivity {
     }
 
     private void printSelectedMenus() {
-        List<Patient> selectedPatients = patientsAdapter.getSelectedPatients();
+        List<PatientSummary> selectedPatients = patientsAdapter.getSelectedPatients();
         if (selectedPatients.isEmpty()) {
             Toast.makeText(this, "No patients selected", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // TODO: Implement print functionality when PrintMenuActivity is created
-        // For now, show a message
-        Toast.makeText(this, "Print functionality coming soon. Selected " +
-                selectedPatients.size() + " patient(s).", Toast.LENGTH_LONG).show();
-
-        /* // Uncomment when PrintMenuActivity is implemented
         Intent printIntent = new Intent(this, PrintMenuActivity.class);
-        long[] patientIds = new long[selectedPatients.size()];
-        for (int i = 0; i < selectedPatients.size(); i++) {
-            patientIds[i] = selectedPatients.get(i).getPatientId();
-        }
-        printIntent.putExtra("patient_ids", patientIds);
+        printIntent.putExtra("patient_ids", PrintMenuActivity.patientIds(selectedPatients));
         printIntent.putExtra("current_user", currentUsername);
         printIntent.putExtra("user_role", currentUserRole);
         printIntent.putExtra("user_full_name", currentUserFullName);
         startActivity(printIntent);
-        */
     }
 
     private void deleteSelectedPatients() {
-        List<Patient> selectedPatients = patientsAdapter.getSelectedPatients();
+        List<PatientSummary> selectedPatients = patientsAdapter.getSelectedPatients();
         if (selectedPatients.isEmpty()) {
             Toast.makeText(this, "No patients selected", Toast.LENGTH_SHORT).show();
             return;
@@ -359,38 +429,34 @@ public class ExistingPatientsActivity extends AppCompatActivity {
                 .show();
     }
 
-    private void performPatientDeletion(List<Patient> patients) {
-        int successCount = 0;
-        int failCount = 0;
-
-        for (Patient patient : patients) {
-            try {
-                boolean success = patientDAO.deletePatient(patient.getPatientId());
-                if (success) {
-                    successCount++;
-                } else {
-                    failCount++;
+    private void performPatientDeletion(List<PatientSummary> patients) {
+        asyncDAO.patients(this, patientDAO -> {
+            int successCount = 0;
+            for (PatientSummary patient : patients) {
+                try {
+                    if (patientDAO.deletePatient(patient.getPatientId())) {
+                        successCount++;
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
                 }
-            } catch (Exception e) {
-                failCount++;
-                e.printStackTrace();
             }
-        }
-
-        // Show result
-        if (failCount == 0) {
-            Toast.makeText(this, successCount + " patient(s) deleted successfully",
-                    Toast.LENGTH_SHORT).show();
-        } else {
-            Toast.makeText(this, successCount + " deleted, " + failCount + " failed",
-                    Toast.LENGTH_LONG).show();
-        }
+            return successCount;
+        }, successCount -> {
+            int failCount = patients.size() - successCount;
+
+            // Show result
+            if (failCount == 0) {
+                Toast.makeText(this, successCount + " patient(s) deleted successfully",
+                        Toast.LENGTH_SHORT).show();
+            } else {
+                Toast.makeText(this, successCount + " deleted, " + failCount + " failed",
+                        Toast.LENGTH_LONG).show();
+            }
 
-        // Clear selections and reload
-        if (selectAllCheckBox != null) {
-            selectAllCheckBox.setChecked(false);
-        }
-        loadPatients();
+            // Reload; the adapter drops selections of deleted patients
+            loadPatients();
+        });
     }
 
     @Override
@@ -399,6 +465,14 @@ public class ExistingPatientsActivity extends AppCompatActivity {
         loadPatients();
     }
 
+    @Override
+    protected void onDestroy() {
+        dbHelper.getChangeBus().unsubscribe("patient_info", censusPager);
+        searchHandler.removeCallbacks(searchRunnable);
+        filterExecutor.shutdownNow();
+        super.onDestroy();
+    }
+
     @Override
     public boolean onCreateOptionsMenu(Menu menu) {
         getMenuInflater().inflate(R.menu.menu_existing_patients, menu);
@@ -413,6 +487,8 @@ public class ExistingPatientsActivity extends AppCompatActivity {
             finish();
             return true;
         } else if (itemId == R.id.action_refresh) {
+            // Also picks up writes that did not go through PatientDAO
+            censusPager.onPatientChanged(PatientDAO.ALL_PATIENTS);
             loadPatients();
             return true;
         } else if (itemId == R.id.action_home) {
@@ -429,88 +505,6 @@ public class ExistingPatientsActivity extends AppCompatActivity {
     }
 
     // Inner classes remain the same
-    private class PatientAdapter extends BaseAdapter {
-        private SparseBooleanArray selectedItems = new SparseBooleanArray();
-
-        @Override
-        public int getCount() {
-            return filteredPatients.size();
-        }
-
-        @Override
-        public Object getItem(int position) {
-            return filteredPatients.get(position);
-        }
-
-        @Override
-        public long getItemId(int position) {
-            return filteredPatients.get(position).getPatientId();
-        }
-
-        @Override
-        public View getView(int position, View convertView, ViewGroup parent) {
-            if (convertView == null) {
-                convertView = getLayoutInflater().inflate(
-                        android.R.layout.simple_list_item_multiple_choice, parent, false);
-            }
-
-            CheckedTextView textView = (CheckedTextView) convertView;
-            Patient patient = filteredPatients.get(position);
-
-            String displayText = patient.getFullName() + "\n" +
-                    patient.getWing() + " " + patient.getRoomNumber() + " | " +
-                    patient.getDiet();
-
-            textView.setText(displayText);
-            textView.setChecked(selectedItems.get(position, false));
-
-            return convertView;
-        }
-
-        public void toggleSelection(int position) {
-            if (selectedItems.get(position, false)) {
-                selectedItems.delete(position);
-            } else {
-                selectedItems.put(position, true);
-            }
-            notifyDataSetChanged();
-        }
-
-        public void selectAll(boolean select) {
-            selectedItems.clear();
-            if (select) {
-                for (int i = 0; i < getCount(); i++) {
-                    selectedItems.put(i, true);
-                }
-            }
-            notifyDataSetChanged();
-        }
-
-        public boolean areAllSelected() {
-            if (getCount() == 0) return false;
-            for (int i = 0; i < getCount(); i++) {
-                if (!selectedItems.get(i, false)) {
-                    return false;
-                }
-            }
-            return true;
-        }
-
-        public int getSelectedCount() {
-            return selectedItems.size();
-        }
-
-        public List<Patient> getSelectedPatients() {
-            List<Patient> selected = new ArrayList<>();
-            for (int i = 0; i < getCount(); i++) {
-                if (selectedItems.get(i, false)) {
-                    selected.add(filteredPatients.get(i));
-                }
-            }
-            return selected;
-        }
-    }
-
     private class DayFilterAdapter extends BaseAdapter {
         @Override
         public int getCount() {
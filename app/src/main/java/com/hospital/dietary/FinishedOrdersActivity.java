@@ -1,24 +1,27 @@
 package com.hospital.dietary;
 
 import android.content.Intent;
+import android.graphics.Color;
 import android.os.Bundle;
-import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.RecyclerView;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.PatientSummaryList;
 import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
 import java.util.ArrayList;
 import java.util.List;
 
 public class FinishedOrdersActivity extends AppCompatActivity {
     
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     
     // User information
     private String currentUsername;
@@ -27,7 +30,7 @@ public class FinishedOrdersActivity extends AppCompatActivity {
     
     // UI Components
     private Toolbar toolbar;
-    private ListView finishedOrdersListView;
+    private RecyclerView finishedOrdersRecyclerView;
     private TextView noFinishedOrdersText;
     private Button backButton;
     private Button homeButton;
@@ -35,8 +38,12 @@ public class FinishedOrdersActivity extends AppCompatActivity {
     private Button printSelectedButton;
     
     // Data
-    private List<Patient> finishedPatients = new ArrayList<>();
-    private FinishedOrdersAdapter adapter;
+    private List<PatientSummary> finishedPatients = new ArrayList<>();
+    private PatientListAdapter adapter;
+
+    // Patched from patient_info change notices, so returning here only re-reads changed patients
+    private final PatientSummaryList finishedList =
+            new PatientSummaryList(PatientDAO::getCompletedPatientSummaries, PatientDAO::isCompleted);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -49,8 +56,9 @@ public class FinishedOrdersActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
         
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
+        dbHelper.getChangeBus().subscribe("patient_info", finishedList);
         
         // Setup toolbar
         setupToolbar();
@@ -60,9 +68,8 @@ public class FinishedOrdersActivity extends AppCompatActivity {
         
         // Setup listeners
         setupListeners();
-        
-        // Load finished orders
-        loadFinishedOrders();
+
+        // Finished orders load in onResume
     }
 
     private void setupToolbar() {
@@ -98,6 +105,8 @@ public class FinishedOrdersActivity extends AppCompatActivity {
                 goToMainMenu();
                 return true;
             case R.id.action_refresh:
+                // Also picks up writes that did not go through the DAOs
+                finishedList.invalidate();
                 loadFinishedOrders();
                 Toast.makeText(this, "Orders refreshed", Toast.LENGTH_SHORT).show();
                 return true;
@@ -116,7 +125,7 @@ public class FinishedOrdersActivity extends AppCompatActivity {
     }
     
     private void initializeUI() {
-        finishedOrdersListView = findViewById(R.id.finishedOrdersListView);
+        finishedOrdersRecyclerView = findViewById(R.id.finishedOrdersRecyclerView);
         noFinishedOrdersText = findViewById(R.id.noFinishedOrdersText);
         backButton = findViewById(R.id.backButton);
      // homeButton = findViewById(R.id.homeButton);
@@ -127,9 +136,16 @@ public class FinishedOrdersActivity extends AppCompatActivity {
         setTitle("Finished Orders");
         
         // Setup adapter
-        adapter = new FinishedOrdersAdapter(this, finishedPatients);
-        finishedOrdersListView.setAdapter(adapter);
-        finishedOrdersListView.setChoiceMode(ListView.CHOICE_MODE_MULTIPLE);
+        adapter = new PatientListAdapter(android.R.layout.simple_list_item_multiple_choice, true,
+                (holder, patient) -> {
+                    // Format: "John Doe - 1 South Room 106 (Regular Diet) ✅"
+                    holder.text1.setText(String.format("%s - %s Room %s (%s) ✅",
+                            patient.getFullName(),
+                            patient.getWing(),
+                            patient.getRoomNumber(),
+                            patient.getDiet()));
+                });
+        adapter.attachTo(finishedOrdersRecyclerView, Color.parseColor("#d5f4e6"));
     }
     
     private void setupListeners() {
@@ -149,17 +165,29 @@ public class FinishedOrdersActivity extends AppCompatActivity {
             printSelectedButton.setOnClickListener(v -> printSelectedOrders());
         }
         
-        // Make list view non-clickable since orders are finalized
-        finishedOrdersListView.setOnItemClickListener((parent, view, position, id) -> {
-            Patient patient = finishedPatients.get(position);
-            showOrderDetails(patient);
-        });
+        // Orders are finalized, so a click only shows their details
+        adapter.setOnPatientClickListener(patient -> showOrderDetails(patient.getPatientId()));
     }
     
     private void loadFinishedOrders() {
+        // Get all patients who have complete meal orders
+        asyncDAO.patients(this, finishedList::refresh, new AsyncDAO.Callback<List<PatientSummary>>() {
+            @Override
+            public void onSuccess(List<PatientSummary> patients) {
+                showFinishedOrders(patients);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(FinishedOrdersActivity.this, "Error loading finished orders: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showFinishedOrders(List<PatientSummary> patients) {
         try {
-            // Get all patients who have complete meal orders
-            finishedPatients = patientDAO.getCompletedPatients();
+            finishedPatients.clear();
+            finishedPatients.addAll(patients);
             
             // Sort by wing then room number (descending as specified in requirements)
             finishedPatients.sort((p1, p2) -> {
@@ -179,15 +207,15 @@ public class FinishedOrdersActivity extends AppCompatActivity {
                 }
             });
             
-            // Update UI
+            // Update UI; only changed rows are rebound
+            adapter.setPatients(finishedPatients, null);
             if (finishedPatients.isEmpty()) {
-                finishedOrdersListView.setVisibility(ListView.GONE);
+                finishedOrdersRecyclerView.setVisibility(View.GONE);
                 noFinishedOrdersText.setVisibility(TextView.VISIBLE);
                 noFinishedOrdersText.setText("No finished orders found.\nComplete some pending orders first.");
             } else {
-                finishedOrdersListView.setVisibility(ListView.VISIBLE);
+                finishedOrdersRecyclerView.setVisibility(View.VISIBLE);
                 noFinishedOrdersText.setVisibility(TextView.GONE);
-                adapter.notifyDataSetChanged();
             }
             
         } catch (Exception e) {
@@ -195,6 +223,17 @@ public class FinishedOrdersActivity extends AppCompatActivity {
         }
     }
     
+    private void showOrderDetails(long patientId) {
+        // Load the full record only for the order being viewed
+        asyncDAO.patients(this, patientDAO -> patientDAO.getPatientById(patientId), patient -> {
+            if (patient == null) {
+                Toast.makeText(this, "Patient not found", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            showOrderDetails(patient);
+        });
+    }
+
     private void showOrderDetails(Patient patient) {
         // Show detailed view of the order (read-only)
         StringBuilder details = new StringBuilder();
@@ -228,90 +267,41 @@ public class FinishedOrdersActivity extends AppCompatActivity {
             return;
         }
         
-        // TODO: Implement printing functionality
-        Toast.makeText(this, "Print All Orders - " + finishedPatients.size() + " orders", Toast.LENGTH_SHORT).show();
+        printTrayTickets(finishedPatients);
     }
     
     private void printSelectedOrders() {
-        android.util.SparseBooleanArray selectedItems = finishedOrdersListView.getCheckedItemPositions();
-        List<Patient> selectedPatients = new ArrayList<>();
-        
-        for (int i = 0; i < selectedItems.size(); i++) {
-            int position = selectedItems.keyAt(i);
-            if (selectedItems.valueAt(i)) {
-                selectedPatients.add(finishedPatients.get(position));
-            }
-        }
+        List<PatientSummary> selectedPatients = adapter.getSelectedPatients();
         
         if (selectedPatients.isEmpty()) {
             Toast.makeText(this, "No orders selected", Toast.LENGTH_SHORT).show();
             return;
         }
         
-        // TODO: Implement printing functionality
-        Toast.makeText(this, "Print Selected Orders - " + selectedPatients.size() + " orders", Toast.LENGTH_SHORT).show();
+        printTrayTickets(selectedPatients);
+    }
+
+    private void printTrayTickets(List<PatientSummary> patients) {
+        Intent intent = new Intent(this, PrintMenuActivity.class);
+        intent.putExtra("patient_ids", PrintMenuActivity.patientIds(patients));
+        intent.putExtra("current_user", currentUsername);
+        intent.putExtra("user_role", currentUserRole);
+        intent.putExtra("user_full_name", currentUserFullName);
+        startActivity(intent);
     }
     
     @Override
     protected void onResume() {
         super.onResume();
-        // Refresh the list when returning to this activity
-        loadFinishedOrders();
+        // Refresh the list when returning to this activity, if anything it shows was written
+        if (finishedList.isStale()) {
+            loadFinishedOrders();
+        }
     }
-    
+
     @Override
     protected void onDestroy() {
+        dbHelper.getChangeBus().unsubscribe("patient_info", finishedList);
         super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
-    
-    // Enhanced adapter for finished orders
-    private class FinishedOrdersAdapter extends BaseAdapter {
-        private List<Patient> patients;
-        private LayoutInflater inflater;
-        
-        public FinishedOrdersAdapter(FinishedOrdersActivity context, List<Patient> patients) {
-            this.patients = patients;
-            this.inflater = LayoutInflater.from(context);
-        }
-        
-        @Override
-        public int getCount() {
-            return patients.size();
-        }
-        
-        @Override
-        public Object getItem(int position) {
-            return patients.get(position);
-        }
-        
-        @Override
-        public long getItemId(int position) {
-            return patients.get(position).getPatientId();
-        }
-        
-        @Override
-        public View getView(int position, View convertView, ViewGroup parent) {
-            if (convertView == null) {
-                convertView = inflater.inflate(android.R.layout.simple_list_item_multiple_choice, parent, false);
-            }
-            
-            Patient patient = patients.get(position);
-            
-            TextView textView = convertView.findViewById(android.R.id.text1);
-            
-            // Format: "John Doe - 1 South Room 106 (Regular Diet) ✅"
-            String displayText = String.format("%s - %s Room %s (%s) ✅", 
-                patient.getFullName(), 
-                patient.getWing(), 
-                patient.getRoomNumber(),
-                patient.getDiet());
-            
-            textView.setText(displayText);
-            
-            return convertView;
-        }
     }
 }
\ No newline at end of file
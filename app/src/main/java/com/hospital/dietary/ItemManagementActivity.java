@@ -10,7 +10,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.CategoryDAO;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.ItemDAO;
 import com.hospital.dietary.models.Item;
 import java.util.ArrayList;
@@ -21,8 +21,7 @@ public class ItemManagementActivity extends AppCompatActivity {
     private static final String TAG = "ItemManagementActivity";
 
     private DatabaseHelper dbHelper;
-    private ItemDAO itemDAO;
-    private CategoryDAO categoryDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -70,9 +69,8 @@ public class ItemManagementActivity extends AppCompatActivity {
         }
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        itemDAO = new ItemDAO(dbHelper);
-        categoryDAO = new CategoryDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title and back button
         if (getSupportActionBar() != null) {
@@ -167,14 +165,20 @@ public class ItemManagementActivity extends AppCompatActivity {
     }
 
     private void loadCategories() {
-        categories.clear();
-        categories.add("All Categories");
-        categories.addAll(categoryDAO.getAllCategories());
-        categoryAdapter.notifyDataSetChanged();
+        asyncDAO.run(this, db -> db.getCategoryDAO().getAllCategories(), result -> {
+            categories.clear();
+            categories.add("All Categories");
+            categories.addAll(result);
+            categoryAdapter.notifyDataSetChanged();
+        });
     }
 
     private void loadItems() {
-        allItems = itemDAO.getAllItems();
+        asyncDAO.items(this, ItemDAO::getAllItems, this::showItems);
+    }
+
+    private void showItems(List<Item> items) {
+        allItems = items;
         Log.d(TAG, "Loaded " + allItems.size() + " items from database");
 
         // Debug log to show items
@@ -250,25 +254,28 @@ public class ItemManagementActivity extends AppCompatActivity {
                 return;
             }
 
-            // Check if item already exists
-            if (itemDAO.itemExists(name, category)) {
-                Toast.makeText(this, "Item already exists in this category", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
             Item newItem = new Item();
             newItem.setName(name);
             newItem.setCategory(category);
             newItem.setDescription(description);
             newItem.setIsAdaFriendly(isAda ? 1 : 0);
 
-            long result = itemDAO.insertItem(newItem);
-            if (result > 0) {
-                Toast.makeText(this, "Item added successfully", Toast.LENGTH_SHORT).show();
-                loadItems();
-            } else {
-                Toast.makeText(this, "Failed to add item", Toast.LENGTH_SHORT).show();
-            }
+            asyncDAO.items(this, itemDAO -> {
+                // Check if item already exists
+                if (itemDAO.itemExists(name, category)) {
+                    return null;
+                }
+                return itemDAO.insertItem(newItem);
+            }, result -> {
+                if (result == null) {
+                    Toast.makeText(this, "Item already exists in this category", Toast.LENGTH_SHORT).show();
+                } else if (result > 0) {
+                    Toast.makeText(this, "Item added successfully", Toast.LENGTH_SHORT).show();
+                    loadItems();
+                } else {
+                    Toast.makeText(this, "Failed to add item", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -346,13 +353,14 @@ public class ItemManagementActivity extends AppCompatActivity {
             item.setDescription(description);
             item.setIsAdaFriendly(isAda ? 1 : 0);
 
-            int result = itemDAO.updateItem(item);
-            if (result > 0) {
-                Toast.makeText(this, "Item updated successfully", Toast.LENGTH_SHORT).show();
-                loadItems();
-            } else {
-                Toast.makeText(this, "Failed to update item", Toast.LENGTH_SHORT).show();
-            }
+            asyncDAO.items(this, itemDAO -> itemDAO.updateItem(item), result -> {
+                if (result > 0) {
+                    Toast.makeText(this, "Item updated successfully", Toast.LENGTH_SHORT).show();
+                    loadItems();
+                } else {
+                    Toast.makeText(this, "Failed to update item", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -366,12 +374,14 @@ public class ItemManagementActivity extends AppCompatActivity {
                 .setTitle("Delete Item")
                 .setMessage("Are you sure you want to delete '" + item.getName() + "'?")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    if (itemDAO.deleteItem(item.getItemId())) {
-                        Toast.makeText(this, "Item deleted successfully!", Toast.LENGTH_SHORT).show();
-                        loadItems();
-                    } else {
-                        Toast.makeText(this, "Error deleting item", Toast.LENGTH_LONG).show();
-                    }
+                    asyncDAO.items(this, itemDAO -> itemDAO.deleteItem(item.getItemId()), deleted -> {
+                        if (deleted) {
+                            Toast.makeText(this, "Item deleted successfully!", Toast.LENGTH_SHORT).show();
+                            loadItems();
+                        } else {
+                            Toast.makeText(this, "Error deleting item", Toast.LENGTH_LONG).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -9,13 +9,13 @@ import android.text.TextUtils;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.UserDAO;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.models.User;
 
 public class LoginActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private UserDAO userDAO;
+    private AsyncDAO asyncDAO;
 
     // UI Components
     private EditText usernameEditText;
@@ -30,8 +30,8 @@ public class LoginActivity extends AppCompatActivity {
         setContentView(R.layout.activity_login);
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        userDAO = new UserDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Schedule automatic order creation at 4:00 AM if not already scheduled
         scheduleAutoOrderCreationIfNeeded();
@@ -92,11 +92,10 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void createDefaultAdminIfNeeded() {
-        try {
+        asyncDAO.users(this, userDAO -> {
             userDAO.createDefaultAdminIfNeeded();
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+            return null;
+        }, null);
     }
 
     private void attemptLogin() {
@@ -116,21 +115,34 @@ public class LoginActivity extends AppCompatActivity {
         }
 
         // Validate login
-        User user = userDAO.validateLogin(username, password);
-
-        if (user != null) {
-            // Update last login
-            userDAO.updateLastLogin(user.getUserId());
+        signInButton.setEnabled(false);
+        asyncDAO.users(this, userDAO -> {
+            User user = userDAO.validateLogin(username, password);
+            if (user != null) {
+                // Update last login
+                userDAO.updateLastLogin(user.getUserId());
+            }
+            return user;
+        }, new AsyncDAO.Callback<User>() {
+            @Override
+            public void onSuccess(User user) {
+                signInButton.setEnabled(true);
+                if (user == null) {
+                    Toast.makeText(LoginActivity.this, "Invalid username or password", Toast.LENGTH_SHORT).show();
+                } else if (user.isMustChangePassword()) {
+                    // Check if password change is required
+                    showChangePasswordDialog(user);
+                } else {
+                    navigateToMainMenu(user);
+                }
+            }
 
-            // Check if password change is required
-            if (user.isMustChangePassword()) {
-                showChangePasswordDialog(user);
-            } else {
-                navigateToMainMenu(user);
+            @Override
+            public void onError(String error) {
+                signInButton.setEnabled(true);
+                Toast.makeText(LoginActivity.this, "Login failed: " + error, Toast.LENGTH_SHORT).show();
             }
-        } else {
-            Toast.makeText(this, "Invalid username or password", Toast.LENGTH_SHORT).show();
-        }
+        });
     }
 
     private void showChangePasswordDialog(User user) {
@@ -159,18 +171,24 @@ public class LoginActivity extends AppCompatActivity {
     }
 
     private void changePassword(User user, String newPassword) {
-        try {
-            boolean success = userDAO.changePassword(user.getUserId(), newPassword);
-            if (success) {
-                Toast.makeText(this, "Password changed successfully", Toast.LENGTH_SHORT).show();
-                navigateToMainMenu(user);
-            } else {
-                Toast.makeText(this, "Password change failed", Toast.LENGTH_SHORT).show();
-            }
-        } catch (Exception e) {
-            Toast.makeText(this, "Error changing password: " + e.getMessage(),
-                    Toast.LENGTH_LONG).show();
-        }
+        asyncDAO.users(this, userDAO -> userDAO.changePassword(user.getUserId(), newPassword),
+                new AsyncDAO.Callback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean success) {
+                        if (success) {
+                            Toast.makeText(LoginActivity.this, "Password changed successfully", Toast.LENGTH_SHORT).show();
+                            navigateToMainMenu(user);
+                        } else {
+                            Toast.makeText(LoginActivity.this, "Password change failed", Toast.LENGTH_SHORT).show();
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(LoginActivity.this, "Error changing password: " + error,
+                                Toast.LENGTH_LONG).show();
+                    }
+                });
     }
 
     private void navigateToMainMenu(User user) {
@@ -182,12 +200,4 @@ public class LoginActivity extends AppCompatActivity {
         startActivity(intent);
         finish();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
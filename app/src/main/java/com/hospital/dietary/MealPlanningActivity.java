@@ -9,7 +9,8 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.MealStatusQueue;
 import com.hospital.dietary.models.Patient;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,7 +21,7 @@ public class MealPlanningActivity extends AppCompatActivity {
 
     // Database
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
 
     // Patient information
     private long patientId;
@@ -80,16 +81,22 @@ public class MealPlanningActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Load patient
-        currentPatient = patientDAO.getPatientById((int) patientId);
-        if (currentPatient == null) {
-            Toast.makeText(this, "Patient not found", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
+        asyncDAO.patients(this, patientDAO -> patientDAO.getPatientById((int) patientId), patient -> {
+            if (patient == null) {
+                Toast.makeText(this, "Patient not found", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            showPatient(patient);
+        });
+    }
+
+    private void showPatient(Patient patient) {
+        currentPatient = patient;
 
         // Initialize UI
         initializeUI();
@@ -295,31 +302,41 @@ public class MealPlanningActivity extends AppCompatActivity {
     }
 
     private void saveMealPlan() {
-        try {
-            // Mark all meals as complete
-            currentPatient.setBreakfastComplete(true);
-            currentPatient.setLunchComplete(true);
-            currentPatient.setDinnerComplete(true);
+        if (currentPatient == null) {
+            return;
+        }
 
+        try {
             // Save Clear Liquid selections if applicable
             if ("Clear Liquid".equals(diet)) {
                 saveClearLiquidSelections();
             }
 
-            // FIX: Changed from int to boolean
-            boolean success = patientDAO.updatePatient(currentPatient);
-
-            if (success) {
-                Toast.makeText(this, "Meal plan saved successfully!", Toast.LENGTH_SHORT).show();
-
-                // Return to previous activity
-                Intent resultIntent = new Intent();
-                resultIntent.putExtra("meal_plan_saved", true);
-                setResult(RESULT_OK, resultIntent);
-                finish();
-            } else {
-                Toast.makeText(this, "Failed to save meal plan", Toast.LENGTH_SHORT).show();
-            }
+            Patient patient = currentPatient;
+            // The normalized tray rows are saved with the meal columns
+            asyncDAO.run(this, db -> db.getPatientDAO().updatePatientWithSelections(patient),
+                    new AsyncDAO.Callback<Boolean>() {
+                        @Override
+                        public void onSuccess(Boolean success) {
+                            if (success) {
+                                markMealsComplete(patient.getPatientId());
+                                Toast.makeText(MealPlanningActivity.this, "Meal plan saved successfully!", Toast.LENGTH_SHORT).show();
+
+                                // Return to previous activity
+                                Intent resultIntent = new Intent();
+                                resultIntent.putExtra("meal_plan_saved", true);
+                                setResult(RESULT_OK, resultIntent);
+                                finish();
+                            } else {
+                                Toast.makeText(MealPlanningActivity.this, "Failed to save meal plan", Toast.LENGTH_SHORT).show();
+                            }
+                        }
+
+                        @Override
+                        public void onError(String error) {
+                            Toast.makeText(MealPlanningActivity.this, "Error saving meal plan: " + error, Toast.LENGTH_SHORT).show();
+                        }
+                    });
 
         } catch (Exception e) {
             Toast.makeText(this, "Error saving meal plan: " + e.getMessage(), Toast.LENGTH_SHORT).show();
@@ -327,6 +344,15 @@ public class MealPlanningActivity extends AppCompatActivity {
         }
     }
 
+    // Mark all meals as complete through the queue, so an earlier tap still waiting in it
+    // can't overwrite them when it flushes
+    private void markMealsComplete(long patientId) {
+        MealStatusQueue queue = dbHelper.getMealStatusQueue();
+        queue.setMealComplete(patientId, "breakfast", true);
+        queue.setMealComplete(patientId, "lunch", true);
+        queue.setMealComplete(patientId, "dinner", true);
+    }
+
     private void saveClearLiquidSelections() {
         // Collect breakfast selections
         List<String> breakfastItems = new ArrayList<>();
@@ -386,14 +412,6 @@ public class MealPlanningActivity extends AppCompatActivity {
         currentPatient.setDinnerItems(String.join(", ", dinnerItems));
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
-
     // Inner class for Clear Liquid menu items
     private class ClearLiquidMenuItem extends LinearLayout {
         private TextView itemNameText;
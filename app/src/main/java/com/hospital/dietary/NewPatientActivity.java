@@ -7,7 +7,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.models.Patient;
 import java.util.HashMap;
 import java.util.Map;
@@ -17,7 +17,7 @@ public class NewPatientActivity extends AppCompatActivity {
     private static final String TAG = "NewPatientActivity";
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -54,6 +54,8 @@ public class NewPatientActivity extends AppCompatActivity {
     // Edit mode
     private boolean isEditMode = false;
     private int editPatientId = -1;
+    // The stored record being edited, so a save writes only what the form changed
+    private Patient editPatient;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -77,8 +79,8 @@ public class NewPatientActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title and back button
         if (getSupportActionBar() != null) {
@@ -506,10 +508,9 @@ public class NewPatientActivity extends AppCompatActivity {
         }
 
         // Create or update patient
-        boolean success;
+        savePatientButton.setEnabled(false);
         if (isEditMode) {
-            Patient patient = new Patient();
-            patient.setPatientId(editPatientId);
+            Patient patient = editPatient;
             patient.setFirstName(firstName);
             patient.setLastName(lastName);
             patient.setWing(wing);
@@ -530,7 +531,7 @@ public class NewPatientActivity extends AppCompatActivity {
             patient.setHoneyThick(honeyThickCheckBox.isChecked());
             patient.setPuddingThick(puddingThickCheckBox.isChecked());
 
-            success = patientDAO.updatePatient(patient);
+            asyncDAO.patients(this, patientDAO -> patientDAO.updatePatient(patient), savedCallback());
         } else {
             Patient patient = new Patient();
             patient.setFirstName(firstName);
@@ -553,35 +554,56 @@ public class NewPatientActivity extends AppCompatActivity {
             patient.setHoneyThick(honeyThickCheckBox.isChecked());
             patient.setPuddingThick(puddingThickCheckBox.isChecked());
 
-            long newId = patientDAO.insertPatient(patient);
-            success = newId > 0;
+            asyncDAO.patients(this, patientDAO -> patientDAO.insertPatient(patient) > 0, savedCallback());
         }
+    }
 
-        if (success) {
-            Toast.makeText(this,
-                    isEditMode ? "Patient updated successfully" : "Patient added successfully",
-                    Toast.LENGTH_SHORT).show();
-
-            // Return to patient list
-            Intent intent = new Intent(this, ExistingPatientsActivity.class);
-            intent.putExtra("current_user", currentUsername);
-            intent.putExtra("user_role", currentUserRole);
-            intent.putExtra("user_full_name", currentUserFullName);
-            intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
-            startActivity(intent);
-            finish();
-        } else {
-            Toast.makeText(this, "Error saving patient", Toast.LENGTH_SHORT).show();
-        }
+    private AsyncDAO.Callback<Boolean> savedCallback() {
+        return new AsyncDAO.Callback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean success) {
+                if (success) {
+                    Toast.makeText(NewPatientActivity.this,
+                            isEditMode ? "Patient updated successfully" : "Patient added successfully",
+                            Toast.LENGTH_SHORT).show();
+
+                    // Return to patient list
+                    Intent intent = new Intent(NewPatientActivity.this, ExistingPatientsActivity.class);
+                    intent.putExtra("current_user", currentUsername);
+                    intent.putExtra("user_role", currentUserRole);
+                    intent.putExtra("user_full_name", currentUserFullName);
+                    intent.setFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+                    startActivity(intent);
+                    finish();
+                } else {
+                    onError(null);
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                savePatientButton.setEnabled(true);
+                Toast.makeText(NewPatientActivity.this, "Error saving patient", Toast.LENGTH_SHORT).show();
+            }
+        };
     }
 
     private void loadPatientData() {
-        Patient patient = patientDAO.getPatientById(editPatientId);
-        if (patient == null) {
-            Toast.makeText(this, "Error: Patient not found", Toast.LENGTH_SHORT).show();
-            finish();
-            return;
-        }
+        // No saving until the stored record has filled the form
+        savePatientButton.setEnabled(false);
+        asyncDAO.patients(this, patientDAO -> patientDAO.getPatientById(editPatientId), patient -> {
+            if (patient == null) {
+                Toast.makeText(this, "Error: Patient not found", Toast.LENGTH_SHORT).show();
+                finish();
+                return;
+            }
+            editPatient = patient;
+            showPatientData(patient);
+            savePatientButton.setEnabled(true);
+        });
+    }
+
+    private void showPatientData(Patient patient) {
 
         // Populate basic info
         firstNameEdit.setText(patient.getFirstName());
@@ -653,12 +675,4 @@ public class NewPatientActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
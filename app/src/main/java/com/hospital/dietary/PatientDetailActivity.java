@@ -9,7 +9,8 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.MealStatusQueue;
 import com.hospital.dietary.models.Patient;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -24,7 +25,7 @@ public class PatientDetailActivity extends AppCompatActivity {
     private static final String TAG = "PatientDetailActivity";
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -93,8 +94,8 @@ public class PatientDetailActivity extends AppCompatActivity {
         }
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title
         if (getSupportActionBar() != null) {
@@ -247,13 +248,28 @@ public class PatientDetailActivity extends AppCompatActivity {
     }
 
     private void loadPatientData() {
-        try {
-            currentPatient = patientDAO.getPatientById(patientId);
-            if (currentPatient == null) {
-                Toast.makeText(this, "Patient not found", Toast.LENGTH_SHORT).show();
-                finish();
-                return;
+        asyncDAO.patients(this, patientDAO -> patientDAO.getPatientById(patientId), new AsyncDAO.Callback<Patient>() {
+            @Override
+            public void onSuccess(Patient patient) {
+                if (patient == null) {
+                    Toast.makeText(PatientDetailActivity.this, "Patient not found", Toast.LENGTH_SHORT).show();
+                    finish();
+                    return;
+                }
+                showPatientData(patient);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(PatientDetailActivity.this, "Error loading patient data: " + error,
+                        Toast.LENGTH_SHORT).show();
             }
+        });
+    }
+
+    private void showPatientData(Patient patient) {
+        try {
+            currentPatient = patient;
 
             displayPatientInformation();
             displayMealStatus();
@@ -383,23 +399,41 @@ public class PatientDetailActivity extends AppCompatActivity {
     }
 
     private void updatePatientMealStatus() {
-        try {
-            // Update meal completion status
+        if (currentPatient == null) {
+            return; // Still loading
+        }
+
+        // Queue only the flags that changed; showing the patient sets the boxes to what is stored.
+        // The queue writes a burst of taps together, and the overlay shows them until then
+        MealStatusQueue queue = dbHelper.getMealStatusQueue();
+        long id = currentPatient.getPatientId();
+
+        // Update meal completion status
+        if (breakfastCompleteCheckBox.isChecked() != currentPatient.isBreakfastComplete()) {
             currentPatient.setBreakfastComplete(breakfastCompleteCheckBox.isChecked());
+            queue.setMealComplete(id, "breakfast", currentPatient.isBreakfastComplete());
+        }
+        if (lunchCompleteCheckBox.isChecked() != currentPatient.isLunchComplete()) {
             currentPatient.setLunchComplete(lunchCompleteCheckBox.isChecked());
+            queue.setMealComplete(id, "lunch", currentPatient.isLunchComplete());
+        }
+        if (dinnerCompleteCheckBox.isChecked() != currentPatient.isDinnerComplete()) {
             currentPatient.setDinnerComplete(dinnerCompleteCheckBox.isChecked());
+            queue.setMealComplete(id, "dinner", currentPatient.isDinnerComplete());
+        }
 
-            // Update NPO status
+        // Update NPO status
+        if (breakfastNPOCheckBox.isChecked() != currentPatient.isBreakfastNPO()) {
             currentPatient.setBreakfastNPO(breakfastNPOCheckBox.isChecked());
+            queue.setMealNPO(id, "breakfast", currentPatient.isBreakfastNPO());
+        }
+        if (lunchNPOCheckBox.isChecked() != currentPatient.isLunchNPO()) {
             currentPatient.setLunchNPO(lunchNPOCheckBox.isChecked());
+            queue.setMealNPO(id, "lunch", currentPatient.isLunchNPO());
+        }
+        if (dinnerNPOCheckBox.isChecked() != currentPatient.isDinnerNPO()) {
             currentPatient.setDinnerNPO(dinnerNPOCheckBox.isChecked());
-
-            // Save to database
-            patientDAO.updatePatient(currentPatient);
-
-        } catch (Exception e) {
-            Log.e(TAG, "Error updating meal status", e);
-            Toast.makeText(this, "Error updating meal status", Toast.LENGTH_SHORT).show();
+            queue.setMealNPO(id, "dinner", currentPatient.isDinnerNPO());
         }
     }
 
@@ -413,6 +447,10 @@ public class PatientDetailActivity extends AppCompatActivity {
     }
 
     private void editMealPlan() {
+        if (currentPatient == null) {
+            return; // Still loading
+        }
+
         Intent intent = new Intent(this, MealPlanningActivity.class);
         intent.putExtra("patient_id", (long) patientId);
         intent.putExtra("diet", currentPatient.getDiet());
@@ -424,6 +462,10 @@ public class PatientDetailActivity extends AppCompatActivity {
     }
 
     private void transferPatient() {
+        if (currentPatient == null) {
+            return; // Still loading
+        }
+
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Transfer Patient");
 
@@ -491,16 +533,21 @@ public class PatientDetailActivity extends AppCompatActivity {
             currentPatient.setWing(newWing);
             currentPatient.setRoomNumber(newRoom);
 
-            try {
-                patientDAO.updatePatient(currentPatient);
-                Toast.makeText(this, "Patient transferred successfully",
-                        Toast.LENGTH_SHORT).show();
-                loadPatientData(); // Refresh display
-            } catch (Exception e) {
-                Log.e(TAG, "Error transferring patient", e);
-                Toast.makeText(this, "Error transferring patient",
-                        Toast.LENGTH_SHORT).show();
-            }
+            Patient patient = currentPatient;
+            asyncDAO.patients(this, patientDAO -> patientDAO.updatePatient(patient), new AsyncDAO.Callback<Boolean>() {
+                @Override
+                public void onSuccess(Boolean success) {
+                    Toast.makeText(PatientDetailActivity.this, "Patient transferred successfully",
+                            Toast.LENGTH_SHORT).show();
+                    loadPatientData(); // Refresh display
+                }
+
+                @Override
+                public void onError(String error) {
+                    Toast.makeText(PatientDetailActivity.this, "Error transferring patient",
+                            Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -508,6 +555,10 @@ public class PatientDetailActivity extends AppCompatActivity {
     }
 
     private void dischargePatient() {
+        if (currentPatient == null) {
+            return; // Still loading
+        }
+
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
         builder.setTitle("Discharge Patient");
         builder.setMessage("Are you sure you want to discharge " +
@@ -515,17 +566,22 @@ public class PatientDetailActivity extends AppCompatActivity {
                 currentPatient.getPatientLastName() + "?");
 
         builder.setPositiveButton("Discharge", (dialog, which) -> {
-            try {
-                currentPatient.setDischarged(true);
-                patientDAO.updatePatient(currentPatient);
-                Toast.makeText(this, "Patient discharged successfully",
-                        Toast.LENGTH_SHORT).show();
-                finish(); // Return to previous screen
-            } catch (Exception e) {
-                Log.e(TAG, "Error discharging patient", e);
-                Toast.makeText(this, "Error discharging patient",
-                        Toast.LENGTH_SHORT).show();
-            }
+            currentPatient.setDischarged(true);
+            Patient patient = currentPatient;
+            asyncDAO.patients(this, patientDAO -> patientDAO.updatePatient(patient), new AsyncDAO.Callback<Boolean>() {
+                @Override
+                public void onSuccess(Boolean success) {
+                    Toast.makeText(PatientDetailActivity.this, "Patient discharged successfully",
+                            Toast.LENGTH_SHORT).show();
+                    finish(); // Return to previous screen
+                }
+
+                @Override
+                public void onError(String error) {
+                    Toast.makeText(PatientDetailActivity.this, "Error discharging patient",
+                            Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         builder.setNegativeButton("Cancel", null);
@@ -615,4 +671,11 @@ public class PatientDetailActivity extends AppCompatActivity {
         super.onResume();
         loadPatientData(); // Refresh data when returning to this activity
     }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Write queued meal taps now rather than at the end of the batch window
+        dbHelper.getMealStatusQueue().flush();
+    }
 }
\ No newline at end of file
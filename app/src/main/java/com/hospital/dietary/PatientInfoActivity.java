@@ -6,12 +6,14 @@ import android.view.MenuItem;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.models.Patient;
+import java.util.List;
 
 public class PatientInfoActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -33,8 +35,8 @@ public class PatientInfoActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title
         if (getSupportActionBar() != null) {
@@ -66,29 +68,32 @@ public class PatientInfoActivity extends AppCompatActivity {
     }
 
     private void loadQuickStats() {
-        try {
+        asyncDAO.patients(this, patientDAO -> {
             // Get total patients count
-            int totalPatients = patientDAO.getAllPatients().size();
-            if (totalPatientsCount != null) {
-                totalPatientsCount.setText(String.valueOf(totalPatients));
-            }
+            List<Patient> patients = patientDAO.getAllPatients();
 
             // Get completed orders count (patients with all meals complete)
             int completedOrders = 0;
-            for (com.hospital.dietary.models.Patient patient : patientDAO.getAllPatients()) {
+            for (Patient patient : patients) {
                 if (patient.isBreakfastComplete() && patient.isLunchComplete() && patient.isDinnerComplete()) {
                     completedOrders++;
                 }
             }
-            if (completedOrdersCountText != null) {
-                completedOrdersCountText.setText(String.valueOf(completedOrders));
+            return new int[]{patients.size(), completedOrders};
+        }, new AsyncDAO.Callback<int[]>() {
+            @Override
+            public void onSuccess(int[] counts) {
+                if (totalPatientsCount != null) totalPatientsCount.setText(String.valueOf(counts[0]));
+                if (completedOrdersCountText != null) completedOrdersCountText.setText(String.valueOf(counts[1]));
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            // If there's an error, set defaults
-            if (totalPatientsCount != null) totalPatientsCount.setText("0");
-            if (completedOrdersCountText != null) completedOrdersCountText.setText("0");
-        }
+
+            @Override
+            public void onError(String error) {
+                // If there's an error, set defaults
+                if (totalPatientsCount != null) totalPatientsCount.setText("0");
+                if (completedOrdersCountText != null) completedOrdersCountText.setText("0");
+            }
+        });
     }
 
     private void openNewPatient() {
@@ -122,12 +127,4 @@ public class PatientInfoActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
@@ -8,6 +8,7 @@ import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.PatientDAO;
 import com.hospital.dietary.models.Patient;
 import java.util.List;
@@ -17,7 +18,7 @@ public class PatientInfoMenuActivity extends AppCompatActivity {
     private static final String TAG = "PatientInfoMenu";
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -40,8 +41,8 @@ public class PatientInfoMenuActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title
         if (getSupportActionBar() != null) {
@@ -68,9 +69,22 @@ public class PatientInfoMenuActivity extends AppCompatActivity {
     }
 
     private void loadQuickStats() {
+        // Get all patients
+        asyncDAO.patients(this, PatientDAO::getAllPatients, new AsyncDAO.Callback<List<Patient>>() {
+            @Override
+            public void onSuccess(List<Patient> allPatients) {
+                showQuickStats(allPatients);
+            }
+
+            @Override
+            public void onError(String error) {
+                quickStatsText.setText("Unable to load statistics");
+            }
+        });
+    }
+
+    private void showQuickStats(List<Patient> allPatients) {
         try {
-            // Get all patients
-            List<Patient> allPatients = patientDAO.getAllPatients();
             int totalPatients = allPatients.size();
 
             // Count various statuses
@@ -160,12 +174,4 @@ public class PatientInfoMenuActivity extends AppCompatActivity {
     public void onBackPressed() {
         goToMainMenu();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,265 @@
+package com.hospital.dietary;
+
+import android.graphics.drawable.GradientDrawable;
+import android.util.TypedValue;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Checkable;
+import android.widget.TextView;
+import androidx.annotation.LayoutRes;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.hospital.dietary.models.PatientSummary;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * PatientListAdapter class - shared RecyclerView list for the patient and order screens
+ * Lists are diffed on a background thread and rows are keyed by patient_id, so a reload
+ * only rebinds the rows whose patient actually changed. Selection follows the patient, not the position
+ */
+public class PatientListAdapter extends ListAdapter<PatientSummary, PatientListAdapter.RowHolder> {
+
+    /**
+     * Fills one row; called again only when the patient's list fields change
+     */
+    public interface RowBinder {
+        void bind(RowHolder holder, PatientSummary patient);
+    }
+
+    public interface OnPatientClickListener {
+        void onPatientClick(PatientSummary patient);
+    }
+
+    /**
+     * Row views looked up once per inflated row
+     */
+    public static class RowHolder extends RecyclerView.ViewHolder {
+        public final TextView text1;
+        public final TextView text2;
+
+        RowHolder(View itemView) {
+            super(itemView);
+            text1 = itemView.findViewById(android.R.id.text1);
+            text2 = itemView.findViewById(android.R.id.text2);
+        }
+    }
+
+    // Everything a row shows; list-only fields like room_sort are left out on purpose
+    static final DiffUtil.ItemCallback<PatientSummary> DIFF = new DiffUtil.ItemCallback<PatientSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull PatientSummary oldItem, @NonNull PatientSummary newItem) {
+            return oldItem.getPatientId() == newItem.getPatientId();
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull PatientSummary oldItem, @NonNull PatientSummary newItem) {
+            return Objects.equals(oldItem.getPatientFirstName(), newItem.getPatientFirstName())
+                    && Objects.equals(oldItem.getPatientLastName(), newItem.getPatientLastName())
+                    && Objects.equals(oldItem.getWing(), newItem.getWing())
+                    && Objects.equals(oldItem.getRoomNumber(), newItem.getRoomNumber())
+                    && Objects.equals(oldItem.getDiet(), newItem.getDiet())
+                    && oldItem.isAdaDiet() == newItem.isAdaDiet()
+                    && oldItem.isBreakfastComplete() == newItem.isBreakfastComplete()
+                    && oldItem.isLunchComplete() == newItem.isLunchComplete()
+                    && oldItem.isDinnerComplete() == newItem.isDinnerComplete()
+                    && oldItem.isBreakfastNPO() == newItem.isBreakfastNPO()
+                    && oldItem.isLunchNPO() == newItem.isLunchNPO()
+                    && oldItem.isDinnerNPO() == newItem.isDinnerNPO()
+                    && oldItem.isDischarged() == newItem.isDischarged()
+                    && Objects.equals(oldItem.getCreatedDate(), newItem.getCreatedDate());
+        }
+    };
+
+    // Partial rebind that only flips the check mark
+    private static final Object SELECTION_CHANGED = new Object();
+
+    private final int layoutRes;
+    private final boolean selectable;
+    private final RowBinder binder;
+    private final Set<Long> selectedIds = new HashSet<>();
+    private OnPatientClickListener clickListener;
+    private OnPatientClickListener longClickListener;
+    private Runnable selectionListener;
+
+    /**
+     * @param layoutRes  row layout with android.R.id.text1 and optionally text2, e.g. simple_list_item_2
+     * @param selectable rows toggle selection on click; the row view is checked when it is Checkable
+     */
+    public PatientListAdapter(@LayoutRes int layoutRes, boolean selectable, RowBinder binder) {
+        super(DIFF);
+        this.layoutRes = layoutRes;
+        this.selectable = selectable;
+        this.binder = binder;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Give the list a vertical layout and a 1dp divider, then show this adapter in it
+     */
+    public void attachTo(RecyclerView recyclerView, int dividerColor) {
+        LinearLayoutManager layoutManager = new LinearLayoutManager(recyclerView.getContext());
+        recyclerView.setLayoutManager(layoutManager);
+
+        GradientDrawable divider = new GradientDrawable();
+        divider.setColor(dividerColor);
+        divider.setSize(0, Math.max(1, Math.round(recyclerView.getResources().getDisplayMetrics().density)));
+        DividerItemDecoration decoration = new DividerItemDecoration(recyclerView.getContext(), layoutManager.getOrientation());
+        decoration.setDrawable(divider);
+        recyclerView.addItemDecoration(decoration);
+
+        recyclerView.setAdapter(this);
+    }
+
+    public void setOnPatientClickListener(OnPatientClickListener listener) {
+        this.clickListener = listener;
+    }
+
+    public void setOnPatientLongClickListener(OnPatientClickListener listener) {
+        this.longClickListener = listener;
+    }
+
+    // Told after every selection change
+    public void setOnSelectionChangedListener(Runnable listener) {
+        this.selectionListener = listener;
+    }
+
+    /**
+     * Show a new list; the diff runs off the UI thread and selections of patients no longer listed are dropped
+     */
+    public void setPatients(List<PatientSummary> patients, Runnable committed) {
+        List<PatientSummary> snapshot = new ArrayList<>(patients);
+        submitList(snapshot, () -> {
+            Set<Long> listed = new HashSet<>();
+            for (PatientSummary patient : snapshot) {
+                listed.add(patient.getPatientId());
+            }
+            if (selectedIds.retainAll(listed)) {
+                notifySelectionChanged();
+            }
+            if (committed != null) {
+                committed.run();
+            }
+        });
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getPatientId();
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(layoutRes, parent, false);
+        RowHolder holder = new RowHolder(view);
+
+        // ListView drew the pressed state itself; RecyclerView rows need their own
+        TypedValue background = new TypedValue();
+        parent.getContext().getTheme().resolveAttribute(android.R.attr.selectableItemBackground, background, true);
+        view.setBackgroundResource(background.resourceId);
+
+        view.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            PatientSummary patient = getItem(position);
+            if (selectable) {
+                toggleSelection(patient);
+            }
+            if (clickListener != null) {
+                clickListener.onPatientClick(patient);
+            }
+        });
+        view.setOnLongClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION || longClickListener == null) {
+                return false;
+            }
+            longClickListener.onPatientClick(getItem(position));
+            return true;
+        });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        PatientSummary patient = getItem(position);
+        binder.bind(holder, patient);
+        bindSelection(holder, patient);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.size() == 1 && payloads.get(0) == SELECTION_CHANGED) {
+            bindSelection(holder, getItem(position));
+        } else {
+            onBindViewHolder(holder, position);
+        }
+    }
+
+    private void bindSelection(RowHolder holder, PatientSummary patient) {
+        if (holder.itemView instanceof Checkable) {
+            ((Checkable) holder.itemView).setChecked(selectedIds.contains(patient.getPatientId()));
+        }
+    }
+
+    // Selection
+
+    public void toggleSelection(PatientSummary patient) {
+        long patientId = patient.getPatientId();
+        if (!selectedIds.remove(patientId)) {
+            selectedIds.add(patientId);
+        }
+        int position = getCurrentList().indexOf(patient);
+        if (position >= 0) {
+            notifyItemChanged(position, SELECTION_CHANGED);
+        }
+        notifySelectionChanged();
+    }
+
+    public void selectAll(boolean select) {
+        selectedIds.clear();
+        if (select) {
+            for (PatientSummary patient : getCurrentList()) {
+                selectedIds.add(patient.getPatientId());
+            }
+        }
+        notifyItemRangeChanged(0, getItemCount(), SELECTION_CHANGED);
+        notifySelectionChanged();
+    }
+
+    public boolean areAllSelected() {
+        return getItemCount() > 0 && selectedIds.size() == getItemCount();
+    }
+
+    public int getSelectedCount() {
+        return selectedIds.size();
+    }
+
+    // Selected patients in list order
+    public List<PatientSummary> getSelectedPatients() {
+        List<PatientSummary> selected = new ArrayList<>();
+        for (PatientSummary patient : getCurrentList()) {
+            if (selectedIds.contains(patient.getPatientId())) {
+                selected.add(patient);
+            }
+        }
+        return selected;
+    }
+
+    private void notifySelectionChanged() {
+        if (selectionListener != null) {
+            selectionListener.run();
+        }
+    }
+}
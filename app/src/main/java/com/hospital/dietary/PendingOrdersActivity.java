@@ -1,32 +1,39 @@
 package com.hospital.dietary;
 
 import android.content.Intent;
+import android.graphics.Color;
 import android.os.Bundle;
 import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.recyclerview.widget.RecyclerView;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.PatientDAO;
-import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.dao.PatientSummaryList;
+import com.hospital.dietary.models.PatientSummary;
 import java.util.ArrayList;
 import java.util.List;
 
 public class PendingOrdersActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
 
     // UI Components
-    private ListView pendingOrdersListView;
+    private RecyclerView pendingOrdersRecyclerView;
     private TextView noPendingOrdersText;
 
-    private List<Patient> pendingPatients = new ArrayList<>();
-    private ArrayAdapter<Patient> pendingAdapter;
+    private List<PatientSummary> pendingPatients = new ArrayList<>();
+    private PatientListAdapter pendingAdapter;
+
+    // Patched from patient_info change notices, so returning here only re-reads changed patients
+    private final PatientSummaryList pendingList =
+            new PatientSummaryList(PatientDAO::getPendingPatientSummaries, PatientDAO::isPending);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -39,8 +46,9 @@ public class PendingOrdersActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
+        dbHelper.getChangeBus().subscribe("patient_info", pendingList);
 
         // Set title
         if (getSupportActionBar() != null) {
@@ -50,18 +58,26 @@ public class PendingOrdersActivity extends AppCompatActivity {
 
         initializeUI();
         setupListeners();
-        loadPendingOrders();
+        // Pending orders load in onResume
     }
 
     private void initializeUI() {
-        pendingOrdersListView = findViewById(R.id.pendingOrdersListView);
+        pendingOrdersRecyclerView = findViewById(R.id.pendingOrdersRecyclerView);
         noPendingOrdersText = findViewById(R.id.noPendingOrdersText);
 
-        // FIXED: Set up click listener for meal planning
-        pendingOrdersListView.setOnItemClickListener((parent, view, position, id) -> {
-            Patient selectedPatient = pendingPatients.get(position);
-            openMealPlanning(selectedPatient);
+        // One adapter for the screen's lifetime, so a reload after a meal is marked complete rebinds one row
+        pendingAdapter = new PatientListAdapter(android.R.layout.simple_list_item_2, false, (holder, patient) -> {
+            holder.text1.setText(patient.getFullName());
+
+            // Show meal completion status instead of just location
+            String locationInfo = patient.getWing() + " - Room " + patient.getRoomNumber();
+            String mealStatus = getMealCompletionStatus(patient);
+            holder.text2.setText(locationInfo + " • " + patient.getDiet() + "\n" + mealStatus);
         });
+        pendingAdapter.attachTo(pendingOrdersRecyclerView, Color.parseColor("#ecf0f1"));
+
+        // FIXED: Set up click listener for meal planning
+        pendingAdapter.setOnPatientClickListener(this::openMealPlanning);
     }
 
     private void setupListeners() {
@@ -69,43 +85,33 @@ public class PendingOrdersActivity extends AppCompatActivity {
     }
 
     private void loadPendingOrders() {
+        // Get patients who have incomplete meal orders (not all meals complete)
+        asyncDAO.patients(this, pendingList::refresh, new AsyncDAO.Callback<List<PatientSummary>>() {
+            @Override
+            public void onSuccess(List<PatientSummary> patients) {
+                showPendingOrders(patients);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(PendingOrdersActivity.this, "Error loading pending orders: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showPendingOrders(List<PatientSummary> patients) {
         try {
-            // Get patients who have incomplete meal orders (not all meals complete)
             pendingPatients.clear();
-            pendingPatients.addAll(patientDAO.getPendingPatients());
+            pendingPatients.addAll(patients);
+            pendingAdapter.setPatients(pendingPatients, null);
 
             if (pendingPatients.isEmpty()) {
-                pendingOrdersListView.setVisibility(View.GONE);
+                pendingOrdersRecyclerView.setVisibility(View.GONE);
                 noPendingOrdersText.setVisibility(View.VISIBLE);
                 noPendingOrdersText.setText("✅ No pending orders!\nAll patients have completed meal orders.");
             } else {
-                pendingOrdersListView.setVisibility(View.VISIBLE);
+                pendingOrdersRecyclerView.setVisibility(View.VISIBLE);
                 noPendingOrdersText.setVisibility(View.GONE);
-
-                // FIXED: Create adapter for pending patients with better formatting
-                pendingAdapter = new ArrayAdapter<Patient>(this, android.R.layout.simple_list_item_2, android.R.id.text1, pendingPatients) {
-                    @Override
-                    public View getView(int position, View convertView, ViewGroup parent) {
-                        View view = super.getView(position, convertView, parent);
-
-                        Patient patient = getItem(position);
-                        TextView text1 = view.findViewById(android.R.id.text1);
-                        TextView text2 = view.findViewById(android.R.id.text2);
-
-                        if (patient != null) {
-                            text1.setText(patient.getFullName());
-
-                            // Show meal completion status instead of just location
-                            String locationInfo = patient.getWing() + " - Room " + patient.getRoomNumber();
-                            String mealStatus = getMealCompletionStatus(patient);
-                            text2.setText(locationInfo + " • " + patient.getDiet() + "\n" + mealStatus);
-                        }
-
-                        return view;
-                    }
-                };
-
-                pendingOrdersListView.setAdapter(pendingAdapter);
             }
 
         } catch (Exception e) {
@@ -115,7 +121,7 @@ public class PendingOrdersActivity extends AppCompatActivity {
     }
 
     // Helper method to show meal completion status
-    private String getMealCompletionStatus(Patient patient) {
+    private String getMealCompletionStatus(PatientSummary patient) {
         List<String> completed = new ArrayList<>();
         List<String> pending = new ArrayList<>();
 
@@ -145,7 +151,7 @@ public class PendingOrdersActivity extends AppCompatActivity {
     }
 
     // FIXED: Properly implement openMealPlanning method
-    private void openMealPlanning(Patient patient) {
+    private void openMealPlanning(PatientSummary patient) {
         try {
             Intent intent = new Intent(this, MealPlanningActivity.class);
             intent.putExtra("patient_id", (long) patient.getPatientId()); // Cast to long
@@ -173,8 +179,16 @@ public class PendingOrdersActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
-        // Refresh data when returning to this activity
-        loadPendingOrders();
+        // Refresh data when returning to this activity, if anything it shows was written
+        if (pendingList.isStale()) {
+            loadPendingOrders();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        dbHelper.getChangeBus().unsubscribe("patient_info", pendingList);
+        super.onDestroy();
     }
 
     @Override
@@ -201,12 +215,4 @@ public class PendingOrdersActivity extends AppCompatActivity {
                 return super.onOptionsItemSelected(item);
         }
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
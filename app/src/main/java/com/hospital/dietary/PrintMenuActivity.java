@@ -0,0 +1,203 @@
+package com.hospital.dietary;
+
+import android.app.DatePickerDialog;
+import android.content.Context;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.print.PrintAttributes;
+import android.print.PrintManager;
+import android.view.MenuItem;
+import android.widget.*;
+import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.models.PatientSummary;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * PrintMenuActivity class - prints tray tickets for the patients passed in "patient_ids"
+ * Tickets print in the order the ids were given. With "service_date" (yyyy-MM-dd) the tickets
+ * are reprinted from that day's archived orders instead of the live census
+ */
+public class PrintMenuActivity extends AppCompatActivity {
+
+    private static final String[] MEALS = {"Breakfast", "Lunch", "Dinner"};
+
+    private DatabaseHelper dbHelper;
+
+    // User information
+    private String currentUsername;
+    private String currentUserRole;
+    private String currentUserFullName;
+
+    private long[] patientIds;
+    private String archivedServiceDate;
+
+    // UI Components
+    private Button dateButton;
+    private Spinner mealSpinner;
+    private TextView summaryText;
+    private Button printButton;
+
+    private Calendar serviceDate = Calendar.getInstance();
+
+    /**
+     * Ids of the given list rows, in list order, for the "patient_ids" extra
+     */
+    public static long[] patientIds(List<PatientSummary> patients) {
+        long[] ids = new long[patients.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = patients.get(i).getPatientId();
+        }
+        return ids;
+    }
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Get user information from intent
+        currentUsername = getIntent().getStringExtra("current_user");
+        currentUserRole = getIntent().getStringExtra("user_role");
+        currentUserFullName = getIntent().getStringExtra("user_full_name");
+
+        patientIds = getIntent().getLongArrayExtra("patient_ids");
+        if (patientIds == null) {
+            patientIds = new long[0];
+        }
+        archivedServiceDate = getIntent().getStringExtra("service_date");
+        if (archivedServiceDate != null) {
+            try {
+                serviceDate.setTime(new SimpleDateFormat("yyyy-MM-dd", Locale.US).parse(archivedServiceDate));
+            } catch (ParseException e) {
+                archivedServiceDate = null;
+            }
+        }
+
+        dbHelper = DatabaseHelper.getInstance(this);
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle("Print Tray Tickets");
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        createPrintLayout();
+        setupListeners();
+    }
+
+    private void createPrintLayout() {
+        LinearLayout mainLayout = new LinearLayout(this);
+        mainLayout.setOrientation(LinearLayout.VERTICAL);
+        mainLayout.setPadding(40, 40, 40, 40);
+        mainLayout.setBackgroundColor(0xFFF8F9FA);
+
+        // Service date and meal selection
+        LinearLayout selectionLayout = new LinearLayout(this);
+        selectionLayout.setOrientation(LinearLayout.HORIZONTAL);
+
+        dateButton = new Button(this);
+        dateButton.setLayoutParams(new LinearLayout.LayoutParams(0,
+                LinearLayout.LayoutParams.WRAP_CONTENT, 1));
+        // Archived orders belong to their own day
+        dateButton.setEnabled(archivedServiceDate == null);
+        selectionLayout.addView(dateButton);
+
+        mealSpinner = new Spinner(this);
+        mealSpinner.setLayoutParams(new LinearLayout.LayoutParams(0,
+                LinearLayout.LayoutParams.WRAP_CONTENT, 1));
+        ArrayAdapter<String> mealAdapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, MEALS);
+        mealAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mealSpinner.setAdapter(mealAdapter);
+        mealSpinner.setSelection(getCurrentMealIndex());
+        selectionLayout.addView(mealSpinner);
+
+        mainLayout.addView(selectionLayout);
+
+        int pages = (patientIds.length + TrayTicketRenderer.TICKETS_PER_PAGE - 1) / TrayTicketRenderer.TICKETS_PER_PAGE;
+        summaryText = new TextView(this);
+        summaryText.setTextSize(16);
+        summaryText.setTextColor(0xFF2c3e50);
+        summaryText.setTypeface(null, Typeface.BOLD);
+        summaryText.setPadding(0, 20, 0, 20);
+        summaryText.setText(patientIds.length + " tray ticket(s) on " + pages + " page(s), " +
+                TrayTicketRenderer.TICKETS_PER_PAGE + " to a page");
+        mainLayout.addView(summaryText);
+
+        printButton = new Button(this);
+        printButton.setText("Print Tickets");
+        printButton.setTextColor(0xFFFFFFFF);
+        printButton.setBackgroundColor(0xFF2196F3);
+        printButton.setEnabled(patientIds.length > 0);
+        mainLayout.addView(printButton);
+
+        setContentView(mainLayout);
+        updateDateButton();
+    }
+
+    private void setupListeners() {
+        dateButton.setOnClickListener(v -> new DatePickerDialog(this,
+                (view, year, month, dayOfMonth) -> {
+                    serviceDate.set(year, month, dayOfMonth);
+                    updateDateButton();
+                },
+                serviceDate.get(Calendar.YEAR),
+                serviceDate.get(Calendar.MONTH),
+                serviceDate.get(Calendar.DAY_OF_MONTH)).show());
+
+        printButton.setOnClickListener(v -> printTickets());
+    }
+
+    // Default to the next meal being served
+    private int getCurrentMealIndex() {
+        int hour = Calendar.getInstance().get(Calendar.HOUR_OF_DAY);
+        if (hour < 10) return 0;
+        if (hour < 15) return 1;
+        return 2;
+    }
+
+    private void updateDateButton() {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, MMM d, yyyy", Locale.getDefault());
+        dateButton.setText(format.format(serviceDate.getTime()));
+    }
+
+    private void printTickets() {
+        if (patientIds.length == 0) {
+            Toast.makeText(this, "No patients to print", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String meal = (String) mealSpinner.getSelectedItem();
+        String date = new SimpleDateFormat("MMM d, yyyy", Locale.getDefault()).format(serviceDate.getTime());
+        String title = meal + " Tray Tickets";
+
+        // Patients are read while the tickets are written, so late order changes still print
+        TrayTicketPrintAdapter.PatientLoader loader;
+        if (archivedServiceDate != null) {
+            loader = (ids, from, to) -> dbHelper.getRetiredOrderDAO()
+                    .getRetiredOrdersByIds(archivedServiceDate, ids, from, to);
+        } else {
+            loader = dbHelper.getPatientDAO()::getPatientsByIds;
+        }
+
+        PrintManager printManager = (PrintManager) getSystemService(Context.PRINT_SERVICE);
+        String jobName = getString(R.string.app_name) + " - " + title;
+
+        printManager.print(jobName,
+                new TrayTicketPrintAdapter(loader, patientIds, meal, date, title),
+                new PrintAttributes.Builder()
+                        .setMediaSize(PrintAttributes.MediaSize.NA_LETTER)
+                        .build());
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
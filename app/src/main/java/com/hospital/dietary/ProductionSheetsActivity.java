@@ -0,0 +1,228 @@
+package com.hospital.dietary;
+
+import android.app.DatePickerDialog;
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.*;
+import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.MealSelectionDAO;
+import com.hospital.dietary.dao.MealSelectionDAO.ProductionLine;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+public class ProductionSheetsActivity extends AppCompatActivity {
+
+    private static final String TAG = "ProductionSheetsActivity";
+    private static final String[] MEALS = {"Breakfast", "Lunch", "Dinner"};
+
+    private DatabaseHelper dbHelper;
+    private AsyncDAO asyncDAO;
+
+    // User information
+    private String currentUsername;
+    private String currentUserRole;
+    private String currentUserFullName;
+
+    // UI Components
+    private Button dateButton;
+    private Spinner mealSpinner;
+    private TextView summaryText;
+    private TextView sheetText;
+
+    // Sheet selection
+    private Calendar serviceDate = Calendar.getInstance();
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Get user information from intent
+        currentUsername = getIntent().getStringExtra("current_user");
+        currentUserRole = getIntent().getStringExtra("user_role");
+        currentUserFullName = getIntent().getStringExtra("user_full_name");
+
+        // Initialize database
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle("Production Sheets");
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        createSheetLayout();
+        setupListeners();
+    }
+
+    private void createSheetLayout() {
+        LinearLayout mainLayout = new LinearLayout(this);
+        mainLayout.setOrientation(LinearLayout.VERTICAL);
+        mainLayout.setPadding(40, 40, 40, 40);
+        mainLayout.setBackgroundColor(0xFFF8F9FA);
+
+        // Service date and meal selection
+        LinearLayout selectionLayout = new LinearLayout(this);
+        selectionLayout.setOrientation(LinearLayout.HORIZONTAL);
+
+        dateButton = new Button(this);
+        dateButton.setLayoutParams(new LinearLayout.LayoutParams(0,
+                LinearLayout.LayoutParams.WRAP_CONTENT, 1));
+        selectionLayout.addView(dateButton);
+
+        mealSpinner = new Spinner(this);
+        mealSpinner.setLayoutParams(new LinearLayout.LayoutParams(0,
+                LinearLayout.LayoutParams.WRAP_CONTENT, 1));
+        ArrayAdapter<String> mealAdapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, MEALS);
+        mealAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mealSpinner.setAdapter(mealAdapter);
+        mealSpinner.setSelection(getCurrentMealIndex());
+        selectionLayout.addView(mealSpinner);
+
+        mainLayout.addView(selectionLayout);
+
+        summaryText = new TextView(this);
+        summaryText.setTextSize(16);
+        summaryText.setTextColor(0xFF2c3e50);
+        summaryText.setTypeface(null, Typeface.BOLD);
+        summaryText.setPadding(0, 20, 0, 20);
+        mainLayout.addView(summaryText);
+
+        // Sheet body
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.setLayoutParams(new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, 0, 1));
+        scrollView.setBackgroundColor(0xFFFFFFFF);
+
+        sheetText = new TextView(this);
+        sheetText.setTypeface(Typeface.MONOSPACE);
+        sheetText.setTextSize(14);
+        sheetText.setTextColor(0xFF2c3e50);
+        sheetText.setPadding(20, 20, 20, 20);
+        scrollView.addView(sheetText);
+
+        mainLayout.addView(scrollView);
+
+        setContentView(mainLayout);
+        updateDateButton();
+    }
+
+    private void setupListeners() {
+        dateButton.setOnClickListener(v -> new DatePickerDialog(this,
+                (view, year, month, dayOfMonth) -> {
+                    serviceDate.set(year, month, dayOfMonth);
+                    updateDateButton();
+                    loadProductionSheet();
+                },
+                serviceDate.get(Calendar.YEAR),
+                serviceDate.get(Calendar.MONTH),
+                serviceDate.get(Calendar.DAY_OF_MONTH)).show());
+
+        mealSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                loadProductionSheet();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+    }
+
+    // Default to the next meal being produced
+    private int getCurrentMealIndex() {
+        int hour = Calendar.getInstance().get(Calendar.HOUR_OF_DAY);
+        if (hour < 10) return 0;
+        if (hour < 15) return 1;
+        return 2;
+    }
+
+    private void updateDateButton() {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, MMM d, yyyy", Locale.getDefault());
+        dateButton.setText(format.format(serviceDate.getTime()));
+    }
+
+    private void loadProductionSheet() {
+        String meal = (String) mealSpinner.getSelectedItem();
+        String date = MealSelectionDAO.formatServiceDate(serviceDate.getTime());
+        asyncDAO.run(this, db -> db.getMealSelectionDAO().getProductionSheet(date, meal),
+                new AsyncDAO.Callback<List<ProductionLine>>() {
+                    @Override
+                    public void onSuccess(List<ProductionLine> lines) {
+                        showProductionSheet(meal, lines);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(ProductionSheetsActivity.this, "Error loading production sheet: " + error, Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+
+    private void showProductionSheet(String meal, List<ProductionLine> lines) {
+        try {
+            if (lines.isEmpty()) {
+                summaryText.setText(meal + " - no selections");
+                sheetText.setText("No meal selections found for this service date and meal.");
+                return;
+            }
+
+            // Lines arrive ordered by item, so each item's breakdown is contiguous
+            StringBuilder sheet = new StringBuilder();
+            String currentItem = null;
+            int itemTotal = 0;
+            int itemHeaderIndex = 0;
+            int grandTotal = 0;
+
+            for (ProductionLine line : lines) {
+                if (!line.getItemName().equals(currentItem)) {
+                    if (currentItem != null) {
+                        sheet.insert(itemHeaderIndex, currentItem + " - " + itemTotal + "\n");
+                        sheet.append("\n");
+                    }
+                    currentItem = line.getItemName();
+                    itemTotal = 0;
+                    itemHeaderIndex = sheet.length();
+                }
+
+                sheet.append("  ").append(line.getQuantity()).append(" x ")
+                        .append(line.getDiet() != null ? line.getDiet() : "No Diet")
+                        .append(" / ").append(line.getTextureLabel())
+                        .append(" / ").append(line.getThicknessLabel())
+                        .append("\n");
+                itemTotal += line.getQuantity();
+                grandTotal += line.getQuantity();
+            }
+            sheet.insert(itemHeaderIndex, currentItem + " - " + itemTotal + "\n");
+
+            summaryText.setText(meal + " - " + grandTotal + " portions");
+            sheetText.setText(sheet.toString());
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing production sheet", e);
+            Toast.makeText(this, "Error showing production sheet: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Late order changes show up whenever the sheet comes back into view
+        loadProductionSheet();
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -1,6 +1,8 @@
 package com.hospital.dietary;
 
+import android.app.DatePickerDialog;
 import android.content.Intent;
+import android.graphics.Color;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.Menu;
@@ -8,8 +10,12 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.PatientDAO;
+import androidx.recyclerview.widget.RecyclerView;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.MealSelectionDAO;
+import com.hospital.dietary.dao.RetiredOrderDAO;
 import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -22,7 +28,7 @@ public class RetiredOrdersActivity extends AppCompatActivity {
     private static final String TAG = "RetiredOrdersActivity";
 
     private DatabaseHelper dbHelper;
-    private PatientDAO patientDAO;
+    private AsyncDAO asyncDAO;
 
     // User information
     private String currentUsername;
@@ -33,7 +39,7 @@ public class RetiredOrdersActivity extends AppCompatActivity {
     private TextView retiredOrdersTitle;
     private TextView selectedDateText;
     private Button selectDateButton;
-    private ListView retiredOrdersListView;
+    private RecyclerView retiredOrdersRecyclerView;
     private TextView noRetiredOrdersText;
     private Button printAllButton;
     private Button printSelectedButton;
@@ -41,8 +47,8 @@ public class RetiredOrdersActivity extends AppCompatActivity {
     private Button homeButton;
 
     // Data
-    private List<Patient> retiredPatients = new ArrayList<>();
-    private RetiredOrdersAdapter retiredAdapter;
+    private List<PatientSummary> retiredPatients = new ArrayList<>();
+    private PatientListAdapter retiredAdapter;
     private Calendar selectedDate = Calendar.getInstance();
 
     @Override
@@ -56,8 +62,8 @@ public class RetiredOrdersActivity extends AppCompatActivity {
         currentUserFullName = getIntent().getStringExtra("user_full_name");
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        patientDAO = new PatientDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title
         if (getSupportActionBar() != null) {
@@ -65,8 +71,12 @@ public class RetiredOrdersActivity extends AppCompatActivity {
             getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         }
 
+        // Yesterday is the newest day the archive holds for patients still on the census
+        selectedDate.add(Calendar.DAY_OF_YEAR, -1);
+
         initializeUI();
         setupListeners();
+        archiveRetiredOrders();
         loadRetiredOrders();
     }
 
@@ -74,17 +84,17 @@ public class RetiredOrdersActivity extends AppCompatActivity {
         retiredOrdersTitle = findViewById(R.id.retiredOrdersTitle);
         selectedDateText = findViewById(R.id.selectedDateText);
         selectDateButton = findViewById(R.id.selectDateButton);
-        retiredOrdersListView = findViewById(R.id.retiredOrdersListView);
+        retiredOrdersRecyclerView = findViewById(R.id.retiredOrdersRecyclerView);
         noRetiredOrdersText = findViewById(R.id.noRetiredOrdersText);
         printAllButton = findViewById(R.id.printAllButton);
         printSelectedButton = findViewById(R.id.printSelectedButton);
         backButton = findViewById(R.id.backButton);
         homeButton = findViewById(R.id.homeButton);
 
-        // Initialize the list view
-        retiredAdapter = new RetiredOrdersAdapter(this, retiredPatients);
-        retiredOrdersListView.setAdapter(retiredAdapter);
-        retiredOrdersListView.setChoiceMode(ListView.CHOICE_MODE_MULTIPLE);
+        // Initialize the list
+        retiredAdapter = new PatientListAdapter(android.R.layout.simple_list_item_multiple_choice, true,
+                this::bindRetiredOrder);
+        retiredAdapter.attachTo(retiredOrdersRecyclerView, Color.parseColor("#e0e0e0"));
 
         updateSelectedDateDisplay();
     }
@@ -110,14 +120,7 @@ public class RetiredOrdersActivity extends AppCompatActivity {
             homeButton.setOnClickListener(v -> goToMainMenu());
         }
 
-        if (retiredOrdersListView != null) {
-            retiredOrdersListView.setOnItemClickListener((parent, view, position, id) -> {
-                if (position < retiredPatients.size()) {
-                    Patient patient = retiredPatients.get(position);
-                    showOrderDetails(patient);
-                }
-            });
-        }
+        retiredAdapter.setOnPatientClickListener(patient -> showOrderDetails(patient.getPatientId()));
     }
 
     private void updateSelectedDateDisplay() {
@@ -128,71 +131,84 @@ public class RetiredOrdersActivity extends AppCompatActivity {
     }
 
     private void showDatePicker() {
-        // Date picker implementation would go here
-        // For now, just reload the current data
-        loadRetiredOrders();
+        new DatePickerDialog(this,
+                (view, year, month, dayOfMonth) -> {
+                    selectedDate.set(year, month, dayOfMonth);
+                    updateSelectedDateDisplay();
+                    loadRetiredOrders();
+                },
+                selectedDate.get(Calendar.YEAR),
+                selectedDate.get(Calendar.MONTH),
+                selectedDate.get(Calendar.DAY_OF_MONTH)).show();
     }
 
-    private void loadRetiredOrders() {
-        try {
-            retiredPatients.clear();
-
-            // Get all patients
-            List<Patient> allPatients = patientDAO.getAllPatients();
-
-            // Calculate 6 days ago
-            Calendar sixDaysAgo = Calendar.getInstance();
-            sixDaysAgo.add(Calendar.DAY_OF_YEAR, -6);
-            Date sixDaysAgoDate = sixDaysAgo.getTime();
-
-            for (Patient patient : allPatients) {
-                boolean shouldInclude = false;
+    // Move anyone discharged since the last pass into the archive; the daily rollover does the same
+    private void archiveRetiredOrders() {
+        Calendar startOfToday = Calendar.getInstance();
+        startOfToday.set(Calendar.HOUR_OF_DAY, 0);
+        startOfToday.set(Calendar.MINUTE, 0);
+        startOfToday.set(Calendar.SECOND, 0);
+        startOfToday.set(Calendar.MILLISECOND, 0);
+        long cutoff = startOfToday.getTimeInMillis();
+
+        asyncDAO.run(this, db -> db.getRetiredOrderDAO().archiveRetiredOrders(cutoff),
+                new AsyncDAO.Callback<RetiredOrderDAO.ArchiveResult>() {
+                    @Override
+                    public void onSuccess(RetiredOrderDAO.ArchiveResult result) {
+                    }
 
-                // Include if discharged
-                if (patient.isDischarged()) {
-                    shouldInclude = true;
-                }
-                // Or if created more than 6 days ago
-                else if (patient.getCreatedDate() != null && patient.getCreatedDate().before(sixDaysAgoDate)) {
-                    shouldInclude = true;
-                }
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(RetiredOrdersActivity.this, "Error archiving retired orders: " + error, Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
-                // Only include if patient has completed meals or is NPO
-                if (shouldInclude) {
-                    boolean hasCompletedMeals = patient.isBreakfastComplete() || patient.isLunchComplete() || patient.isDinnerComplete();
-                    boolean isAllNPO = patient.isBreakfastNPO() && patient.isLunchNPO() && patient.isDinnerNPO();
-                    boolean isFullyProcessed = (patient.isBreakfastComplete() || patient.isBreakfastNPO()) &&
-                            (patient.isLunchComplete() || patient.isLunchNPO()) &&
-                            (patient.isDinnerComplete() || patient.isDinnerNPO());
+    private void loadRetiredOrders() {
+        // The archive keeps each day's orders under their service date
+        String serviceDate = MealSelectionDAO.formatServiceDate(selectedDate.getTime());
+
+        // Queued behind the archive pass on the database thread, so it sees the moved rows
+        asyncDAO.run(this, db -> db.getRetiredOrderDAO().getRetiredOrderSummaries(serviceDate),
+                new AsyncDAO.Callback<List<PatientSummary>>() {
+                    @Override
+                    public void onSuccess(List<PatientSummary> candidates) {
+                        showRetiredOrders(candidates);
+                    }
 
-                    if (hasCompletedMeals || isAllNPO || isFullyProcessed) {
-                        retiredPatients.add(patient);
+                    @Override
+                    public void onError(String error) {
+                        Toast.makeText(RetiredOrdersActivity.this, "Error loading retired orders: " + error, Toast.LENGTH_SHORT).show();
                     }
-                }
-            }
+                });
+    }
+
+    private void showRetiredOrders(List<PatientSummary> archived) {
+        try {
+            // Only processed days are archived, so every row is shown
+            retiredPatients.clear();
+            retiredPatients.addAll(archived);
 
-            // Update UI
+            // Update UI; only changed rows are rebound
+            retiredAdapter.setPatients(retiredPatients, null);
             if (retiredPatients.isEmpty()) {
-                if (retiredOrdersListView != null) {
-                    retiredOrdersListView.setVisibility(View.GONE);
+                if (retiredOrdersRecyclerView != null) {
+                    retiredOrdersRecyclerView.setVisibility(View.GONE);
                 }
                 if (noRetiredOrdersText != null) {
                     noRetiredOrdersText.setVisibility(View.VISIBLE);
-                    noRetiredOrdersText.setText("📋 No retired orders found.\n\nRetired orders include:\n• Discharged patients\n• Patients created more than 6 days ago");
+                    noRetiredOrdersText.setText("📋 No retired orders for this date.\n\nRetired orders include:\n• Discharged patients\n• Earlier days with completed or NPO meals");
                 }
 
                 if (printAllButton != null) printAllButton.setEnabled(false);
                 if (printSelectedButton != null) printSelectedButton.setEnabled(false);
             } else {
-                if (retiredOrdersListView != null) {
-                    retiredOrdersListView.setVisibility(View.VISIBLE);
+                if (retiredOrdersRecyclerView != null) {
+                    retiredOrdersRecyclerView.setVisibility(View.VISIBLE);
                 }
                 if (noRetiredOrdersText != null) {
                     noRetiredOrdersText.setVisibility(View.GONE);
                 }
-                if (retiredAdapter != null) {
-                    retiredAdapter.notifyDataSetChanged();
-                }
 
                 if (printAllButton != null) printAllButton.setEnabled(true);
                 if (printSelectedButton != null) printSelectedButton.setEnabled(true);
@@ -204,6 +220,18 @@ public class RetiredOrdersActivity extends AppCompatActivity {
         }
     }
 
+    private void showOrderDetails(long patientId) {
+        // Load the full archived record only for the order being viewed
+        String serviceDate = MealSelectionDAO.formatServiceDate(selectedDate.getTime());
+        asyncDAO.run(this, db -> db.getRetiredOrderDAO().getRetiredOrder(serviceDate, patientId), patient -> {
+            if (patient == null) {
+                Toast.makeText(this, "Patient not found", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            showOrderDetails(patient);
+        });
+    }
+
     private void showOrderDetails(Patient patient) {
         StringBuilder details = new StringBuilder();
 
@@ -212,7 +240,7 @@ public class RetiredOrdersActivity extends AppCompatActivity {
 
         if (patient.isDischarged()) {
             details.append("Status: DISCHARGED\n");
-        } else {
+        } else if (patient.getCreatedDate() != null) {
             SimpleDateFormat dateFormat = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
             details.append("Created: ").append(dateFormat.format(patient.getCreatedDate())).append("\n");
         }
@@ -246,27 +274,26 @@ public class RetiredOrdersActivity extends AppCompatActivity {
             return;
         }
 
-        // TODO: Implement print functionality
-        Toast.makeText(this, "Printing all " + retiredPatients.size() + " orders...", Toast.LENGTH_SHORT).show();
+        printTrayTickets(retiredPatients);
     }
 
     private void printSelectedOrders() {
-        android.util.SparseBooleanArray checkedItems = retiredOrdersListView.getCheckedItemPositions();
-        int selectedCount = 0;
-
-        for (int i = 0; i < checkedItems.size(); i++) {
-            if (checkedItems.valueAt(i)) {
-                selectedCount++;
-            }
-        }
-
-        if (selectedCount == 0) {
+        if (retiredAdapter.getSelectedCount() == 0) {
             Toast.makeText(this, "Please select orders to print", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // TODO: Implement print functionality
-        Toast.makeText(this, "Printing " + selectedCount + " selected orders...", Toast.LENGTH_SHORT).show();
+        printTrayTickets(retiredAdapter.getSelectedPatients());
+    }
+
+    private void printTrayTickets(List<PatientSummary> patients) {
+        Intent intent = new Intent(this, PrintMenuActivity.class);
+        intent.putExtra("patient_ids", PrintMenuActivity.patientIds(patients));
+        intent.putExtra("service_date", MealSelectionDAO.formatServiceDate(selectedDate.getTime()));
+        intent.putExtra("current_user", currentUsername);
+        intent.putExtra("user_role", currentUserRole);
+        intent.putExtra("user_full_name", currentUserFullName);
+        startActivity(intent);
     }
 
     private void goToMainMenu() {
@@ -301,48 +328,23 @@ public class RetiredOrdersActivity extends AppCompatActivity {
         }
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
-
-    // Custom adapter for retired orders
-    private class RetiredOrdersAdapter extends ArrayAdapter<Patient> {
+    // Row for one retired order
+    private void bindRetiredOrder(PatientListAdapter.RowHolder holder, PatientSummary patient) {
+        StringBuilder display = new StringBuilder();
+        display.append(patient.getFullName());
+        display.append(" - ").append(patient.getLocationInfo());
 
-        public RetiredOrdersAdapter(android.content.Context context, List<Patient> patients) {
-            super(context, android.R.layout.simple_list_item_multiple_choice, patients);
+        if (patient.isDischarged()) {
+            display.append(" [DISCHARGED]");
+        } else if (patient.getCreatedDate() != null) {
+            // Show days since creation
+            long daysSince = (new Date().getTime() - patient.getCreatedDate().getTime()) / (1000 * 60 * 60 * 24);
+            display.append(" [").append(daysSince).append(" days old]");
         }
 
-        @Override
-        public View getView(int position, View convertView, android.view.ViewGroup parent) {
-            TextView view = (TextView) super.getView(position, convertView, parent);
-            Patient patient = getItem(position);
-
-            if (patient != null) {
-                StringBuilder display = new StringBuilder();
-                display.append(patient.getFullName());
-                display.append(" - ").append(patient.getLocationInfo());
-
-                if (patient.isDischarged()) {
-                    display.append(" [DISCHARGED]");
-                } else {
-                    // Show days since creation
-                    long daysSince = (new Date().getTime() - patient.getCreatedDate().getTime()) / (1000 * 60 * 60 * 24);
-                    display.append(" [").append(daysSince).append(" days old]");
-                }
-
-                view.setText(display.toString());
-
-                // Style discharged patients differently
-                if (patient.isDischarged()) {
-                    view.setTextColor(android.graphics.Color.parseColor("#e74c3c"));
-                }
-            }
+        holder.text1.setText(display.toString());
 
-            return view;
-        }
+        // Style discharged patients differently; rows are reused, so reset the others
+        holder.text1.setTextColor(Color.parseColor(patient.isDischarged() ? "#e74c3c" : "#2c3e50"));
     }
 }
\ No newline at end of file
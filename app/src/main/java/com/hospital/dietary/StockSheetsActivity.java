@@ -0,0 +1,199 @@
+package com.hospital.dietary;
+
+import android.graphics.Typeface;
+import android.os.Bundle;
+import android.util.Log;
+import android.view.MenuItem;
+import android.view.View;
+import android.widget.*;
+import androidx.appcompat.app.AppCompatActivity;
+import com.hospital.dietary.dao.AsyncDAO;
+import com.hospital.dietary.dao.GalleyStockDAO;
+import com.hospital.dietary.dao.GalleyStockDAO.StockLine;
+import java.util.Calendar;
+import java.util.List;
+
+public class StockSheetsActivity extends AppCompatActivity {
+
+    private static final String TAG = "StockSheetsActivity";
+    private static final String[] MEALS = {"Breakfast", "Lunch", "Dinner"};
+
+    private DatabaseHelper dbHelper;
+    private AsyncDAO asyncDAO;
+
+    // User information
+    private String currentUsername;
+    private String currentUserRole;
+    private String currentUserFullName;
+
+    // UI Components
+    private Spinner mealCountSpinner;
+    private TextView summaryText;
+    private TextView sheetText;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        // Get user information from intent
+        currentUsername = getIntent().getStringExtra("current_user");
+        currentUserRole = getIntent().getStringExtra("user_role");
+        currentUserFullName = getIntent().getStringExtra("user_full_name");
+
+        // Initialize database
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
+
+        if (getSupportActionBar() != null) {
+            getSupportActionBar().setTitle("Galley Stock");
+            getSupportActionBar().setDisplayHomeAsUpEnabled(true);
+        }
+
+        createSheetLayout();
+    }
+
+    private void createSheetLayout() {
+        LinearLayout mainLayout = new LinearLayout(this);
+        mainLayout.setOrientation(LinearLayout.VERTICAL);
+        mainLayout.setPadding(40, 40, 40, 40);
+        mainLayout.setBackgroundColor(0xFFF8F9FA);
+
+        // Forecast window - the next N meals starting with the current one
+        TextView windowLabel = new TextView(this);
+        windowLabel.setText("Forecast meals:");
+        windowLabel.setTextColor(0xFF2c3e50);
+        mainLayout.addView(windowLabel);
+
+        int firstMeal = getCurrentMealIndex();
+        String[] windows = new String[GalleyStockDAO.MAX_FORECAST_MEALS - firstMeal];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = "Next " + (i + 1) + (i == 0 ? " meal" : " meals");
+        }
+
+        mealCountSpinner = new Spinner(this);
+        ArrayAdapter<String> windowAdapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, windows);
+        windowAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        mealCountSpinner.setAdapter(windowAdapter);
+        mealCountSpinner.setSelection(Math.min(2, windows.length - 1));
+        mealCountSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                loadStockSheet();
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
+        mainLayout.addView(mealCountSpinner);
+
+        summaryText = new TextView(this);
+        summaryText.setTextSize(16);
+        summaryText.setTextColor(0xFF2c3e50);
+        summaryText.setTypeface(null, Typeface.BOLD);
+        summaryText.setPadding(0, 20, 0, 20);
+        mainLayout.addView(summaryText);
+
+        // Sheet body
+        ScrollView scrollView = new ScrollView(this);
+        scrollView.setLayoutParams(new LinearLayout.LayoutParams(
+                LinearLayout.LayoutParams.MATCH_PARENT, 0, 1));
+        scrollView.setBackgroundColor(0xFFFFFFFF);
+
+        sheetText = new TextView(this);
+        sheetText.setTypeface(Typeface.MONOSPACE);
+        sheetText.setTextSize(14);
+        sheetText.setTextColor(0xFF2c3e50);
+        sheetText.setPadding(20, 20, 20, 20);
+        scrollView.addView(sheetText);
+
+        mainLayout.addView(scrollView);
+
+        setContentView(mainLayout);
+    }
+
+    private int getCurrentMealIndex() {
+        int hour = Calendar.getInstance().get(Calendar.HOUR_OF_DAY);
+        if (hour < 10) return 0;
+        if (hour < 15) return 1;
+        return 2;
+    }
+
+    private void loadStockSheet() {
+        int firstMeal = getCurrentMealIndex();
+        int mealCount = mealCountSpinner.getSelectedItemPosition() + 1;
+        asyncDAO.run(this, db -> {
+            // Only wings whose orders changed since the last build are recomputed
+            GalleyStockDAO galleyStockDAO = db.getGalleyStockDAO();
+            galleyStockDAO.refreshStaleWings();
+            return galleyStockDAO.getForecast(firstMeal, mealCount);
+        }, new AsyncDAO.Callback<List<StockLine>>() {
+            @Override
+            public void onSuccess(List<StockLine> lines) {
+                showStockSheet(firstMeal, mealCount, lines);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(StockSheetsActivity.this, "Error loading galley stock: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showStockSheet(int firstMeal, int mealCount, List<StockLine> lines) {
+        try {
+            summaryText.setText("Starting with today's " + MEALS[firstMeal] + ", " +
+                    mealCount + (mealCount == 1 ? " meal" : " meals"));
+
+            if (lines.isEmpty()) {
+                sheetText.setText("No galley stock needed for this window.");
+                return;
+            }
+
+            // Lines arrive ordered by wing, then category
+            StringBuilder sheet = new StringBuilder();
+            String currentWing = null;
+            String currentCategory = null;
+
+            for (StockLine line : lines) {
+                if (!line.getWing().equals(currentWing)) {
+                    if (currentWing != null) {
+                        sheet.append("\n");
+                    }
+                    currentWing = line.getWing();
+                    currentCategory = null;
+                    sheet.append(currentWing.toUpperCase()).append("\n");
+                }
+
+                if (!line.getCategory().equals(currentCategory)) {
+                    currentCategory = line.getCategory();
+                    sheet.append("  ").append(currentCategory).append("\n");
+                }
+
+                sheet.append("    ").append(line.getQuantity()).append(" x ")
+                        .append(line.toString()).append("\n");
+            }
+
+            sheetText.setText(sheet.toString());
+
+        } catch (Exception e) {
+            Log.e(TAG, "Error showing galley stock", e);
+            Toast.makeText(this, "Error showing galley stock: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        loadStockSheet();
+    }
+
+    @Override
+    public boolean onOptionsItemSelected(MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
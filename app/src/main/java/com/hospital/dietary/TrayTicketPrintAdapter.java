@@ -0,0 +1,191 @@
+package com.hospital.dietary;
+
+import android.graphics.pdf.PdfDocument;
+import android.os.Bundle;
+import android.os.CancellationSignal;
+import android.os.ParcelFileDescriptor;
+import android.print.PageRange;
+import android.print.PrintAttributes;
+import android.print.PrintDocumentAdapter;
+import android.print.PrintDocumentInfo;
+import android.util.Log;
+import com.hospital.dietary.models.Patient;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * TrayTicketPrintAdapter class - prints tray tickets for a list of patients
+ * Tickets are written on a background thread a batch of pages at a time: each batch is one patient
+ * query, and its patients are dropped once their pages are finished. Only the pages the print
+ * framework asks for are drawn, so a preview of a large run does not render the whole run
+ */
+public class TrayTicketPrintAdapter extends PrintDocumentAdapter {
+
+    private static final String TAG = "TrayTicketPrintAdapter";
+
+    // Pages per patient query; 8 pages is 48 bound ids, well under SQLite's limit
+    static final int PAGES_PER_BATCH = 8;
+
+    /**
+     * Reads ids[from, to) in the order given, skipping ids that are gone
+     */
+    public interface PatientLoader {
+        List<Patient> load(long[] ids, int from, int to);
+    }
+
+    private final PatientLoader patientLoader;
+    private final long[] patientIds;
+    private final String meal;
+    private final String serviceDate;
+    private final String documentName;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tray-tickets");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Replaced only when the page size changes; read by the write thread
+    private volatile TrayTicketRenderer renderer;
+
+    public TrayTicketPrintAdapter(PatientLoader patientLoader, long[] patientIds, String meal,
+                                  String serviceDate, String documentName) {
+        this.patientLoader = patientLoader;
+        this.patientIds = patientIds;
+        this.meal = meal;
+        this.serviceDate = serviceDate;
+        this.documentName = documentName;
+    }
+
+    public int getPageCount() {
+        return (patientIds.length + TrayTicketRenderer.TICKETS_PER_PAGE - 1) / TrayTicketRenderer.TICKETS_PER_PAGE;
+    }
+
+    @Override
+    public void onLayout(PrintAttributes oldAttributes, PrintAttributes newAttributes,
+                         CancellationSignal cancellationSignal,
+                         LayoutResultCallback callback, Bundle extras) {
+
+        if (cancellationSignal.isCanceled()) {
+            callback.onLayoutCancelled();
+            return;
+        }
+
+        PrintAttributes.MediaSize mediaSize = newAttributes.getMediaSize();
+        if (mediaSize == null) {
+            callback.onLayoutFailed("No paper size selected");
+            return;
+        }
+
+        // Media sizes are in mils; PDF pages are in points
+        int width = mediaSize.getWidthMils() * 72 / 1000;
+        int height = mediaSize.getHeightMils() * 72 / 1000;
+        boolean changed = renderer == null || !renderer.fits(width, height);
+        if (changed) {
+            renderer = new TrayTicketRenderer(width, height, meal, serviceDate);
+        }
+
+        PrintDocumentInfo info = new PrintDocumentInfo.Builder(documentName + ".pdf")
+                .setContentType(PrintDocumentInfo.CONTENT_TYPE_DOCUMENT)
+                .setPageCount(getPageCount())
+                .build();
+
+        callback.onLayoutFinished(info, changed);
+    }
+
+    @Override
+    public void onWrite(PageRange[] pages, ParcelFileDescriptor destination,
+                        CancellationSignal cancellationSignal,
+                        WriteResultCallback callback) {
+        TrayTicketRenderer layout = renderer;
+        executor.execute(() -> writeTickets(layout, pages, destination, cancellationSignal, callback));
+    }
+
+    @Override
+    public void onFinish() {
+        executor.shutdown();
+    }
+
+    private void writeTickets(TrayTicketRenderer layout, PageRange[] pages, ParcelFileDescriptor destination,
+                              CancellationSignal cancellationSignal, WriteResultCallback callback) {
+        PdfDocument document = new PdfDocument();
+        List<PageRange> written = new ArrayList<>();
+        int pageCount = getPageCount();
+
+        try {
+            int page = 0;
+            while (page < pageCount) {
+                if (!contains(pages, page)) {
+                    page++;
+                    continue;
+                }
+
+                // A run of requested pages, loaded with one query
+                int end = page + 1;
+                while (end < pageCount && end - page < PAGES_PER_BATCH && contains(pages, end)) {
+                    end++;
+                }
+                int from = page * TrayTicketRenderer.TICKETS_PER_PAGE;
+                int to = Math.min(patientIds.length, end * TrayTicketRenderer.TICKETS_PER_PAGE);
+                List<Patient> patients = patientLoader.load(patientIds, from, to);
+
+                // Patients come back in patientIds order with deleted ones skipped, so their slot stays empty
+                int next = 0;
+                for (int p = page; p < end; p++) {
+                    if (cancellationSignal.isCanceled()) {
+                        callback.onWriteCancelled();
+                        return;
+                    }
+
+                    PdfDocument.PageInfo pageInfo = new PdfDocument.PageInfo.Builder(
+                            layout.getPageWidth(), layout.getPageHeight(), p + 1).create();
+                    PdfDocument.Page pdfPage = document.startPage(pageInfo);
+                    layout.drawFrame(pdfPage.getCanvas());
+
+                    int first = p * TrayTicketRenderer.TICKETS_PER_PAGE;
+                    int last = Math.min(to, first + TrayTicketRenderer.TICKETS_PER_PAGE);
+                    for (int i = first; i < last; i++) {
+                        if (next < patients.size() && patients.get(next).getPatientId() == patientIds[i]) {
+                            layout.drawTicket(pdfPage.getCanvas(), patients.get(next), i - first);
+                            next++;
+                        }
+                    }
+                    document.finishPage(pdfPage);
+                }
+
+                addRange(written, page, end - 1);
+                page = end;
+            }
+
+            // The print framework owns the descriptor and closes it
+            document.writeTo(new FileOutputStream(destination.getFileDescriptor()));
+            callback.onWriteFinished(written.toArray(new PageRange[0]));
+        } catch (Exception e) {
+            Log.e(TAG, "Error writing tray tickets", e);
+            callback.onWriteFailed(e.toString());
+        } finally {
+            document.close();
+        }
+    }
+
+    private static boolean contains(PageRange[] ranges, int page) {
+        for (PageRange range : ranges) {
+            if (page >= range.getStart() && page <= range.getEnd()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Batches of one requested range are adjacent, so they merge back into that range
+    private static void addRange(List<PageRange> ranges, int start, int end) {
+        int last = ranges.size() - 1;
+        if (last >= 0 && ranges.get(last).getEnd() == start - 1) {
+            ranges.set(last, new PageRange(ranges.get(last).getStart(), end));
+        } else {
+            ranges.add(new PageRange(start, end));
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package com.hospital.dietary;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.Typeface;
+import com.hospital.dietary.models.Patient;
+import java.util.Locale;
+
+/**
+ * TrayTicketRenderer class - draws tray tickets, several to a printed page
+ * Paints, ticket geometry and the page frame are built once per page size and shared by every
+ * ticket, so drawing a ticket only measures and draws that patient's own text
+ */
+public class TrayTicketRenderer {
+
+    public static final int COLUMNS = 2;
+    public static final int ROWS = 3;
+    public static final int TICKETS_PER_PAGE = COLUMNS * ROWS;
+
+    // Sizes are in PDF points, 72 to the inch
+    private static final float MARGIN = 18f;
+    private static final float PADDING = 10f;
+    private static final float NAME_SIZE = 13f;
+    private static final float TEXT_SIZE = 9.5f;
+    private static final float HEADER_SIZE = 8f;
+    private static final String ELLIPSIS = "…";
+    private static final String BULLET = "• ";
+
+    private final int pageWidth;
+    private final int pageHeight;
+    private final String meal;
+    private final float ticketWidth;
+    private final float ticketHeight;
+    private final float textWidth;
+
+    private final Paint namePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint boldPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint headerPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Measured once instead of per line
+    private final float nameLineHeight;
+    private final float textLineHeight;
+    private final float nameEllipsisWidth;
+    private final float textEllipsisWidth;
+    private final float bulletWidth;
+
+    // Cut lines and the meal header of every slot, recorded once and replayed on each page
+    private final Picture pageFrame = new Picture();
+
+    public TrayTicketRenderer(int pageWidth, int pageHeight, String meal, String serviceDate) {
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.meal = meal;
+        this.ticketWidth = (pageWidth - 2 * MARGIN) / COLUMNS;
+        this.ticketHeight = (pageHeight - 2 * MARGIN) / ROWS;
+        this.textWidth = ticketWidth - 2 * PADDING;
+
+        namePaint.setColor(Color.BLACK);
+        namePaint.setTextSize(NAME_SIZE);
+        namePaint.setTypeface(Typeface.DEFAULT_BOLD);
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextSize(TEXT_SIZE);
+        boldPaint.set(textPaint);
+        boldPaint.setTypeface(Typeface.DEFAULT_BOLD);
+        headerPaint.setColor(Color.DKGRAY);
+        headerPaint.setTextSize(HEADER_SIZE);
+
+        nameLineHeight = namePaint.getFontSpacing();
+        textLineHeight = textPaint.getFontSpacing();
+        nameEllipsisWidth = namePaint.measureText(ELLIPSIS);
+        textEllipsisWidth = textPaint.measureText(ELLIPSIS);
+        bulletWidth = textPaint.measureText(BULLET);
+
+        recordPageFrame(meal.toUpperCase(Locale.US) + "  " + serviceDate);
+    }
+
+    // Whether this renderer was laid out for the given page size
+    public boolean fits(int width, int height) {
+        return width == pageWidth && height == pageHeight;
+    }
+
+    public int getPageWidth() {
+        return pageWidth;
+    }
+
+    public int getPageHeight() {
+        return pageHeight;
+    }
+
+    private void recordPageFrame(String header) {
+        Paint cutPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        cutPaint.setColor(Color.GRAY);
+        cutPaint.setStyle(Paint.Style.STROKE);
+        cutPaint.setStrokeWidth(0.5f);
+        cutPaint.setPathEffect(new DashPathEffect(new float[]{4f, 3f}, 0f));
+
+        Canvas canvas = pageFrame.beginRecording(pageWidth, pageHeight);
+        float headerWidth = headerPaint.measureText(header);
+        for (int slot = 0; slot < TICKETS_PER_PAGE; slot++) {
+            float left = slotLeft(slot);
+            float top = slotTop(slot);
+            canvas.drawRect(left, top, left + ticketWidth, top + ticketHeight, cutPaint);
+            canvas.drawText(header, left + ticketWidth - PADDING - headerWidth,
+                    top + PADDING - headerPaint.ascent(), headerPaint);
+        }
+        pageFrame.endRecording();
+    }
+
+    /**
+     * Draw the cut lines and headers for a new page
+     */
+    public void drawFrame(Canvas canvas) {
+        canvas.drawPicture(pageFrame);
+    }
+
+    /**
+     * Draw one patient's ticket into a slot, 0 to TICKETS_PER_PAGE - 1, left to right and top to bottom
+     */
+    public void drawTicket(Canvas canvas, Patient patient, int slot) {
+        float x = slotLeft(slot) + PADDING;
+        float bottom = slotTop(slot) + ticketHeight - PADDING;
+        float y = slotTop(slot) + PADDING + headerPaint.getFontSpacing();
+
+        // Name and room
+        String room = patient.getLocationInfo();
+        float roomWidth = textPaint.measureText(room);
+        y += nameLineHeight;
+        drawFitted(canvas, patient.getPatientLastName() + ", " + patient.getPatientFirstName(),
+                x, y, textWidth - roomWidth - PADDING, namePaint, nameEllipsisWidth);
+        canvas.drawText(room, x + textWidth - roomWidth, y, textPaint);
+
+        // Diet for this meal
+        String diet = mealDiet(patient);
+        y += textLineHeight;
+        drawFitted(canvas, "Diet: " + (diet != null ? diet : "No Diet") + (mealAda(patient) ? " (ADA)" : ""),
+                x, y, textWidth, boldPaint, textEllipsisWidth);
+
+        String texture = textureLabel(patient);
+        if (texture != null) {
+            y += textLineHeight;
+            drawFitted(canvas, "Texture: " + texture, x, y, textWidth, textPaint, textEllipsisWidth);
+        }
+        String fluids = patient.getFluidRestriction();
+        if (hasText(fluids) && !"No Restriction".equals(fluids)) {
+            y += textLineHeight;
+            drawFitted(canvas, "Fluids: " + fluids, x, y, textWidth, textPaint, textEllipsisWidth);
+        }
+        if (hasText(patient.getAllergies())) {
+            y += textLineHeight;
+            drawFitted(canvas, "ALLERGIES: " + patient.getAllergies(), x, y, textWidth, boldPaint, textEllipsisWidth);
+        }
+
+        y += textLineHeight / 2;
+        if (mealNpo(patient)) {
+            y += nameLineHeight;
+            canvas.drawText("NPO - NO TRAY", x, y, namePaint);
+            return;
+        }
+
+        // Items, one per line, wrapped under the bullet; the last line says what did not fit
+        String[] items = mealItems(patient);
+        int count = 0;
+        for (String item : items) {
+            if (hasText(item)) {
+                count++;
+            }
+        }
+        if (count == 0) {
+            y += textLineHeight;
+            canvas.drawText("No items selected", x, y, textPaint);
+            return;
+        }
+
+        int drawn = 0;
+        for (String item : items) {
+            if (!hasText(item)) {
+                continue;
+            }
+            if (y + textLineHeight > bottom) {
+                return;
+            }
+            String text = item.trim();
+            boolean lastRoom = y + 2 * textLineHeight > bottom;
+            if (lastRoom && drawn < count - 1) {
+                y += textLineHeight;
+                canvas.drawText("+ " + (count - drawn) + " more", x, y, boldPaint);
+                return;
+            }
+
+            y += textLineHeight;
+            canvas.drawText(BULLET, x, y, textPaint);
+            int start = 0;
+            while (start < text.length()) {
+                int fit = textPaint.breakText(text, start, text.length(), true, textWidth - bulletWidth, null);
+                if (start + fit < text.length() && y + textLineHeight > bottom) {
+                    drawFitted(canvas, text.substring(start), x + bulletWidth, y,
+                            textWidth - bulletWidth, textPaint, textEllipsisWidth);
+                    break;
+                }
+                canvas.drawText(text, start, start + fit, x + bulletWidth, y, textPaint);
+                start += Math.max(fit, 1);
+                if (start < text.length()) {
+                    y += textLineHeight;
+                }
+            }
+            drawn++;
+        }
+    }
+
+    // One line, cut with an ellipsis when it is wider than the space
+    private void drawFitted(Canvas canvas, String text, float x, float y, float width, Paint paint, float ellipsisWidth) {
+        if (paint.measureText(text) <= width) {
+            canvas.drawText(text, x, y, paint);
+            return;
+        }
+        int fit = paint.breakText(text, true, Math.max(0f, width - ellipsisWidth), null);
+        canvas.drawText(text.substring(0, fit) + ELLIPSIS, x, y, paint);
+    }
+
+    private float slotLeft(int slot) {
+        return MARGIN + (slot % COLUMNS) * ticketWidth;
+    }
+
+    private float slotTop(int slot) {
+        return MARGIN + (slot / COLUMNS) * ticketHeight;
+    }
+
+    // Meal fields
+
+    private String mealDiet(Patient patient) {
+        String diet;
+        if ("Breakfast".equals(meal)) {
+            diet = patient.getBreakfastDiet();
+        } else if ("Lunch".equals(meal)) {
+            diet = patient.getLunchDiet();
+        } else {
+            diet = patient.getDinnerDiet();
+        }
+        return hasText(diet) ? diet : patient.getDiet();
+    }
+
+    private boolean mealAda(Patient patient) {
+        if ("Breakfast".equals(meal)) {
+            return patient.isBreakfastAda() || patient.isAdaDiet();
+        } else if ("Lunch".equals(meal)) {
+            return patient.isLunchAda() || patient.isAdaDiet();
+        }
+        return patient.isDinnerAda() || patient.isAdaDiet();
+    }
+
+    private boolean mealNpo(Patient patient) {
+        if ("Breakfast".equals(meal)) {
+            return patient.isBreakfastNPO();
+        } else if ("Lunch".equals(meal)) {
+            return patient.isLunchNPO();
+        }
+        return patient.isDinnerNPO();
+    }
+
+    // The meal's selection columns split into single items, in the order they were picked
+    private String[] mealItems(Patient patient) {
+        String[] columns;
+        if ("Breakfast".equals(meal)) {
+            columns = new String[]{patient.getBreakfastItems(), patient.getBreakfastJuices(), patient.getBreakfastDrinks(),
+                    patient.getBreakfastMain(), patient.getBreakfastSide(), patient.getBreakfastDrink()};
+        } else if ("Lunch".equals(meal)) {
+            columns = new String[]{patient.getLunchItems(), patient.getLunchJuices(), patient.getLunchDrinks(),
+                    patient.getLunchMain(), patient.getLunchSide(), patient.getLunchDrink()};
+        } else {
+            columns = new String[]{patient.getDinnerItems(), patient.getDinnerJuices(), patient.getDinnerDrinks(),
+                    patient.getDinnerMain(), patient.getDinnerSide(), patient.getDinnerDrink()};
+        }
+
+        StringBuilder joined = new StringBuilder();
+        for (String column : columns) {
+            if (hasText(column)) {
+                joined.append(column).append(',');
+            }
+        }
+        return joined.toString().split(",");
+    }
+
+    private static String textureLabel(Patient patient) {
+        StringBuilder label = new StringBuilder();
+        appendIf(label, patient.isMechanicalGround(), "Mechanical Ground");
+        appendIf(label, patient.isMechanicalChopped(), "Mechanical Chopped");
+        appendIf(label, patient.isBiteSize(), "Bite Size");
+        appendIf(label, patient.isBreadOK(), "Bread OK");
+        appendIf(label, patient.isExtraGravy(), "Extra Gravy");
+        appendIf(label, patient.isMeatsOnly(), "Meats Only");
+        appendIf(label, patient.isNectarThick(), "Nectar Thick");
+        appendIf(label, patient.isHoneyThick(), "Honey Thick");
+        appendIf(label, patient.isPuddingThick(), "Pudding Thick");
+        return label.length() > 0 ? label.toString() : null;
+    }
+
+    private static void appendIf(StringBuilder label, boolean flag, String text) {
+        if (flag) {
+            if (label.length() > 0) {
+                label.append(", ");
+            }
+            label.append(text);
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.trim().isEmpty();
+    }
+}
@@ -14,6 +14,7 @@ import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.app.ActivityCompat;
 import androidx.core.content.ContextCompat;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.dao.UserDAO;
 import com.hospital.dietary.models.User;
 import java.io.*;
@@ -28,7 +29,7 @@ public class UserManagementActivity extends AppCompatActivity {
     private static final int PERMISSION_REQUEST_CODE = 100;
 
     private DatabaseHelper dbHelper;
-    private UserDAO userDAO;
+    private AsyncDAO asyncDAO;
     private String currentUsername;
     private String currentUserRole;
     private String currentUserFullName;
@@ -71,8 +72,8 @@ public class UserManagementActivity extends AppCompatActivity {
         }
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        userDAO = new UserDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Set title and back button
         if (getSupportActionBar() != null) {
@@ -223,8 +224,22 @@ public class UserManagementActivity extends AppCompatActivity {
     }
 
     private void loadUsers() {
+        asyncDAO.users(this, UserDAO::getAllUsers, new AsyncDAO.Callback<List<User>>() {
+            @Override
+            public void onSuccess(List<User> users) {
+                showUsers(users);
+            }
+
+            @Override
+            public void onError(String error) {
+                Toast.makeText(UserManagementActivity.this, "Error loading users: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showUsers(List<User> users) {
         try {
-            allUsers = userDAO.getAllUsers();
+            allUsers = users;
 
             if (allUsers == null) {
                 allUsers = new ArrayList<>();
@@ -279,12 +294,6 @@ public class UserManagementActivity extends AppCompatActivity {
                         return;
                     }
 
-                    // Check if username already exists
-                    if (userDAO.getUserByUsername(username) != null) {
-                        Toast.makeText(this, "Username already exists", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
                     // Create new user
                     User newUser = new User();
                     newUser.setUsername(username);
@@ -294,13 +303,22 @@ public class UserManagementActivity extends AppCompatActivity {
                     newUser.setActive(true);
                     newUser.setCreatedDate(new Date());
 
-                    long userId = userDAO.addUser(newUser);
-                    if (userId > 0) {
-                        Toast.makeText(this, "User added successfully", Toast.LENGTH_SHORT).show();
-                        loadUsers();
-                    } else {
-                        Toast.makeText(this, "Failed to add user", Toast.LENGTH_SHORT).show();
-                    }
+                    asyncDAO.users(this, userDAO -> {
+                        // Check if username already exists
+                        if (userDAO.getUserByUsername(username) != null) {
+                            return null;
+                        }
+                        return userDAO.addUser(newUser);
+                    }, userId -> {
+                        if (userId == null) {
+                            Toast.makeText(this, "Username already exists", Toast.LENGTH_SHORT).show();
+                        } else if (userId > 0) {
+                            Toast.makeText(this, "User added successfully", Toast.LENGTH_SHORT).show();
+                            loadUsers();
+                        } else {
+                            Toast.makeText(this, "Failed to add user", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -342,12 +360,14 @@ public class UserManagementActivity extends AppCompatActivity {
                     user.setRole((String) roleSpinner.getSelectedItem());
                     user.setActive(activeCheckBox.isChecked());
 
-                    if (userDAO.updateUser(user)) {
-                        Toast.makeText(this, "User updated successfully", Toast.LENGTH_SHORT).show();
-                        loadUsers();
-                    } else {
-                        Toast.makeText(this, "Failed to update user", Toast.LENGTH_SHORT).show();
-                    }
+                    asyncDAO.users(this, userDAO -> userDAO.updateUser(user), updated -> {
+                        if (updated) {
+                            Toast.makeText(this, "User updated successfully", Toast.LENGTH_SHORT).show();
+                            loadUsers();
+                        } else {
+                            Toast.makeText(this, "Failed to update user", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .create();
@@ -376,13 +396,15 @@ public class UserManagementActivity extends AppCompatActivity {
                     .setTitle("Delete User")
                     .setMessage("Are you sure you want to delete " + user.getUsername() + "?")
                     .setPositiveButton("Delete", (d, w) -> {
-                        if (userDAO.deleteUser(user.getUserId())) {
-                            Toast.makeText(this, "User deleted successfully", Toast.LENGTH_SHORT).show();
-                            loadUsers();
-                            dialog.dismiss();
-                        } else {
-                            Toast.makeText(this, "Failed to delete user", Toast.LENGTH_SHORT).show();
-                        }
+                        asyncDAO.users(this, userDAO -> userDAO.deleteUser(user.getUserId()), deleted -> {
+                            if (deleted) {
+                                Toast.makeText(this, "User deleted successfully", Toast.LENGTH_SHORT).show();
+                                loadUsers();
+                                dialog.dismiss();
+                            } else {
+                                Toast.makeText(this, "Failed to delete user", Toast.LENGTH_SHORT).show();
+                            }
+                        });
                     })
                     .setNegativeButton("Cancel", null)
                     .show();
@@ -420,11 +442,13 @@ public class UserManagementActivity extends AppCompatActivity {
 
                     // Update password
                     user.setPassword(newPassword);
-                    if (userDAO.changePassword(user.getUserId(), newPassword)) {
-                        Toast.makeText(this, "Password changed successfully", Toast.LENGTH_SHORT).show();
-                    } else {
-                        Toast.makeText(this, "Failed to change password", Toast.LENGTH_SHORT).show();
-                    }
+                    asyncDAO.users(this, userDAO -> userDAO.changePassword(user.getUserId(), newPassword), changed -> {
+                        if (changed) {
+                            Toast.makeText(this, "Password changed successfully", Toast.LENGTH_SHORT).show();
+                        } else {
+                            Toast.makeText(this, "Failed to change password", Toast.LENGTH_SHORT).show();
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -439,14 +463,6 @@ public class UserManagementActivity extends AppCompatActivity {
         return super.onOptionsItemSelected(item);
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
-
     @Override
     public void onRequestPermissionsResult(int requestCode, String[] permissions, int[] grantResults) {
         super.onRequestPermissionsResult(requestCode, permissions, grantResults);
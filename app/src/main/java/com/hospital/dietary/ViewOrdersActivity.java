@@ -17,7 +17,7 @@ import android.view.MenuItem;
 import android.view.View;
 import android.widget.*;
 import androidx.appcompat.app.AppCompatActivity;
-import com.hospital.dietary.dao.OrderDAO;
+import com.hospital.dietary.dao.AsyncDAO;
 import com.hospital.dietary.models.Order;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -32,7 +32,7 @@ import android.print.PrintDocumentInfo;
 public class ViewOrdersActivity extends AppCompatActivity {
 
     private DatabaseHelper dbHelper;
-    private OrderDAO orderDAO;
+    private AsyncDAO asyncDAO;
 
     private Spinner dateSpinner;
     private ListView ordersListView;
@@ -57,8 +57,8 @@ public class ViewOrdersActivity extends AppCompatActivity {
         setTitle("View Orders - " + username);
 
         // Initialize database
-        dbHelper = new DatabaseHelper(this);
-        orderDAO = new OrderDAO(dbHelper);
+        dbHelper = DatabaseHelper.getInstance(this);
+        asyncDAO = dbHelper.getAsyncDAO();
 
         // Initialize UI
         initializeUI();
@@ -139,8 +139,12 @@ public class ViewOrdersActivity extends AppCompatActivity {
     }
 
     private void loadOrdersForDate(String date) {
+        asyncDAO.orders(this, orderDAO -> orderDAO.getOrdersByDate(date), this::showOrders);
+    }
+
+    private void showOrders(List<Order> orders) {
         allOrders.clear();
-        allOrders.addAll(orderDAO.getOrdersByDate(date));
+        allOrders.addAll(orders);
 
         ordersAdapter.clear();
         ordersAdapter.addAll(allOrders);
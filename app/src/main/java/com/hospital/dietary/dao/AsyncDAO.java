@@ -0,0 +1,101 @@
+package com.hospital.dietary.dao;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import com.hospital.dietary.DatabaseHelper;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * AsyncDAO class - runs legacy DAO work on one dedicated background thread
+ * Results come back on the main thread, and are dropped once the owning screen is destroyed.
+ * A single thread keeps writes in the order the screens issued them
+ */
+public class AsyncDAO {
+
+    private static final String TAG = "AsyncDAO";
+
+    /**
+     * Work to run against a DAO on the database thread
+     */
+    public interface Work<D, T> {
+        T run(D dao) throws Exception;
+    }
+
+    /**
+     * Result delivery on the main thread, same shape as the repositories' callbacks
+     * Failures are already logged, so screens only override onError to tell the user
+     */
+    public interface Callback<T> {
+        void onSuccess(T result);
+
+        default void onError(String error) {
+        }
+    }
+
+    private final DatabaseHelper dbHelper;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public AsyncDAO(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "legacy-dao");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public <T> Future<T> patients(LifecycleOwner owner, Work<PatientDAO, T> work, Callback<T> callback) {
+        return submit(owner, dbHelper.getPatientDAO(), work, callback);
+    }
+
+    public <T> Future<T> orders(LifecycleOwner owner, Work<OrderDAO, T> work, Callback<T> callback) {
+        return submit(owner, dbHelper.getOrderDAO(), work, callback);
+    }
+
+    public <T> Future<T> items(LifecycleOwner owner, Work<ItemDAO, T> work, Callback<T> callback) {
+        return submit(owner, dbHelper.getItemDAO(), work, callback);
+    }
+
+    public <T> Future<T> users(LifecycleOwner owner, Work<UserDAO, T> work, Callback<T> callback) {
+        return submit(owner, dbHelper.getUserDAO(), work, callback);
+    }
+
+    /**
+     * Work that spans several DAOs, e.g. saving a patient and then their meal selections
+     */
+    public <T> Future<T> run(LifecycleOwner owner, Work<DatabaseHelper, T> work, Callback<T> callback) {
+        return submit(owner, dbHelper, work, callback);
+    }
+
+    private <D, T> Future<T> submit(LifecycleOwner owner, D dao, Work<D, T> work, Callback<T> callback) {
+        return executor.submit(() -> {
+            try {
+                T result = work.run(dao);
+                deliver(owner, callback == null ? null : () -> callback.onSuccess(result));
+                return result;
+            } catch (Exception e) {
+                Log.e(TAG, "Database call failed", e);
+                deliver(owner, callback == null ? null : () -> callback.onError(e.getMessage()));
+                throw e;
+            }
+        });
+    }
+
+    // Post to the main thread unless the screen has gone away in the meantime
+    private void deliver(LifecycleOwner owner, Runnable delivery) {
+        if (delivery == null) {
+            return;
+        }
+        mainHandler.post(() -> {
+            if (owner == null || owner.getLifecycle().getCurrentState() != Lifecycle.State.DESTROYED) {
+                delivery.run();
+            }
+        });
+    }
+}
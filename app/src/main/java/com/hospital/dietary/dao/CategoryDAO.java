@@ -1,10 +1,10 @@
 package com.hospital.dietary.dao;
 
 import android.content.ContentValues;
-import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import com.hospital.dietary.DatabaseHelper;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -55,23 +55,11 @@ public class CategoryDAO {
      */
     public List<CategoryInfo> getAllCategoriesWithCounts() {
         List<CategoryInfo> categories = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT category, COUNT(*) as item_count " +
-                "FROM items " +
-                "GROUP BY category " +
-                "ORDER BY category";
-
-        Cursor cursor = db.rawQuery(query, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            int id = 0;
-            do {
-                String categoryName = cursor.getString(cursor.getColumnIndex("category"));
-                int itemCount = cursor.getInt(cursor.getColumnIndex("item_count"));
-                categories.add(new CategoryInfo(id++, categoryName, itemCount));
-            } while (cursor.moveToNext());
-            cursor.close();
+        MenuCatalog catalog = dbHelper.getMenuCatalog();
+
+        int id = 0;
+        for (String categoryName : catalog.getCategories()) {
+            categories.add(new CategoryInfo(id++, categoryName, catalog.getItemCount(categoryName)));
         }
 
         return categories;
@@ -81,20 +69,7 @@ public class CategoryDAO {
      * Get all unique category names
      */
     public List<String> getAllCategories() {
-        List<String> categories = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT DISTINCT category FROM items ORDER BY category";
-        Cursor cursor = db.rawQuery(query, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                categories.add(cursor.getString(0));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return categories;
+        return new ArrayList<>(dbHelper.getMenuCatalog().getCategories());
     }
 
     /**
@@ -109,7 +84,11 @@ public class CategoryDAO {
         values.put("description", "");
         values.put("is_ada_friendly", 0);
 
-        return db.insert("items", null, values);
+        long id = db.insert("items", null, values);
+        if (id > 0) {
+            dbHelper.getChangeBus().publish("items", id, null);
+        }
+        return id;
     }
 
     /**
@@ -120,7 +99,11 @@ public class CategoryDAO {
         ContentValues values = new ContentValues();
         values.put("category", newName);
 
-        return db.update("items", values, "category = ?", new String[]{oldName});
+        int rows = db.update("items", values, "category = ?", new String[]{oldName});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publish("items", ChangeBus.ALL_ROWS, Collections.singletonList("category"));
+        }
+        return rows;
     }
 
     /**
@@ -128,42 +111,24 @@ public class CategoryDAO {
      */
     public int deleteCategory(String categoryName) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
-        return db.delete("items", "category = ?", new String[]{categoryName});
+        int rows = db.delete("items", "category = ?", new String[]{categoryName});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publishTable("items");
+        }
+        return rows;
     }
 
     /**
      * Check if category exists
      */
     public boolean categoryExists(String categoryName) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("items", new String[]{"item_id"},
-                "category = ?", new String[]{categoryName},
-                null, null, null, "1");
-
-        boolean exists = false;
-        if (cursor != null) {
-            exists = cursor.getCount() > 0;
-            cursor.close();
-        }
-
-        return exists;
+        return dbHelper.getMenuCatalog().getItemCount(categoryName) > 0;
     }
 
     /**
      * Get item count for a specific category
      */
     public int getCategoryItemCount(String categoryName) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("items", new String[]{"COUNT(*)"},
-                "category = ?", new String[]{categoryName},
-                null, null, null);
-
-        int count = 0;
-        if (cursor != null && cursor.moveToFirst()) {
-            count = cursor.getInt(0);
-            cursor.close();
-        }
-
-        return count;
+        return dbHelper.getMenuCatalog().getItemCount(categoryName);
     }
 }
\ No newline at end of file
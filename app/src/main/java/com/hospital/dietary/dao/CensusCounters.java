@@ -0,0 +1,132 @@
+package com.hospital.dietary.dao;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * CensusCounters class - per-wing patient counts kept by triggers on patient_info
+ * census_counter holds one row per wing with the totals the dashboards show, so reading them
+ * is a few-row scan instead of a COUNT over every patient. Like the search index, the triggers
+ * see every write, whichever database layer made it. Rows count discharged patients until the
+ * nightly archive removes them, as the COUNT queries they replace did
+ */
+public final class CensusCounters {
+
+    // Counter column and how much one patient_info row adds to it; %1$s is NEW, OLD or the table
+    private static final String[][] COUNTERS = {
+            {"patients", "1"},
+            {"discharged", "IFNULL(%1$s.discharged, 0) = 1"},
+            {"ada_diet", "IFNULL(%1$s.ada_diet, 0) = 1"},
+            {"breakfast_complete", "IFNULL(%1$s.breakfast_complete, 0) = 1"},
+            {"lunch_complete", "IFNULL(%1$s.lunch_complete, 0) = 1"},
+            {"dinner_complete", "IFNULL(%1$s.dinner_complete, 0) = 1"},
+            {"breakfast_npo", "IFNULL(%1$s.breakfast_npo, 0) = 1"},
+            {"lunch_npo", "IFNULL(%1$s.lunch_npo, 0) = 1"},
+            {"dinner_npo", "IFNULL(%1$s.dinner_npo, 0) = 1"},
+            {"all_complete", "IFNULL(%1$s.breakfast_complete, 0) = 1 AND " +
+                    "IFNULL(%1$s.lunch_complete, 0) = 1 AND IFNULL(%1$s.dinner_complete, 0) = 1"}
+    };
+
+    // patient_info columns the counters read
+    private static final String[] SOURCE_COLUMNS = {
+            "wing", "discharged", "ada_diet",
+            "breakfast_complete", "lunch_complete", "dinner_complete",
+            "breakfast_npo", "lunch_npo", "dinner_npo"
+    };
+
+    // Patients without a wing are counted under ''
+    private static final String WING_KEY = "IFNULL(%1$s.wing, '')";
+
+    static final String CREATE_TABLE = createTable();
+
+    static final String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS census_counter_after_insert " +
+                    "AFTER INSERT ON patient_info BEGIN " +
+                    ensureRow("NEW") + add("NEW", "+") + "END",
+            "CREATE TRIGGER IF NOT EXISTS census_counter_after_delete " +
+                    "AFTER DELETE ON patient_info BEGIN " +
+                    add("OLD", "-") + prune("OLD") + "END",
+            // Only when a counted value moves, so the rollover's blanket reset skips unchanged rows
+            "CREATE TRIGGER IF NOT EXISTS census_counter_after_update " +
+                    "AFTER UPDATE OF " + sourceColumns() + " ON patient_info " +
+                    "WHEN " + anyChanged() + " BEGIN " +
+                    add("OLD", "-") + ensureRow("NEW") + add("NEW", "+") + prune("OLD") + "END"
+    };
+
+    static final String[] REBUILD = {
+            "DELETE FROM census_counter",
+            rebuild()
+    };
+
+    private CensusCounters() {
+    }
+
+    /**
+     * Create the counters and their triggers, then count the patients already in patient_info
+     */
+    public static void create(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE);
+        for (String trigger : CREATE_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+        for (String sql : REBUILD) {
+            db.execSQL(sql);
+        }
+    }
+
+    private static String createTable() {
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS census_counter (" +
+                "wing TEXT NOT NULL PRIMARY KEY");
+        for (String[] counter : COUNTERS) {
+            sql.append(", ").append(counter[0]).append(" INTEGER NOT NULL DEFAULT 0");
+        }
+        return sql.append(")").toString();
+    }
+
+    private static String ensureRow(String row) {
+        return "INSERT OR IGNORE INTO census_counter (wing) VALUES (" + String.format(WING_KEY, row) + "); ";
+    }
+
+    private static String add(String row, String sign) {
+        StringBuilder sql = new StringBuilder("UPDATE census_counter SET ");
+        for (int i = 0; i < COUNTERS.length; i++) {
+            String column = COUNTERS[i][0];
+            sql.append(i == 0 ? "" : ", ").append(column).append(" = ").append(column)
+                    .append(' ').append(sign).append(" (").append(String.format(COUNTERS[i][1], row)).append(')');
+        }
+        return sql.append(" WHERE wing = ").append(String.format(WING_KEY, row)).append("; ").toString();
+    }
+
+    // An emptied wing's row goes, so wings that closed do not linger on the dashboard
+    private static String prune(String row) {
+        return "DELETE FROM census_counter WHERE wing = " + String.format(WING_KEY, row) +
+                " AND patients = 0; ";
+    }
+
+    private static String sourceColumns() {
+        StringBuilder sql = new StringBuilder();
+        for (String column : SOURCE_COLUMNS) {
+            sql.append(sql.length() == 0 ? "" : ", ").append(column);
+        }
+        return sql.toString();
+    }
+
+    private static String anyChanged() {
+        StringBuilder sql = new StringBuilder();
+        for (String column : SOURCE_COLUMNS) {
+            sql.append(sql.length() == 0 ? "" : " OR ")
+                    .append("OLD.").append(column).append(" IS NOT NEW.").append(column);
+        }
+        return sql.toString();
+    }
+
+    private static String rebuild() {
+        StringBuilder columns = new StringBuilder("wing");
+        StringBuilder values = new StringBuilder(String.format(WING_KEY, "patient_info"));
+        for (String[] counter : COUNTERS) {
+            columns.append(", ").append(counter[0]);
+            values.append(", SUM(").append(String.format(counter[1], "patient_info")).append(')');
+        }
+        return "INSERT INTO census_counter (" + columns + ") SELECT " + values +
+                " FROM patient_info GROUP BY " + String.format(WING_KEY, "patient_info");
+    }
+}
@@ -0,0 +1,128 @@
+package com.hospital.dietary.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * ChangeBus class - row-level notices for writes made through the legacy DAOs
+ * Each notice names the table, the row (ALL_ROWS after a bulk write) and the columns written
+ * (every column after an insert or delete). Listeners run on the writing thread, so they should
+ * only record what changed and re-read on their own thread
+ */
+public class ChangeBus {
+
+    public static final long ALL_ROWS = -1;
+
+    public static final class Change {
+        private final String table;
+        private final long rowId;
+        private final Set<String> columns;
+
+        Change(String table, long rowId, Set<String> columns) {
+            this.table = table;
+            this.rowId = rowId;
+            this.columns = columns;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public long getRowId() {
+            return rowId;
+        }
+
+        public boolean isAllRows() {
+            return rowId == ALL_ROWS;
+        }
+
+        // Null when every column may have changed
+        public Set<String> getColumns() {
+            return columns;
+        }
+
+        public boolean touches(Set<String> watchedColumns) {
+            if (columns == null) {
+                return true;
+            }
+            for (String column : columns) {
+                if (watchedColumns.contains(column)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public String toString() {
+            return table + "[" + (isAllRows() ? "*" : String.valueOf(rowId)) + "] " +
+                    (columns != null ? columns : "*");
+        }
+    }
+
+    public interface Listener {
+        void onChange(Change change);
+    }
+
+    // ConcurrentMap, not Map: putIfAbsent on Map needs API 24
+    private final ConcurrentMap<String, List<Listener>> listeners = new ConcurrentHashMap<>();
+    private final List<Listener> allTableListeners = new CopyOnWriteArrayList<>();
+
+    // Hear about one table's writes
+    public void subscribe(String table, Listener listener) {
+        List<Listener> tableListeners = listeners.get(table);
+        if (tableListeners == null) {
+            listeners.putIfAbsent(table, new CopyOnWriteArrayList<>());
+            tableListeners = listeners.get(table);
+        }
+        tableListeners.add(listener);
+    }
+
+    // Hear about every table's writes
+    public void subscribeAll(Listener listener) {
+        allTableListeners.add(listener);
+    }
+
+    public void unsubscribe(String table, Listener listener) {
+        List<Listener> tableListeners = listeners.get(table);
+        if (tableListeners != null) {
+            tableListeners.remove(listener);
+        }
+    }
+
+    public void unsubscribeAll(Listener listener) {
+        allTableListeners.remove(listener);
+    }
+
+    /**
+     * Report a write; columns null means the whole row
+     */
+    public void publish(String table, long rowId, Collection<String> columns) {
+        List<Listener> tableListeners = listeners.get(table);
+        if ((tableListeners == null || tableListeners.isEmpty()) && allTableListeners.isEmpty()) {
+            return;
+        }
+
+        Change change = new Change(table, rowId,
+                columns != null ? Collections.unmodifiableSet(new HashSet<>(columns)) : null);
+        if (tableListeners != null) {
+            for (Listener listener : tableListeners) {
+                listener.onChange(change);
+            }
+        }
+        for (Listener listener : allTableListeners) {
+            listener.onChange(change);
+        }
+    }
+
+    // A bulk write, or one whose rows are not known
+    public void publishTable(String table) {
+        publish(table, ALL_ROWS, null);
+    }
+}
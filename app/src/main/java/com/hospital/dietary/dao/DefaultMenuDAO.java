@@ -17,28 +17,7 @@ public class DefaultMenuDAO {
 
     // Get default menu items for a specific diet, meal, and day
     public List<DefaultMenuItem> getDefaultMenuItems(String dietType, String mealType, String dayOfWeek) {
-        List<DefaultMenuItem> menuItems = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT * FROM default_menu WHERE diet_type = ? AND meal_type = ? AND day_of_week = ?";
-        Cursor cursor = db.rawQuery(query, new String[]{dietType, mealType, dayOfWeek});
-
-        if (cursor != null) {
-            while (cursor.moveToNext()) {
-                DefaultMenuItem item = new DefaultMenuItem();
-                item.setId(cursor.getInt(cursor.getColumnIndex("menu_id")));
-                item.setDietType(cursor.getString(cursor.getColumnIndex("diet_type")));
-                item.setMealType(cursor.getString(cursor.getColumnIndex("meal_type")));
-                item.setDayOfWeek(cursor.getString(cursor.getColumnIndex("day_of_week")));
-                item.setCategory(cursor.getString(cursor.getColumnIndex("item_category")));
-                item.setItemName(cursor.getString(cursor.getColumnIndex("item_name")));
-                item.setActive(cursor.getInt(cursor.getColumnIndex("is_active")) == 1);
-                menuItems.add(item);
-            }
-            cursor.close();
-        }
-
-        return menuItems;
+        return dbHelper.getMenuCatalog().getDefaultMenuItems(dietType, mealType, dayOfWeek);
     }
 
     // Save default menu items for a specific configuration
@@ -74,13 +53,19 @@ public class DefaultMenuDAO {
             db.endTransaction();
         }
 
+        if (success) {
+            dbHelper.getChangeBus().publishTable("default_menu");
+        }
+
         return success;
     }
 
     // Clear all default menu items
     public void clearAllDefaultMenus() {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
-        db.delete("default_menu", null, null);
+        if (db.delete("default_menu", null, null) > 0) {
+            dbHelper.getChangeBus().publishTable("default_menu");
+        }
     }
 
     // Get all default menu items
@@ -6,14 +6,34 @@ import android.database.sqlite.SQLiteDatabase;
 import com.hospital.dietary.DatabaseHelper;
 import com.hospital.dietary.models.FinalizedOrder;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
  * FinalizedOrderDAO compatibility class
+ * Each order is one row; its texture, fluid and meal lists live in the order_record blob
+ * (see FinalizedOrderRecord), which carries its own item names.
+ * Reads cover finalized_order_archive too, where RetiredOrderDAO moves orders past the galley history
  */
 public class FinalizedOrderDAO {
 
+    static final String FINALIZED_ORDER_COLUMNS = "order_id, patient_name, wing, room, " +
+            "order_date, diet_type, order_record";
+
+    // order_id is AUTOINCREMENT, so an order is in at most one of the two tables
+    static final String QUERY_FINALIZED_ORDER = "SELECT " + FINALIZED_ORDER_COLUMNS +
+            " FROM finalized_order WHERE order_id = ?1" +
+            " UNION ALL SELECT " + FINALIZED_ORDER_COLUMNS +
+            " FROM finalized_order_archive WHERE order_id = ?1";
+    static final String QUERY_ALL_FINALIZED_ORDERS = "SELECT " + FINALIZED_ORDER_COLUMNS +
+            " FROM finalized_order" +
+            " UNION ALL SELECT " + FINALIZED_ORDER_COLUMNS +
+            " FROM finalized_order_archive ORDER BY order_date DESC";
+    // A day's orders merged from idx_finalized_order_date and idx_finalized_order_archive_date
+    static final String QUERY_FINALIZED_ORDERS_BY_DATE = "SELECT " + FINALIZED_ORDER_COLUMNS +
+            " FROM finalized_order WHERE order_date = ?1" +
+            " UNION ALL SELECT " + FINALIZED_ORDER_COLUMNS +
+            " FROM finalized_order_archive WHERE order_date = ?1 ORDER BY wing, room";
+
     private final DatabaseHelper dbHelper;
 
     public FinalizedOrderDAO(DatabaseHelper dbHelper) {
@@ -33,39 +53,15 @@ public class FinalizedOrderDAO {
         values.put("room", order.getRoom());
         values.put("order_date", order.getOrderDate());
         values.put("diet_type", order.getDietType());
-        values.put("fluid_restriction", order.getFluidRestriction());
-
-        // Texture modifications
-        values.put("mechanical_ground", order.isMechanicalGround() ? 1 : 0);
-        values.put("mechanical_chopped", order.isMechanicalChopped() ? 1 : 0);
-        values.put("bite_size", order.isBiteSize() ? 1 : 0);
-        values.put("bread_ok", order.isBreadOK() ? 1 : 0);
-
-        // Meal items
-        values.put("breakfast_items", order.getBreakfastItems() != null ?
-                String.join(",", order.getBreakfastItems()) : "");
-        values.put("lunch_items", order.getLunchItems() != null ?
-                String.join(",", order.getLunchItems()) : "");
-        values.put("dinner_items", order.getDinnerItems() != null ?
-                String.join(",", order.getDinnerItems()) : "");
-
-        // Juices
-        values.put("breakfast_juices", order.getBreakfastJuices() != null ?
-                String.join(",", order.getBreakfastJuices()) : "");
-        values.put("lunch_juices", order.getLunchJuices() != null ?
-                String.join(",", order.getLunchJuices()) : "");
-        values.put("dinner_juices", order.getDinnerJuices() != null ?
-                String.join(",", order.getDinnerJuices()) : "");
-
-        // Drinks
-        values.put("breakfast_drinks", order.getBreakfastDrinks() != null ?
-                String.join(",", order.getBreakfastDrinks()) : "");
-        values.put("lunch_drinks", order.getLunchDrinks() != null ?
-                String.join(",", order.getLunchDrinks()) : "");
-        values.put("dinner_drinks", order.getDinnerDrinks() != null ?
-                String.join(",", order.getDinnerDrinks()) : "");
-
-        return db.insert("finalized_order", null, values);
+
+        // Texture, fluid and meal lists, names included so later catalog edits leave them as is
+        values.put("order_record", FinalizedOrderRecord.encode(order));
+
+        long id = db.insert("finalized_order", null, values);
+        if (id > 0) {
+            dbHelper.getChangeBus().publish("finalized_order", id, null);
+        }
+        return id;
     }
 
     /**
@@ -73,9 +69,7 @@ public class FinalizedOrderDAO {
      */
     public FinalizedOrder getFinalizedOrderById(int orderId) {
         SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("finalized_order", null,
-                "order_id = ?", new String[]{String.valueOf(orderId)},
-                null, null, null);
+        Cursor cursor = db.rawQuery(QUERY_FINALIZED_ORDER, new String[]{String.valueOf(orderId)});
 
         FinalizedOrder order = null;
         if (cursor.moveToFirst()) {
@@ -91,8 +85,7 @@ public class FinalizedOrderDAO {
     public List<FinalizedOrder> getAllFinalizedOrders() {
         List<FinalizedOrder> orders = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("finalized_order", null,
-                null, null, null, null, "order_date DESC");
+        Cursor cursor = db.rawQuery(QUERY_ALL_FINALIZED_ORDERS, null);
 
         if (cursor.moveToFirst()) {
             do {
@@ -109,9 +102,7 @@ public class FinalizedOrderDAO {
     public List<FinalizedOrder> getFinalizedOrdersByDate(String date) {
         List<FinalizedOrder> orders = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("finalized_order", null,
-                "order_date = ?", new String[]{date},
-                null, null, "wing, room");
+        Cursor cursor = db.rawQuery(QUERY_FINALIZED_ORDERS_BY_DATE, new String[]{date});
 
         if (cursor.moveToFirst()) {
             do {
@@ -135,108 +126,33 @@ public class FinalizedOrderDAO {
         values.put("room", order.getRoom());
         values.put("order_date", order.getOrderDate());
         values.put("diet_type", order.getDietType());
-        values.put("fluid_restriction", order.getFluidRestriction());
-
-        // Texture modifications
-        values.put("mechanical_ground", order.isMechanicalGround() ? 1 : 0);
-        values.put("mechanical_chopped", order.isMechanicalChopped() ? 1 : 0);
-        values.put("bite_size", order.isBiteSize() ? 1 : 0);
-        values.put("bread_ok", order.isBreadOK() ? 1 : 0);
-
-        // Meal items
-        values.put("breakfast_items", order.getBreakfastItems() != null ?
-                String.join(",", order.getBreakfastItems()) : "");
-        values.put("lunch_items", order.getLunchItems() != null ?
-                String.join(",", order.getLunchItems()) : "");
-        values.put("dinner_items", order.getDinnerItems() != null ?
-                String.join(",", order.getDinnerItems()) : "");
-
-        // Juices
-        values.put("breakfast_juices", order.getBreakfastJuices() != null ?
-                String.join(",", order.getBreakfastJuices()) : "");
-        values.put("lunch_juices", order.getLunchJuices() != null ?
-                String.join(",", order.getLunchJuices()) : "");
-        values.put("dinner_juices", order.getDinnerJuices() != null ?
-                String.join(",", order.getDinnerJuices()) : "");
-
-        // Drinks
-        values.put("breakfast_drinks", order.getBreakfastDrinks() != null ?
-                String.join(",", order.getBreakfastDrinks()) : "");
-        values.put("lunch_drinks", order.getLunchDrinks() != null ?
-                String.join(",", order.getLunchDrinks()) : "");
-        values.put("dinner_drinks", order.getDinnerDrinks() != null ?
-                String.join(",", order.getDinnerDrinks()) : "");
-
-        return db.update("finalized_order", values, "order_id = ?",
+
+        // Texture, fluid and meal lists, names included so later catalog edits leave them as is
+        values.put("order_record", FinalizedOrderRecord.encode(order));
+
+        int rows = db.update("finalized_order", values, "order_id = ?",
                 new String[]{String.valueOf(order.getOrderId())});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publish("finalized_order", order.getOrderId(), values.keySet());
+        }
+        return rows;
     }
 
     /**
-     * Convert cursor to FinalizedOrder
+     * Convert a row read with FINALIZED_ORDER_COLUMNS to FinalizedOrder
      */
     private FinalizedOrder cursorToFinalizedOrder(Cursor cursor) {
         FinalizedOrder order = new FinalizedOrder();
-        order.setOrderId(cursor.getInt(cursor.getColumnIndexOrThrow("order_id")));
-        order.setPatientName(cursor.getString(cursor.getColumnIndexOrThrow("patient_name")));
-        order.setWing(cursor.getString(cursor.getColumnIndexOrThrow("wing")));
-        order.setRoom(cursor.getString(cursor.getColumnIndexOrThrow("room")));
-        order.setOrderDate(cursor.getString(cursor.getColumnIndexOrThrow("order_date")));
-        order.setDietType(cursor.getString(cursor.getColumnIndexOrThrow("diet_type")));
-
-        // Get other fields if they exist
-        int fluidIndex = cursor.getColumnIndex("fluid_restriction");
-        if (fluidIndex != -1) {
-            order.setFluidRestriction(cursor.getString(fluidIndex));
-        }
-
-        // Texture modifications
-        int groundIndex = cursor.getColumnIndex("mechanical_ground");
-        if (groundIndex != -1) {
-            order.setMechanicalGround(cursor.getInt(groundIndex) == 1);
+        order.setOrderId(cursor.getInt(0));
+        order.setPatientName(cursor.getString(1));
+        order.setWing(cursor.getString(2));
+        order.setRoom(cursor.getString(3));
+        order.setOrderDate(cursor.getString(4));
+        order.setDietType(cursor.getString(5));
+
+        if (!cursor.isNull(6)) {
+            FinalizedOrderRecord.decode(cursor.getBlob(6), order);
         }
-
-        int choppedIndex = cursor.getColumnIndex("mechanical_chopped");
-        if (choppedIndex != -1) {
-            order.setMechanicalChopped(cursor.getInt(choppedIndex) == 1);
-        }
-
-        int biteIndex = cursor.getColumnIndex("bite_size");
-        if (biteIndex != -1) {
-            order.setBiteSize(cursor.getInt(biteIndex) == 1);
-        }
-
-        int breadIndex = cursor.getColumnIndex("bread_ok");
-        if (breadIndex != -1) {
-            order.setBreadOK(cursor.getInt(breadIndex) == 1);
-        }
-
-        // Meal items
-        int breakfastItemsIndex = cursor.getColumnIndex("breakfast_items");
-        if (breakfastItemsIndex != -1) {
-            String items = cursor.getString(breakfastItemsIndex);
-            if (items != null && !items.isEmpty()) {
-                order.setBreakfastItems(Arrays.asList(items.split(",")));
-            }
-        }
-
-        int lunchItemsIndex = cursor.getColumnIndex("lunch_items");
-        if (lunchItemsIndex != -1) {
-            String items = cursor.getString(lunchItemsIndex);
-            if (items != null && !items.isEmpty()) {
-                order.setLunchItems(Arrays.asList(items.split(",")));
-            }
-        }
-
-        int dinnerItemsIndex = cursor.getColumnIndex("dinner_items");
-        if (dinnerItemsIndex != -1) {
-            String items = cursor.getString(dinnerItemsIndex);
-            if (items != null && !items.isEmpty()) {
-                order.setDinnerItems(Arrays.asList(items.split(",")));
-            }
-        }
-
-        // Similar for juices and drinks...
-
         return order;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,247 @@
+package com.hospital.dietary.dao;
+
+import android.util.Log;
+import com.hospital.dietary.models.FinalizedOrder;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FinalizedOrderRecord class - the binary order_record stored with each finalized order
+ * Layout, all counts and indexes as unsigned varints:
+ *   version byte, texture flags byte, fluid restriction (length + 1, 0 for none, then UTF-8),
+ *   then the record's name table as a count followed by (length, UTF-8) per distinct name,
+ *   then the nine meal lists in LIST order, each as a run count followed by runs of
+ *   (name table index, quantity).
+ * Names are kept as they were at finalization rather than as catalog ids, so decoding never
+ * reads the live catalog and later renames or deletes leave past orders as they were.
+ * Each distinct name is decoded once per record, however many items share it
+ */
+public final class FinalizedOrderRecord {
+
+    private static final String TAG = "FinalizedOrderRecord";
+
+    // Bump when the layout changes; older records keep decoding by their own version byte
+    static final int FORMAT_VERSION = 1;
+
+    private static final int FLAG_MECHANICAL_GROUND = 1;
+    private static final int FLAG_MECHANICAL_CHOPPED = 1 << 1;
+    private static final int FLAG_BITE_SIZE = 1 << 2;
+    private static final int FLAG_BREAD_OK = 1 << 3;
+
+    // Breakfast, lunch and dinner items, then juices, then drinks
+    private static final int LIST_COUNT = 9;
+
+    private FinalizedOrderRecord() {}
+
+    /**
+     * Encode an order's texture, fluid and meal lists; repeated adjacent names become one quantity
+     */
+    public static byte[] encode(FinalizedOrder order) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write(FORMAT_VERSION);
+
+        int flags = 0;
+        if (order.isMechanicalGround()) flags |= FLAG_MECHANICAL_GROUND;
+        if (order.isMechanicalChopped()) flags |= FLAG_MECHANICAL_CHOPPED;
+        if (order.isBiteSize()) flags |= FLAG_BITE_SIZE;
+        if (order.isBreadOK()) flags |= FLAG_BREAD_OK;
+        out.write(flags);
+
+        String fluid = order.getFluidRestriction();
+        if (fluid == null) {
+            writeVarint(out, 0);
+        } else {
+            byte[] bytes = fluid.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length + 1);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        // The name table comes first but is filled in as the lists are written
+        List<String> names = new ArrayList<>();
+        Map<String, Integer> indexes = new HashMap<>();
+        ByteArrayOutputStream lists = new ByteArrayOutputStream(32);
+        for (int list = 0; list < LIST_COUNT; list++) {
+            writeList(lists, getList(order, list), names, indexes);
+        }
+
+        writeVarint(out, names.size());
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+        byte[] listBytes = lists.toByteArray();
+        out.write(listBytes, 0, listBytes.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Fill an order's texture, fluid and meal lists from a record; false if it cannot be read
+     */
+    public static boolean decode(byte[] record, FinalizedOrder order) {
+        if (record == null || record.length < 2) {
+            return false;
+        }
+        if ((record[0] & 0xFF) != FORMAT_VERSION) {
+            Log.w(TAG, "Unknown finalized order record version " + (record[0] & 0xFF));
+            return false;
+        }
+
+        try {
+            Reader in = new Reader(record, 1);
+
+            int flags = in.readByte();
+            order.setMechanicalGround((flags & FLAG_MECHANICAL_GROUND) != 0);
+            order.setMechanicalChopped((flags & FLAG_MECHANICAL_CHOPPED) != 0);
+            order.setBiteSize((flags & FLAG_BITE_SIZE) != 0);
+            order.setBreadOK((flags & FLAG_BREAD_OK) != 0);
+
+            int fluidLength = in.readVarint();
+            order.setFluidRestriction(fluidLength > 0 ? in.readString(fluidLength - 1) : null);
+
+            String[] names = new String[in.readVarint()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = in.readString(in.readVarint());
+            }
+
+            for (int list = 0; list < LIST_COUNT; list++) {
+                setList(order, list, readList(in, names));
+            }
+            return true;
+        } catch (ArrayIndexOutOfBoundsException e) {
+            Log.e(TAG, "Truncated finalized order record", e);
+            return false;
+        }
+    }
+
+    private static void writeList(ByteArrayOutputStream out, List<String> items,
+                                  List<String> names, Map<String, Integer> indexes) {
+        if (items == null || items.isEmpty()) {
+            writeVarint(out, 0);
+            return;
+        }
+
+        int runs = 1;
+        for (int i = 1; i < items.size(); i++) {
+            if (!items.get(i).equals(items.get(i - 1))) {
+                runs++;
+            }
+        }
+        writeVarint(out, runs);
+
+        int start = 0;
+        while (start < items.size()) {
+            String name = items.get(start);
+            int end = start + 1;
+            while (end < items.size() && items.get(end).equals(name)) {
+                end++;
+            }
+
+            Integer index = indexes.get(name);
+            if (index == null) {
+                index = names.size();
+                names.add(name);
+                indexes.put(name, index);
+            }
+            writeVarint(out, index);
+            writeVarint(out, end - start);
+            start = end;
+        }
+    }
+
+    // Empty lists read back as null, as the comma-joined columns did
+    private static List<String> readList(Reader in, String[] names) {
+        int runs = in.readVarint();
+        if (runs == 0) {
+            return null;
+        }
+
+        List<String> items = new ArrayList<>(runs);
+        for (int run = 0; run < runs; run++) {
+            String name = names[in.readVarint()];
+            int quantity = in.readVarint();
+            for (int i = 0; i < quantity; i++) {
+                items.add(name);
+            }
+        }
+        return items;
+    }
+
+    private static List<String> getList(FinalizedOrder order, int list) {
+        switch (list) {
+            case 0: return order.getBreakfastItems();
+            case 1: return order.getLunchItems();
+            case 2: return order.getDinnerItems();
+            case 3: return order.getBreakfastJuices();
+            case 4: return order.getLunchJuices();
+            case 5: return order.getDinnerJuices();
+            case 6: return order.getBreakfastDrinks();
+            case 7: return order.getLunchDrinks();
+            default: return order.getDinnerDrinks();
+        }
+    }
+
+    private static void setList(FinalizedOrder order, int list, List<String> names) {
+        switch (list) {
+            case 0: order.setBreakfastItems(names); break;
+            case 1: order.setLunchItems(names); break;
+            case 2: order.setDinnerItems(names); break;
+            case 3: order.setBreakfastJuices(names); break;
+            case 4: order.setLunchJuices(names); break;
+            case 5: order.setDinnerJuices(names); break;
+            case 6: order.setBreakfastDrinks(names); break;
+            case 7: order.setLunchDrinks(names); break;
+            default: order.setDinnerDrinks(names); break;
+        }
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    /**
+     * Reads straight from the record array; running off the end throws ArrayIndexOutOfBoundsException
+     */
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes, int position) {
+            this.bytes = bytes;
+            this.position = position;
+        }
+
+        int readByte() {
+            return bytes[position++] & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0 && shift < 35);
+            return value;
+        }
+
+        String readString(int length) {
+            if (position + length > bytes.length) {
+                throw new ArrayIndexOutOfBoundsException(position + length);
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
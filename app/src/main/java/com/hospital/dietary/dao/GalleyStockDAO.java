@@ -0,0 +1,257 @@
+package com.hospital.dietary.dao;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import com.hospital.dietary.DatabaseHelper;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * GalleyStockDAO class for the per-wing galley stock forecast
+ * galley_stock_forecast is a rollup rebuilt one wing at a time; triggers drop a wing's
+ * galley_stock_refresh row whenever its census, selections or menus change
+ */
+public class GalleyStockDAO {
+
+    private static final String TAG = "GalleyStockDAO";
+
+    // Today and tomorrow cover the longest forecast the screen offers
+    public static final int FORECAST_DAYS = 2;
+    public static final int MAX_FORECAST_MEALS = FORECAST_DAYS * 3;
+
+    // Days of saved selections averaged into the historical usage
+    static final int HISTORY_DAYS = 14;
+
+    // Catalog and default menu categories stocked in the wing galleys
+    static final String STOCK_CATEGORIES = "('Beverages', 'Juice', 'Drink', 'Condiments')";
+    static final String BEVERAGE_CATEGORIES = "('Beverages', 'Juice', 'Drink')";
+
+    // Wings whose rollup is missing or was built on an earlier day
+    static final String QUERY_STALE_WINGS = "SELECT wing FROM patient_info " +
+            "WHERE discharged = 0 AND wing IS NOT NULL " +
+            "UNION SELECT wing FROM galley_stock_forecast " +
+            "EXCEPT SELECT wing FROM galley_stock_refresh WHERE refreshed_date = ?";
+
+    // One meal for one wing: ?1 wing, ?2 meal slot, ?3 service date, ?4 meal, ?5 day of week,
+    // ?6 first day of history. Patients with saved selections are counted from them, everyone
+    // else from the default menu for their meal diet. History is the same meal's selections over
+    // the HISTORY_DAYS service dates before ?3, split by thickness like the planned lines
+    static final String INSERT_FORECAST = "INSERT INTO galley_stock_forecast " +
+            "(wing, category, item_name, thickness, meal_slot, service_date, meal, " +
+            "planned_quantity, historical_quantity) " +
+            "SELECT ?1, category, item_name, thickness, ?2, ?3, ?4, " +
+            "SUM(planned), (SUM(historical) + " + (HISTORY_DAYS - 1) + ") / " + HISTORY_DAYS + " " +
+            "FROM (" +
+            "SELECT i.category as category, s.item_name as item_name, " +
+            thicknessColumn("i.category") + " as thickness, " +
+            "s.quantity as planned, 0 as historical " +
+            "FROM patient_info p " +
+            "JOIN patient_meal_selection s ON s.patient_id = p.patient_id " +
+            "AND s.service_date = ?3 AND s.meal = ?4 " +
+            "JOIN items i ON i.item_id = s.item_id " +
+            "WHERE p.wing = ?1 AND p.discharged = 0 AND " + npoColumn() + " = 0 " +
+            "AND i.category IN " + STOCK_CATEGORIES + " " +
+            "UNION ALL " +
+            "SELECT d.item_category, d.item_name, " + thicknessColumn("d.item_category") + ", 1, 0 " +
+            "FROM patient_info p " +
+            "JOIN default_menu d ON d.diet_type = " + mealDietColumn() + " " +
+            "AND d.meal_type = ?4 AND d.day_of_week = ?5 AND d.is_active = 1 " +
+            "WHERE p.wing = ?1 AND p.discharged = 0 AND " + npoColumn() + " = 0 " +
+            "AND d.item_category IN " + STOCK_CATEGORIES + " AND d.item_name IS NOT NULL " +
+            "AND NOT EXISTS (SELECT 1 FROM patient_meal_selection s " +
+            "WHERE s.patient_id = p.patient_id AND s.service_date = ?3 AND s.meal = ?4) " +
+            "UNION ALL " +
+            "SELECT i.category, s.item_name, " + thicknessColumn("i.category") + ", 0, s.quantity " +
+            "FROM patient_info p " +
+            "JOIN patient_meal_selection s ON s.patient_id = p.patient_id " +
+            "AND s.service_date >= ?6 AND s.service_date < ?3 AND s.meal = ?4 " +
+            "JOIN items i ON i.item_id = s.item_id " +
+            "WHERE p.wing = ?1 AND i.category IN " + STOCK_CATEGORIES +
+            ") GROUP BY category, item_name, thickness";
+
+    // The screen's read: one ordered pass over the rollup's primary key
+    static final String QUERY_FORECAST = "SELECT wing, category, item_name, thickness, " +
+            "SUM(MAX(planned_quantity, historical_quantity)) as quantity " +
+            "FROM galley_stock_forecast " +
+            "WHERE meal_slot BETWEEN ? AND ? " +
+            "GROUP BY wing, category, item_name, thickness " +
+            "ORDER BY wing, category, item_name, thickness";
+
+    private final DatabaseHelper dbHelper;
+
+    public GalleyStockDAO(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Inner class to hold one forecast line for a wing
+     */
+    public static class StockLine {
+        private final String wing;
+        private final String category;
+        private final String itemName;
+        private final String thickness;
+        private final int quantity;
+
+        public StockLine(String wing, String category, String itemName, String thickness, int quantity) {
+            this.wing = wing;
+            this.category = category;
+            this.itemName = itemName;
+            this.thickness = thickness;
+            this.quantity = quantity;
+        }
+
+        public String getWing() {
+            return wing;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        // Empty unless the beverage has to be thickened
+        public String getThickness() {
+            return thickness;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        @Override
+        public String toString() {
+            return thickness.isEmpty() ? itemName : itemName + " (" + thickness + ")";
+        }
+    }
+
+    /**
+     * Rebuild the forecast for wings that changed since their last refresh, or were
+     * last refreshed on an earlier day. Cheap when nothing is stale
+     */
+    public int refreshStaleWings() {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        Calendar today = Calendar.getInstance();
+        String todayDate = MealSelectionDAO.formatServiceDate(today.getTime());
+
+        List<String> staleWings = new ArrayList<>();
+        Cursor cursor = db.rawQuery(QUERY_STALE_WINGS, new String[]{todayDate});
+        while (cursor.moveToNext()) {
+            staleWings.add(cursor.getString(0));
+        }
+        cursor.close();
+
+        if (staleWings.isEmpty()) {
+            return 0;
+        }
+
+        SimpleDateFormat dayOfWeek = new SimpleDateFormat("EEEE", Locale.US);
+
+        db.beginTransaction();
+        try {
+            SQLiteStatement insert = db.compileStatement(INSERT_FORECAST);
+
+            for (String wing : staleWings) {
+                db.delete("galley_stock_forecast", "wing = ?", new String[]{wing});
+
+                Calendar day = (Calendar) today.clone();
+                for (int d = 0; d < FORECAST_DAYS; d++) {
+                    String serviceDate = MealSelectionDAO.formatServiceDate(day.getTime());
+                    Calendar historyStart = (Calendar) day.clone();
+                    historyStart.add(Calendar.DAY_OF_MONTH, -HISTORY_DAYS);
+                    String historyStartDate = MealSelectionDAO.formatServiceDate(historyStart.getTime());
+                    for (int m = 0; m < MealSelectionDAO.MEALS.length; m++) {
+                        insert.bindString(1, wing);
+                        insert.bindLong(2, mealSlot(day, m));
+                        insert.bindString(3, serviceDate);
+                        insert.bindString(4, MealSelectionDAO.MEALS[m]);
+                        insert.bindString(5, dayOfWeek.format(day.getTime()));
+                        insert.bindString(6, historyStartDate);
+                        insert.executeInsert();
+                    }
+                    day.add(Calendar.DAY_OF_MONTH, 1);
+                }
+
+                db.execSQL("INSERT OR REPLACE INTO galley_stock_refresh (wing, refreshed_date) VALUES (?, ?)",
+                        new Object[]{wing, todayDate});
+            }
+
+            insert.close();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        Log.d(TAG, "Refreshed galley stock for " + staleWings.size() + " wings");
+        return staleWings.size();
+    }
+
+    /**
+     * Get the stock needed per wing for the next mealCount meals, starting with firstMeal today
+     */
+    public List<StockLine> getForecast(int firstMeal, int mealCount) {
+        List<StockLine> lines = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Calendar day = Calendar.getInstance();
+        long firstSlot = mealSlot(day, firstMeal);
+        int lastMeal = firstMeal + Math.min(mealCount, MAX_FORECAST_MEALS - firstMeal) - 1;
+        day.add(Calendar.DAY_OF_MONTH, lastMeal / 3);
+        long lastSlot = mealSlot(day, lastMeal % 3);
+
+        Cursor cursor = db.rawQuery(QUERY_FORECAST,
+                new String[]{String.valueOf(firstSlot), String.valueOf(lastSlot)});
+
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                lines.add(new StockLine(cursor.getString(0), cursor.getString(1),
+                        cursor.getString(2), cursor.getString(3), cursor.getInt(4)));
+            }
+            cursor.close();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Meal slots sort by day, then Breakfast / Lunch / Dinner - e.g. 202507151 is lunch on July 15, 2025
+     */
+    static long mealSlot(Calendar day, int mealIndex) {
+        long date = day.get(Calendar.YEAR) * 10000L
+                + (day.get(Calendar.MONTH) + 1) * 100
+                + day.get(Calendar.DAY_OF_MONTH);
+        return date * 10 + mealIndex;
+    }
+
+    // The patient's diet for the meal bound to ?4, falling back to the base diet
+    private static String mealDietColumn() {
+        return "COALESCE(NULLIF(CASE ?4 " +
+                "WHEN 'Breakfast' THEN p.breakfast_diet " +
+                "WHEN 'Lunch' THEN p.lunch_diet " +
+                "ELSE p.dinner_diet END, ''), p.diet)";
+    }
+
+    private static String npoColumn() {
+        return "IFNULL(CASE ?4 " +
+                "WHEN 'Breakfast' THEN p.breakfast_npo " +
+                "WHEN 'Lunch' THEN p.lunch_npo " +
+                "ELSE p.dinner_npo END, 0)";
+    }
+
+    // Beverages are stocked per liquid consistency, everything else is plain
+    private static String thicknessColumn(String categoryColumn) {
+        return "CASE WHEN " + categoryColumn + " IN " + BEVERAGE_CATEGORIES + " THEN CASE " +
+                "WHEN p.pudding_thick = 1 THEN 'Pudding Thick' " +
+                "WHEN p.honey_thick = 1 THEN 'Honey Thick' " +
+                "WHEN p.nectar_thick = 1 THEN 'Nectar Thick' " +
+                "ELSE '' END ELSE '' END";
+    }
+}
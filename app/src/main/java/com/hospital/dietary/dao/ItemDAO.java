@@ -6,6 +6,7 @@ import android.database.sqlite.SQLiteDatabase;
 import com.hospital.dietary.DatabaseHelper;
 import com.hospital.dietary.models.Item;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -13,6 +14,12 @@ import java.util.List;
  */
 public class ItemDAO {
 
+    // Reads are served from DatabaseHelper's MenuCatalog snapshot; this query builds it
+    static final String QUERY_ALL_ITEMS = "SELECT * FROM items ORDER BY category, name";
+
+    // Columns updateItem writes
+    private static final List<String> ITEM_COLUMNS = Arrays.asList("name", "category", "description", "is_ada_friendly");
+
     private DatabaseHelper dbHelper;
 
     public ItemDAO(DatabaseHelper dbHelper) {
@@ -31,7 +38,11 @@ public class ItemDAO {
         values.put("description", item.getDescription());
         values.put("is_ada_friendly", item.getIsAdaFriendly());
 
-        return db.insert("items", null, values);
+        long id = db.insert("items", null, values);
+        if (id > 0) {
+            dbHelper.getChangeBus().publish("items", id, null);
+        }
+        return id;
     }
 
     /**
@@ -46,8 +57,12 @@ public class ItemDAO {
         values.put("description", item.getDescription());
         values.put("is_ada_friendly", item.getIsAdaFriendly());
 
-        return db.update("items", values, "item_id = ?",
+        int rows = db.update("items", values, "item_id = ?",
                 new String[]{String.valueOf(item.getItemId())});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publish("items", item.getItemId(), ITEM_COLUMNS);
+        }
+        return rows;
     }
 
     /**
@@ -57,6 +72,9 @@ public class ItemDAO {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
         int rowsDeleted = db.delete("items", "item_id = ?",
                 new String[]{String.valueOf(itemId)});
+        if (rowsDeleted > 0) {
+            dbHelper.getChangeBus().publish("items", itemId, null);
+        }
         return rowsDeleted > 0;
     }
 
@@ -64,199 +82,76 @@ public class ItemDAO {
      * Get item by ID
      */
     public Item getItemById(int itemId) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("items", null, "item_id = ?",
-                new String[]{String.valueOf(itemId)}, null, null, null);
-
-        Item item = null;
-        if (cursor != null && cursor.moveToFirst()) {
-            item = cursorToItem(cursor);
-            cursor.close();
-        }
-
-        return item;
+        return dbHelper.getMenuCatalog().getItem(itemId);
     }
 
     /**
      * Get all items
      */
     public List<Item> getAllItems() {
-        List<Item> items = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT * FROM items ORDER BY category, name";
-        Cursor cursor = db.rawQuery(query, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                items.add(cursorToItem(cursor));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return items;
+        return dbHelper.getMenuCatalog().getAllItems();
     }
 
     /**
      * Get items by category
      */
     public List<Item> getItemsByCategory(String category) {
-        List<Item> items = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT * FROM items WHERE category = ? ORDER BY name";
-        Cursor cursor = db.rawQuery(query, new String[]{category});
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                items.add(cursorToItem(cursor));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return items;
+        return dbHelper.getMenuCatalog().getItemsByCategory(category);
     }
 
     /**
      * Get ADA-friendly items
      */
     public List<Item> getAdaFriendlyItems() {
-        List<Item> items = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT * FROM items WHERE is_ada_friendly = 1 ORDER BY category, name";
-        Cursor cursor = db.rawQuery(query, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                items.add(cursorToItem(cursor));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return items;
+        return dbHelper.getMenuCatalog().getAdaItems();
     }
 
     /**
      * Get ADA-friendly items by category
      */
     public List<Item> getAdaItemsByCategory(String category) {
-        List<Item> items = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT * FROM items WHERE category = ? AND is_ada_friendly = 1 ORDER BY name";
-        Cursor cursor = db.rawQuery(query, new String[]{category});
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                items.add(cursorToItem(cursor));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return items;
+        return dbHelper.getMenuCatalog().getAdaItemsByCategory(category);
     }
 
     /**
      * Search items by name or category
      */
     public List<Item> searchItems(String searchTerm) {
-        List<Item> items = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT * FROM items WHERE " +
-                "LOWER(name) LIKE LOWER(?) OR " +
-                "LOWER(category) LIKE LOWER(?) " +
-                "ORDER BY category, name";
-
-        String searchPattern = "%" + searchTerm + "%";
-        Cursor cursor = db.rawQuery(query, new String[]{searchPattern, searchPattern});
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                items.add(cursorToItem(cursor));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return items;
+        return dbHelper.getMenuCatalog().searchItems(searchTerm);
     }
 
     /**
      * Get all unique categories
      */
     public List<String> getAllCategories() {
-        List<String> categories = new ArrayList<>();
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        String query = "SELECT DISTINCT category FROM items ORDER BY category";
-        Cursor cursor = db.rawQuery(query, null);
-
-        if (cursor != null && cursor.moveToFirst()) {
-            do {
-                categories.add(cursor.getString(0));
-            } while (cursor.moveToNext());
-            cursor.close();
-        }
-
-        return categories;
+        return new ArrayList<>(dbHelper.getMenuCatalog().getCategories());
     }
 
     /**
      * Check if item exists by name and category
      */
     public boolean itemExists(String name, String category) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("items", new String[]{"item_id"},
-                "LOWER(name) = LOWER(?) AND LOWER(category) = LOWER(?)",
-                new String[]{name, category}, null, null, null);
-
-        boolean exists = false;
-        if (cursor != null) {
-            exists = cursor.getCount() > 0;
-            cursor.close();
-        }
-
-        return exists;
+        return dbHelper.getMenuCatalog().itemExists(name, category);
     }
 
     /**
      * Get item count
      */
     public int getItemCount() {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.rawQuery("SELECT COUNT(*) FROM items", null);
-
-        int count = 0;
-        if (cursor != null && cursor.moveToFirst()) {
-            count = cursor.getInt(0);
-            cursor.close();
-        }
-
-        return count;
+        return dbHelper.getMenuCatalog().getItemCount();
     }
 
     /**
      * Get item count by category
      */
     public int getItemCountByCategory(String category) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-        Cursor cursor = db.query("items", new String[]{"COUNT(*)"},
-                "category = ?", new String[]{category}, null, null, null);
-
-        int count = 0;
-        if (cursor != null && cursor.moveToFirst()) {
-            count = cursor.getInt(0);
-            cursor.close();
-        }
-
-        return count;
+        return dbHelper.getMenuCatalog().getItemCount(category);
     }
 
     /**
      * Convert cursor to Item object
      */
-    private Item cursorToItem(Cursor cursor) {
+    static Item cursorToItem(Cursor cursor) {
         Item item = new Item();
 
         item.setItemId(cursor.getInt(cursor.getColumnIndex("item_id")));
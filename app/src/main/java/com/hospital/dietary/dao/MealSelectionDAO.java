@@ -0,0 +1,365 @@
+package com.hospital.dietary.dao;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * MealSelectionDAO class for the normalized per-patient meal selections
+ * Each row is one item on one patient's tray for a service date and meal
+ */
+public class MealSelectionDAO {
+
+    private static final String TAG = "MealSelectionDAO";
+
+    static final String[] MEALS = {"Breakfast", "Lunch", "Dinner"};
+
+    // patient_info column suffixes that hold comma separated selections
+    private static final String[] SELECTION_COLUMNS = {"items", "juices", "drinks", "main", "side", "drink"};
+
+    // A patient has at most one row per item and meal, so COUNT(*) is the tray count
+    static final String QUERY_MEAL_TOTALS = "SELECT s.item_name, s.item_id, " +
+            "SUM(s.quantity) as total, COUNT(*) as tray_count " +
+            "FROM patient_meal_selection s " +
+            "JOIN patient_info p ON p.patient_id = s.patient_id " +
+            "WHERE s.service_date = ? AND s.meal = ? AND p.discharged = 0 " +
+            "GROUP BY s.item_name " +
+            "ORDER BY s.item_name";
+
+    // Production sheet: per item counts split by the meal's diet, texture and liquid thickness,
+    // skipping patients who are NPO for the meal
+    static final String QUERY_PRODUCTION_SHEET = "SELECT s.item_name, " +
+            "COALESCE(NULLIF(CASE s.meal " +
+            "WHEN 'Breakfast' THEN p.breakfast_diet " +
+            "WHEN 'Lunch' THEN p.lunch_diet " +
+            "ELSE p.dinner_diet END, ''), p.diet) as meal_diet, " +
+            "IFNULL(p.mechanical_ground, 0) as mechanical_ground, " +
+            "IFNULL(p.mechanical_chopped, 0) as mechanical_chopped, " +
+            "IFNULL(p.bite_size, 0) as bite_size, " +
+            "IFNULL(p.nectar_thick, 0) as nectar_thick, " +
+            "IFNULL(p.honey_thick, 0) as honey_thick, " +
+            "IFNULL(p.pudding_thick, 0) as pudding_thick, " +
+            "SUM(s.quantity) as total, COUNT(*) as tray_count " +
+            "FROM patient_meal_selection s " +
+            "JOIN patient_info p ON p.patient_id = s.patient_id " +
+            "WHERE s.service_date = ? AND s.meal = ? AND p.discharged = 0 " +
+            "AND IFNULL(CASE s.meal " +
+            "WHEN 'Breakfast' THEN p.breakfast_npo " +
+            "WHEN 'Lunch' THEN p.lunch_npo " +
+            "ELSE p.dinner_npo END, 0) = 0 " +
+            "GROUP BY s.item_name, meal_diet, mechanical_ground, mechanical_chopped, bite_size, " +
+            "nectar_thick, honey_thick, pudding_thick " +
+            "ORDER BY s.item_name, meal_diet";
+
+    private static final String INSERT_SELECTION = "INSERT INTO patient_meal_selection " +
+            "(patient_id, service_date, meal, item_id, item_name, quantity) " +
+            "VALUES (?, ?, ?, (SELECT item_id FROM items WHERE name = ? COLLATE NOCASE LIMIT 1), ?, ?)";
+
+    private final DatabaseHelper dbHelper;
+
+    public MealSelectionDAO(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Inner class to hold the tray total for one item
+     */
+    public static class ItemTotal {
+        private final String itemName;
+        private final long itemId;
+        private final int quantity;
+        private final int trayCount;
+
+        public ItemTotal(String itemName, long itemId, int quantity, int trayCount) {
+            this.itemName = itemName;
+            this.itemId = itemId;
+            this.quantity = quantity;
+            this.trayCount = trayCount;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        // 0 when the name does not match a catalog item
+        public long getItemId() {
+            return itemId;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public int getTrayCount() {
+            return trayCount;
+        }
+
+        @Override
+        public String toString() {
+            return itemName + " x" + quantity;
+        }
+    }
+
+    /**
+     * Inner class to hold one production sheet line - an item count for one
+     * diet / texture / thickness combination
+     */
+    public static class ProductionLine {
+        private final String itemName;
+        private final String diet;
+        private final boolean mechanicalGround;
+        private final boolean mechanicalChopped;
+        private final boolean biteSize;
+        private final boolean nectarThick;
+        private final boolean honeyThick;
+        private final boolean puddingThick;
+        private final int quantity;
+        private final int trayCount;
+
+        public ProductionLine(String itemName, String diet,
+                              boolean mechanicalGround, boolean mechanicalChopped, boolean biteSize,
+                              boolean nectarThick, boolean honeyThick, boolean puddingThick,
+                              int quantity, int trayCount) {
+            this.itemName = itemName;
+            this.diet = diet;
+            this.mechanicalGround = mechanicalGround;
+            this.mechanicalChopped = mechanicalChopped;
+            this.biteSize = biteSize;
+            this.nectarThick = nectarThick;
+            this.honeyThick = honeyThick;
+            this.puddingThick = puddingThick;
+            this.quantity = quantity;
+            this.trayCount = trayCount;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        public String getDiet() {
+            return diet;
+        }
+
+        public boolean isMechanicalGround() {
+            return mechanicalGround;
+        }
+
+        public boolean isMechanicalChopped() {
+            return mechanicalChopped;
+        }
+
+        public boolean isBiteSize() {
+            return biteSize;
+        }
+
+        public boolean isNectarThick() {
+            return nectarThick;
+        }
+
+        public boolean isHoneyThick() {
+            return honeyThick;
+        }
+
+        public boolean isPuddingThick() {
+            return puddingThick;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public int getTrayCount() {
+            return trayCount;
+        }
+
+        public String getTextureLabel() {
+            List<String> parts = new ArrayList<>();
+            if (mechanicalGround) parts.add("Mechanical Ground");
+            if (mechanicalChopped) parts.add("Mechanical Chopped");
+            if (biteSize) parts.add("Bite Size");
+            return parts.isEmpty() ? "Regular" : String.join(", ", parts);
+        }
+
+        public String getThicknessLabel() {
+            List<String> parts = new ArrayList<>();
+            if (nectarThick) parts.add("Nectar Thick");
+            if (honeyThick) parts.add("Honey Thick");
+            if (puddingThick) parts.add("Pudding Thick");
+            return parts.isEmpty() ? "Thin" : String.join(", ", parts);
+        }
+    }
+
+    /**
+     * Replace the patient's selections for their current service date with
+     * what is in the patient's meal columns
+     */
+    public void saveSelections(Patient patient) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        Date serviceDay = patient.getOrderDate() != null ? patient.getOrderDate() : new Date();
+
+        Map<String, String[]> columnsByMeal = new LinkedHashMap<>();
+        columnsByMeal.put("Breakfast", new String[]{
+                patient.getBreakfastItems(), patient.getBreakfastJuices(), patient.getBreakfastDrinks(),
+                patient.getBreakfastMain(), patient.getBreakfastSide(), patient.getBreakfastDrink()});
+        columnsByMeal.put("Lunch", new String[]{
+                patient.getLunchItems(), patient.getLunchJuices(), patient.getLunchDrinks(),
+                patient.getLunchMain(), patient.getLunchSide(), patient.getLunchDrink()});
+        columnsByMeal.put("Dinner", new String[]{
+                patient.getDinnerItems(), patient.getDinnerJuices(), patient.getDinnerDrinks(),
+                patient.getDinnerMain(), patient.getDinnerSide(), patient.getDinnerDrink()});
+
+        db.beginTransaction();
+        try {
+            SQLiteStatement insert = db.compileStatement(INSERT_SELECTION);
+            writeSelections(db, insert, patient.getPatientId(), formatServiceDate(serviceDay), columnsByMeal);
+            insert.close();
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        // The selection triggers marked this patient's wing stale
+        dbHelper.getGalleyStockDAO().refreshStaleWings();
+    }
+
+    /**
+     * Get item totals across active patients for one service date and meal
+     */
+    public List<ItemTotal> getMealTotals(String serviceDate, String meal) {
+        List<ItemTotal> totals = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery(QUERY_MEAL_TOTALS, new String[]{serviceDate, meal});
+
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                totals.add(new ItemTotal(cursor.getString(0), cursor.getLong(1),
+                        cursor.getInt(2), cursor.getInt(3)));
+            }
+            cursor.close();
+        }
+
+        return totals;
+    }
+
+    /**
+     * Get the production sheet for one service date and meal, aggregated in a single query
+     */
+    public List<ProductionLine> getProductionSheet(String serviceDate, String meal) {
+        List<ProductionLine> lines = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery(QUERY_PRODUCTION_SHEET, new String[]{serviceDate, meal});
+
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                lines.add(new ProductionLine(
+                        cursor.getString(0),
+                        cursor.getString(1),
+                        cursor.getInt(2) == 1,
+                        cursor.getInt(3) == 1,
+                        cursor.getInt(4) == 1,
+                        cursor.getInt(5) == 1,
+                        cursor.getInt(6) == 1,
+                        cursor.getInt(7) == 1,
+                        cursor.getInt(8),
+                        cursor.getInt(9)));
+            }
+            cursor.close();
+        }
+
+        return lines;
+    }
+
+    /**
+     * Service dates are stored as yyyy-MM-dd
+     */
+    public static String formatServiceDate(Date date) {
+        return new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(date);
+    }
+
+    /**
+     * Fill patient_meal_selection from the existing patient_info meal columns
+     * Runs inside the schema upgrade, so it works on the raw database
+     */
+    public static void backfill(SQLiteDatabase db) {
+        StringBuilder columns = new StringBuilder("patient_id, order_date");
+        for (String meal : MEALS) {
+            for (String suffix : SELECTION_COLUMNS) {
+                columns.append(", ").append(meal.toLowerCase(Locale.US)).append('_').append(suffix);
+            }
+        }
+
+        SQLiteStatement insert = db.compileStatement(INSERT_SELECTION);
+        Cursor cursor = db.rawQuery("SELECT " + columns + " FROM patient_info", null);
+        int patients = 0;
+
+        while (cursor.moveToNext()) {
+            long orderDate = cursor.getLong(1);
+            Date serviceDay = orderDate > 0 ? new Date(orderDate) : new Date();
+
+            Map<String, String[]> columnsByMeal = new LinkedHashMap<>();
+            int column = 2;
+            for (String meal : MEALS) {
+                String[] values = new String[SELECTION_COLUMNS.length];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = cursor.getString(column++);
+                }
+                columnsByMeal.put(meal, values);
+            }
+
+            writeSelections(db, insert, cursor.getLong(0), formatServiceDate(serviceDay), columnsByMeal);
+            patients++;
+        }
+
+        cursor.close();
+        insert.close();
+        Log.d(TAG, "Backfilled meal selections for " + patients + " patients");
+    }
+
+    // Delete and re-insert one patient's rows for a service date; the caller owns the transaction
+    private static void writeSelections(SQLiteDatabase db, SQLiteStatement insert, long patientId,
+                                        String serviceDate, Map<String, String[]> columnsByMeal) {
+        db.delete("patient_meal_selection", "patient_id = ? AND service_date = ?",
+                new String[]{String.valueOf(patientId), serviceDate});
+
+        for (Map.Entry<String, String[]> meal : columnsByMeal.entrySet()) {
+            for (Map.Entry<String, Integer> item : countItems(meal.getValue()).entrySet()) {
+                insert.bindLong(1, patientId);
+                insert.bindString(2, serviceDate);
+                insert.bindString(3, meal.getKey());
+                insert.bindString(4, item.getKey());
+                insert.bindString(5, item.getKey());
+                insert.bindLong(6, item.getValue());
+                insert.executeInsert();
+            }
+        }
+    }
+
+    // Split comma separated selections and count repeats as quantity
+    private static Map<String, Integer> countItems(String[] csvValues) {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (String csv : csvValues) {
+            if (csv == null || csv.isEmpty()) continue;
+
+            for (String part : csv.split(",")) {
+                String name = part.trim();
+                if (name.isEmpty()) continue;
+
+                Integer count = counts.get(name);
+                counts.put(name, count == null ? 1 : count + 1);
+            }
+        }
+        return counts;
+    }
+}
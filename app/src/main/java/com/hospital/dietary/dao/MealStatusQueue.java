@@ -0,0 +1,352 @@
+package com.hospital.dietary.dao;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MealStatusQueue class - write-behind for the meal complete and NPO toggles
+ * A tap only changes memory, so it is safe on the UI thread. Repeated taps on one patient and meal
+ * collapse to the last value, and FLUSH_DELAY_MS after the first one they are written in one
+ * transaction. Each tap is also appended to a journal file, which is replayed if the process dies first
+ */
+public class MealStatusQueue {
+
+    private static final String TAG = "MealStatusQueue";
+
+    // Long enough to gather a burst of tray line taps, short enough that other screens catch up quickly
+    static final long FLUSH_DELAY_MS = 2000;
+
+    // Column i is meal i / 2; even columns are complete, odd are NPO
+    static final String[] COLUMNS = {
+            "breakfast_complete", "breakfast_npo",
+            "lunch_complete", "lunch_npo",
+            "dinner_complete", "dinner_npo"
+    };
+
+    private final DatabaseHelper dbHelper;
+    private final File journal;
+    private final ScheduledExecutorService executor;
+    private volatile Thread writerThread;
+
+    // Until the journal is read, an empty queue may still have taps to write
+    private volatile boolean replayPending;
+
+    // Latest unwritten value per patient and column; the overlay reads it without locking
+    private final ConcurrentMap<Long, Boolean> pending = new ConcurrentHashMap<>();
+
+    // Guarded by this: taps not yet in the journal, as key * 2 + value, and whether a flush is due
+    private final List<Long> unjournaled = new ArrayList<>();
+    private boolean flushScheduled;
+
+    /**
+     * @param journal file the taps are appended to until written, or null to keep them in memory only
+     */
+    public MealStatusQueue(DatabaseHelper dbHelper, File journal) {
+        this.dbHelper = dbHelper;
+        this.journal = journal;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "meal-status");
+            thread.setDaemon(true);
+            writerThread = thread;
+            return thread;
+        });
+
+        // Taps a killed process never wrote
+        if (journal != null) {
+            replayPending = true;
+            executor.execute(this::replayJournal);
+        }
+    }
+
+    // Queue a meal's complete flag; false for an unknown meal
+    public boolean setMealComplete(long patientId, String mealType, boolean complete) {
+        return enqueue(patientId, column(mealType, false), complete);
+    }
+
+    // Queue a meal's NPO flag; false for an unknown meal
+    public boolean setMealNPO(long patientId, String mealType, boolean npo) {
+        return enqueue(patientId, column(mealType, true), npo);
+    }
+
+    /**
+     * Start writing everything queued now, e.g. when the screen taking taps goes away
+     */
+    public void flush() {
+        executor.execute(this::flushPending);
+    }
+
+    /**
+     * Write everything queued and wait for it; for reads that filter on the flags, off the UI thread
+     * and outside any transaction. Returns the number of flags written
+     */
+    public int flushNow() {
+        if (pending.isEmpty() && !replayPending) {
+            return 0;
+        }
+        if (Thread.currentThread() == writerThread) {
+            return flushPending();
+        }
+        try {
+            return executor.submit(this::flushPending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            Log.e(TAG, "Error writing meal status", e.getCause());
+            return 0;
+        }
+    }
+
+    // Show queued taps on a row read from the database
+    public void applyPending(Patient patient) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long patientId = patient.getPatientId();
+        patient.setBreakfastComplete(pendingOr(patientId, 0, patient.isBreakfastComplete()));
+        patient.setBreakfastNPO(pendingOr(patientId, 1, patient.isBreakfastNPO()));
+        patient.setLunchComplete(pendingOr(patientId, 2, patient.isLunchComplete()));
+        patient.setLunchNPO(pendingOr(patientId, 3, patient.isLunchNPO()));
+        patient.setDinnerComplete(pendingOr(patientId, 4, patient.isDinnerComplete()));
+        patient.setDinnerNPO(pendingOr(patientId, 5, patient.isDinnerNPO()));
+    }
+
+    public void applyPending(PatientSummary summary) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        long patientId = summary.getPatientId();
+        summary.setBreakfastComplete(pendingOr(patientId, 0, summary.isBreakfastComplete()));
+        summary.setBreakfastNPO(pendingOr(patientId, 1, summary.isBreakfastNPO()));
+        summary.setLunchComplete(pendingOr(patientId, 2, summary.isLunchComplete()));
+        summary.setLunchNPO(pendingOr(patientId, 3, summary.isLunchNPO()));
+        summary.setDinnerComplete(pendingOr(patientId, 4, summary.isDinnerComplete()));
+        summary.setDinnerNPO(pendingOr(patientId, 5, summary.isDinnerNPO()));
+    }
+
+    private boolean pendingOr(long patientId, int column, boolean stored) {
+        Boolean value = pending.get(key(patientId, column));
+        return value != null ? value : stored;
+    }
+
+    private static long key(long patientId, int column) {
+        return patientId * COLUMNS.length + column;
+    }
+
+    private static int column(String mealType, boolean npo) {
+        if (mealType == null) {
+            return -1;
+        }
+        switch (mealType.toLowerCase()) {
+            case "breakfast":
+                return npo ? 1 : 0;
+            case "lunch":
+                return npo ? 3 : 2;
+            case "dinner":
+                return npo ? 5 : 4;
+            default:
+                return -1;
+        }
+    }
+
+    private boolean enqueue(long patientId, int column, boolean value) {
+        if (column < 0) {
+            return false;
+        }
+
+        long key = key(patientId, column);
+        synchronized (this) {
+            pending.put(key, value);
+            unjournaled.add(key * 2 + (value ? 1 : 0));
+            if (!flushScheduled) {
+                flushScheduled = true;
+                executor.schedule(this::flushPending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        // One append usually picks up a whole burst of taps
+        executor.execute(() -> appendJournal(drainUnjournaled()));
+
+        // Reads already show the tap, so lists refresh now rather than at the flush
+        dbHelper.getPatientDAO().notifyChanged(patientId, Collections.singletonList(COLUMNS[column]));
+        return true;
+    }
+
+    private synchronized List<Long> drainUnjournaled() {
+        List<Long> taps = new ArrayList<>(unjournaled);
+        unjournaled.clear();
+        return taps;
+    }
+
+    // Runs on the writer thread only, so journal appends and truncation never interleave
+    private int flushPending() {
+        List<Long> taps;
+        Map<Long, Boolean> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            taps = drainUnjournaled();
+            // In key order, so each patient's flags are written together
+            batch = new TreeMap<>(pending);
+        }
+        if (batch.isEmpty()) {
+            clearJournal();
+            return 0;
+        }
+
+        // Journal first, so a kill during the transaction still has every tap
+        appendJournal(taps);
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement[] updates = new SQLiteStatement[COLUMNS.length];
+        Map<Long, List<String>> writtenColumns = new LinkedHashMap<>();
+
+        db.beginTransaction();
+        try {
+            long lastPatientId = -1;
+            for (Map.Entry<Long, Boolean> entry : batch.entrySet()) {
+                long patientId = entry.getKey() / COLUMNS.length;
+                int column = (int) (entry.getKey() % COLUMNS.length);
+
+                if (updates[column] == null) {
+                    updates[column] = db.compileStatement(
+                            "UPDATE patient_info SET " + COLUMNS[column] + " = ? WHERE patient_id = ?");
+                }
+                updates[column].bindLong(1, entry.getValue() ? 1 : 0);
+                updates[column].bindLong(2, patientId);
+                updates[column].executeUpdateDelete();
+
+                if (patientId != lastPatientId) {
+                    writtenColumns.put(patientId, new ArrayList<>());
+                    lastPatientId = patientId;
+                }
+                writtenColumns.get(patientId).add(COLUMNS[column]);
+            }
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            // Kept queued and journaled; the next tap or flush tries again
+            Log.e(TAG, "Error writing meal status: " + e.getMessage());
+            return 0;
+        } finally {
+            db.endTransaction();
+            for (SQLiteStatement update : updates) {
+                if (update != null) {
+                    update.close();
+                }
+            }
+        }
+
+        // A value tapped again since the batch was taken stays queued
+        for (Map.Entry<Long, Boolean> entry : batch.entrySet()) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+
+        // Everything journaled so far is now written or superseded by the batch
+        clearJournal();
+
+        PatientDAO patientDAO = dbHelper.getPatientDAO();
+        for (Map.Entry<Long, List<String>> written : writtenColumns.entrySet()) {
+            patientDAO.notifyChanged(written.getKey(), written.getValue());
+        }
+
+        Log.d(TAG, "Wrote " + batch.size() + " meal flags for " + writtenColumns.size() + " patients");
+        return batch.size();
+    }
+
+    // One line per tap: patient id, column, value
+    private void appendJournal(List<Long> taps) {
+        if (journal == null || taps.isEmpty()) {
+            return;
+        }
+
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(journal, true), StandardCharsets.UTF_8)) {
+            for (long tap : taps) {
+                long key = tap / 2;
+                out.write(key / COLUMNS.length + " " + key % COLUMNS.length + " " + tap % 2 + "\n");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing meal status journal: " + e.getMessage());
+        }
+    }
+
+    private void clearJournal() {
+        if (journal != null && journal.exists() && !journal.delete()) {
+            Log.w(TAG, "Could not clear " + journal);
+        }
+    }
+
+    private void replayJournal() {
+        try {
+            readJournal();
+        } finally {
+            replayPending = false;
+        }
+    }
+
+    private void readJournal() {
+        if (!journal.exists()) {
+            return;
+        }
+
+        // Later lines win; anything tapped since this start is newer still
+        Map<Long, Boolean> replayed = new TreeMap<>();
+        try (BufferedReader in = new BufferedReader(
+                new InputStreamReader(new FileInputStream(journal), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] fields = line.split(" ");
+                // The last line may be cut short by the kill
+                if (fields.length != 3) {
+                    continue;
+                }
+                try {
+                    int column = Integer.parseInt(fields[1]);
+                    if (column >= 0 && column < COLUMNS.length) {
+                        replayed.put(key(Long.parseLong(fields[0]), column), "1".equals(fields[2]));
+                    }
+                } catch (NumberFormatException e) {
+                    Log.w(TAG, "Skipping journal line: " + line);
+                }
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading meal status journal: " + e.getMessage());
+            return;
+        }
+
+        synchronized (this) {
+            for (Map.Entry<Long, Boolean> entry : replayed.entrySet()) {
+                pending.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Log.d(TAG, "Replaying " + replayed.size() + " meal flags from the journal");
+        flushPending();
+    }
+}
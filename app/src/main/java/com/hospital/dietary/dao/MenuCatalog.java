@@ -0,0 +1,258 @@
+package com.hospital.dietary.dao;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import com.hospital.dietary.models.DefaultMenuItem;
+import com.hospital.dietary.models.Item;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MenuCatalog class - an immutable snapshot of items and default menus
+ * Built in one pass by DatabaseHelper and replaced whole when a catalog DAO writes.
+ * Readers never lock; every Item or DefaultMenuItem handed out is a copy
+ */
+public final class MenuCatalog {
+
+    static final String QUERY_ALL_DEFAULT_MENUS = "SELECT menu_id, diet_type, meal_type, day_of_week, " +
+            "item_category, item_name, is_active FROM default_menu";
+
+    // Invalidation counter this snapshot was loaded under
+    private final int version;
+
+    private final List<Item> allItems;
+    private final Map<Integer, Item> itemsById;
+    private final Map<String, Integer> itemIdsByName;
+    private final Map<String, List<Item>> itemsByCategory;
+    private final Map<String, List<Item>> adaItemsByCategory;
+    private final List<Item> adaItems;
+    private final List<String> categories;
+    private final Map<String, List<DefaultMenuItem>> defaultMenus;
+    private final Map<String, List<String>> defaultMenuDiets;
+
+    private MenuCatalog(int version, List<Item> allItems, List<DefaultMenuItem> menuItems) {
+        this.version = version;
+        this.allItems = Collections.unmodifiableList(allItems);
+
+        Map<Integer, Item> byId = new HashMap<>();
+        Map<String, Integer> idsByName = new HashMap<>();
+        Map<String, List<Item>> byCategory = new LinkedHashMap<>();
+        Map<String, List<Item>> adaByCategory = new LinkedHashMap<>();
+        List<Item> ada = new ArrayList<>();
+
+        // allItems is ordered by category then name, so every bucket keeps that order
+        for (Item item : allItems) {
+            byId.put(item.getItemId(), item);
+            // A name listed under two categories resolves to the first
+            if (item.getItemName() != null && !idsByName.containsKey(item.getItemName())) {
+                idsByName.put(item.getItemName(), item.getItemId());
+            }
+            bucket(byCategory, item.getCategory()).add(item);
+            if (item.isAdaFriendly()) {
+                ada.add(item);
+                bucket(adaByCategory, item.getCategory()).add(item);
+            }
+        }
+
+        Map<String, List<DefaultMenuItem>> menus = new HashMap<>();
+        Map<String, List<String>> diets = new HashMap<>();
+        for (DefaultMenuItem menuItem : menuItems) {
+            String key = menuKey(menuItem.getDietType(), menuItem.getMealType(), menuItem.getDayOfWeek());
+            List<DefaultMenuItem> list = menus.get(key);
+            if (list == null) {
+                list = new ArrayList<>();
+                menus.put(key, list);
+
+                // First item of a diet's menu for this meal and day
+                String mealDay = menuKey(null, menuItem.getMealType(), menuItem.getDayOfWeek());
+                List<String> mealDiets = diets.get(mealDay);
+                if (mealDiets == null) {
+                    mealDiets = new ArrayList<>();
+                    diets.put(mealDay, mealDiets);
+                }
+                mealDiets.add(menuItem.getDietType());
+            }
+            list.add(menuItem);
+        }
+
+        this.itemsById = byId;
+        this.itemIdsByName = idsByName;
+        this.itemsByCategory = byCategory;
+        this.adaItemsByCategory = adaByCategory;
+        this.adaItems = Collections.unmodifiableList(ada);
+        this.categories = Collections.unmodifiableList(new ArrayList<>(byCategory.keySet()));
+        this.defaultMenus = menus;
+        this.defaultMenuDiets = diets;
+    }
+
+    /**
+     * Read the whole catalog; called by DatabaseHelper when no current snapshot exists
+     */
+    public static MenuCatalog load(SQLiteDatabase db, int version) {
+        List<Item> items = new ArrayList<>();
+        Cursor cursor = db.rawQuery(ItemDAO.QUERY_ALL_ITEMS, null);
+        while (cursor.moveToNext()) {
+            items.add(ItemDAO.cursorToItem(cursor));
+        }
+        cursor.close();
+
+        List<DefaultMenuItem> menuItems = new ArrayList<>();
+        cursor = db.rawQuery(QUERY_ALL_DEFAULT_MENUS, null);
+        while (cursor.moveToNext()) {
+            DefaultMenuItem menuItem = new DefaultMenuItem();
+            menuItem.setId(cursor.getInt(0));
+            menuItem.setDietType(cursor.getString(1));
+            menuItem.setMealType(cursor.getString(2));
+            menuItem.setDayOfWeek(cursor.getString(3));
+            menuItem.setCategory(cursor.getString(4));
+            menuItem.setItemName(cursor.getString(5));
+            menuItem.setActive(cursor.getInt(6) == 1);
+            menuItems.add(menuItem);
+        }
+        cursor.close();
+
+        return new MenuCatalog(version, items, menuItems);
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Item getItem(int itemId) {
+        Item item = itemsById.get(itemId);
+        return item != null ? copyOf(item) : null;
+    }
+
+    /**
+     * Id of the item with exactly this name, or 0 when the catalog has none
+     */
+    public int getItemId(String itemName) {
+        Integer itemId = itemIdsByName.get(itemName);
+        return itemId != null ? itemId : 0;
+    }
+
+    public List<Item> getAllItems() {
+        return copyOf(allItems);
+    }
+
+    public List<Item> getItemsByCategory(String category) {
+        return copyOf(itemsByCategory.get(category));
+    }
+
+    public List<Item> getAdaItems() {
+        return copyOf(adaItems);
+    }
+
+    public List<Item> getAdaItemsByCategory(String category) {
+        return copyOf(adaItemsByCategory.get(category));
+    }
+
+    // Sorted, as the categories come from the sorted item list
+    public List<String> getCategories() {
+        return categories;
+    }
+
+    public int getItemCount() {
+        return allItems.size();
+    }
+
+    public int getItemCount(String category) {
+        List<Item> items = itemsByCategory.get(category);
+        return items != null ? items.size() : 0;
+    }
+
+    /**
+     * Case-insensitive name or category match, in category / name order
+     */
+    public List<Item> searchItems(String searchTerm) {
+        String term = searchTerm.toLowerCase();
+        List<Item> matches = new ArrayList<>();
+        for (Item item : allItems) {
+            if (contains(item.getItemName(), term) || contains(item.getCategory(), term)) {
+                matches.add(copyOf(item));
+            }
+        }
+        return matches;
+    }
+
+    public boolean itemExists(String name, String category) {
+        for (Item item : allItems) {
+            if (name.equalsIgnoreCase(item.getItemName()) && category.equalsIgnoreCase(item.getCategory())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public List<DefaultMenuItem> getDefaultMenuItems(String dietType, String mealType, String dayOfWeek) {
+        List<DefaultMenuItem> copies = new ArrayList<>();
+        List<DefaultMenuItem> menuItems = defaultMenus.get(menuKey(dietType, mealType, dayOfWeek));
+        if (menuItems != null) {
+            for (DefaultMenuItem menuItem : menuItems) {
+                copies.add(copyOf(menuItem));
+            }
+        }
+        return copies;
+    }
+
+    /**
+     * Diets with a default menu for this meal and day, in the order they were first saved
+     */
+    public List<String> getDefaultMenuDiets(String mealType, String dayOfWeek) {
+        List<String> diets = defaultMenuDiets.get(menuKey(null, mealType, dayOfWeek));
+        return diets != null ? Collections.unmodifiableList(diets) : Collections.<String>emptyList();
+    }
+
+    private static List<Item> bucket(Map<String, List<Item>> map, String key) {
+        List<Item> list = map.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            map.put(key, list);
+        }
+        return list;
+    }
+
+    private static String menuKey(String dietType, String mealType, String dayOfWeek) {
+        return dietType + '\u0000' + mealType + '\u0000' + dayOfWeek;
+    }
+
+    private static boolean contains(String value, String lowerCaseTerm) {
+        return value != null && value.toLowerCase().contains(lowerCaseTerm);
+    }
+
+    private static List<Item> copyOf(List<Item> items) {
+        List<Item> copies = new ArrayList<>();
+        if (items != null) {
+            for (Item item : items) {
+                copies.add(copyOf(item));
+            }
+        }
+        return copies;
+    }
+
+    private static Item copyOf(Item item) {
+        Item copy = new Item();
+        copy.setItemId(item.getItemId());
+        copy.setItemName(item.getItemName());
+        copy.setCategory(item.getCategory());
+        copy.setDescription(item.getDescription());
+        copy.setIsAdaFriendly(item.getIsAdaFriendly());
+        return copy;
+    }
+
+    private static DefaultMenuItem copyOf(DefaultMenuItem menuItem) {
+        DefaultMenuItem copy = new DefaultMenuItem();
+        copy.setId(menuItem.getId());
+        copy.setDietType(menuItem.getDietType());
+        copy.setMealType(menuItem.getMealType());
+        copy.setDayOfWeek(menuItem.getDayOfWeek());
+        copy.setCategory(menuItem.getCategory());
+        copy.setItemName(menuItem.getItemName());
+        copy.setActive(menuItem.isActive());
+        return copy;
+    }
+}
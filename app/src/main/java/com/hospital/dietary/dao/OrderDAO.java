@@ -17,6 +17,42 @@ import java.util.Locale;
  */
 public class OrderDAO {
 
+    // order_date holds "yyyy-MM-dd HH:mm:ss" text, so a day is a range on the
+    // raw column; date(order_date) = ? would rule out idx_meal_orders_date
+    static final String QUERY_ORDERS_BY_PATIENT = "SELECT * FROM meal_orders WHERE patient_id = ? " +
+            "ORDER BY order_date DESC, timestamp DESC";
+
+    // Location comes from the patient; meal_orders has no wing or room of its own
+    static final String QUERY_ORDERS_BY_DATE = "SELECT o.*, " +
+            "p.patient_first_name || ' ' || p.patient_last_name as patient_name, p.wing, p.room_number " +
+            "FROM meal_orders o " +
+            "LEFT JOIN patient_info p ON o.patient_id = p.patient_id " +
+            "WHERE o.order_date >= ? AND o.order_date < date(?, '+1 day') " +
+            "ORDER BY p.wing, p.room_sort";
+
+    static final String QUERY_DAILY_REPORT = "SELECT o.*, p.patient_first_name || ' ' || p.patient_last_name as name " +
+            "FROM meal_orders o " +
+            "JOIN patient_info p ON o.patient_id = p.patient_id " +
+            "WHERE o.order_date >= ? AND o.order_date < date(?, '+1 day') " +
+            "ORDER BY p.wing, p.room_sort";
+
+    static final String QUERY_PATIENT_ORDER_BOARD = "SELECT p.patient_id, " +
+            "p.patient_first_name || ' ' || p.patient_last_name as name, " +
+            "p.room_number, p.wing, p.diet, " +
+            "t.timestamp, " +
+            "p.fluid_restriction, p.texture_modifications, " +
+            "mi.meal, mi.item_name " +
+            "FROM patient_info p " +
+            "LEFT JOIN (SELECT patient_id, MAX(timestamp) as timestamp " +
+            "FROM meal_orders WHERE order_date >= ? AND order_date < date(?, '+1 day') " +
+            "GROUP BY patient_id) t ON t.patient_id = p.patient_id " +
+            "LEFT JOIN (SELECT mo.patient_id, mo.meal, i.name as item_name " +
+            "FROM meal_orders mo " +
+            "JOIN order_items oi ON mo.order_id = oi.order_id " +
+            "JOIN items i ON oi.item_id = i.item_id " +
+            "WHERE mo.order_date >= ? AND mo.order_date < date(?, '+1 day')) mi ON mi.patient_id = p.patient_id " +
+            "ORDER BY p.wing, p.room_sort, p.patient_id, mi.meal, mi.item_name";
+
     private DatabaseHelper dbHelper;
     private SimpleDateFormat dateFormat;
 
@@ -46,7 +82,11 @@ public class OrderDAO {
         values.put("items", order.getItems());
         values.put("special_instructions", order.getSpecialInstructions());
 
-        return db.insert("meal_orders", null, values);
+        long id = db.insert("meal_orders", null, values);
+        if (id > 0) {
+            dbHelper.getChangeBus().publish("meal_orders", id, null);
+        }
+        return id;
     }
 
     /**
@@ -67,8 +107,12 @@ public class OrderDAO {
         values.put("items", order.getItems());
         values.put("special_instructions", order.getSpecialInstructions());
 
-        return db.update("meal_orders", values, "order_id = ?",
+        int rows = db.update("meal_orders", values, "order_id = ?",
                 new String[]{String.valueOf(order.getOrderId())});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publish("meal_orders", order.getOrderId(), values.keySet());
+        }
+        return rows;
     }
 
     /**
@@ -76,8 +120,12 @@ public class OrderDAO {
      */
     public int deleteOrder(int orderId) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
-        return db.delete("meal_orders", "order_id = ?",
+        int rows = db.delete("meal_orders", "order_id = ?",
                 new String[]{String.valueOf(orderId)});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publish("meal_orders", orderId, null);
+        }
+        return rows;
     }
 
     /**
@@ -124,9 +172,7 @@ public class OrderDAO {
         List<Order> orders = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM meal_orders WHERE date(order_date) = ? " +
-                "ORDER BY wing, CAST(room_number AS INTEGER)";
-        Cursor cursor = db.rawQuery(query, new String[]{date});
+        Cursor cursor = db.rawQuery(QUERY_ORDERS_BY_DATE, new String[]{date, date});
 
         if (cursor != null && cursor.moveToFirst()) {
             do {
@@ -145,9 +191,7 @@ public class OrderDAO {
         List<Order> orders = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM meal_orders WHERE patient_id = ? " +
-                "ORDER BY order_date DESC, timestamp DESC";
-        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(patientId)});
+        Cursor cursor = db.rawQuery(QUERY_ORDERS_BY_PATIENT, new String[]{String.valueOf(patientId)});
 
         if (cursor != null && cursor.moveToFirst()) {
             do {
@@ -213,8 +257,12 @@ public class OrderDAO {
             values.put("completed_date", dateFormat.format(new Date()));
         }
 
-        return db.update("meal_orders", values, "order_id = ?",
+        int rows = db.update("meal_orders", values, "order_id = ?",
                 new String[]{String.valueOf(orderId)});
+        if (rows > 0) {
+            dbHelper.getChangeBus().publish("meal_orders", orderId, values.keySet());
+        }
+        return rows;
     }
 
     /**
@@ -224,13 +272,7 @@ public class OrderDAO {
         List<Order> orders = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT o.*, p.patient_first_name || ' ' || p.patient_last_name as name " +
-                "FROM meal_orders o " +
-                "JOIN patient_info p ON o.patient_id = p.patient_id " +
-                "WHERE date(o.order_date) = ? " +
-                "ORDER BY p.wing, CAST(p.room_number AS INTEGER)";
-
-        Cursor cursor = db.rawQuery(query, new String[]{date});
+        Cursor cursor = db.rawQuery(QUERY_DAILY_REPORT, new String[]{date, date});
 
         if (cursor != null && cursor.moveToFirst()) {
             do {
@@ -254,23 +296,14 @@ public class OrderDAO {
 
     /**
      * Get PatientOrders for display
+     * Patients and their meal items come back in one joined query, ordered so
+     * each patient's rows are contiguous and can be folded in a single pass
      */
     public List<PatientOrder> getPatientOrdersByDate(String date) {
         List<PatientOrder> orders = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT p.patient_id, " +
-                "p.patient_first_name || ' ' || p.patient_last_name as name, " +
-                "p.room_number, p.wing, p.diet, " +
-                "MAX(mo.timestamp) as timestamp, " +
-                "p.fluid_restriction, p.texture_modifications " +
-                "FROM patient_info p " +
-                "LEFT JOIN meal_orders mo ON p.patient_id = mo.patient_id " +
-                "AND date(mo.order_date) = ? " +
-                "GROUP BY p.patient_id " +
-                "ORDER BY p.wing, CAST(p.room_number AS INTEGER)";
-
-        Cursor cursor = db.rawQuery(query, new String[]{date});
+        Cursor cursor = db.rawQuery(QUERY_PATIENT_ORDER_BOARD, new String[]{date, date, date, date});
 
         int idxPatientId = cursor.getColumnIndex("patient_id");
         int idxName = cursor.getColumnIndex("name");
@@ -280,66 +313,90 @@ public class OrderDAO {
         int idxTimestamp = cursor.getColumnIndex("timestamp");
         int idxFluidRestriction = cursor.getColumnIndex("fluid_restriction");
         int idxTextureModifications = cursor.getColumnIndex("texture_modifications");
+        int idxMeal = cursor.getColumnIndex("meal");
+        int idxItemName = cursor.getColumnIndex("item_name");
+
+        PatientOrder order = null;
+        long currentPatientId = -1;
+        String currentMeal = null;
+        StringBuilder mealItems = new StringBuilder();
 
         while (cursor.moveToNext()) {
-            PatientOrder order = new PatientOrder();
-            if (idxPatientId != -1) order.setPatientId(cursor.getInt(idxPatientId));
-            if (idxName != -1) order.setPatientName(cursor.getString(idxName));
-            if (idxRoom != -1) order.setRoom(cursor.getString(idxRoom));
-            if (idxWing != -1) order.setWing(cursor.getString(idxWing));
-            if (idxDiet != -1) order.setDiet(cursor.getString(idxDiet));
-            if (idxTimestamp != -1) order.setTimestamp(cursor.getString(idxTimestamp));
-
-            if (idxFluidRestriction != -1 && !cursor.isNull(idxFluidRestriction)) {
-                order.setFluidRestriction(cursor.getString(idxFluidRestriction));
+            long patientId = cursor.getLong(idxPatientId);
+
+            if (order == null || patientId != currentPatientId) {
+                if (order != null) {
+                    applyMealItems(order, currentMeal, mealItems);
+                }
+
+                order = new PatientOrder();
+                order.setPatientId((int) patientId);
+                if (idxName != -1) order.setPatientName(cursor.getString(idxName));
+                if (idxRoom != -1) order.setRoom(cursor.getString(idxRoom));
+                if (idxWing != -1) order.setWing(cursor.getString(idxWing));
+                if (idxDiet != -1) order.setDiet(cursor.getString(idxDiet));
+                if (idxTimestamp != -1) order.setTimestamp(cursor.getString(idxTimestamp));
+
+                if (idxFluidRestriction != -1 && !cursor.isNull(idxFluidRestriction)) {
+                    order.setFluidRestriction(cursor.getString(idxFluidRestriction));
+                }
+
+                if (idxTextureModifications != -1 && !cursor.isNull(idxTextureModifications)) {
+                    order.setTextureModifications(cursor.getString(idxTextureModifications));
+                }
+
+                orders.add(order);
+                currentPatientId = patientId;
+                currentMeal = null;
+                mealItems.setLength(0);
             }
 
-            if (idxTextureModifications != -1 && !cursor.isNull(idxTextureModifications)) {
-                order.setTextureModifications(cursor.getString(idxTextureModifications));
+            // Patients without any items for the date come back with a NULL meal
+            if (cursor.isNull(idxMeal)) {
+                continue;
             }
 
-            // Get meal items
-            loadMealItems(order, date);
+            String meal = cursor.getString(idxMeal);
+            if (!meal.equals(currentMeal)) {
+                applyMealItems(order, currentMeal, mealItems);
+                currentMeal = meal;
+                mealItems.setLength(0);
+            }
 
-            orders.add(order);
+            if (!cursor.isNull(idxItemName)) {
+                if (mealItems.length() > 0) {
+                    mealItems.append(", ");
+                }
+                mealItems.append(cursor.getString(idxItemName));
+            }
         }
         cursor.close();
 
+        if (order != null) {
+            applyMealItems(order, currentMeal, mealItems);
+        }
+
         return orders;
     }
 
     /**
-     * Load meal items for a patient order
+     * Store the accumulated item list for one meal on the patient order
      */
-    private void loadMealItems(PatientOrder order, String date) {
-        SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-        // Query to get meal items
-        String query = "SELECT meal, GROUP_CONCAT(item_name, ', ') as items " +
-                "FROM (SELECT mo.meal, i.name as item_name " +
-                "FROM meal_orders mo " +
-                "JOIN order_items oi ON mo.order_id = oi.order_id " +
-                "JOIN items i ON oi.item_id = i.item_id " +
-                "WHERE mo.patient_id = ? AND date(mo.order_date) = ? " +
-                "ORDER BY i.name) " +
-                "GROUP BY meal";
+    private void applyMealItems(PatientOrder order, String meal, StringBuilder mealItems) {
+        if (meal == null) {
+            return;
+        }
 
-        Cursor cursor = db.rawQuery(query, new String[]{
-                String.valueOf(order.getPatientId()), date});
+        // Match GROUP_CONCAT, which yields NULL when every item name is NULL
+        String items = mealItems.length() > 0 ? mealItems.toString() : null;
 
-        while (cursor.moveToNext()) {
-            String meal = cursor.getString(0);
-            String items = cursor.getString(1);
-
-            if ("Breakfast".equals(meal)) {
-                order.setBreakfastItems(items);
-            } else if ("Lunch".equals(meal)) {
-                order.setLunchItems(items);
-            } else if ("Dinner".equals(meal)) {
-                order.setDinnerItems(items);
-            }
+        if ("Breakfast".equals(meal)) {
+            order.setBreakfastItems(items);
+        } else if ("Lunch".equals(meal)) {
+            order.setLunchItems(items);
+        } else if ("Dinner".equals(meal)) {
+            order.setDinnerItems(items);
         }
-        cursor.close();
     }
 
     /**
@@ -0,0 +1,179 @@
+package com.hospital.dietary.dao;
+
+import com.hospital.dietary.models.PatientSummary;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PatientCensusPager class - the active census loaded one keyset page at a time
+ * Each page covers the keys after the previous page's last row up to its own last row,
+ * so a patient write only reloads the page the patient left and the page they landed in.
+ * Writes to columns a list row does not show reload nothing.
+ * Page state is only touched from the AsyncDAO thread; screens get flattened copies
+ */
+public class PatientCensusPager implements ChangeBus.Listener {
+
+    public static final int PAGE_SIZE = 50;
+
+    private static class Page {
+        List<PatientSummary> rows;
+        boolean stale;
+
+        Page(List<PatientSummary> rows) {
+            this.rows = rows;
+        }
+
+        PatientSummary last() {
+            return rows.get(rows.size() - 1);
+        }
+    }
+
+    private final int pageSize;
+    private final List<Page> pages = new ArrayList<>();
+    private volatile boolean complete;
+
+    // Written by whichever thread made the change, drained by refresh
+    private final Set<Long> changedIds = new HashSet<>();
+    private boolean changedAll;
+
+    public PatientCensusPager() {
+        this(PAGE_SIZE);
+    }
+
+    public PatientCensusPager(int pageSize) {
+        this.pageSize = pageSize;
+    }
+
+    // Subscribe to patient_info on the DatabaseHelper's ChangeBus
+    @Override
+    public void onChange(ChangeBus.Change change) {
+        if (change.touches(PatientDAO.SUMMARY_COLUMN_NAMES)) {
+            onPatientChanged(change.getRowId());
+        }
+    }
+
+    // Mark a patient, or ALL_PATIENTS, for the next refresh
+    public synchronized void onPatientChanged(long patientId) {
+        if (patientId == PatientDAO.ALL_PATIENTS) {
+            changedAll = true;
+        } else {
+            changedIds.add(patientId);
+        }
+    }
+
+    // False once the last page has been read
+    public boolean hasMore() {
+        return !complete;
+    }
+
+    /**
+     * Read the page after the last loaded row, then return everything loaded so far
+     */
+    public List<PatientSummary> loadNextPage(PatientDAO patientDAO) {
+        if (!complete) {
+            PatientSummary after = pages.isEmpty() ? null : pages.get(pages.size() - 1).last();
+            List<PatientSummary> rows = patientDAO.getCensusPage(after, pageSize);
+            if (!rows.isEmpty()) {
+                pages.add(new Page(rows));
+            }
+            complete = rows.size() < pageSize;
+        }
+        return snapshot();
+    }
+
+    /**
+     * Reload only the pages touched by writes since the last call, then return everything loaded
+     */
+    public List<PatientSummary> refresh(PatientDAO patientDAO) {
+        Set<Long> ids;
+        boolean all;
+        synchronized (this) {
+            ids = new HashSet<>(changedIds);
+            all = changedAll;
+            changedIds.clear();
+            changedAll = false;
+        }
+
+        if (pages.isEmpty()) {
+            return loadNextPage(patientDAO);
+        }
+
+        for (Page page : pages) {
+            page.stale |= all;
+        }
+        if (!all) {
+            for (long patientId : ids) {
+                markStale(patientDAO, patientId);
+            }
+        }
+
+        PatientSummary after = null;
+        for (int i = 0; i < pages.size(); ) {
+            Page page = pages.get(i);
+            boolean lastPage = i == pages.size() - 1;
+            if (page.stale) {
+                page.stale = false;
+                // Once complete, the last page also takes rows added after its old end
+                page.rows = lastPage && complete ?
+                        patientDAO.getCensusPage(after, -1) :
+                        patientDAO.getCensusRange(after, page.last());
+            }
+            if (page.rows.isEmpty()) {
+                pages.remove(i);
+                continue;
+            }
+            after = page.last();
+            i++;
+        }
+        return snapshot();
+    }
+
+    // Mark the page the patient was on and the page their current key falls in
+    private void markStale(PatientDAO patientDAO, long patientId) {
+        for (Page page : pages) {
+            for (PatientSummary row : page.rows) {
+                if (row.getPatientId() == patientId) {
+                    page.stale = true;
+                    break;
+                }
+            }
+        }
+
+        PatientSummary key = patientDAO.getCensusKey(patientId);
+        if (key == null) {
+            return;
+        }
+        for (Page page : pages) {
+            if (compare(key, page.last()) <= 0) {
+                page.stale = true;
+                return;
+            }
+        }
+        // Past the loaded pages: only the open-ended last page can hold it
+        if (complete) {
+            pages.get(pages.size() - 1).stale = true;
+        }
+    }
+
+    private List<PatientSummary> snapshot() {
+        List<PatientSummary> rows = new ArrayList<>();
+        for (Page page : pages) {
+            rows.addAll(page.rows);
+        }
+        return rows;
+    }
+
+    // Same order as the census queries: wing, room_sort, patient_id, with no wing as ''
+    static int compare(PatientSummary a, PatientSummary b) {
+        int result = PatientDAO.censusWing(a).compareTo(PatientDAO.censusWing(b));
+        if (result == 0) {
+            result = Long.compare(a.getRoomSort(), b.getRoomSort());
+        }
+        if (result == 0) {
+            result = Long.compare(a.getPatientId(), b.getPatientId());
+        }
+        return result;
+    }
+}
@@ -2,24 +2,136 @@ package com.hospital.dietary.dao;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
 import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.DefaultMenuItem;
 import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 public class PatientDAO {
     private static final String TAG = "PatientDAO";
+
+    // List queries, kept together so DatabaseIndexTest can check their plans
+    static final String QUERY_ALL_PATIENTS = "SELECT * FROM patient_info " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_ACTIVE_PATIENTS = "SELECT * FROM patient_info WHERE discharged = 0 " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_DISCHARGED_PATIENTS = "SELECT * FROM patient_info WHERE discharged = 1 " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_PENDING_PATIENTS = "SELECT * FROM patient_info WHERE discharged = 0 AND " +
+            "(breakfast_complete = 0 OR lunch_complete = 0 OR dinner_complete = 0) " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_COMPLETED_PATIENTS = "SELECT * FROM patient_info WHERE discharged = 0 AND " +
+            "breakfast_complete = 1 AND lunch_complete = 1 AND dinner_complete = 1 " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_RETIRED_PATIENTS = "SELECT * FROM patient_info WHERE " +
+            "discharged = 1 OR created_date < ? " +
+            "ORDER BY wing, room_sort";
+    // Matches come from the full-text index and are sorted after the lookup
+    static final String QUERY_SEARCH_PATIENTS = "SELECT patient_info.* FROM " + PatientSearchIndex.SEARCH_JOIN +
+            " ORDER BY wing, room_sort";
+    static final String QUERY_PATIENTS_BY_WING = "SELECT * FROM patient_info WHERE wing = ? " +
+            "ORDER BY room_sort";
+    static final String QUERY_ROOM_OCCUPIED = "SELECT COUNT(*) FROM patient_info WHERE " +
+            "discharged = 0 AND wing = ? AND room_number = ?";
+
+    // Columns a list row needs; cursorToSummary reads them by position
+    static final String SUMMARY_COLUMNS = "patient_id, patient_first_name, patient_last_name, " +
+            "wing, room_number, diet, ada_diet, " +
+            "breakfast_complete, lunch_complete, dinner_complete, " +
+            "breakfast_npo, lunch_npo, dinner_npo, " +
+            "discharged, created_date, room_sort";
+
+    static final String QUERY_ACTIVE_SUMMARIES = "SELECT " + SUMMARY_COLUMNS +
+            " FROM patient_info WHERE discharged = 0 " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_SEARCH_SUMMARIES = "SELECT " + SUMMARY_COLUMNS +
+            " FROM " + PatientSearchIndex.SEARCH_JOIN + " WHERE discharged = 0 " +
+            "ORDER BY wing, room_sort, patient_id";
+    static final String QUERY_PENDING_SUMMARIES = "SELECT " + SUMMARY_COLUMNS +
+            " FROM patient_info WHERE discharged = 0 AND " +
+            "(breakfast_complete = 0 OR lunch_complete = 0 OR dinner_complete = 0) " +
+            "ORDER BY wing, room_sort";
+    static final String QUERY_COMPLETED_SUMMARIES = "SELECT " + SUMMARY_COLUMNS +
+            " FROM patient_info WHERE discharged = 0 AND " +
+            "breakfast_complete = 1 AND lunch_complete = 1 AND dinner_complete = 1 " +
+            "ORDER BY wing, room_sort";
+
+    // Census pages are keyed on (wing, room_sort, patient_id); ?1-?3 is the exclusive lower key.
+    // DatabaseHelper's triggers keep wing and room_sort non-NULL, so every active row has a key.
+    // Row values need SQLite 3.15, so the key comparison is spelled out for API 21
+    private static final String AFTER_KEY = "wing >= ?1 AND (wing > ?1 OR room_sort > ?2 OR " +
+            "(room_sort = ?2 AND patient_id > ?3))";
+    static final String QUERY_CENSUS_PAGE = "SELECT " + SUMMARY_COLUMNS +
+            " FROM patient_info WHERE discharged = 0 AND " + AFTER_KEY +
+            " ORDER BY wing, room_sort, patient_id LIMIT ?4";
+    // ?4-?6 is the inclusive upper key, so a reloaded page keeps its place in the census
+    static final String QUERY_CENSUS_RANGE = "SELECT " + SUMMARY_COLUMNS +
+            " FROM patient_info WHERE discharged = 0 AND " + AFTER_KEY +
+            " AND wing <= ?4 AND (wing < ?4 OR room_sort < ?5 OR (room_sort = ?5 AND patient_id <= ?6))" +
+            " ORDER BY wing, room_sort, patient_id";
+    static final String QUERY_CENSUS_KEY = "SELECT wing, room_sort, discharged " +
+            "FROM patient_info WHERE patient_id = ?";
+
+    // SUMMARY_COLUMNS by name, for telling whether a change notice affects list rows
+    public static final Set<String> SUMMARY_COLUMN_NAMES = Collections.unmodifiableSet(
+            new HashSet<>(Arrays.asList(SUMMARY_COLUMNS.split(", "))));
+
+    // Row id of a change notice for a bulk update
+    public static final long ALL_PATIENTS = ChangeBus.ALL_ROWS;
+
+    private static final Patient.Field[] FIELDS = Patient.Field.values();
+
+    // Compiled UPDATEs by the fields they write; a handful of screens make nearly every save
+    private static final int MAX_UPDATE_STATEMENTS = 16;
+
     private final DatabaseHelper dbHelper;
 
+    // Least recently used first; guarded by itself, since a statement holds one caller's bindings
+    private final Map<Long, SQLiteStatement> updateStatements =
+            new LinkedHashMap<Long, SQLiteStatement>(MAX_UPDATE_STATEMENTS, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, SQLiteStatement> eldest) {
+                    if (size() > MAX_UPDATE_STATEMENTS) {
+                        eldest.getValue().close();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+    private SQLiteDatabase updateDatabase;
+
     public PatientDAO(DatabaseHelper dbHelper) {
         this.dbHelper = dbHelper;
     }
 
+    // Every column of the patient, or of all patients, may have changed
+    void notifyChanged(long patientId) {
+        notifyChanged(patientId, null);
+    }
+
+    void notifyChanged(long patientId, Collection<String> columns) {
+        dbHelper.getChangeBus().publish("patient_info", patientId, columns);
+    }
+
     // Insert new patient
     public long insertPatient(Patient patient) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
@@ -32,16 +144,51 @@ public class PatientDAO {
 
         long id = db.insert("patient_info", null, values);
         patient.setPatientId(id);
+        if (id > 0) {
+            patient.markSaved();
+            notifyChanged(id);
+        }
         return id;
     }
 
     // Update patient - returns int (number of rows updated)
+    // Only fields changed since the patient was read or saved are written, so a one-flag save
+    // is a one-column UPDATE and never overwrites another screen's edit to a different field
     public int updatePatientInt(Patient patient) {
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-        ContentValues values = getContentValues(patient);
+        long fields = patient.getChangedFields();
+        if (patient.getCreatedAt() <= 0) {
+            fields &= ~(1L << Patient.Field.CREATED_DATE.ordinal());
+        }
 
-        return db.update("patient_info", values, "patient_id = ?",
-                new String[]{String.valueOf(patient.getPatientId())});
+        String patientId = String.valueOf(patient.getPatientId());
+        if (fields == 0) {
+            // Nothing to write; still report whether the row is there
+            return (int) DatabaseUtils.queryNumEntries(dbHelper.getReadableDatabase(),
+                    "patient_info", "patient_id = ?", new String[]{patientId});
+        }
+
+        int rows;
+        synchronized (updateStatements) {
+            SQLiteStatement update = updateStatement(fields);
+            int index = 1;
+            for (Patient.Field field : FIELDS) {
+                if ((fields & (1L << field.ordinal())) != 0) {
+                    DatabaseUtils.bindObjectToProgram(update, index++, fieldValue(patient, field));
+                }
+            }
+            update.bindString(index, patientId);
+            try {
+                rows = update.executeUpdateDelete();
+            } finally {
+                update.clearBindings();
+            }
+        }
+
+        if (rows > 0) {
+            patient.markSaved();
+            notifyChanged(patient.getPatientId(), columnNames(fields));
+        }
+        return rows;
     }
 
     // Update patient - returns boolean (for compatibility with existing code)
@@ -49,102 +196,242 @@ public class PatientDAO {
         return updatePatientInt(patient) > 0;
     }
 
-    // Helper method to create ContentValues from Patient
-    private ContentValues getContentValues(Patient patient) {
-        ContentValues values = new ContentValues();
-
-        // Basic information
-        values.put("patient_first_name", patient.getPatientFirstName());
-        values.put("patient_last_name", patient.getPatientLastName());
-        values.put("wing", patient.getWing());
-        values.put("room_number", patient.getRoomNumber());
-
-        // Diet information
-        values.put("diet_type", patient.getDietType());
-        values.put("diet", patient.getDiet());
-        values.put("ada_diet", patient.isAdaDiet() ? 1 : 0);
-
-        // Dietary information
-        values.put("fluid_restriction", patient.getFluidRestriction());
-        values.put("texture_modifications", patient.getTextureModifications());
-
-        // Texture modification flags
-        values.put("mechanical_chopped", patient.isMechanicalChopped() ? 1 : 0);
-        values.put("mechanical_ground", patient.isMechanicalGround() ? 1 : 0);
-        values.put("bite_size", patient.isBiteSize() ? 1 : 0);
-        values.put("bread_ok", patient.isBreadOK() ? 1 : 0);
-        values.put("extra_gravy", patient.isExtraGravy() ? 1 : 0);
-        values.put("meats_only", patient.isMeatsOnly() ? 1 : 0);
-
-        // Liquid thickness flags
-        values.put("nectar_thick", patient.isNectarThick() ? 1 : 0);
-        values.put("honey_thick", patient.isHoneyThick() ? 1 : 0);
-        values.put("pudding_thick", patient.isPuddingThick() ? 1 : 0);
-
-        // Meal completion status
-        values.put("breakfast_complete", patient.isBreakfastComplete() ? 1 : 0);
-        values.put("lunch_complete", patient.isLunchComplete() ? 1 : 0);
-        values.put("dinner_complete", patient.isDinnerComplete() ? 1 : 0);
-        values.put("breakfast_npo", patient.isBreakfastNPO() ? 1 : 0);
-        values.put("lunch_npo", patient.isLunchNPO() ? 1 : 0);
-        values.put("dinner_npo", patient.isDinnerNPO() ? 1 : 0);
+    // Update patient and rewrite their saved meal selections in one transaction,
+    // so the tray rows never disagree with the meal columns
+    public boolean updatePatientWithSelections(Patient patient) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            boolean success = updatePatient(patient);
+            if (success) {
+                dbHelper.getMealSelectionDAO().saveSelections(patient);
+                db.setTransactionSuccessful();
+            }
+            return success;
+        } finally {
+            db.endTransaction();
+        }
+    }
 
-        // Meal items
-        values.put("breakfast_items", patient.getBreakfastItems());
-        values.put("lunch_items", patient.getLunchItems());
-        values.put("dinner_items", patient.getDinnerItems());
+    // The compiled UPDATE for one set of fields; callers hold the updateStatements lock
+    private SQLiteStatement updateStatement(long fields) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        if (db != updateDatabase) {
+            // Statements belong to the connection that compiled them
+            closeUpdateStatements();
+            updateDatabase = db;
+        }
 
-        // Meal juices
-        values.put("breakfast_juices", patient.getBreakfastJuices());
-        values.put("lunch_juices", patient.getLunchJuices());
-        values.put("dinner_juices", patient.getDinnerJuices());
+        SQLiteStatement update = updateStatements.get(fields);
+        if (update == null) {
+            StringBuilder sql = new StringBuilder("UPDATE patient_info SET ");
+            String separator = "";
+            for (Patient.Field field : FIELDS) {
+                if ((fields & (1L << field.ordinal())) != 0) {
+                    sql.append(separator).append(columnName(field)).append(" = ?");
+                    separator = ", ";
+                }
+            }
+            sql.append(" WHERE patient_id = ?");
 
-        // Meal drinks
-        values.put("breakfast_drinks", patient.getBreakfastDrinks());
-        values.put("lunch_drinks", patient.getLunchDrinks());
-        values.put("dinner_drinks", patient.getDinnerDrinks());
+            update = db.compileStatement(sql.toString());
+            updateStatements.put(fields, update);
+        }
+        return update;
+    }
 
-        // Additional patient information
-        values.put("allergies", patient.getAllergies());
-        values.put("likes", patient.getLikes());
-        values.put("dislikes", patient.getDislikes());
-        values.put("comments", patient.getComments());
+    private void closeUpdateStatements() {
+        for (SQLiteStatement update : updateStatements.values()) {
+            update.close();
+        }
+        updateStatements.clear();
+    }
 
-        // Individual meal components
-        values.put("breakfast_main", patient.getBreakfastMain());
-        values.put("breakfast_side", patient.getBreakfastSide());
-        values.put("breakfast_drink", patient.getBreakfastDrink());
-        values.put("lunch_main", patient.getLunchMain());
-        values.put("lunch_side", patient.getLunchSide());
-        values.put("lunch_drink", patient.getLunchDrink());
-        values.put("dinner_main", patient.getDinnerMain());
-        values.put("dinner_side", patient.getDinnerSide());
-        values.put("dinner_drink", patient.getDinnerDrink());
+    // Helper method to create ContentValues from Patient
+    private ContentValues getContentValues(Patient patient) {
+        ContentValues values = new ContentValues();
+        for (Patient.Field field : FIELDS) {
+            if (field == Patient.Field.CREATED_DATE && patient.getCreatedAt() <= 0) {
+                continue;
+            }
 
-        // Individual meal diets
-        values.put("breakfast_diet", patient.getBreakfastDiet());
-        values.put("lunch_diet", patient.getLunchDiet());
-        values.put("dinner_diet", patient.getDinnerDiet());
-        values.put("breakfast_ada", patient.isBreakfastAda() ? 1 : 0);
-        values.put("lunch_ada", patient.isLunchAda() ? 1 : 0);
-        values.put("dinner_ada", patient.isDinnerAda() ? 1 : 0);
+            Object value = fieldValue(patient, field);
+            if (value instanceof Long) {
+                values.put(columnName(field), (Long) value);
+            } else {
+                values.put(columnName(field), (String) value);
+            }
+        }
+        return values;
+    }
 
-        // Discharge status
-        values.put("discharged", patient.isDischarged() ? 1 : 0);
+    // Field names are the patient_info column names upper-cased
+    private static String columnName(Patient.Field field) {
+        return field.name().toLowerCase(Locale.ROOT);
+    }
 
-        // Created date
-        if (patient.getCreatedAt() > 0) {
-            values.put("created_date", patient.getCreatedAt());
+    private static List<String> columnNames(long fields) {
+        List<String> columns = new ArrayList<>();
+        for (Patient.Field field : FIELDS) {
+            if ((fields & (1L << field.ordinal())) != 0) {
+                columns.add(columnName(field));
+            }
         }
+        return columns;
+    }
 
-        return values;
+    // The stored value of a field: a String, or a Long for flags and dates
+    private static Object fieldValue(Patient patient, Patient.Field field) {
+        switch (field) {
+            // Basic information
+            case PATIENT_FIRST_NAME:
+                return patient.getPatientFirstName();
+            case PATIENT_LAST_NAME:
+                return patient.getPatientLastName();
+            case WING:
+                return patient.getWing();
+            case ROOM_NUMBER:
+                return patient.getRoomNumber();
+
+            // Diet information
+            case DIET_TYPE:
+                return patient.getDietType();
+            case DIET:
+                return patient.getDiet();
+            case ADA_DIET:
+                return patient.isAdaDiet() ? 1L : 0L;
+
+            // Dietary information
+            case FLUID_RESTRICTION:
+                return patient.getFluidRestriction();
+            case TEXTURE_MODIFICATIONS:
+                return patient.getTextureModifications();
+
+            // Texture modification flags
+            case MECHANICAL_CHOPPED:
+                return patient.isMechanicalChopped() ? 1L : 0L;
+            case MECHANICAL_GROUND:
+                return patient.isMechanicalGround() ? 1L : 0L;
+            case BITE_SIZE:
+                return patient.isBiteSize() ? 1L : 0L;
+            case BREAD_OK:
+                return patient.isBreadOK() ? 1L : 0L;
+            case EXTRA_GRAVY:
+                return patient.isExtraGravy() ? 1L : 0L;
+            case MEATS_ONLY:
+                return patient.isMeatsOnly() ? 1L : 0L;
+
+            // Liquid thickness flags
+            case NECTAR_THICK:
+                return patient.isNectarThick() ? 1L : 0L;
+            case HONEY_THICK:
+                return patient.isHoneyThick() ? 1L : 0L;
+            case PUDDING_THICK:
+                return patient.isPuddingThick() ? 1L : 0L;
+
+            // Meal completion status
+            case BREAKFAST_COMPLETE:
+                return patient.isBreakfastComplete() ? 1L : 0L;
+            case LUNCH_COMPLETE:
+                return patient.isLunchComplete() ? 1L : 0L;
+            case DINNER_COMPLETE:
+                return patient.isDinnerComplete() ? 1L : 0L;
+            case BREAKFAST_NPO:
+                return patient.isBreakfastNPO() ? 1L : 0L;
+            case LUNCH_NPO:
+                return patient.isLunchNPO() ? 1L : 0L;
+            case DINNER_NPO:
+                return patient.isDinnerNPO() ? 1L : 0L;
+
+            // Meal items
+            case BREAKFAST_ITEMS:
+                return patient.getBreakfastItems();
+            case LUNCH_ITEMS:
+                return patient.getLunchItems();
+            case DINNER_ITEMS:
+                return patient.getDinnerItems();
+
+            // Meal juices
+            case BREAKFAST_JUICES:
+                return patient.getBreakfastJuices();
+            case LUNCH_JUICES:
+                return patient.getLunchJuices();
+            case DINNER_JUICES:
+                return patient.getDinnerJuices();
+
+            // Meal drinks
+            case BREAKFAST_DRINKS:
+                return patient.getBreakfastDrinks();
+            case LUNCH_DRINKS:
+                return patient.getLunchDrinks();
+            case DINNER_DRINKS:
+                return patient.getDinnerDrinks();
+
+            // Additional patient information
+            case ALLERGIES:
+                return patient.getAllergies();
+            case LIKES:
+                return patient.getLikes();
+            case DISLIKES:
+                return patient.getDislikes();
+            case COMMENTS:
+                return patient.getComments();
+
+            // Individual meal components
+            case BREAKFAST_MAIN:
+                return patient.getBreakfastMain();
+            case BREAKFAST_SIDE:
+                return patient.getBreakfastSide();
+            case BREAKFAST_DRINK:
+                return patient.getBreakfastDrink();
+            case LUNCH_MAIN:
+                return patient.getLunchMain();
+            case LUNCH_SIDE:
+                return patient.getLunchSide();
+            case LUNCH_DRINK:
+                return patient.getLunchDrink();
+            case DINNER_MAIN:
+                return patient.getDinnerMain();
+            case DINNER_SIDE:
+                return patient.getDinnerSide();
+            case DINNER_DRINK:
+                return patient.getDinnerDrink();
+
+            // Individual meal diets
+            case BREAKFAST_DIET:
+                return patient.getBreakfastDiet();
+            case LUNCH_DIET:
+                return patient.getLunchDiet();
+            case DINNER_DIET:
+                return patient.getDinnerDiet();
+            case BREAKFAST_ADA:
+                return patient.isBreakfastAda() ? 1L : 0L;
+            case LUNCH_ADA:
+                return patient.isLunchAda() ? 1L : 0L;
+            case DINNER_ADA:
+                return patient.isDinnerAda() ? 1L : 0L;
+
+            // Discharge status
+            case DISCHARGED:
+                return patient.isDischarged() ? 1L : 0L;
+
+            // Created date
+            case CREATED_DATE:
+                return patient.getCreatedAt();
+            default:
+                throw new IllegalArgumentException("No column for " + field);
+        }
     }
 
     // Delete patient by ID
     public int deletePatientById(long patientId) {
         SQLiteDatabase db = dbHelper.getWritableDatabase();
-        return db.delete("patient_info", "patient_id = ?",
+        int rows = db.delete("patient_info", "patient_id = ?",
                 new String[]{String.valueOf(patientId)});
+        if (rows > 0) {
+            notifyChanged(patientId);
+        }
+        return rows;
     }
 
     // Delete patient by ID (overloaded for int)
@@ -165,7 +452,7 @@ public class PatientDAO {
 
         Patient patient = null;
         if (cursor != null && cursor.moveToFirst()) {
-            patient = cursorToPatient(cursor);
+            patient = readPatient(cursor);
             cursor.close();
         }
 
@@ -177,17 +464,53 @@ public class PatientDAO {
         return getPatientById((int) patientId);
     }
 
+    // Get ids[from, to) in one query, in the order given; ids no longer in patient_info are skipped.
+    // Callers batch well under SQLite's 999 bound argument limit
+    public List<Patient> getPatientsByIds(long[] ids, int from, int to) {
+        List<Patient> patients = new ArrayList<>();
+        if (from >= to) {
+            return patients;
+        }
+
+        StringBuilder query = new StringBuilder("SELECT * FROM patient_info WHERE patient_id IN (");
+        String[] args = new String[to - from];
+        for (int i = from; i < to; i++) {
+            query.append(i > from ? ", ?" : "?");
+            args[i - from] = String.valueOf(ids[i]);
+        }
+        query.append(')');
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(query.toString(), args);
+
+        Map<Long, Patient> byId = new HashMap<>();
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                Patient patient = readPatient(cursor);
+                byId.put(patient.getPatientId(), patient);
+            }
+            cursor.close();
+        }
+
+        for (int i = from; i < to; i++) {
+            Patient patient = byId.get(ids[i]);
+            if (patient != null) {
+                patients.add(patient);
+            }
+        }
+        return patients;
+    }
+
     // Get all patients
     public List<Patient> getAllPatients() {
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        Cursor cursor = db.query("patient_info", null, null, null, null, null,
-                "wing, CAST(room_number AS INTEGER)");
+        Cursor cursor = db.rawQuery(QUERY_ALL_PATIENTS, null);
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -200,12 +523,11 @@ public class PatientDAO {
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        Cursor cursor = db.query("patient_info", null, "discharged = 0 OR discharged IS NULL",
-                null, null, null, "wing, CAST(room_number AS INTEGER)");
+        Cursor cursor = db.rawQuery(QUERY_ACTIVE_PATIENTS, null);
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -218,12 +540,11 @@ public class PatientDAO {
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        Cursor cursor = db.query("patient_info", null, "discharged = 1", null, null, null,
-                "wing, CAST(room_number AS INTEGER)");
+        Cursor cursor = db.rawQuery(QUERY_DISCHARGED_PATIENTS, null);
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -233,19 +554,16 @@ public class PatientDAO {
 
     // Get pending patients (meals not complete)
     public List<Patient> getPendingPatients() {
+        // The filter needs queued taps in the table
+        dbHelper.getMealStatusQueue().flushNow();
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM patient_info WHERE " +
-                "(discharged = 0 OR discharged IS NULL) AND " +
-                "(breakfast_complete = 0 OR lunch_complete = 0 OR dinner_complete = 0) " +
-                "ORDER BY wing, CAST(room_number AS INTEGER)";
-
-        Cursor cursor = db.rawQuery(query, null);
+        Cursor cursor = db.rawQuery(QUERY_PENDING_PATIENTS, null);
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -255,19 +573,15 @@ public class PatientDAO {
 
     // Get completed patients (all meals complete)
     public List<Patient> getCompletedPatients() {
+        dbHelper.getMealStatusQueue().flushNow();
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM patient_info WHERE " +
-                "(discharged = 0 OR discharged IS NULL) AND " +
-                "breakfast_complete = 1 AND lunch_complete = 1 AND dinner_complete = 1 " +
-                "ORDER BY wing, CAST(room_number AS INTEGER)";
-
-        Cursor cursor = db.rawQuery(query, null);
+        Cursor cursor = db.rawQuery(QUERY_COMPLETED_PATIENTS, null);
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -283,14 +597,11 @@ public class PatientDAO {
         // Calculate 6 days ago timestamp
         long sixDaysAgo = System.currentTimeMillis() - (6L * 24 * 60 * 60 * 1000);
 
-        String query = "SELECT * FROM patient_info WHERE discharged = 1 OR created_date < ? " +
-                "ORDER BY wing, CAST(room_number AS INTEGER)";
-
-        Cursor cursor = db.rawQuery(query, new String[]{String.valueOf(sixDaysAgo)});
+        Cursor cursor = db.rawQuery(QUERY_RETIRED_PATIENTS, new String[]{String.valueOf(sixDaysAgo)});
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -298,21 +609,21 @@ public class PatientDAO {
         return patients;
     }
 
-    // Search patients by name
+    // Search patients by name, wing, room or diet; every word is matched as a prefix
     public List<Patient> searchPatientsByName(String searchTerm) {
+        String match = PatientSearchIndex.matchQuery(searchTerm);
+        if (match == null) {
+            return getAllPatients();
+        }
+
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT * FROM patient_info WHERE " +
-                "patient_first_name LIKE ? OR patient_last_name LIKE ? " +
-                "ORDER BY wing, CAST(room_number AS INTEGER)";
-
-        String searchPattern = "%" + searchTerm + "%";
-        Cursor cursor = db.rawQuery(query, new String[]{searchPattern, searchPattern});
+        Cursor cursor = db.rawQuery(QUERY_SEARCH_PATIENTS, new String[]{match});
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -325,12 +636,11 @@ public class PatientDAO {
         List<Patient> patients = new ArrayList<>();
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        Cursor cursor = db.query("patient_info", null, "wing = ?",
-                new String[]{wing}, null, null, "CAST(room_number AS INTEGER)");
+        Cursor cursor = db.rawQuery(QUERY_PATIENTS_BY_WING, new String[]{wing});
 
         if (cursor != null) {
             while (cursor.moveToNext()) {
-                patients.add(cursorToPatient(cursor));
+                patients.add(readPatient(cursor));
             }
             cursor.close();
         }
@@ -342,10 +652,7 @@ public class PatientDAO {
     public boolean isRoomOccupied(String wing, String roomNumber) {
         SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-        String query = "SELECT COUNT(*) FROM patient_info WHERE wing = ? AND room_number = ? " +
-                "AND (discharged = 0 OR discharged IS NULL)";
-
-        Cursor cursor = db.rawQuery(query, new String[]{wing, roomNumber});
+        Cursor cursor = db.rawQuery(QUERY_ROOM_OCCUPIED, new String[]{wing, roomNumber});
         boolean occupied = false;
 
         if (cursor != null && cursor.moveToFirst()) {
@@ -356,58 +663,284 @@ public class PatientDAO {
         return occupied;
     }
 
-    // Update meal completion status
-    public boolean updateMealComplete(long patientId, String mealType, boolean complete) {
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-        ContentValues values = new ContentValues();
+    // Get list rows for active patients (not discharged)
+    public List<PatientSummary> getActivePatientSummaries() {
+        return querySummaries(QUERY_ACTIVE_SUMMARIES, null);
+    }
 
-        switch (mealType.toLowerCase()) {
-            case "breakfast":
-                values.put("breakfast_complete", complete ? 1 : 0);
-                break;
-            case "lunch":
-                values.put("lunch_complete", complete ? 1 : 0);
-                break;
-            case "dinner":
-                values.put("dinner_complete", complete ? 1 : 0);
-                break;
-            default:
-                return false;
+    // Get list rows for active patients matching typed text, in census order
+    public List<PatientSummary> searchActivePatientSummaries(String text) {
+        String match = PatientSearchIndex.matchQuery(text);
+        if (match == null) {
+            return getActivePatientSummaries();
         }
+        return querySummaries(QUERY_SEARCH_SUMMARIES, new String[]{match});
+    }
 
-        int rowsUpdated = db.update("patient_info", values, "patient_id = ?",
-                new String[]{String.valueOf(patientId)});
+    // Get list rows for pending patients (meals not complete)
+    public List<PatientSummary> getPendingPatientSummaries() {
+        dbHelper.getMealStatusQueue().flushNow();
+        return querySummaries(QUERY_PENDING_SUMMARIES, null);
+    }
+
+    // Get list rows for completed patients (all meals complete)
+    public List<PatientSummary> getCompletedPatientSummaries() {
+        dbHelper.getMealStatusQueue().flushNow();
+        return querySummaries(QUERY_COMPLETED_SUMMARIES, null);
+    }
+
+    // The pending and completed filters, for rows already read; queued meal taps count
+    public static boolean isPending(PatientSummary summary) {
+        return !summary.isDischarged() && !isAllMealsComplete(summary);
+    }
+
+    public static boolean isCompleted(PatientSummary summary) {
+        return !summary.isDischarged() && isAllMealsComplete(summary);
+    }
 
-        return rowsUpdated > 0;
+    private static boolean isAllMealsComplete(PatientSummary summary) {
+        return summary.isBreakfastComplete() && summary.isLunchComplete() && summary.isDinnerComplete();
     }
 
-    // Update NPO status
+    // List rows for the given patients, in no particular order; deleted patients are left out.
+    // One bound argument per patient, so keep the batch well under SQLite's 999
+    public List<PatientSummary> getPatientSummaries(Collection<Long> patientIds) {
+        if (patientIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        StringBuilder query = new StringBuilder("SELECT " + SUMMARY_COLUMNS +
+                " FROM patient_info WHERE patient_id IN (");
+        String[] args = new String[patientIds.size()];
+        int i = 0;
+        for (long patientId : patientIds) {
+            query.append(i == 0 ? "?" : ", ?");
+            args[i++] = String.valueOf(patientId);
+        }
+        query.append(")");
+        return querySummaries(query.toString(), args);
+    }
+
+    // One census page: up to limit active rows after the given key, or from the start when after is null
+    public List<PatientSummary> getCensusPage(PatientSummary after, int limit) {
+        String[] args = after != null ?
+                new String[]{censusWing(after), String.valueOf(after.getRoomSort()),
+                        String.valueOf(after.getPatientId()), String.valueOf(limit)} :
+                new String[]{"", String.valueOf(Long.MIN_VALUE), "0", String.valueOf(limit)};
+        return querySummaries(QUERY_CENSUS_PAGE, args);
+    }
+
+    // Active rows after one key (exclusive, null for the start) up to another (inclusive)
+    public List<PatientSummary> getCensusRange(PatientSummary after, PatientSummary through) {
+        String[] args = new String[]{
+                after != null ? censusWing(after) : "",
+                String.valueOf(after != null ? after.getRoomSort() : Long.MIN_VALUE),
+                String.valueOf(after != null ? after.getPatientId() : 0),
+                censusWing(through), String.valueOf(through.getRoomSort()), String.valueOf(through.getPatientId())};
+        return querySummaries(QUERY_CENSUS_RANGE, args);
+    }
+
+    // A key's wing as the census stores it: no wing is ''
+    static String censusWing(PatientSummary key) {
+        return key.getWing() != null ? key.getWing() : "";
+    }
+
+    // Current census key of one patient, or null once discharged or deleted
+    public PatientSummary getCensusKey(long patientId) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(QUERY_CENSUS_KEY, new String[]{String.valueOf(patientId)});
+
+        PatientSummary key = null;
+        if (cursor.moveToFirst() && cursor.getInt(2) == 0) {
+            key = new PatientSummary();
+            key.setPatientId(patientId);
+            key.setWing(cursor.getString(0));
+            key.setRoomSort(cursor.getLong(1));
+        }
+        cursor.close();
+        return key;
+    }
+
+    private List<PatientSummary> querySummaries(String query, String[] args) {
+        List<PatientSummary> summaries = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery(query, args);
+
+        if (cursor != null) {
+            MealStatusQueue mealStatusQueue = dbHelper.getMealStatusQueue();
+            while (cursor.moveToNext()) {
+                PatientSummary summary = cursorToSummary(cursor);
+                mealStatusQueue.applyPending(summary);
+                summaries.add(summary);
+            }
+            cursor.close();
+        }
+
+        return summaries;
+    }
+
+    // Update meal completion status; queued, and written with other taps shortly after
+    public boolean updateMealComplete(long patientId, String mealType, boolean complete) {
+        return dbHelper.getMealStatusQueue().setMealComplete(patientId, mealType, complete);
+    }
+
+    // Update NPO status; queued like updateMealComplete
     public boolean updateNPOStatus(long patientId, String mealType, boolean npo) {
+        return dbHelper.getMealStatusQueue().setMealNPO(patientId, mealType, npo);
+    }
+
+    /**
+     * Result of the daily order rollover
+     */
+    public static class RolloverResult {
+        private final int createdCount;
+        private final int pendingCount;
+
+        public RolloverResult(int createdCount, int pendingCount) {
+            this.createdCount = createdCount;
+            this.pendingCount = pendingCount;
+        }
+
+        public int getCreatedCount() {
+            return createdCount;
+        }
+
+        public int getPendingCount() {
+            return pendingCount;
+        }
+    }
+
+    // Roll every active patient whose orders predate today over to a fresh day,
+    // in one transaction: reset completion/NPO flags, clear meal selections,
+    // stamp order_date, default the per-meal diets to the main diet and start
+    // each meal from the default menu for its diet and the day
+    public RolloverResult rollOverDailyOrders(long startOfToday, long startOfTomorrow, long now) {
+        // Queued taps belong to the day being rolled over
+        dbHelper.getMealStatusQueue().flushNow();
+
+        // Read once; the snapshot is the (diet, meal, day) lookup for every patient
+        MenuCatalog catalog = dbHelper.getMenuCatalog();
+
         SQLiteDatabase db = dbHelper.getWritableDatabase();
-        ContentValues values = new ContentValues();
+        int createdCount;
+        int pendingCount;
+
+        db.beginTransaction();
+        try {
+            // Patients already rolled over today that still have a meal outstanding
+            SQLiteStatement pendingStatement = db.compileStatement(
+                    "SELECT COUNT(*) FROM patient_info WHERE discharged = 0 AND " +
+                    "order_date >= ? AND order_date < ? AND (" +
+                    "(IFNULL(breakfast_complete, 0) = 0 AND IFNULL(breakfast_npo, 0) = 0) OR " +
+                    "(IFNULL(lunch_complete, 0) = 0 AND IFNULL(lunch_npo, 0) = 0) OR " +
+                    "(IFNULL(dinner_complete, 0) = 0 AND IFNULL(dinner_npo, 0) = 0))");
+            pendingStatement.bindLong(1, startOfToday);
+            pendingStatement.bindLong(2, startOfTomorrow);
+            pendingCount = (int) pendingStatement.simpleQueryForLong();
+            pendingStatement.close();
+
+            SQLiteStatement rolloverStatement = db.compileStatement(
+                    "UPDATE patient_info SET " +
+                    "breakfast_complete = 0, lunch_complete = 0, dinner_complete = 0, " +
+                    "breakfast_npo = 0, lunch_npo = 0, dinner_npo = 0, " +
+                    "breakfast_main = '', breakfast_side = '', breakfast_drink = '', breakfast_juices = '', " +
+                    "lunch_main = '', lunch_side = '', lunch_drink = '', lunch_juices = '', " +
+                    "dinner_main = '', dinner_side = '', dinner_drink = '', dinner_juices = '', " +
+                    "breakfast_diet = IFNULL(breakfast_diet, diet), " +
+                    "lunch_diet = IFNULL(lunch_diet, diet), " +
+                    "dinner_diet = IFNULL(dinner_diet, diet), " +
+                    "order_date = ? " +
+                    "WHERE discharged = 0 AND (order_date IS NULL OR order_date < ?)");
+            rolloverStatement.bindLong(1, now);
+            rolloverStatement.bindLong(2, startOfToday);
+            createdCount = rolloverStatement.executeUpdateDelete();
+            rolloverStatement.close();
+
+            if (createdCount > 0) {
+                applyDefaultMenus(db, catalog, now);
+            }
 
-        switch (mealType.toLowerCase()) {
-            case "breakfast":
-                values.put("breakfast_npo", npo ? 1 : 0);
-                break;
-            case "lunch":
-                values.put("lunch_npo", npo ? 1 : 0);
-                break;
-            case "dinner":
-                values.put("dinner_npo", npo ? 1 : 0);
-                break;
-            default:
-                return false;
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
         }
 
-        int rowsUpdated = db.update("patient_info", values, "patient_id = ?",
-                new String[]{String.valueOf(patientId)});
+        if (createdCount > 0) {
+            notifyChanged(ALL_PATIENTS);
+        }
+        Log.d(TAG, "Rolled over " + createdCount + " patients, " + pendingCount + " pending");
+        return new RolloverResult(createdCount, pendingCount);
+    }
 
-        return rowsUpdated > 0;
+    // Fill the meals of the patients just stamped with order_date = now from the default menus,
+    // one statement per diet and meal rather than per patient; the caller owns the transaction
+    private static void applyDefaultMenus(SQLiteDatabase db, MenuCatalog catalog, long now) {
+        Date today = new Date(now);
+        String serviceDate = MealSelectionDAO.formatServiceDate(today);
+        String dayOfWeek = new SimpleDateFormat("EEEE", Locale.US).format(today);
+        String rolledOver = "discharged = 0 AND order_date = " + now;
+
+        // Selections saved earlier today without an order date
+        db.execSQL("DELETE FROM patient_meal_selection WHERE service_date = ? AND patient_id IN " +
+                "(SELECT patient_id FROM patient_info WHERE " + rolledOver + ")", new Object[]{serviceDate});
+
+        int menus = 0;
+        for (String meal : MealSelectionDAO.MEALS) {
+            String mealDiet = "COALESCE(NULLIF(" + meal.toLowerCase(Locale.US) + "_diet, ''), diet)";
+            SQLiteStatement updateItems = db.compileStatement("UPDATE patient_info SET " +
+                    meal.toLowerCase(Locale.US) + "_items = ? WHERE " + rolledOver + " AND " + mealDiet + " = ?");
+            // Same rows as the update, one insert per menu item
+            SQLiteStatement insertSelection = db.compileStatement("INSERT OR IGNORE INTO patient_meal_selection " +
+                    "(patient_id, service_date, meal, item_id, item_name, quantity) " +
+                    "SELECT patient_id, ?, ?, ?, ?, ? FROM patient_info " +
+                    "WHERE " + rolledOver + " AND " + mealDiet + " = ?");
+
+            try {
+                for (String diet : catalog.getDefaultMenuDiets(meal, dayOfWeek)) {
+                    // Repeats count as quantity, as saved selections do
+                    Map<String, Integer> quantities = new LinkedHashMap<>();
+                    StringBuilder items = new StringBuilder();
+                    for (DefaultMenuItem menuItem : catalog.getDefaultMenuItems(diet, meal, dayOfWeek)) {
+                        String name = menuItem.getItemName() != null ? menuItem.getItemName().trim() : "";
+                        if (!menuItem.isActive() || name.isEmpty()) continue;
+
+                        Integer count = quantities.get(name);
+                        quantities.put(name, count == null ? 1 : count + 1);
+                        items.append(items.length() == 0 ? "" : ", ").append(name);
+                    }
+                    if (quantities.isEmpty()) continue;
+
+                    updateItems.bindString(1, items.toString());
+                    updateItems.bindString(2, diet);
+                    updateItems.executeUpdateDelete();
+
+                    for (Map.Entry<String, Integer> item : quantities.entrySet()) {
+                        int itemId = catalog.getItemId(item.getKey());
+                        insertSelection.bindString(1, serviceDate);
+                        insertSelection.bindString(2, meal);
+                        if (itemId > 0) {
+                            insertSelection.bindLong(3, itemId);
+                        } else {
+                            insertSelection.bindNull(3);
+                        }
+                        insertSelection.bindString(4, item.getKey());
+                        insertSelection.bindLong(5, item.getValue());
+                        insertSelection.bindString(6, diet);
+                        insertSelection.executeInsert();
+                    }
+                    menus++;
+                }
+            } finally {
+                updateItems.close();
+                insertSelection.close();
+            }
+        }
+        Log.d(TAG, "Applied " + menus + " default menus for " + dayOfWeek);
     }
 
-    // Convert cursor to Patient object
-    private Patient cursorToPatient(Cursor cursor) {
+    // Convert cursor to Patient object; reads by name, so archive rows map the same way
+    static Patient cursorToPatient(Cursor cursor) {
         Patient patient = new Patient();
 
         // Basic information
@@ -501,27 +1034,69 @@ public class PatientDAO {
             patient.setOrderDate(new Date(orderDate));
         }
 
+        // Later setters mark only what the caller changes
+        patient.markSaved();
+        return patient;
+    }
+
+    // A full row with any queued meal taps shown over it
+    private Patient readPatient(Cursor cursor) {
+        Patient patient = cursorToPatient(cursor);
+        dbHelper.getMealStatusQueue().applyPending(patient);
         return patient;
     }
 
+    // Convert a SUMMARY_COLUMNS row to PatientSummary
+    static PatientSummary cursorToSummary(Cursor cursor) {
+        PatientSummary summary = new PatientSummary();
+
+        summary.setPatientId(cursor.getLong(0));
+        summary.setPatientFirstName(cursor.getString(1));
+        summary.setPatientLastName(cursor.getString(2));
+        summary.setWing(cursor.getString(3));
+        summary.setRoomNumber(cursor.getString(4));
+        summary.setDiet(cursor.getString(5));
+        summary.setAdaDiet(cursor.getInt(6) == 1);
+
+        summary.setBreakfastComplete(cursor.getInt(7) == 1);
+        summary.setLunchComplete(cursor.getInt(8) == 1);
+        summary.setDinnerComplete(cursor.getInt(9) == 1);
+        summary.setBreakfastNPO(cursor.getInt(10) == 1);
+        summary.setLunchNPO(cursor.getInt(11) == 1);
+        summary.setDinnerNPO(cursor.getInt(12) == 1);
+
+        summary.setDischarged(cursor.getInt(13) == 1);
+
+        long createdDate = cursor.getLong(14);
+        if (createdDate > 0) {
+            summary.setCreatedDate(new Date(createdDate));
+        }
+        summary.setRoomSort(cursor.getLong(15));
+
+        // Built here so screens can filter loaded rows without touching the strings again
+        summary.setSearchKey(PatientSearchIndex.searchKey(summary.getPatientFirstName(),
+                summary.getPatientLastName(), summary.getWing(), summary.getRoomNumber(), summary.getDiet()));
+
+        return summary;
+    }
+
     // Helper methods for cursor data extraction
-    private String getString(Cursor cursor, String columnName) {
+    private static String getString(Cursor cursor, String columnName) {
         int index = cursor.getColumnIndex(columnName);
         return index >= 0 ? cursor.getString(index) : null;
     }
 
-    private long getLong(Cursor cursor, String columnName) {
+    private static long getLong(Cursor cursor, String columnName) {
         int index = cursor.getColumnIndex(columnName);
         return index >= 0 ? cursor.getLong(index) : 0;
     }
 
-    private boolean getBoolean(Cursor cursor, String columnName) {
+    private static boolean getBoolean(Cursor cursor, String columnName) {
         int index = cursor.getColumnIndex(columnName);
         return index >= 0 && cursor.getInt(index) == 1;
     }
 
-    // Close database connection
+    // The shared DatabaseHelper stays open for the life of the process
     public void close() {
-        dbHelper.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.hospital.dietary.dao;
+
+import android.database.sqlite.SQLiteDatabase;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PatientSearchIndex class - the FTS4 index behind patient search
+ * patient_search is an external-content table over patient_info, so it stores only the
+ * token index; triggers keep it in step with every write, whichever database layer made it
+ */
+public final class PatientSearchIndex {
+
+    // Columns a search term can match, named as in patient_info
+    private static final String COLUMNS = "patient_first_name, patient_last_name, wing, room_number, diet";
+    private static final String NEW_VALUES = "NEW.patient_first_name, NEW.patient_last_name, " +
+            "NEW.wing, NEW.room_number, NEW.diet";
+
+    // Short prefixes get their own index so the first keystrokes are lookups, not term scans
+    static final String CREATE_TABLE = "CREATE VIRTUAL TABLE IF NOT EXISTS patient_search USING fts4(" +
+            "content=\"patient_info\", " + COLUMNS + ", prefix=\"1,2,3\")";
+
+    // External content is read back to find old tokens, so deletes run before the row changes
+    static final String[] CREATE_TRIGGERS = {
+            "CREATE TRIGGER IF NOT EXISTS patient_search_before_update " +
+                    "BEFORE UPDATE OF " + COLUMNS + " ON patient_info BEGIN " +
+                    "DELETE FROM patient_search WHERE docid = OLD.patient_id; END",
+            "CREATE TRIGGER IF NOT EXISTS patient_search_before_delete " +
+                    "BEFORE DELETE ON patient_info BEGIN " +
+                    "DELETE FROM patient_search WHERE docid = OLD.patient_id; END",
+            "CREATE TRIGGER IF NOT EXISTS patient_search_after_update " +
+                    "AFTER UPDATE OF " + COLUMNS + " ON patient_info BEGIN " +
+                    "INSERT INTO patient_search (docid, " + COLUMNS + ") " +
+                    "VALUES (NEW.patient_id, " + NEW_VALUES + "); END",
+            "CREATE TRIGGER IF NOT EXISTS patient_search_after_insert " +
+                    "AFTER INSERT ON patient_info BEGIN " +
+                    "INSERT INTO patient_search (docid, " + COLUMNS + ") " +
+                    "VALUES (NEW.patient_id, " + NEW_VALUES + "); END"
+    };
+
+    static final String REBUILD = "INSERT INTO patient_search (patient_search) VALUES ('rebuild')";
+
+    // FROM clause for a search: driving the join from the index keeps a narrow search to a few
+    // rowid lookups, and the subquery keeps patient_info's column names unambiguous
+    public static final String SEARCH_JOIN = "(SELECT docid FROM patient_search WHERE patient_search MATCH ?) " +
+            "AS search_match CROSS JOIN patient_info ON patient_info.patient_id = search_match.docid";
+
+    private PatientSearchIndex() {
+    }
+
+    /**
+     * Create the index and its triggers, then index the patients already in patient_info
+     */
+    public static void create(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE);
+        for (String trigger : CREATE_TRIGGERS) {
+            db.execSQL(trigger);
+        }
+        db.execSQL(REBUILD);
+    }
+
+    /**
+     * Turn typed text into an FTS prefix query, e.g. "Smi 1 so" becomes "smi* 1* so*"
+     * Every word must match some column. Returns null when the text has no searchable words
+     */
+    public static String matchQuery(String text) {
+        List<String> words = words(text);
+        if (words.isEmpty()) {
+            return null;
+        }
+
+        StringBuilder query = new StringBuilder();
+        for (String word : words) {
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append(word).append('*');
+        }
+        return query.toString();
+    }
+
+    /**
+     * Split and fold text the way the simple tokenizer does: ASCII letters and digits, and anything
+     * non-ASCII, with ASCII lower-cased. Keys and typed words must both go through here
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        int length = text != null ? text.length() : 0;
+
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c > 127) {
+                word.append(c);
+            } else if (c >= 'A' && c <= 'Z') {
+                word.append((char) (c + ('a' - 'A')));
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * The indexed columns of one patient as " token token ...", built once when the row is read
+     */
+    public static String searchKey(String firstName, String lastName, String wing, String roomNumber, String diet) {
+        StringBuilder key = new StringBuilder();
+        for (String value : new String[]{firstName, lastName, wing, roomNumber, diet}) {
+            for (String word : words(value)) {
+                key.append(' ').append(word);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * Same rule as the FTS query, in memory: every word is a prefix of some token in the key
+     */
+    public static boolean matches(String searchKey, List<String> words) {
+        for (String word : words) {
+            if (!searchKey.contains(" " + word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True when every match for current also matched previous, i.e. the user only kept typing
+     */
+    public static boolean narrows(List<String> previous, List<String> current) {
+        if (previous.isEmpty() || current.size() < previous.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (!current.get(i).startsWith(previous.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,114 @@
+package com.hospital.dietary.dao;
+
+import com.hospital.dietary.models.PatientSummary;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * PatientSummaryList class - one filtered patient list kept current from patient_info notices
+ * refresh re-reads only the patients written since the last call and moves them in or out of
+ * the list; a bulk write, or more than MAX_PATCHED_ROWS patients, reloads it whole.
+ * Rows are only touched from the AsyncDAO thread; screens get copies
+ */
+public class PatientSummaryList implements ChangeBus.Listener {
+
+    // Past this many changed patients one list query is cheaper than the lookups
+    static final int MAX_PATCHED_ROWS = 50;
+
+    public interface Loader {
+        List<PatientSummary> load(PatientDAO patientDAO);
+    }
+
+    // Whether a freshly read row belongs in the list; must agree with the loader's WHERE clause
+    public interface Filter {
+        boolean matches(PatientSummary summary);
+    }
+
+    private final Loader loader;
+    private final Filter filter;
+    private volatile List<PatientSummary> rows;
+
+    // Written by whichever thread made the change, drained by refresh
+    private final Set<Long> changedIds = new HashSet<>();
+    private boolean changedAll;
+
+    public PatientSummaryList(Loader loader, Filter filter) {
+        this.loader = loader;
+        this.filter = filter;
+    }
+
+    // Subscribe to patient_info on the DatabaseHelper's ChangeBus
+    @Override
+    public synchronized void onChange(ChangeBus.Change change) {
+        if (!change.touches(PatientDAO.SUMMARY_COLUMN_NAMES)) {
+            return;
+        }
+        if (change.isAllRows()) {
+            changedAll = true;
+        } else {
+            changedIds.add(change.getRowId());
+        }
+    }
+
+    // True until the first load, and after any write the list may show
+    public synchronized boolean isStale() {
+        return rows == null || changedAll || !changedIds.isEmpty();
+    }
+
+    // Reload everything on the next refresh, e.g. after writes made outside the DAOs
+    public synchronized void invalidate() {
+        changedAll = true;
+    }
+
+    /**
+     * Bring the list up to date with the writes since the last call and return a copy of it
+     */
+    public List<PatientSummary> refresh(PatientDAO patientDAO) {
+        Set<Long> ids;
+        boolean all;
+        synchronized (this) {
+            ids = new HashSet<>(changedIds);
+            all = changedAll;
+            changedIds.clear();
+            changedAll = false;
+        }
+
+        if (rows == null || all || ids.size() > MAX_PATCHED_ROWS) {
+            rows = new ArrayList<>(loader.load(patientDAO));
+            return new ArrayList<>(rows);
+        }
+        if (ids.isEmpty()) {
+            return new ArrayList<>(rows);
+        }
+
+        for (Iterator<PatientSummary> it = rows.iterator(); it.hasNext(); ) {
+            if (ids.contains(it.next().getPatientId())) {
+                it.remove();
+            }
+        }
+        for (PatientSummary summary : patientDAO.getPatientSummaries(ids)) {
+            if (filter.matches(summary)) {
+                rows.add(insertionPoint(summary), summary);
+            }
+        }
+        return new ArrayList<>(rows);
+    }
+
+    // Census order, as the list queries sort
+    private int insertionPoint(PatientSummary summary) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (PatientCensusPager.compare(rows.get(mid), summary) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
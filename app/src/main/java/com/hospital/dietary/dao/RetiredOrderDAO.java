@@ -0,0 +1,247 @@
+package com.hospital.dietary.dao;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.models.Patient;
+import com.hospital.dietary.models.PatientSummary;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RetiredOrderDAO class for the order archive
+ * retired_order keeps one snapshot of a patient's orders per service date, found by date through
+ * its index. Archiving moves discharged patients out of patient_info, so the live table only
+ * holds the census, and moves finalized orders past the galley history into archive tables,
+ * which FinalizedOrderDAO still reads
+ */
+public class RetiredOrderDAO {
+
+    private static final String TAG = "RetiredOrderDAO";
+
+    // Every patient_info column, copied as is so archive rows read back like patient rows
+    static final String ARCHIVE_COLUMNS = "patient_id, patient_first_name, patient_last_name, " +
+            "wing, room_number, room_sort, diet_type, diet, ada_diet, " +
+            "fluid_restriction, texture_modifications, " +
+            "mechanical_chopped, mechanical_ground, bite_size, bread_ok, " +
+            "nectar_thick, pudding_thick, honey_thick, extra_gravy, meats_only, " +
+            "breakfast_complete, lunch_complete, dinner_complete, " +
+            "breakfast_npo, lunch_npo, dinner_npo, " +
+            "breakfast_items, lunch_items, dinner_items, " +
+            "breakfast_juices, lunch_juices, dinner_juices, " +
+            "breakfast_drinks, lunch_drinks, dinner_drinks, " +
+            "created_date, order_date, " +
+            "breakfast_diet, lunch_diet, dinner_diet, " +
+            "breakfast_ada, lunch_ada, dinner_ada, " +
+            "allergies, likes, dislikes, comments, " +
+            "breakfast_main, breakfast_side, breakfast_drink, " +
+            "lunch_main, lunch_side, lunch_drink, " +
+            "dinner_main, dinner_side, dinner_drink, " +
+            "discharged";
+
+    // The local day a patient's current orders are for; undated rows count as today (?1)
+    private static final String SERVICE_DATE = "date(COALESCE(order_date, created_date, ?1) / 1000, 'unixepoch', 'localtime')";
+
+    // ?1 start of today. Discharged patients are always kept; an active patient's earlier day is kept
+    // once a meal on it was completed, or every meal was NPO. Re-running replaces the same snapshot
+    static final String INSERT_RETIRED = "INSERT OR REPLACE INTO retired_order (service_date, " + ARCHIVE_COLUMNS + ") " +
+            "SELECT " + SERVICE_DATE + ", " + ARCHIVE_COLUMNS + " FROM patient_info " +
+            "WHERE discharged = 1 OR (" +
+            "COALESCE(order_date, created_date) < ?1 AND (" +
+            "breakfast_complete = 1 OR lunch_complete = 1 OR dinner_complete = 1 OR " +
+            "(breakfast_npo = 1 AND lunch_npo = 1 AND dinner_npo = 1)))";
+
+    static final String DELETE_DISCHARGED = "DELETE FROM patient_info WHERE discharged = 1";
+
+    // ?1 first service date still read by the galley history
+    static final String INSERT_FINALIZED_ARCHIVE = "INSERT INTO finalized_order_archive " +
+            "SELECT * FROM finalized_order WHERE order_date < ?1";
+    static final String INSERT_FINALIZED_ITEMS_ARCHIVE = "INSERT INTO finalized_order_items_archive " +
+            "SELECT * FROM finalized_order_items WHERE order_id IN " +
+            "(SELECT order_id FROM finalized_order WHERE order_date < ?1)";
+    static final String DELETE_FINALIZED_ITEMS = "DELETE FROM finalized_order_items WHERE order_id IN " +
+            "(SELECT order_id FROM finalized_order WHERE order_date < ?1)";
+    static final String DELETE_FINALIZED = "DELETE FROM finalized_order WHERE order_date < ?1";
+
+    // The retired screen's read for one service date, in census order
+    static final String QUERY_RETIRED_SUMMARIES = "SELECT " + PatientDAO.SUMMARY_COLUMNS +
+            " FROM retired_order WHERE service_date = ? " +
+            "ORDER BY wing, room_sort, patient_id";
+    static final String QUERY_RETIRED_ORDER = "SELECT * FROM retired_order " +
+            "WHERE service_date = ? AND patient_id = ?";
+
+    private final DatabaseHelper dbHelper;
+
+    public RetiredOrderDAO(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Result of one archive pass
+     */
+    public static class ArchiveResult {
+        private final int retiredCount;
+        private final int removedPatientCount;
+        private final int finalizedOrderCount;
+
+        public ArchiveResult(int retiredCount, int removedPatientCount, int finalizedOrderCount) {
+            this.retiredCount = retiredCount;
+            this.removedPatientCount = removedPatientCount;
+            this.finalizedOrderCount = finalizedOrderCount;
+        }
+
+        public int getRetiredCount() {
+            return retiredCount;
+        }
+
+        public int getRemovedPatientCount() {
+            return removedPatientCount;
+        }
+
+        public int getFinalizedOrderCount() {
+            return finalizedOrderCount;
+        }
+    }
+
+    /**
+     * Snapshot retired orders into the archive and move discharged patients and old finalized
+     * orders out of the live tables, in one transaction. Must run before the daily rollover
+     * clears yesterday's selections
+     */
+    public ArchiveResult archiveRetiredOrders(long startOfToday) {
+        // Which days are kept depends on the complete flags, so queued taps go in first
+        dbHelper.getMealStatusQueue().flushNow();
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+        Calendar historyStart = Calendar.getInstance();
+        historyStart.setTimeInMillis(startOfToday);
+        historyStart.add(Calendar.DAY_OF_YEAR, -GalleyStockDAO.HISTORY_DAYS);
+        String finalizedBefore = MealSelectionDAO.formatServiceDate(historyStart.getTime());
+
+        int retiredCount;
+        int removedPatientCount;
+        int finalizedOrderCount;
+
+        db.beginTransaction();
+        try {
+            SQLiteStatement insertRetired = db.compileStatement(INSERT_RETIRED);
+            insertRetired.bindLong(1, startOfToday);
+            retiredCount = insertRetired.executeUpdateDelete();
+            insertRetired.close();
+
+            // Selections, search and galley rows follow through the patient_info delete triggers
+            SQLiteStatement deleteDischarged = db.compileStatement(DELETE_DISCHARGED);
+            removedPatientCount = deleteDischarged.executeUpdateDelete();
+            deleteDischarged.close();
+
+            // Items first, while their orders still say which ones are old
+            for (String sql : new String[]{INSERT_FINALIZED_ARCHIVE, INSERT_FINALIZED_ITEMS_ARCHIVE, DELETE_FINALIZED_ITEMS}) {
+                SQLiteStatement statement = db.compileStatement(sql);
+                statement.bindString(1, finalizedBefore);
+                statement.executeUpdateDelete();
+                statement.close();
+            }
+            SQLiteStatement deleteFinalized = db.compileStatement(DELETE_FINALIZED);
+            deleteFinalized.bindString(1, finalizedBefore);
+            finalizedOrderCount = deleteFinalized.executeUpdateDelete();
+            deleteFinalized.close();
+
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        if (retiredCount > 0) {
+            dbHelper.getChangeBus().publishTable("retired_order");
+        }
+        if (removedPatientCount > 0) {
+            dbHelper.getPatientDAO().notifyChanged(PatientDAO.ALL_PATIENTS);
+        }
+        if (finalizedOrderCount > 0) {
+            dbHelper.getChangeBus().publishTable("finalized_order");
+        }
+
+        Log.d(TAG, "Archived " + retiredCount + " retired orders, removed " + removedPatientCount +
+                " discharged patients, moved " + finalizedOrderCount + " finalized orders");
+        return new ArchiveResult(retiredCount, removedPatientCount, finalizedOrderCount);
+    }
+
+    /**
+     * Get list rows for the orders retired on one service date (yyyy-MM-dd)
+     */
+    public List<PatientSummary> getRetiredOrderSummaries(String serviceDate) {
+        List<PatientSummary> summaries = new ArrayList<>();
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+        Cursor cursor = db.rawQuery(QUERY_RETIRED_SUMMARIES, new String[]{serviceDate});
+
+        if (cursor != null) {
+            while (cursor.moveToNext()) {
+                summaries.add(PatientDAO.cursorToSummary(cursor));
+            }
+            cursor.close();
+        }
+
+        return summaries;
+    }
+
+    /**
+     * Get one patient's archived orders for a service date, or null
+     */
+    public Patient getRetiredOrder(String serviceDate, long patientId) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(QUERY_RETIRED_ORDER,
+                new String[]{serviceDate, String.valueOf(patientId)});
+
+        Patient patient = null;
+        if (cursor.moveToFirst()) {
+            patient = PatientDAO.cursorToPatient(cursor);
+        }
+        cursor.close();
+        return patient;
+    }
+
+    /**
+     * Get archived orders for ids[from, to) on one service date, in the order given
+     * Same contract as PatientDAO.getPatientsByIds, so tickets can be reprinted from the archive
+     */
+    public List<Patient> getRetiredOrdersByIds(String serviceDate, long[] ids, int from, int to) {
+        List<Patient> patients = new ArrayList<>();
+        if (from >= to) {
+            return patients;
+        }
+
+        StringBuilder query = new StringBuilder("SELECT * FROM retired_order WHERE service_date = ? AND patient_id IN (");
+        String[] args = new String[to - from + 1];
+        args[0] = serviceDate;
+        for (int i = from; i < to; i++) {
+            query.append(i > from ? ", ?" : "?");
+            args[i - from + 1] = String.valueOf(ids[i]);
+        }
+        query.append(')');
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(query.toString(), args);
+
+        Map<Long, Patient> byId = new HashMap<>();
+        while (cursor.moveToNext()) {
+            Patient patient = PatientDAO.cursorToPatient(cursor);
+            byId.put(patient.getPatientId(), patient);
+        }
+        cursor.close();
+
+        for (int i = from; i < to; i++) {
+            Patient patient = byId.get(ids[i]);
+            if (patient != null) {
+                patients.add(patient);
+            }
+        }
+        return patients;
+    }
+}
@@ -2,6 +2,9 @@ package com.hospital.dietary.data.dao;
 
 import androidx.lifecycle.LiveData;
 import androidx.room.*;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import com.hospital.dietary.dao.PatientSearchIndex;
+import com.hospital.dietary.data.entities.CensusCounterEntity;
 import com.hospital.dietary.data.entities.PatientEntity;
 import java.util.List;
 
@@ -64,19 +67,16 @@ public interface PatientDao {
     @Query("SELECT * FROM patient_info WHERE wing = :wing AND room_number = :roomNumber LIMIT 1")
     PatientEntity getPatientByRoom(String wing, String roomNumber);
 
-    @Query("SELECT * FROM patient_info WHERE " +
-            "(LOWER(patient_first_name) LIKE LOWER(:searchTerm) OR " +
-            "LOWER(patient_last_name) LIKE LOWER(:searchTerm) OR " +
-            "LOWER(patient_first_name || ' ' || patient_last_name) LIKE LOWER(:searchTerm)) " +
-            "ORDER BY wing, CAST(room_number AS INTEGER)")
-    LiveData<List<PatientEntity>> searchPatientsLive(String searchTerm);
+    // Full-text search; patient_search is created by DatabaseHelper, so Room only sees it as a raw query.
+    // Bind PatientSearchIndex.matchQuery(text) to SEARCH_QUERY
+    String SEARCH_QUERY = "SELECT patient_info.* FROM " + PatientSearchIndex.SEARCH_JOIN +
+            " ORDER BY wing, CAST(room_number AS INTEGER)";
 
-    @Query("SELECT * FROM patient_info WHERE " +
-            "(LOWER(patient_first_name) LIKE LOWER(:searchTerm) OR " +
-            "LOWER(patient_last_name) LIKE LOWER(:searchTerm) OR " +
-            "LOWER(patient_first_name || ' ' || patient_last_name) LIKE LOWER(:searchTerm)) " +
-            "ORDER BY wing, CAST(room_number AS INTEGER)")
-    List<PatientEntity> searchPatients(String searchTerm);
+    @RawQuery(observedEntities = PatientEntity.class)
+    LiveData<List<PatientEntity>> searchPatientsLive(SupportSQLiteQuery query);
+
+    @RawQuery
+    List<PatientEntity> searchPatients(SupportSQLiteQuery query);
 
     // Meal status queries
     @Query("SELECT * FROM patient_info WHERE " +
@@ -116,37 +116,43 @@ public interface PatientDao {
     @Query("SELECT * FROM patient_info WHERE ada_diet = 1 ORDER BY wing, CAST(room_number AS INTEGER)")
     LiveData<List<PatientEntity>> getAdaDietPatientsLive();
 
-    // Statistics queries
-    @Query("SELECT COUNT(*) FROM patient_info")
+    // Statistics queries; census_counter holds one trigger-kept row per wing, so these
+    // sum a few rows instead of counting every patient
+    @Query("SELECT IFNULL(SUM(patients), 0) FROM census_counter")
     LiveData<Integer> getTotalPatientCountLive();
 
-    @Query("SELECT COUNT(*) FROM patient_info")
+    @Query("SELECT IFNULL(SUM(patients), 0) FROM census_counter")
     int getTotalPatientCount();
 
-    @Query("SELECT COUNT(*) FROM patient_info WHERE ada_diet = 1")
+    @Query("SELECT IFNULL(SUM(ada_diet), 0) FROM census_counter")
     LiveData<Integer> getAdaDietCountLive();
 
-    @Query("SELECT COUNT(*) FROM patient_info WHERE breakfast_complete = 1")
+    @Query("SELECT IFNULL(SUM(breakfast_complete), 0) FROM census_counter")
     LiveData<Integer> getBreakfastCompleteCountLive();
 
-    @Query("SELECT COUNT(*) FROM patient_info WHERE lunch_complete = 1")
+    @Query("SELECT IFNULL(SUM(lunch_complete), 0) FROM census_counter")
     LiveData<Integer> getLunchCompleteCountLive();
 
-    @Query("SELECT COUNT(*) FROM patient_info WHERE dinner_complete = 1")
+    @Query("SELECT IFNULL(SUM(dinner_complete), 0) FROM census_counter")
     LiveData<Integer> getDinnerCompleteCountLive();
 
     // Count queries
-    @Query("SELECT COUNT(*) FROM patient_info")
+    @Query("SELECT IFNULL(SUM(patients), 0) FROM census_counter")
     LiveData<Integer> getPatientCountLive();
 
-    @Query("SELECT COUNT(*) FROM patient_info WHERE " +
-            "(breakfast_complete = 0 OR lunch_complete = 0 OR dinner_complete = 0)")
+    @Query("SELECT IFNULL(SUM(patients - all_complete), 0) FROM census_counter")
     LiveData<Integer> getPendingCountLive();
 
-    @Query("SELECT COUNT(*) FROM patient_info WHERE " +
-            "breakfast_complete = 1 AND lunch_complete = 1 AND dinner_complete = 1")
+    @Query("SELECT IFNULL(SUM(all_complete), 0) FROM census_counter")
     LiveData<Integer> getCompletedCountLive();
 
+    // Every count per wing in one read, for dashboards that show several
+    @Query("SELECT * FROM census_counter ORDER BY wing")
+    LiveData<List<CensusCounterEntity>> getCensusCountersLive();
+
+    @Query("SELECT * FROM census_counter ORDER BY wing")
+    List<CensusCounterEntity> getCensusCounters();
+
     // Room occupancy check
     @Query("SELECT COUNT(*) FROM patient_info WHERE wing = :wing AND room_number = :roomNumber")
     int isRoomOccupied(String wing, String roomNumber);
@@ -0,0 +1,109 @@
+package com.hospital.dietary.data.database;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import com.hospital.dietary.DatabaseHelper;
+
+/**
+ * SharedSchemaOpenHelperFactory class - opens Room's connection on the schema DatabaseHelper owns
+ * DatabaseHelper creates and upgrades the file first; Room never creates, migrates or drops a table
+ */
+final class SharedSchemaOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+
+    /**
+     * Called each time Room's connection opens, after the schema is current
+     */
+    interface OpenListener {
+        void onOpen(@NonNull SupportSQLiteDatabase db);
+    }
+
+    private final DatabaseHelper schemaOwner;
+    private final OpenListener openListener;
+    private final SupportSQLiteOpenHelper.Factory frameworkFactory = new FrameworkSQLiteOpenHelperFactory();
+
+    SharedSchemaOpenHelperFactory(DatabaseHelper schemaOwner, OpenListener openListener) {
+        this.schemaOwner = schemaOwner;
+        this.openListener = openListener;
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteOpenHelper create(@NonNull SupportSQLiteOpenHelper.Configuration configuration) {
+        // Room's own callback is dropped: its identity check and migrations would fight the helper's
+        SupportSQLiteOpenHelper.Configuration shared = SupportSQLiteOpenHelper.Configuration
+                .builder(configuration.context)
+                .name(configuration.name)
+                .callback(new SharedSchemaCallback())
+                .build();
+        return new SharedSchemaOpenHelper(frameworkFactory.create(shared));
+    }
+
+    /**
+     * Lets DatabaseHelper open, and so create or upgrade, the file before Room's connection does
+     */
+    private final class SharedSchemaOpenHelper implements SupportSQLiteOpenHelper {
+
+        private final SupportSQLiteOpenHelper delegate;
+
+        SharedSchemaOpenHelper(SupportSQLiteOpenHelper delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            schemaOwner.getWritableDatabase();
+            return delegate.getWritableDatabase();
+        }
+
+        @NonNull
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            schemaOwner.getWritableDatabase();
+            return delegate.getReadableDatabase();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Expects the file at DatabaseHelper's version; anything else means the helper did not run
+     */
+    private final class SharedSchemaCallback extends SupportSQLiteOpenHelper.Callback {
+
+        SharedSchemaCallback() {
+            super(DatabaseHelper.DATABASE_VERSION);
+        }
+
+        @Override
+        public void onCreate(@NonNull SupportSQLiteDatabase db) {
+            throw new IllegalStateException("Database schema is created by DatabaseHelper, not Room");
+        }
+
+        @Override
+        public void onUpgrade(@NonNull SupportSQLiteDatabase db, int oldVersion, int newVersion) {
+            throw new IllegalStateException("Database schema is upgraded by DatabaseHelper, not Room " +
+                    "(found version " + oldVersion + ", expected " + newVersion + ")");
+        }
+
+        @Override
+        public void onOpen(@NonNull SupportSQLiteDatabase db) {
+            openListener.onOpen(db);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.hospital.dietary.data.entities;
+
+import androidx.annotation.NonNull;
+import androidx.room.*;
+
+/**
+ * One wing's census counts; DatabaseHelper's triggers on patient_info keep the row current,
+ * so Room only ever reads this table
+ */
+@Entity(tableName = "census_counter")
+public class CensusCounterEntity {
+    // '' for patients without a wing
+    @PrimaryKey
+    @NonNull
+    @ColumnInfo(name = "wing")
+    private String wing = "";
+
+    @ColumnInfo(name = "patients", defaultValue = "0")
+    private int patients;
+
+    @ColumnInfo(name = "discharged", defaultValue = "0")
+    private int discharged;
+
+    @ColumnInfo(name = "ada_diet", defaultValue = "0")
+    private int adaDiet;
+
+    @ColumnInfo(name = "breakfast_complete", defaultValue = "0")
+    private int breakfastComplete;
+
+    @ColumnInfo(name = "lunch_complete", defaultValue = "0")
+    private int lunchComplete;
+
+    @ColumnInfo(name = "dinner_complete", defaultValue = "0")
+    private int dinnerComplete;
+
+    @ColumnInfo(name = "breakfast_npo", defaultValue = "0")
+    private int breakfastNPO;
+
+    @ColumnInfo(name = "lunch_npo", defaultValue = "0")
+    private int lunchNPO;
+
+    @ColumnInfo(name = "dinner_npo", defaultValue = "0")
+    private int dinnerNPO;
+
+    // Patients with all three meals complete
+    @ColumnInfo(name = "all_complete", defaultValue = "0")
+    private int allComplete;
+
+    // Getters and Setters
+    @NonNull
+    public String getWing() {
+        return wing;
+    }
+
+    public void setWing(@NonNull String wing) {
+        this.wing = wing;
+    }
+
+    public int getPatients() {
+        return patients;
+    }
+
+    public void setPatients(int patients) {
+        this.patients = patients;
+    }
+
+    public int getDischarged() {
+        return discharged;
+    }
+
+    public void setDischarged(int discharged) {
+        this.discharged = discharged;
+    }
+
+    public int getAdaDiet() {
+        return adaDiet;
+    }
+
+    public void setAdaDiet(int adaDiet) {
+        this.adaDiet = adaDiet;
+    }
+
+    public int getBreakfastComplete() {
+        return breakfastComplete;
+    }
+
+    public void setBreakfastComplete(int breakfastComplete) {
+        this.breakfastComplete = breakfastComplete;
+    }
+
+    public int getLunchComplete() {
+        return lunchComplete;
+    }
+
+    public void setLunchComplete(int lunchComplete) {
+        this.lunchComplete = lunchComplete;
+    }
+
+    public int getDinnerComplete() {
+        return dinnerComplete;
+    }
+
+    public void setDinnerComplete(int dinnerComplete) {
+        this.dinnerComplete = dinnerComplete;
+    }
+
+    public int getBreakfastNPO() {
+        return breakfastNPO;
+    }
+
+    public void setBreakfastNPO(int breakfastNPO) {
+        this.breakfastNPO = breakfastNPO;
+    }
+
+    public int getLunchNPO() {
+        return lunchNPO;
+    }
+
+    public void setLunchNPO(int lunchNPO) {
+        this.lunchNPO = lunchNPO;
+    }
+
+    public int getDinnerNPO() {
+        return dinnerNPO;
+    }
+
+    public void setDinnerNPO(int dinnerNPO) {
+        this.dinnerNPO = dinnerNPO;
+    }
+
+    public int getAllComplete() {
+        return allComplete;
+    }
+
+    public void setAllComplete(int allComplete) {
+        this.allComplete = allComplete;
+    }
+
+    // Helper methods
+    public int getPending() {
+        return patients - allComplete;
+    }
+
+    public int getActive() {
+        return patients - discharged;
+    }
+
+    // Adds another wing's counts into this one
+    public void add(CensusCounterEntity other) {
+        patients += other.patients;
+        discharged += other.discharged;
+        adaDiet += other.adaDiet;
+        breakfastComplete += other.breakfastComplete;
+        lunchComplete += other.lunchComplete;
+        dinnerComplete += other.dinnerComplete;
+        breakfastNPO += other.breakfastNPO;
+        lunchNPO += other.lunchNPO;
+        dinnerNPO += other.dinnerNPO;
+        allComplete += other.allComplete;
+    }
+}
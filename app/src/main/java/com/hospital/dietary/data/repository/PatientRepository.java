@@ -2,8 +2,14 @@ package com.hospital.dietary.data.repository;
 
 import android.app.Application;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Transformations;
+import androidx.sqlite.db.SimpleSQLiteQuery;
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.dao.MealStatusQueue;
+import com.hospital.dietary.dao.PatientSearchIndex;
 import com.hospital.dietary.data.database.AppDatabase;
 import com.hospital.dietary.data.dao.PatientDao;
+import com.hospital.dietary.data.entities.CensusCounterEntity;
 import com.hospital.dietary.data.entities.PatientEntity;
 import com.hospital.dietary.models.Patient;
 import java.util.List;
@@ -17,10 +23,12 @@ import java.util.concurrent.atomic.AtomicReference;
 public class PatientRepository {
 
     private PatientDao patientDao;
+    private MealStatusQueue mealStatusQueue;
 
     public PatientRepository(Application application) {
         AppDatabase db = AppDatabase.getDatabase(application);
         patientDao = db.patientDao();
+        mealStatusQueue = DatabaseHelper.getInstance(application).getMealStatusQueue();
     }
 
     // LiveData operations for UI observation
@@ -44,8 +52,13 @@ public class PatientRepository {
         return patientDao.getPatientsByWingLive(wing);
     }
 
+    // Prefix match on every typed word, from the full-text index
     public LiveData<List<PatientEntity>> searchPatientsLive(String searchTerm) {
-        return patientDao.searchPatientsLive("%" + searchTerm + "%");
+        String match = PatientSearchIndex.matchQuery(searchTerm);
+        if (match == null) {
+            return patientDao.getAllPatientsLive();
+        }
+        return patientDao.searchPatientsLive(new SimpleSQLiteQuery(PatientDao.SEARCH_QUERY, new Object[]{match}));
     }
 
     // Async operations with callbacks
@@ -105,46 +118,24 @@ public class PatientRepository {
         });
     }
 
-    // Mark meal as complete or incomplete
+    // Mark meal as complete or incomplete; queued with other taps and written shortly after
     public void markMealComplete(long patientId, String mealType, boolean complete,
                                  RepositoryCallback<Boolean> callback) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                int rowsUpdated = 0;
-                switch (mealType.toLowerCase()) {
-                    case "breakfast":
-                        rowsUpdated = patientDao.updateBreakfastComplete(patientId, complete);
-                        break;
-                    case "lunch":
-                        rowsUpdated = patientDao.updateLunchComplete(patientId, complete);
-                        break;
-                    case "dinner":
-                        rowsUpdated = patientDao.updateDinnerComplete(patientId, complete);
-                        break;
-                    default:
-                        callback.onError("Invalid meal type: " + mealType);
-                        return;
-                }
-                callback.onSuccess(rowsUpdated > 0);
-            } catch (Exception e) {
-                callback.onError(e.getMessage());
-            }
-        });
+        if (mealStatusQueue.setMealComplete(patientId, mealType, complete)) {
+            callback.onSuccess(true);
+        } else {
+            callback.onError("Invalid meal type: " + mealType);
+        }
     }
 
-    // Update meal completion status
+    // Update meal completion status; queued like markMealComplete, so earlier taps can't overwrite it
     public void updateMealCompletion(long patientId, boolean breakfastComplete,
                                      boolean lunchComplete, boolean dinnerComplete,
                                      RepositoryCallback<Boolean> callback) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            try {
-                int result = patientDao.updateMealCompletion(patientId,
-                        breakfastComplete, lunchComplete, dinnerComplete);
-                callback.onSuccess(result > 0);
-            } catch (Exception e) {
-                callback.onError(e.getMessage());
-            }
-        });
+        mealStatusQueue.setMealComplete(patientId, "breakfast", breakfastComplete);
+        mealStatusQueue.setMealComplete(patientId, "lunch", lunchComplete);
+        mealStatusQueue.setMealComplete(patientId, "dinner", dinnerComplete);
+        callback.onSuccess(true);
     }
 
     // Update breakfast items
@@ -207,6 +198,22 @@ public class PatientRepository {
         return patientDao.getCompletedCountLive();
     }
 
+    // Every census count, one row per wing
+    public LiveData<List<CensusCounterEntity>> getCensusCountersLive() {
+        return patientDao.getCensusCountersLive();
+    }
+
+    // Every census count for the whole hospital, wing "" holding the sums
+    public LiveData<CensusCounterEntity> getCensusTotalsLive() {
+        return Transformations.map(patientDao.getCensusCountersLive(), wings -> {
+            CensusCounterEntity totals = new CensusCounterEntity();
+            for (CensusCounterEntity wing : wings) {
+                totals.add(wing);
+            }
+            return totals;
+        });
+    }
+
     // Callback interface
     public interface RepositoryCallback<T> {
         void onSuccess(T result);
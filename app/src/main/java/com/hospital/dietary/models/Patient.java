@@ -3,8 +3,33 @@ package com.hospital.dietary.models;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 public class Patient {
+
+    /**
+     * The stored patient_info columns, each named for its column, in the order PatientDAO writes them
+     */
+    public enum Field {
+        PATIENT_FIRST_NAME, PATIENT_LAST_NAME, WING, ROOM_NUMBER,
+        DIET_TYPE, DIET, ADA_DIET, FLUID_RESTRICTION, TEXTURE_MODIFICATIONS,
+        MECHANICAL_CHOPPED, MECHANICAL_GROUND, BITE_SIZE, BREAD_OK, EXTRA_GRAVY, MEATS_ONLY,
+        NECTAR_THICK, HONEY_THICK, PUDDING_THICK,
+        BREAKFAST_COMPLETE, LUNCH_COMPLETE, DINNER_COMPLETE, BREAKFAST_NPO, LUNCH_NPO, DINNER_NPO,
+        BREAKFAST_ITEMS, LUNCH_ITEMS, DINNER_ITEMS,
+        BREAKFAST_JUICES, LUNCH_JUICES, DINNER_JUICES,
+        BREAKFAST_DRINKS, LUNCH_DRINKS, DINNER_DRINKS,
+        ALLERGIES, LIKES, DISLIKES, COMMENTS,
+        BREAKFAST_MAIN, BREAKFAST_SIDE, BREAKFAST_DRINK,
+        LUNCH_MAIN, LUNCH_SIDE, LUNCH_DRINK,
+        DINNER_MAIN, DINNER_SIDE, DINNER_DRINK,
+        BREAKFAST_DIET, LUNCH_DIET, DINNER_DIET, BREAKFAST_ADA, LUNCH_ADA, DINNER_ADA,
+        DISCHARGED, CREATED_DATE
+    }
+
+    // Every Field bit set
+    public static final long ALL_FIELDS = (1L << Field.values().length) - 1;
+
     // Basic patient information
     private long patientId;
     private String patientFirstName;
@@ -89,6 +114,10 @@ public class Patient {
     // Discharge status
     private boolean discharged;
 
+    // Field bits set to a new value since the row was read or saved; until then every field counts
+    private long changedFields;
+    private boolean trackingChanges;
+
     // Constructor
     public Patient() {
         this.breakfastComplete = false;
@@ -125,6 +154,7 @@ public class Patient {
     }
 
     public void setPatientFirstName(String patientFirstName) {
+        trackChange(Field.PATIENT_FIRST_NAME, this.patientFirstName, patientFirstName);
         this.patientFirstName = patientFirstName;
     }
 
@@ -133,6 +163,7 @@ public class Patient {
     }
 
     public void setPatientLastName(String patientLastName) {
+        trackChange(Field.PATIENT_LAST_NAME, this.patientLastName, patientLastName);
         this.patientLastName = patientLastName;
     }
 
@@ -142,7 +173,7 @@ public class Patient {
     }
 
     public void setFirstName(String firstName) {
-        this.patientFirstName = firstName;
+        setPatientFirstName(firstName);
     }
 
     public String getLastName() {
@@ -150,7 +181,7 @@ public class Patient {
     }
 
     public void setLastName(String lastName) {
-        this.patientLastName = lastName;
+        setPatientLastName(lastName);
     }
 
     public String getWing() {
@@ -158,6 +189,7 @@ public class Patient {
     }
 
     public void setWing(String wing) {
+        trackChange(Field.WING, this.wing, wing);
         this.wing = wing;
     }
 
@@ -166,6 +198,7 @@ public class Patient {
     }
 
     public void setRoomNumber(String roomNumber) {
+        trackChange(Field.ROOM_NUMBER, this.roomNumber, roomNumber);
         this.roomNumber = roomNumber;
     }
 
@@ -175,6 +208,7 @@ public class Patient {
     }
 
     public void setDietType(String dietType) {
+        trackChange(Field.DIET_TYPE, this.dietType, dietType);
         this.dietType = dietType;
     }
 
@@ -183,6 +217,7 @@ public class Patient {
     }
 
     public void setDiet(String diet) {
+        trackChange(Field.DIET, this.diet, diet);
         this.diet = diet;
     }
 
@@ -191,6 +226,7 @@ public class Patient {
     }
 
     public void setAdaDiet(boolean adaDiet) {
+        trackChange(Field.ADA_DIET, this.adaDiet, adaDiet);
         this.adaDiet = adaDiet;
     }
 
@@ -199,6 +235,7 @@ public class Patient {
     }
 
     public void setFluidRestriction(String fluidRestriction) {
+        trackChange(Field.FLUID_RESTRICTION, this.fluidRestriction, fluidRestriction);
         this.fluidRestriction = fluidRestriction;
     }
 
@@ -207,6 +244,7 @@ public class Patient {
     }
 
     public void setTextureModifications(String textureModifications) {
+        trackChange(Field.TEXTURE_MODIFICATIONS, this.textureModifications, textureModifications);
         this.textureModifications = textureModifications;
     }
 
@@ -216,6 +254,7 @@ public class Patient {
     }
 
     public void setMechanicalGround(boolean mechanicalGround) {
+        trackChange(Field.MECHANICAL_GROUND, this.mechanicalGround, mechanicalGround);
         this.mechanicalGround = mechanicalGround;
     }
 
@@ -224,6 +263,7 @@ public class Patient {
     }
 
     public void setMechanicalChopped(boolean mechanicalChopped) {
+        trackChange(Field.MECHANICAL_CHOPPED, this.mechanicalChopped, mechanicalChopped);
         this.mechanicalChopped = mechanicalChopped;
     }
 
@@ -232,6 +272,7 @@ public class Patient {
     }
 
     public void setBiteSize(boolean biteSize) {
+        trackChange(Field.BITE_SIZE, this.biteSize, biteSize);
         this.biteSize = biteSize;
     }
 
@@ -240,6 +281,7 @@ public class Patient {
     }
 
     public void setBreadOK(boolean breadOK) {
+        trackChange(Field.BREAD_OK, this.breadOK, breadOK);
         this.breadOK = breadOK;
     }
 
@@ -248,6 +290,7 @@ public class Patient {
     }
 
     public void setExtraGravy(boolean extraGravy) {
+        trackChange(Field.EXTRA_GRAVY, this.extraGravy, extraGravy);
         this.extraGravy = extraGravy;
     }
 
@@ -256,6 +299,7 @@ public class Patient {
     }
 
     public void setMeatsOnly(boolean meatsOnly) {
+        trackChange(Field.MEATS_ONLY, this.meatsOnly, meatsOnly);
         this.meatsOnly = meatsOnly;
     }
 
@@ -265,6 +309,7 @@ public class Patient {
     }
 
     public void setNectarThick(boolean nectarThick) {
+        trackChange(Field.NECTAR_THICK, this.nectarThick, nectarThick);
         this.nectarThick = nectarThick;
     }
 
@@ -273,6 +318,7 @@ public class Patient {
     }
 
     public void setHoneyThick(boolean honeyThick) {
+        trackChange(Field.HONEY_THICK, this.honeyThick, honeyThick);
         this.honeyThick = honeyThick;
     }
 
@@ -281,6 +327,7 @@ public class Patient {
     }
 
     public void setPuddingThick(boolean puddingThick) {
+        trackChange(Field.PUDDING_THICK, this.puddingThick, puddingThick);
         this.puddingThick = puddingThick;
     }
 
@@ -290,6 +337,7 @@ public class Patient {
     }
 
     public void setBreakfastComplete(boolean breakfastComplete) {
+        trackChange(Field.BREAKFAST_COMPLETE, this.breakfastComplete, breakfastComplete);
         this.breakfastComplete = breakfastComplete;
     }
 
@@ -298,6 +346,7 @@ public class Patient {
     }
 
     public void setLunchComplete(boolean lunchComplete) {
+        trackChange(Field.LUNCH_COMPLETE, this.lunchComplete, lunchComplete);
         this.lunchComplete = lunchComplete;
     }
 
@@ -306,6 +355,7 @@ public class Patient {
     }
 
     public void setDinnerComplete(boolean dinnerComplete) {
+        trackChange(Field.DINNER_COMPLETE, this.dinnerComplete, dinnerComplete);
         this.dinnerComplete = dinnerComplete;
     }
 
@@ -314,6 +364,7 @@ public class Patient {
     }
 
     public void setBreakfastNPO(boolean breakfastNPO) {
+        trackChange(Field.BREAKFAST_NPO, this.breakfastNPO, breakfastNPO);
         this.breakfastNPO = breakfastNPO;
     }
 
@@ -322,6 +373,7 @@ public class Patient {
     }
 
     public void setLunchNPO(boolean lunchNPO) {
+        trackChange(Field.LUNCH_NPO, this.lunchNPO, lunchNPO);
         this.lunchNPO = lunchNPO;
     }
 
@@ -330,6 +382,7 @@ public class Patient {
     }
 
     public void setDinnerNPO(boolean dinnerNPO) {
+        trackChange(Field.DINNER_NPO, this.dinnerNPO, dinnerNPO);
         this.dinnerNPO = dinnerNPO;
     }
 
@@ -339,6 +392,7 @@ public class Patient {
     }
 
     public void setBreakfastItems(String breakfastItems) {
+        trackChange(Field.BREAKFAST_ITEMS, this.breakfastItems, breakfastItems);
         this.breakfastItems = breakfastItems;
     }
 
@@ -347,6 +401,7 @@ public class Patient {
     }
 
     public void setLunchItems(String lunchItems) {
+        trackChange(Field.LUNCH_ITEMS, this.lunchItems, lunchItems);
         this.lunchItems = lunchItems;
     }
 
@@ -355,6 +410,7 @@ public class Patient {
     }
 
     public void setDinnerItems(String dinnerItems) {
+        trackChange(Field.DINNER_ITEMS, this.dinnerItems, dinnerItems);
         this.dinnerItems = dinnerItems;
     }
 
@@ -364,6 +420,7 @@ public class Patient {
     }
 
     public void setBreakfastJuices(String breakfastJuices) {
+        trackChange(Field.BREAKFAST_JUICES, this.breakfastJuices, breakfastJuices);
         this.breakfastJuices = breakfastJuices;
     }
 
@@ -372,6 +429,7 @@ public class Patient {
     }
 
     public void setLunchJuices(String lunchJuices) {
+        trackChange(Field.LUNCH_JUICES, this.lunchJuices, lunchJuices);
         this.lunchJuices = lunchJuices;
     }
 
@@ -380,6 +438,7 @@ public class Patient {
     }
 
     public void setDinnerJuices(String dinnerJuices) {
+        trackChange(Field.DINNER_JUICES, this.dinnerJuices, dinnerJuices);
         this.dinnerJuices = dinnerJuices;
     }
 
@@ -389,6 +448,7 @@ public class Patient {
     }
 
     public void setBreakfastDrinks(String breakfastDrinks) {
+        trackChange(Field.BREAKFAST_DRINKS, this.breakfastDrinks, breakfastDrinks);
         this.breakfastDrinks = breakfastDrinks;
     }
 
@@ -397,6 +457,7 @@ public class Patient {
     }
 
     public void setLunchDrinks(String lunchDrinks) {
+        trackChange(Field.LUNCH_DRINKS, this.lunchDrinks, lunchDrinks);
         this.lunchDrinks = lunchDrinks;
     }
 
@@ -405,6 +466,7 @@ public class Patient {
     }
 
     public void setDinnerDrinks(String dinnerDrinks) {
+        trackChange(Field.DINNER_DRINKS, this.dinnerDrinks, dinnerDrinks);
         this.dinnerDrinks = dinnerDrinks;
     }
 
@@ -414,6 +476,7 @@ public class Patient {
     }
 
     public void setBreakfastMain(String breakfastMain) {
+        trackChange(Field.BREAKFAST_MAIN, this.breakfastMain, breakfastMain);
         this.breakfastMain = breakfastMain;
     }
 
@@ -422,6 +485,7 @@ public class Patient {
     }
 
     public void setBreakfastSide(String breakfastSide) {
+        trackChange(Field.BREAKFAST_SIDE, this.breakfastSide, breakfastSide);
         this.breakfastSide = breakfastSide;
     }
 
@@ -430,6 +494,7 @@ public class Patient {
     }
 
     public void setBreakfastDrink(String breakfastDrink) {
+        trackChange(Field.BREAKFAST_DRINK, this.breakfastDrink, breakfastDrink);
         this.breakfastDrink = breakfastDrink;
     }
 
@@ -438,6 +503,7 @@ public class Patient {
     }
 
     public void setLunchMain(String lunchMain) {
+        trackChange(Field.LUNCH_MAIN, this.lunchMain, lunchMain);
         this.lunchMain = lunchMain;
     }
 
@@ -446,6 +512,7 @@ public class Patient {
     }
 
     public void setLunchSide(String lunchSide) {
+        trackChange(Field.LUNCH_SIDE, this.lunchSide, lunchSide);
         this.lunchSide = lunchSide;
     }
 
@@ -454,6 +521,7 @@ public class Patient {
     }
 
     public void setLunchDrink(String lunchDrink) {
+        trackChange(Field.LUNCH_DRINK, this.lunchDrink, lunchDrink);
         this.lunchDrink = lunchDrink;
     }
 
@@ -462,6 +530,7 @@ public class Patient {
     }
 
     public void setDinnerMain(String dinnerMain) {
+        trackChange(Field.DINNER_MAIN, this.dinnerMain, dinnerMain);
         this.dinnerMain = dinnerMain;
     }
 
@@ -470,6 +539,7 @@ public class Patient {
     }
 
     public void setDinnerSide(String dinnerSide) {
+        trackChange(Field.DINNER_SIDE, this.dinnerSide, dinnerSide);
         this.dinnerSide = dinnerSide;
     }
 
@@ -478,6 +548,7 @@ public class Patient {
     }
 
     public void setDinnerDrink(String dinnerDrink) {
+        trackChange(Field.DINNER_DRINK, this.dinnerDrink, dinnerDrink);
         this.dinnerDrink = dinnerDrink;
     }
 
@@ -487,6 +558,7 @@ public class Patient {
     }
 
     public void setBreakfastDiet(String breakfastDiet) {
+        trackChange(Field.BREAKFAST_DIET, this.breakfastDiet, breakfastDiet);
         this.breakfastDiet = breakfastDiet;
     }
 
@@ -495,6 +567,7 @@ public class Patient {
     }
 
     public void setLunchDiet(String lunchDiet) {
+        trackChange(Field.LUNCH_DIET, this.lunchDiet, lunchDiet);
         this.lunchDiet = lunchDiet;
     }
 
@@ -503,6 +576,7 @@ public class Patient {
     }
 
     public void setDinnerDiet(String dinnerDiet) {
+        trackChange(Field.DINNER_DIET, this.dinnerDiet, dinnerDiet);
         this.dinnerDiet = dinnerDiet;
     }
 
@@ -511,6 +585,7 @@ public class Patient {
     }
 
     public void setBreakfastAda(boolean breakfastAda) {
+        trackChange(Field.BREAKFAST_ADA, this.breakfastAda, breakfastAda);
         this.breakfastAda = breakfastAda;
     }
 
@@ -519,6 +594,7 @@ public class Patient {
     }
 
     public void setLunchAda(boolean lunchAda) {
+        trackChange(Field.LUNCH_ADA, this.lunchAda, lunchAda);
         this.lunchAda = lunchAda;
     }
 
@@ -527,6 +603,7 @@ public class Patient {
     }
 
     public void setDinnerAda(boolean dinnerAda) {
+        trackChange(Field.DINNER_ADA, this.dinnerAda, dinnerAda);
         this.dinnerAda = dinnerAda;
     }
 
@@ -536,6 +613,7 @@ public class Patient {
     }
 
     public void setAllergies(String allergies) {
+        trackChange(Field.ALLERGIES, this.allergies, allergies);
         this.allergies = allergies;
     }
 
@@ -544,6 +622,7 @@ public class Patient {
     }
 
     public void setLikes(String likes) {
+        trackChange(Field.LIKES, this.likes, likes);
         this.likes = likes;
     }
 
@@ -552,6 +631,7 @@ public class Patient {
     }
 
     public void setDislikes(String dislikes) {
+        trackChange(Field.DISLIKES, this.dislikes, dislikes);
         this.dislikes = dislikes;
     }
 
@@ -560,6 +640,7 @@ public class Patient {
     }
 
     public void setComments(String comments) {
+        trackChange(Field.COMMENTS, this.comments, comments);
         this.comments = comments;
     }
 
@@ -593,6 +674,7 @@ public class Patient {
     }
 
     public void setCreatedAt(long createdAt) {
+        trackChange(Field.CREATED_DATE, this.createdAt, createdAt);
         this.createdAt = createdAt;
     }
 
@@ -601,9 +683,47 @@ public class Patient {
     }
 
     public void setDischarged(boolean discharged) {
+        trackChange(Field.DISCHARGED, this.discharged, discharged);
         this.discharged = discharged;
     }
 
+    // Change tracking
+    public long getChangedFields() {
+        return trackingChanges ? changedFields : ALL_FIELDS;
+    }
+
+    public boolean isChanged(Field field) {
+        return (getChangedFields() & (1L << field.ordinal())) != 0;
+    }
+
+    public boolean hasChanges() {
+        return getChangedFields() != 0;
+    }
+
+    // Called once this object matches its stored row
+    public void markSaved() {
+        trackingChanges = true;
+        changedFields = 0;
+    }
+
+    private void trackChange(Field field, Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changedFields |= 1L << field.ordinal();
+        }
+    }
+
+    private void trackChange(Field field, boolean oldValue, boolean newValue) {
+        if (oldValue != newValue) {
+            changedFields |= 1L << field.ordinal();
+        }
+    }
+
+    private void trackChange(Field field, long oldValue, long newValue) {
+        if (oldValue != newValue) {
+            changedFields |= 1L << field.ordinal();
+        }
+    }
+
     // Helper methods
     public String getFullName() {
         StringBuilder name = new StringBuilder();
@@ -0,0 +1,185 @@
+package com.hospital.dietary.models;
+
+import java.util.Date;
+
+/**
+ * PatientSummary model class - the few patient columns the list screens display
+ * Load the full Patient by ID when a detail screen opens
+ */
+public class PatientSummary {
+    private long patientId;
+    private String patientFirstName;
+    private String patientLastName;
+    private String wing;
+    private String roomNumber;
+    private long roomSort;
+    private String diet;
+    private boolean adaDiet;
+    private boolean breakfastComplete;
+    private boolean lunchComplete;
+    private boolean dinnerComplete;
+    private boolean breakfastNPO;
+    private boolean lunchNPO;
+    private boolean dinnerNPO;
+    private boolean discharged;
+    private Date createdDate;
+    private String searchKey = "";
+
+    // Getters and Setters
+    public long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(long patientId) {
+        this.patientId = patientId;
+    }
+
+    public String getPatientFirstName() {
+        return patientFirstName;
+    }
+
+    public void setPatientFirstName(String patientFirstName) {
+        this.patientFirstName = patientFirstName;
+    }
+
+    public String getPatientLastName() {
+        return patientLastName;
+    }
+
+    public void setPatientLastName(String patientLastName) {
+        this.patientLastName = patientLastName;
+    }
+
+    public String getWing() {
+        return wing;
+    }
+
+    public void setWing(String wing) {
+        this.wing = wing;
+    }
+
+    public String getRoomNumber() {
+        return roomNumber;
+    }
+
+    public void setRoomNumber(String roomNumber) {
+        this.roomNumber = roomNumber;
+    }
+
+    // Numeric room order within the wing, part of the census paging key
+    public long getRoomSort() {
+        return roomSort;
+    }
+
+    public void setRoomSort(long roomSort) {
+        this.roomSort = roomSort;
+    }
+
+    public String getDiet() {
+        return diet;
+    }
+
+    public void setDiet(String diet) {
+        this.diet = diet;
+    }
+
+    public boolean isAdaDiet() {
+        return adaDiet;
+    }
+
+    public void setAdaDiet(boolean adaDiet) {
+        this.adaDiet = adaDiet;
+    }
+
+    public boolean isBreakfastComplete() {
+        return breakfastComplete;
+    }
+
+    public void setBreakfastComplete(boolean breakfastComplete) {
+        this.breakfastComplete = breakfastComplete;
+    }
+
+    public boolean isLunchComplete() {
+        return lunchComplete;
+    }
+
+    public void setLunchComplete(boolean lunchComplete) {
+        this.lunchComplete = lunchComplete;
+    }
+
+    public boolean isDinnerComplete() {
+        return dinnerComplete;
+    }
+
+    public void setDinnerComplete(boolean dinnerComplete) {
+        this.dinnerComplete = dinnerComplete;
+    }
+
+    public boolean isBreakfastNPO() {
+        return breakfastNPO;
+    }
+
+    public void setBreakfastNPO(boolean breakfastNPO) {
+        this.breakfastNPO = breakfastNPO;
+    }
+
+    public boolean isLunchNPO() {
+        return lunchNPO;
+    }
+
+    public void setLunchNPO(boolean lunchNPO) {
+        this.lunchNPO = lunchNPO;
+    }
+
+    public boolean isDinnerNPO() {
+        return dinnerNPO;
+    }
+
+    public void setDinnerNPO(boolean dinnerNPO) {
+        this.dinnerNPO = dinnerNPO;
+    }
+
+    public boolean isDischarged() {
+        return discharged;
+    }
+
+    public void setDischarged(boolean discharged) {
+        this.discharged = discharged;
+    }
+
+    public Date getCreatedDate() {
+        return createdDate;
+    }
+
+    public void setCreatedDate(Date createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    // Folded name, location and diet tokens, see PatientSearchIndex.searchKey
+    public String getSearchKey() {
+        return searchKey;
+    }
+
+    public void setSearchKey(String searchKey) {
+        this.searchKey = searchKey;
+    }
+
+    // Helper methods
+    public String getFullName() {
+        StringBuilder name = new StringBuilder();
+        if (patientFirstName != null && !patientFirstName.isEmpty()) {
+            name.append(patientFirstName);
+        }
+        if (patientLastName != null && !patientLastName.isEmpty()) {
+            if (name.length() > 0) {
+                name.append(" ");
+            }
+            name.append(patientLastName);
+        }
+        return name.toString();
+    }
+
+    public String getLocationInfo() {
+        return wing + " - " + roomNumber;
+    }
+}
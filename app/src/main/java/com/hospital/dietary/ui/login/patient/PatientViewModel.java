@@ -46,7 +46,7 @@ public class PatientViewModel extends AndroidViewModel {
             if (query == null || query.trim().isEmpty()) {
                 return allPatients;
             } else {
-                return patientRepository.searchPatientsLive("%" + query.trim() + "%");
+                return patientRepository.searchPatientsLive(query.trim());
             }
         });
     }
@@ -0,0 +1,16 @@
+package com.hospital.dietary;
+
+import android.widget.Button;
+import androidx.appcompat.app.AppCompatActivity;
+
+/**
+ * Release builds ship without SyntheticDataGenerator, so the admin panel gets no test data button
+ */
+final class TestDataButton {
+
+    private TestDataButton() {}
+
+    static void addBefore(AppCompatActivity activity, Button sibling) {
+        // Nothing to add
+    }
+}
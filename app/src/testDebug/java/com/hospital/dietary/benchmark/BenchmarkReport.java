@@ -0,0 +1,100 @@
+package com.hospital.dietary.benchmark;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Collects benchmark timings and writes them as JSON, one result per line in run order,
+ * so reports from two releases diff line by line.
+ */
+final class BenchmarkReport {
+
+    // Bump when fields change meaning, so tooling comparing reports can tell
+    static final int FORMAT_VERSION = 1;
+
+    /**
+     * Timings for one benchmark at one census size
+     */
+    static final class Result {
+        final String benchmark;
+        final int census;
+        final long[] nanos;
+        final long allocatedBytesPerOp;
+
+        Result(String benchmark, int census, long[] nanos, long allocatedBytesPerOp) {
+            this.benchmark = benchmark;
+            this.census = census;
+            this.nanos = nanos.clone();
+            Arrays.sort(this.nanos);
+            this.allocatedBytesPerOp = allocatedBytesPerOp;
+        }
+
+        long percentile(int percent) {
+            int index = (int) Math.ceil(percent / 100.0 * nanos.length) - 1;
+            return nanos[Math.max(0, Math.min(nanos.length - 1, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-40s %6d patients  median %8.3f ms  p90 %8.3f ms  %,12d B/op",
+                    benchmark, census, percentile(50) / 1e6, percentile(90) / 1e6, allocatedBytesPerOp);
+        }
+    }
+
+    private final String appVersion;
+    private final List<Result> results = new ArrayList<>();
+
+    BenchmarkReport(String appVersion) {
+        this.appVersion = appVersion;
+    }
+
+    void add(Result result) {
+        results.add(result);
+    }
+
+    List<Result> getResults() {
+        return results;
+    }
+
+    void write(File file) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create " + parent);
+        }
+
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            out.write("{\n");
+            out.write("  \"format\": " + FORMAT_VERSION + ",\n");
+            out.write("  \"app_version\": " + quote(appVersion) + ",\n");
+            out.write("  \"jvm\": " + quote(System.getProperty("java.vm.name") + " " +
+                    System.getProperty("java.version")) + ",\n");
+            out.write("  \"results\": [\n");
+            for (int i = 0; i < results.size(); i++) {
+                Result result = results.get(i);
+                out.write(String.format(Locale.US,
+                        "    {\"benchmark\": %s, \"census\": %d, \"iterations\": %d, " +
+                        "\"min_ns\": %d, \"median_ns\": %d, \"p90_ns\": %d, \"max_ns\": %d, " +
+                        "\"allocated_bytes_per_op\": %d}%s\n",
+                        quote(result.benchmark), result.census, result.nanos.length,
+                        result.nanos[0], result.percentile(50), result.percentile(90),
+                        result.nanos[result.nanos.length - 1], result.allocatedBytesPerOp,
+                        i < results.size() - 1 ? "," : ""));
+            }
+            out.write("  ]\n");
+            out.write("}\n");
+        }
+    }
+
+    // Benchmark names and versions are plain ASCII; only quotes and backslashes need escaping
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,175 @@
+package com.hospital.dietary.benchmark;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import com.hospital.dietary.AutoOrderCreationService;
+import com.hospital.dietary.BuildConfig;
+import com.hospital.dietary.DatabaseHelper;
+import com.hospital.dietary.dao.DefaultMenuDAO;
+import com.hospital.dietary.dao.OrderDAO;
+import com.hospital.dietary.dao.PatientDAO;
+import com.hospital.dietary.dao.SyntheticDataGenerator;
+import com.hospital.dietary.models.DefaultMenuItem;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.SQLiteMode;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times the DAO hot paths on seeded censuses of 100, 1,000 and 10,000 patients, on the host JVM
+ * with Robolectric's native SQLite. Only runs with -Pbenchmark; see app/build.gradle.
+ * Allocation is Java heap on the calling thread; SQLite's own memory is not counted.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+@SQLiteMode(SQLiteMode.Mode.NATIVE)
+public class DaoBenchmarkTest {
+
+    private static final String DEFAULT_CENSUS_SIZES = "100,1000,10000";
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURED_ITERATIONS = 15;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void daoHotPaths() throws Exception {
+        BenchmarkReport report = new BenchmarkReport(BuildConfig.VERSION_NAME);
+
+        for (String size : System.getProperty("benchmark.census", DEFAULT_CENSUS_SIZES).split(",")) {
+            runCensus(Integer.parseInt(size.trim()), report);
+        }
+
+        for (BenchmarkReport.Result result : report.getResults()) {
+            System.out.println(result);
+        }
+
+        String reportPath = System.getProperty("benchmark.report");
+        if (reportPath != null) {
+            report.write(new File(reportPath));
+            System.out.println("Benchmark report: " + reportPath);
+        }
+    }
+
+    private void runCensus(int size, BenchmarkReport report) {
+        DatabaseHelper dbHelper = DatabaseHelper.createInMemory(RuntimeEnvironment.getApplication());
+        try {
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+            // Bigger hospitals have more wings; rooms round up, so odd sizes come out a little larger
+            int wings = size < 1000 ? 4 : size < 10000 ? 10 : 20;
+            SyntheticDataGenerator.Spec spec = new SyntheticDataGenerator.Spec()
+                    .setWings(wings)
+                    .setRoomsPerWing((size + wings - 1) / wings)
+                    .setHistoryDays(1);
+            int census = spec.getPatientCount();
+
+            // One day of history for the order board; the rollover setUp moves orders back to yesterday
+            Calendar calendar = Calendar.getInstance();
+            calendar.set(Calendar.HOUR_OF_DAY, 12);
+            calendar.set(Calendar.MINUTE, 0);
+            calendar.set(Calendar.SECOND, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+            long now = calendar.getTimeInMillis();
+            calendar.add(Calendar.DAY_OF_YEAR, -1);
+            long yesterday = calendar.getTimeInMillis();
+            String serviceDate = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(calendar.getTime());
+
+            new SyntheticDataGenerator(dbHelper).generate(spec, now);
+
+            PatientDAO patientDAO = dbHelper.getPatientDAO();
+            OrderDAO orderDAO = dbHelper.getOrderDAO();
+            DefaultMenuDAO defaultMenuDAO = dbHelper.getDefaultMenuDAO();
+
+            assertEquals(census, patientDAO.getAllPatients().size());
+
+            report.add(measure("PatientDAO.getAllPatients", census, null,
+                    patientDAO::getAllPatients));
+            report.add(measure("PatientDAO.getActivePatients", census, null,
+                    patientDAO::getActivePatients));
+            report.add(measure("PatientDAO.searchPatientsByName", census, null,
+                    () -> patientDAO.searchPatientsByName("mil")));
+            report.add(measure("OrderDAO.getPatientOrdersByDate", census, null,
+                    () -> orderDAO.getPatientOrdersByDate(serviceDate)));
+
+            List<DefaultMenuItem> menu = defaultMenu("Regular", "Lunch", "Monday");
+            report.add(measure("DefaultMenuDAO.saveDefaultMenuItems", census, null,
+                    () -> defaultMenuDAO.saveDefaultMenuItems("Regular", "Lunch", "Monday", menu)));
+
+            // Last, as it archives and clears the census; each run starts from yesterday's orders again.
+            // The first warmup also moves the discharged patients out, so measured runs all match
+            report.add(measure("AutoOrderCreationService.runDailyRollover", census,
+                    () -> db.execSQL("UPDATE patient_info SET order_date = ?, " +
+                                    "breakfast_complete = (patient_id % 4 <> 0), lunch_complete = (patient_id % 2)",
+                            new Object[]{yesterday}),
+                    () -> AutoOrderCreationService.runDailyRollover(dbHelper, now)));
+        } finally {
+            dbHelper.close();
+        }
+    }
+
+    private BenchmarkReport.Result measure(String name, int census, Runnable setUp, Runnable operation) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            if (setUp != null) setUp.run();
+            operation.run();
+        }
+
+        long[] nanos = new long[MEASURED_ITERATIONS];
+        long allocated = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            if (setUp != null) setUp.run();
+
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            operation.run();
+            nanos[i] = System.nanoTime() - start;
+            allocated += allocatedBytes() - allocatedBefore;
+        }
+
+        return new BenchmarkReport.Result(name, census, nanos,
+                allocatedBytes() < 0 ? -1 : allocated / MEASURED_ITERATIONS);
+    }
+
+    // -1 when the JVM cannot count per-thread allocation
+    private long allocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static List<DefaultMenuItem> defaultMenu(String dietType, String mealType, String dayOfWeek) {
+        List<DefaultMenuItem> items = new ArrayList<>();
+        String[][] menu = {
+                {"Lunch Entrees", "Grilled Chicken"}, {"Lunch Entrees", "Baked Fish"},
+                {"Vegetables", "Green Beans"}, {"Vegetables", "Carrots"},
+                {"Breads", "Dinner Roll"}, {"Desserts", "Pudding"},
+                {"Beverages", "Iced Tea"}, {"Beverages", "Coffee"}
+        };
+        for (String[] entry : menu) {
+            DefaultMenuItem item = new DefaultMenuItem();
+            item.setDietType(dietType);
+            item.setMealType(mealType);
+            item.setDayOfWeek(dayOfWeek);
+            item.setCategory(entry[0]);
+            item.setItemName(entry[1]);
+            item.setActive(true);
+            items.add(item);
+        }
+        return items;
+    }
+}